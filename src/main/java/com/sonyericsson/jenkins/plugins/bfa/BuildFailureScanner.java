@@ -28,6 +28,9 @@ package com.sonyericsson.jenkins.plugins.bfa;
 import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.incCounters;
 import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.UNKNOWNCAUSE;
 
+import com.sonyericsson.jenkins.plugins.bfa.db.KnowledgeBase;
+import com.sonyericsson.jenkins.plugins.bfa.db.MongoDBKnowledgeBase;
+import com.sonyericsson.jenkins.plugins.bfa.db.MongoDBScanQueue;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseBuildAction;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseDisplayData;
@@ -36,9 +39,19 @@ import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
 import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.model.ScannerJobProperty;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
-import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
-import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LiveScan;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LogFileScan;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LogSection;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LogSectionFinder;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LogWindow;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MultiPatternMatcher;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ReaderLineSource;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanMemoryBudget;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanPlan;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanScheduler;
+import com.sonyericsson.jenkins.plugins.bfa.scan.SharedLogStream;
 import com.sonyericsson.jenkins.plugins.bfa.statistics.StatisticsLogger;
+import com.sonyericsson.jenkins.plugins.bfa.utils.VirtualThreads;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.Util;
@@ -56,7 +69,10 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -66,10 +82,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -87,18 +106,51 @@ public class BuildFailureScanner extends RunListener<Run> {
     public static final int ORDINAL = 11003;
     private static final Logger logger = Logger.getLogger(BuildFailureScanner.class.getName());
     private static final String LOG_FILE_NAME = "log";
+    /**
+     * How long (in ms) to wait for a live scan to catch up with the end of the log.
+     */
+    private static final long LIVE_SCAN_TIMEOUT = 10000;
+    /**
+     * How long (in ms) a scan waits for other scans to give back memory when the scan memory budget is exhausted.
+     */
+    private static final long SCAN_MEMORY_TIMEOUT = 60000;
+    /**
+     * How often (in ms) to look if the scan workers are done with a log.
+     */
+    private static final long SCAN_WORKER_POLL_INTERVAL = 1000;
 
-    private static ThreadPoolExecutor threadPoolExecutor;
+    private static ScanScheduler scheduler;
+    private static ForkJoinPool segmentScanPool;
+    private static ExecutorService inflaterPool;
+    private static ScanMemoryBudget memoryBudget;
 
     /**
-     * Creates the shared thread pool after extensions have been made available.
+     * Creates the shared thread pools after extensions have been made available.
      */
     @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
     @SuppressWarnings("unused")
     public static void initThreadPool() {
-        threadPoolExecutor = (ThreadPoolExecutor)Executors.newFixedThreadPool(
-                PluginImpl.getInstance().getNrOfScanThreads()
-        );
+        if (VirtualThreads.isEnabled()) {
+            scheduler = new ScanScheduler(PluginImpl.getInstance().getNrOfScanThreads(), ScanScheduler.QUEUE_CAPACITY,
+                    VirtualThreads.newThreadFactory("BFA-scanner-"));
+            inflaterPool = VirtualThreads.newThreadPerTaskExecutor("BFA-inflater-");
+        } else {
+            scheduler = new ScanScheduler(PluginImpl.getInstance().getNrOfScanThreads());
+            inflaterPool = Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "BFA-inflater-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        MetricsManager.addScanSchedulerGauges(scheduler);
+        segmentScanPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        memoryBudget = new ScanMemoryBudget(PluginImpl.getInstance().getScanMemoryBudgetBytes());
+        MetricsManager.addScanMemoryGauges(memoryBudget);
     }
 
     @Override
@@ -118,7 +170,11 @@ public class BuildFailureScanner extends RunListener<Run> {
     @Override
     public void onCompleted(Run run, @NonNull TaskListener listener) {
         logger.entering(getClass().getName(), "onCompleted");
-        doScan(run);
+        try {
+            doScan(run);
+        } finally {
+            LiveScan.stop(run);
+        }
     }
 
     private void doScan(Run build) {
@@ -128,7 +184,19 @@ public class BuildFailureScanner extends RunListener<Run> {
                 PrintStream scanLog = new PrintStream(fos, true, "UTF8")
         ) {
             if (PluginImpl.isSizeInLimit(build)) {
-                scanIfNotScanned(build, scanLog);
+                scanIfNotScanned(build, scanLog, ScanScheduler.Priority.COMPLETED, null);
+                return;
+            }
+            // Found once, for the scan too.
+            List<LogSection> windows = findLogWindows(build);
+            if (windows == null) {
+                // The head and the tail cover the whole log.
+                scanIfNotScanned(build, scanLog, ScanScheduler.Priority.COMPLETED,
+                        Collections.<LogSection>emptyList());
+            } else if (!windows.isEmpty()) {
+                logToScanLog(scanLog, "Log exceeds limit: " + PluginImpl.getInstance().getMaxLogSize()
+                        + "MB, scanning a part of it");
+                scanIfNotScanned(build, scanLog, ScanScheduler.Priority.COMPLETED, windows);
             } else {
                 logToScanLog(scanLog, "Log exceeds limit: " + PluginImpl.getInstance().getMaxLogSize() + "MB");
             }
@@ -145,6 +213,34 @@ public class BuildFailureScanner extends RunListener<Run> {
      * @param scanLog log to write information to
      */
     public static void scanIfNotScanned(final Run build, final PrintStream scanLog) {
+        scanIfNotScanned(build, scanLog, ScanScheduler.Priority.COMPLETED);
+    }
+
+    /**
+     * Scans the build if it should be scanned and it has not already been scanned. If configured, also reports
+     * successful builds to the {@link StatisticsLogger}.
+     *
+     * @param build the build to scan
+     * @param scanLog log to write information to
+     * @param priority the priority of the scan among the other scans.
+     */
+    public static void scanIfNotScanned(final Run build, final PrintStream scanLog,
+                                        final ScanScheduler.Priority priority) {
+        scanIfNotScanned(build, scanLog, priority, null);
+    }
+
+    /**
+     * Scans the build if it should be scanned and it has not already been scanned, like
+     * {@link #scanIfNotScanned(Run, PrintStream, ScanScheduler.Priority)}.
+     *
+     * @param build the build to scan
+     * @param scanLog log to write information to
+     * @param priority the priority of the scan among the other scans.
+     * @param windows the head and the tail of the log to scan instead of the whole log, see {@link LogWindow}, empty
+     *                to scan the whole log, or null to find them if the log exceeds the max size.
+     */
+    private static void scanIfNotScanned(final Run build, final PrintStream scanLog,
+                                         final ScanScheduler.Priority priority, final List<LogSection> windows) {
         if (PluginImpl.shouldScan(build)
             && !(build.getParent() instanceof MatrixProject)) {
 
@@ -152,7 +248,7 @@ public class BuildFailureScanner extends RunListener<Run> {
                 && build.getActions(FailureCauseMatrixBuildAction.class).isEmpty()) {
 
                 if (PluginImpl.needToAnalyze(build.getResult())) {
-                    scan(build, scanLog);
+                    scan(build, scanLog, priority, windows);
 
                 } else if (PluginImpl.getInstance().getKnowledgeBase().isSuccessfulLogging()) {
                     final List<FoundFailureCause> emptyCauseList
@@ -171,11 +267,38 @@ public class BuildFailureScanner extends RunListener<Run> {
      * @param scanLog log to write information to.
      */
     public static void scan(Run build, PrintStream scanLog) {
+        scan(build, scanLog, ScanScheduler.Priority.COMPLETED);
+    }
+
+    /**
+     * Performs a scan of the build, adds the {@link FailureCauseBuildAction} and reports to the
+     * {@link StatisticsLogger}.
+     *
+     * @param build    the build to scan
+     * @param scanLog log to write information to.
+     * @param priority the priority of the scan among the other scans.
+     */
+    public static void scan(Run build, PrintStream scanLog, ScanScheduler.Priority priority) {
+        scan(build, scanLog, priority, null);
+    }
+
+    /**
+     * Performs a scan of the build, like {@link #scan(Run, PrintStream, ScanScheduler.Priority)}.
+     *
+     * @param build    the build to scan
+     * @param scanLog log to write information to.
+     * @param priority the priority of the scan among the other scans.
+     * @param windows the head and the tail of the log to scan instead of the whole log, see {@link LogWindow}, empty
+     *                to scan the whole log, or null to find them if the log exceeds the max size.
+     */
+    private static void scan(Run build, PrintStream scanLog, ScanScheduler.Priority priority,
+                             List<LogSection> windows) {
         ScanLogAction scanLogAction = new ScanLogAction();
         build.addOrReplaceAction(scanLogAction);
         try {
             Collection<FailureCause> causes = PluginImpl.getInstance().getKnowledgeBase().getCauses();
-            List<FoundFailureCause> foundCauseListToLog = findCauses(causes, build, scanLog);
+            List<FoundFailureCause> foundCauseListToLog = findCauses(causes, true, build, scanLog, priority,
+                    windows);
             List<FoundFailureCause> foundCauseList;
 
             /* Register failed test cases as foundCauses.
@@ -193,31 +316,7 @@ public class BuildFailureScanner extends RunListener<Run> {
             }
 
 
-            List<String> fallbackCategories = PluginImpl.getInstance().getFallbackCategories();
-
-            if (!fallbackCategories.isEmpty()) {
-                // move all generic cause from the list to a second list
-                List<FoundFailureCause> foundFallbackCauses = new ArrayList<>();
-
-                for (Iterator<FoundFailureCause> iterator = foundCauseList.iterator(); iterator.hasNext();) {
-                    FoundFailureCause cause = iterator.next();
-                    if (!Collections.disjoint(cause.getCategories(), fallbackCategories)) {
-                        iterator.remove();
-                        foundFallbackCauses.add(cause);
-                    }
-                }
-
-                if (!foundFallbackCauses.isEmpty()) {
-                    // we have at least one generic cause
-                    if (!foundCauseList.isEmpty()) {
-                        logToScanLog(scanLog, "Removing generic causes");
-                    } else {
-                        // we have ONLY generic causes
-                        foundCauseList = foundFallbackCauses;
-                    }
-                }
-            }
-
+            foundCauseList = applyFallbackCategories(foundCauseList, scanLog);
 
            if (!foundCauseList.isEmpty()) {
                incCounters(foundCauseList, PluginImpl.getInstance().isMetricSquashingEnabled());
@@ -230,6 +329,7 @@ public class BuildFailureScanner extends RunListener<Run> {
 
             FailureCauseBuildAction buildAction = new FailureCauseBuildAction(foundCauseList);
             buildAction.setBuild(build);
+            buildAction.setScannedCauses(causes);
             build.addAction(buildAction);
             final FailureCauseDisplayData data = buildAction.getFailureCauseDisplayData();
             List<FailureCauseDisplayData> downstreamFailureCauses = data.getDownstreamFailureCauses();
@@ -270,6 +370,142 @@ public class BuildFailureScanner extends RunListener<Run> {
         }
     }
 
+    /**
+     * Removes the causes in the fallback categories from the found causes, unless they are the only causes found.
+     *
+     * @param foundCauseList the found causes, changed in place when there are other causes.
+     * @param scanLog log to write information to.
+     * @return the causes to report.
+     */
+    private static List<FoundFailureCause> applyFallbackCategories(List<FoundFailureCause> foundCauseList,
+                                                                   PrintStream scanLog) {
+        List<String> fallbackCategories = PluginImpl.getInstance().getFallbackCategories();
+
+        if (!fallbackCategories.isEmpty()) {
+            // move all generic cause from the list to a second list
+            List<FoundFailureCause> foundFallbackCauses = new ArrayList<>();
+
+            for (Iterator<FoundFailureCause> iterator = foundCauseList.iterator(); iterator.hasNext();) {
+                FoundFailureCause cause = iterator.next();
+                if (!Collections.disjoint(cause.getCategories(), fallbackCategories)) {
+                    iterator.remove();
+                    foundFallbackCauses.add(cause);
+                }
+            }
+
+            if (!foundFallbackCauses.isEmpty()) {
+                // we have at least one generic cause
+                if (!foundCauseList.isEmpty()) {
+                    logToScanLog(scanLog, "Removing generic causes");
+                } else {
+                    // we have ONLY generic causes
+                    foundCauseList = foundFallbackCauses;
+                }
+            }
+        }
+        return foundCauseList;
+    }
+
+    /**
+     * Scans an already scanned build again, but only for the causes that have been added to the knowledge base or
+     * changed since, and merges what is found into the {@link FailureCauseBuildAction} of the build. Builds that have
+     * not been scanned are scanned for all causes. The build is not saved.
+     *
+     * @param build the build to scan.
+     * @param scanLog log to write information to.
+     * @return true if the build was scanned and needs to be saved.
+     */
+    public static boolean rescanChanged(Run build, PrintStream scanLog) {
+        return rescanChanged(build, scanLog, ScanScheduler.Priority.ON_DEMAND);
+    }
+
+    /**
+     * Scans an already scanned build again, but only for the causes that have been added to the knowledge base or
+     * changed since, see {@link #rescanChanged(Run, PrintStream)}.
+     *
+     * @param build the build to scan.
+     * @param scanLog log to write information to.
+     * @param priority the priority of the scan among the other scans.
+     * @return true if the build was scanned and needs to be saved.
+     */
+    public static boolean rescanChanged(Run build, PrintStream scanLog, ScanScheduler.Priority priority) {
+        FailureCauseBuildAction buildAction = build.getAction(FailureCauseBuildAction.class);
+        if (buildAction == null) {
+            scanIfNotScanned(build, scanLog, priority);
+            return true;
+        }
+        ScanLogAction scanLogAction = new ScanLogAction();
+        build.addOrReplaceAction(scanLogAction);
+        try {
+            KnowledgeBase knowledgeBase = PluginImpl.getInstance().getKnowledgeBase();
+            List<FailureCause> causes = new ArrayList<FailureCause>(knowledgeBase.getCauses());
+            List<FailureCause> changedCauses = buildAction.getChangedCauses(causes);
+            if (changedCauses.isEmpty()) {
+                logToScanLog(scanLog, "No new or changed causes to scan for");
+                return false;
+            }
+            logToScanLog(scanLog, "Scanning for " + changedCauses.size() + " new or changed cause(s)");
+            List<FoundFailureCause> found = findCauses(changedCauses, false, build, scanLog, priority, null);
+            List<FoundFailureCause> before = buildAction.getFoundFailureCauses();
+            List<FoundFailureCause> merged = applyFallbackCategories(
+                    buildAction.mergeFoundFailureCauses(causes, changedCauses, found), scanLog);
+            buildAction.setFoundFailureCauses(merged, changedCauses);
+            if (sameCauses(before, merged)) {
+                return true;
+            }
+            List<FoundFailureCause> mergedToLog = new ArrayList<FoundFailureCause>();
+            for (FoundFailureCause foundCause : merged) {
+                // Failed tests are not logged, like in a full scan.
+                if (foundCause.getId() != null) {
+                    mergedToLog.add(foundCause);
+                }
+            }
+            knowledgeBase.removeBuildfailurecause(build);
+            StatisticsLogger.getInstance().log(build, mergedToLog);
+            return true;
+        } catch (Exception e) {
+            scanLogAction.setExceptionMessage(e.toString());
+            logger.log(Level.SEVERE, "Could not rescan build " + build, e);
+            return false;
+        } finally {
+            scanLogAction.finished();
+        }
+    }
+
+    /**
+     * Whether a rescan found the same causes as before, by cause id and indication patterns, in order.
+     * {@link FoundFailureCause} has no equals of its own, so the rescanned causes are never equal to the old ones.
+     *
+     * @param before the causes found before the rescan, may be null.
+     * @param after the causes found after the rescan.
+     * @return true if the causes and their indications are the same.
+     */
+    private static boolean sameCauses(List<FoundFailureCause> before, List<FoundFailureCause> after) {
+        if (before == null || before.size() != after.size()) {
+            return false;
+        }
+        for (int i = 0; i < after.size(); i++) {
+            FoundFailureCause beforeCause = before.get(i);
+            FoundFailureCause afterCause = after.get(i);
+            if (!Util.fixNull(beforeCause.getId()).equals(Util.fixNull(afterCause.getId()))) {
+                return false;
+            }
+            List<FoundIndication> beforeIndications = beforeCause.getIndications();
+            List<FoundIndication> afterIndications = afterCause.getIndications();
+            if (beforeIndications.size() != afterIndications.size()) {
+                return false;
+            }
+            Iterator<FoundIndication> beforeIterator = beforeIndications.iterator();
+            for (FoundIndication afterIndication : afterIndications) {
+                if (!Util.fixNull(beforeIterator.next().getPattern()).equals(
+                        Util.fixNull(afterIndication.getPattern()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * Function to create the message for Slack using build and BFA information.
      * @param foundCauseList - Build failure causes found in the build
@@ -390,18 +626,30 @@ public class BuildFailureScanner extends RunListener<Run> {
      * Finds the failure causes for this build.
      *
      * @param causes   the list of possible causes.
+     * @param knowledgeBase true if the causes are all the causes of the knowledge base, false if they are some.
      * @param build    the build to analyze.
      * @param scanLog the build log.
+     * @param priority the priority of the scan among the other scans.
+     * @param windows the head and the tail of the log to scan instead of the whole log, see {@link LogWindow}, empty
+     *                to scan the whole log, or null to find them if the log exceeds the max size.
      * @return a list of found failure causes.
      */
     private static List<FoundFailureCause> findCauses(final Collection<FailureCause> causes,
-                                                      final Run build, final PrintStream scanLog) {
-        threadPoolExecutor.setCorePoolSize(PluginImpl.getInstance().getNrOfScanThreads());
-        threadPoolExecutor.setMaximumPoolSize(PluginImpl.getInstance().getNrOfScanThreads());
+                                                      final boolean knowledgeBase,
+                                                      final Run build, final PrintStream scanLog,
+                                                      final ScanScheduler.Priority priority,
+                                                      final List<LogSection> windows) {
+        scheduler.setMaximumWorkers(PluginImpl.getInstance().getNrOfScanThreads());
 
         logToScanLog(scanLog, "Scanning build for known causes...");
         long start = System.currentTimeMillis();
-        final List<FoundFailureCause> foundFailureCauseList = findIndications(causes, build, scanLog);
+        List<FoundFailureCause> foundFailureCauseList = null;
+        if (PluginImpl.getInstance().isDistributedScanningEnabled()) {
+            foundFailureCauseList = findIndicationsOnWorkers(causes, build, scanLog);
+        }
+        if (foundFailureCauseList == null) {
+            foundFailureCauseList = findIndications(causes, knowledgeBase, build, scanLog, priority, windows);
+        }
 
         long time = System.currentTimeMillis() - start;
         if (logger.isLoggable(Level.FINER)) {
@@ -428,68 +676,593 @@ public class BuildFailureScanner extends RunListener<Run> {
         return foundFailureCauseList;
     }
 
+    /**
+     * Finds indications for all causes on the scan workers, see
+     * {@link com.sonyericsson.jenkins.plugins.bfa.db.MongoDBScanWorker}: the scan is queued in the MongoDB knowledge
+     * base with the scan settings, and what the workers found is read back when they are done. A log that was
+     * scanned while the build was running, that is not a file, or that the workers did not scan in time, is scanned
+     * here instead.
+     *
+     * @param causes the list of possible causes.
+     * @param build the build to analyze.
+     * @param scanLog the build log.
+     * @return a list of found failure causes, or null if the log should be scanned here.
+     */
+    private static List<FoundFailureCause> findIndicationsOnWorkers(Collection<FailureCause> causes, Run build,
+                                                                    PrintStream scanLog) {
+        PluginImpl plugin = PluginImpl.getInstance();
+        KnowledgeBase knowledgeBase = plugin.getKnowledgeBase();
+        if (!(knowledgeBase instanceof MongoDBKnowledgeBase)) {
+            logToScanLog(scanLog, "Scan workers need a MongoDB knowledge base, scanning here");
+            return null;
+        }
+        File logFile = build.getLogFile();
+        if (LiveScan.get(build) != null || logFile == null || !logFile.isFile()) {
+            return null;
+        }
+        MongoDBScanQueue.Job job = new MongoDBScanQueue.Job(build.getParent().getFullName(), build.getNumber(),
+                logFile.getAbsolutePath(), build.getCharset().name());
+        job.setLinearMatching(plugin.isLinearMatchingEnabled());
+        job.setMaxLineLength(plugin.getMaxLineLength());
+        job.setMultiline(plugin.getMultilineWindowSize(), plugin.getMultilineMaxMatchSpan());
+        job.setPlan(plugin.getFallbackCategories(), getMaxFoundCauses(build));
+        MongoDBScanQueue queue = ((MongoDBKnowledgeBase)knowledgeBase).getScanQueue();
+        try {
+            String id = queue.enqueue(job);
+            logToScanLog(scanLog, "Queued for the scan workers");
+            List<FoundFailureCause> found = queue.await(id, causes, build,
+                    TimeUnit.MINUTES.toMillis(plugin.getDistributedScanTimeout()), SCAN_WORKER_POLL_INTERVAL);
+            if (found == null) {
+                logToScanLog(scanLog, "No scan worker was done in time, scanning here");
+            }
+            return found;
+        } catch (IOException e) {
+            logToScanLog(scanLog, "The scan workers could not scan the log, scanning here: " + e);
+        } catch (InterruptedException e) {
+            logToScanLog(scanLog, "was interrupted while waiting for the scan workers: " + e);
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // E.g. the database could not be reached.
+            logger.log(Level.WARNING, "Could not queue the scan of " + build + " for the scan workers", e);
+            logToScanLog(scanLog, "Could not queue for the scan workers, scanning here: " + e);
+        }
+        return null;
+    }
+
     private static void logToScanLog(PrintStream scanLog, String logLine) {
         scanLog.printf("%tF %<tR %s%n", new Date(), logLine);
     }
 
     /**
      *
-     * Finds indications for all causes.
+     * Finds indications for all causes. The log is read once for the single-line indications of all causes and
+     * once for the multi-line indications of all causes, whatever the number of indications. The scans are queued
+     * in the {@link ScanScheduler} with the given priority and their estimated cost. A compressed log is inflated
+     * once, by a thread of its own, for both scans, see {@link SharedLogStream}. With pipeline scanning, the
+     * sections of the log found by a {@link LogSectionFinder} are scanned instead, see
+     * {@link #findIndicationsInSections}. A log exceeding the max size is scanned in the same way in its head and
+     * tail, see {@link LogWindow}, and the scan is marked as partial.
+     * The memory of the scan is reserved in the {@link ScanMemoryBudget} shared by all scans. When the budget is
+     * exhausted, the scan waits for its smaller, degraded form to fit: the single-line indications only, streamed
+     * through the whole log, or through its head and tail if they are set.
+     * Package private for the benchmarks.
+     *
+     * @param causes the list of possible causes, all the causes of the knowledge base.
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @param priority the priority of the scans among the other scans.
+     * @return a list of found indications, could be empty.
+     */
+    static List<FoundFailureCause> findIndications(final Collection<FailureCause> causes,
+                                                   final Run build,
+                                                   final PrintStream scanLog,
+                                                   final ScanScheduler.Priority priority) {
+        return findIndications(causes, true, build, scanLog, priority, null);
+    }
+
+    /**
+     * Finds indications for some or all causes, like {@link #findIndications(Collection, Run, PrintStream,
+     * ScanScheduler.Priority)}. The indications of all the causes of the knowledge base are compiled into the
+     * matcher shared by the scans, see {@link MultiPatternMatcher#forCauses(List, boolean)}; those of some causes,
+     * e.g. when rescanning for the changed causes, into a matcher of their own, so that the shared one is kept.
      *
      * @param causes the list of possible causes.
+     * @param knowledgeBase true if the causes are all the causes of the knowledge base, false if they are some.
      * @param build current build.
      * @param scanLog build log for providing feedback.
+     * @param priority the priority of the scans among the other scans.
+     * @param windows the head and the tail of the log to scan instead of the whole log, see {@link LogWindow}, empty
+     *                to scan the whole log, or null to find them if the log exceeds the max size.
      * @return a list of found indications, could be empty.
      */
     private static List<FoundFailureCause> findIndications(final Collection<FailureCause> causes,
+                                                           final boolean knowledgeBase,
                                                            final Run build,
-                                                           final PrintStream scanLog) {
-        final List<FailureCause> singleLineCauses = new ArrayList<FailureCause>();
-        final List<FailureCause> notOnlySingleLineCauses = new ArrayList<FailureCause>();
+                                                           final PrintStream scanLog,
+                                                           final ScanScheduler.Priority priority,
+                                                           final List<LogSection> windows) {
+        List<FailureCause> allCauses = new ArrayList<FailureCause>(causes);
+        List<FailureCause> multiLineCauses = LogFileScan.getMultiLineCauses(allCauses);
+        boolean linearMatching = PluginImpl.getInstance().isLinearMatchingEnabled();
+        MultiPatternMatcher matcher;
+        if (knowledgeBase) {
+            matcher = MultiPatternMatcher.forCauses(allCauses, linearMatching);
+        } else {
+            matcher = MultiPatternMatcher.compile(allCauses, linearMatching);
+        }
 
-        splitCauses(causes, singleLineCauses, notOnlySingleLineCauses);
+        ScanMemoryBudget.Reservation reservation = null;
+        boolean degraded = false;
+        if (memoryBudget != null) {
+            memoryBudget.setBudget(PluginImpl.getInstance().getScanMemoryBudgetBytes());
+            reservation = memoryBudget.tryReserve(estimateScanMemory(build, matcher, multiLineCauses, false));
+            if (reservation == null) {
+                degraded = true;
+                multiLineCauses = Collections.emptyList();
+                reservation = reserveDegradedScan(build, scanLog, matcher);
+            }
+        }
+        try {
+            return findIndications(allCauses, multiLineCauses, matcher, build, scanLog, priority, degraded,
+                    reservation, windows);
+        } finally {
+            if (reservation != null) {
+                reservation.close();
+            }
+        }
+    }
 
-        final List<Future<?>> scanningTasks = new ArrayList<Future<?>>(notOnlySingleLineCauses.size() + 1);
-        final List<FoundFailureCause> foundFailureCauses = Collections.synchronizedList(
-                new ArrayList<FoundFailureCause>());
+    /**
+     *
+     * Estimates the memory of a scan, see {@link ScanMemoryBudget}.
+     *
+     * @param build current build.
+     * @param matcher the compiled single line indications of the causes.
+     * @param multiLineCauses the causes with multi-line indications.
+     * @param degraded true if the log is scanned without parallel segments.
+     * @return the estimated bytes.
+     */
+    private static long estimateScanMemory(Run build, MultiPatternMatcher matcher, List<FailureCause> multiLineCauses,
+                                           boolean degraded) {
+        PluginImpl plugin = PluginImpl.getInstance();
+        File logFile = build.getLogFile();
+        long logBytes = logFile.length();
+        long bytes = 0;
+        if (matcher.getIndicationCount() > 0) {
+            int sources = 1;
+            long threshold = plugin.getParallelScanThresholdBytes();
+            if (!degraded && plugin.isByteLevelScanningEnabled() && threshold > 0 && logBytes >= threshold
+                    && segmentScanPool != null) {
+                sources = segmentScanPool.getParallelism();
+            }
+            bytes += ScanMemoryBudget.estimateSingleLineScan(logBytes, sources, plugin.getMaxLineLength());
+        }
+        if (!multiLineCauses.isEmpty()) {
+            bytes += ScanMemoryBudget.estimateMultiLineScan(plugin.getMultilineWindowSize(),
+                    plugin.getMultilineMaxMatchSpan());
+        }
+        if (logFile.getName().endsWith(".gz")) {
+            bytes += ScanMemoryBudget.estimateSharedLog();
+        }
+        return bytes;
+    }
 
-        if (!singleLineCauses.isEmpty()) {
-            scanningTasks.add(threadPoolExecutor.submit(new Runnable() {
-                @Override
-                public void run() {
-                    foundFailureCauses.addAll(parseSingleLineCauses(build, scanLog, singleLineCauses));
-                    Thread.currentThread().setName("BFA-scanner-" + build.getFullDisplayName());
+    /**
+     *
+     * Reserves the memory of the degraded form of a scan that did not fit in the budget, waiting at most
+     * {@link #SCAN_MEMORY_TIMEOUT} for it to fit, and records that the scan was degraded.
+     *
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @param matcher the compiled single line indications of the causes.
+     * @return the reservation, or null if interrupted while waiting.
+     */
+    private static ScanMemoryBudget.Reservation reserveDegradedScan(Run build, PrintStream scanLog,
+                                                                    MultiPatternMatcher matcher) {
+        logToScanLog(scanLog, "The scan memory budget is exhausted, scanning for the single-line indications only");
+        MetricsManager.incScanMemoryDegraded();
+        ScanLogAction logAction = build.getAction(ScanLogAction.class);
+        if (logAction != null) {
+            logAction.setDegraded(true);
+        }
+        long bytes = estimateScanMemory(build, matcher, Collections.<FailureCause>emptyList(), true);
+        try {
+            return memoryBudget.reserve(bytes, SCAN_MEMORY_TIMEOUT);
+        } catch (InterruptedException e) {
+            logToScanLog(scanLog, "was interrupted while waiting for the scan memory budget: " + e);
+            // Seen when the scans are queued.
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     *
+     * Adds the estimated memory of found causes to the reservation of a scan.
+     *
+     * @param reservation the reservation, or null.
+     * @param found the found causes.
+     * @return the found causes.
+     */
+    private static List<FoundFailureCause> reserveFound(ScanMemoryBudget.Reservation reservation,
+                                                        List<FoundFailureCause> found) {
+        if (reservation != null) {
+            reservation.add(ScanMemoryBudget.estimateFound(found));
+        }
+        return found;
+    }
+
+    /**
+     *
+     * Finds indications for all causes, once the memory of the scan is reserved.
+     *
+     * @param allCauses the list of possible causes.
+     * @param multiLineCauses the causes with multi-line indications, empty for a degraded scan.
+     * @param matcher the compiled single line indications of the causes.
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @param priority the priority of the scans among the other scans.
+     * @param degraded true if the scan memory budget was exhausted.
+     * @param reservation the reserved memory of the scan, or null.
+     * @param windows the head and the tail of the log to scan instead of the whole log, see {@link LogWindow}, empty
+     *                to scan the whole log, or null to find them if the log exceeds the max size.
+     * @return a list of found indications, could be empty.
+     */
+    private static List<FoundFailureCause> findIndications(final List<FailureCause> allCauses,
+                                                           final List<FailureCause> multiLineCauses,
+                                                           final MultiPatternMatcher matcher,
+                                                           final Run build,
+                                                           final PrintStream scanLog,
+                                                           final ScanScheduler.Priority priority,
+                                                           boolean degraded,
+                                                           final ScanMemoryBudget.Reservation reservation,
+                                                           List<LogSection> windows) {
+        if (!PluginImpl.isSizeInLimit(build) || degraded) {
+            if (windows == null) {
+                windows = findLogWindows(build);
+            }
+            if (windows != null && !windows.isEmpty()) {
+                ScanLogAction logAction = build.getAction(ScanLogAction.class);
+                if (logAction != null && !PluginImpl.isSizeInLimit(build)) {
+                    logAction.setPartial(true);
                 }
-            }));
+                return findIndicationsInSections(allCauses, multiLineCauses, matcher, windows, build, scanLog,
+                        priority, reservation);
+            }
         }
 
-        for (final FailureCause cause : notOnlySingleLineCauses) {
-            scanningTasks.add(threadPoolExecutor.submit(new Runnable() {
-                @Override
-                public void run() {
-                    final List<FoundIndication> foundIndications = new ArrayList<FoundIndication>();
-                    for (final Indication indication : cause.getIndications()) {
-                        Thread.currentThread().setName("BFA-scanner-"
-                                + build.getFullDisplayName() + ": "
-                                + cause.getName() + "-"
-                                + indication.getUserProvidedExpression());
-
-                        FoundIndication foundIndication = parseIndication(build, scanLog, indication, cause.getName());
-                        if (foundIndication != null) {
-                            foundIndications.add(foundIndication);
-                        }
+        if (!degraded && PluginImpl.getInstance().isPipelineScanningEnabled()) {
+            List<LogSection> sections = findLogSections(build, scanLog);
+            if (sections != null) {
+                return findIndicationsInSections(allCauses, multiLineCauses, matcher, sections, build, scanLog,
+                        priority, reservation);
+            }
+        }
+        long parallelThreshold = 0;
+        if (!degraded) {
+            parallelThreshold = PluginImpl.getInstance().getParallelScanThresholdBytes();
+        }
+        final long parallelScanThreshold = parallelThreshold;
+
+        final List<Future<?>> scanningTasks = new ArrayList<Future<?>>(2);
+        final List<FoundFailureCause> singleLineFound = Collections.synchronizedList(
+                new ArrayList<FoundFailureCause>());
+        final List<FoundFailureCause> multiLineFound = Collections.synchronizedList(
+                new ArrayList<FoundFailureCause>());
+
+        final ScanPlan plan = new ScanPlan(allCauses, PluginImpl.getInstance().getFallbackCategories(),
+                getMaxFoundCauses(build));
+        List<FoundFailureCause> liveFound = null;
+        if (matcher.getIndicationCount() > 0) {
+            liveFound = finishLiveScan(build, scanLog, matcher);
+        }
+        if (liveFound != null) {
+            for (FoundFailureCause found : liveFound) {
+                plan.found(found);
+            }
+        }
+        final long logBytes = build.getLogFile().length();
+        final boolean scanSingleLine = liveFound == null && matcher.getIndicationCount() > 0;
+        int readers = 0;
+        if (scanSingleLine) {
+            readers++;
+        }
+        if (!multiLineCauses.isEmpty()) {
+            readers++;
+        }
+        final SharedLogStream sharedLog = openSharedLog(build, scanLog, readers);
+        try {
+            if (liveFound != null) {
+                singleLineFound.addAll(liveFound);
+            } else if (scanSingleLine) {
+                scanningTasks.add(scheduler.submit(priority,
+                        ScanScheduler.estimateNanos(logBytes, matcher.getIndicationCount()), new Runnable() {
+                    @Override
+                    public void run() {
+                        Thread.currentThread().setName("BFA-scanner-" + build.getFullDisplayName());
+                        singleLineFound.addAll(reserveFound(reservation, parseSingleLineCauses(build, scanLog,
+                                matcher, sharedLog, plan, parallelScanThreshold)));
                     }
+                }));
+            }
 
-                    if (!foundIndications.isEmpty()) {
-                        foundFailureCauses.add(new FoundFailureCause(cause, foundIndications));
+            if (!multiLineCauses.isEmpty()) {
+                scanningTasks.add(scheduler.submit(priority,
+                        ScanScheduler.estimateNanos(logBytes, multiLineCauses.size()), new Runnable() {
+                    @Override
+                    public void run() {
+                        Thread.currentThread().setName("BFA-scanner-" + build.getFullDisplayName() + ": multi-line");
+                        multiLineFound.addAll(reserveFound(reservation, parseMultiLineCauses(build, scanLog,
+                                multiLineCauses, priority, sharedLog, plan)));
                     }
-                }
-            }));
+                }));
+            }
+        } catch (InterruptedException e) {
+            logToScanLog(scanLog, "was interrupted while queued: " + e);
+            // Seen by waitAllTasks, which cancels the scans already queued.
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            waitAllTasks(scanLog, scanningTasks);
+        } finally {
+            if (sharedLog != null) {
+                sharedLog.close();
+            }
+        }
+        if (plan.isDone() && !allCauses.isEmpty()) {
+            logToScanLog(scanLog, "Every cause was decided, the log was not necessarily read to its end");
+        }
+
+        return LogFileScan.mergeFoundCauses(allCauses, singleLineFound, multiLineFound);
+    }
+
+    /**
+     *
+     * The number of causes after which the scans of a build stop, see {@link ScannerJobProperty#getMaxFoundCauses()}.
+     *
+     * @param build current build.
+     * @return the number of causes, 0 to find all causes.
+     */
+    private static int getMaxFoundCauses(Run build) {
+        ScannerJobProperty property = (ScannerJobProperty)build.getParent().getProperty(ScannerJobProperty.class);
+        if (property == null) {
+            return 0;
+        }
+        return property.getMaxFoundCauses();
+    }
+
+    /**
+     *
+     * Starts inflating a compressed log for the scans that will read it, so that it is inflated once.
+     *
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @param readers the number of scans that will read the log.
+     * @return the shared log, or null if the log is not compressed and the scans should read it on their own.
+     */
+    private static SharedLogStream openSharedLog(Run build, PrintStream scanLog, int readers) {
+        File logFile = build.getLogFile();
+        if (readers == 0 || inflaterPool == null || !logFile.getName().endsWith(".gz")) {
+            return null;
+        }
+        try {
+            SharedLogStream sharedLog = new SharedLogStream(build.getLogInputStream(), readers);
+            sharedLog.start(inflaterPool);
+            return sharedLog;
+        } catch (IOException e) {
+            logToScanLog(scanLog, "Could not open the compressed log: " + e);
+            return null;
+        }
+    }
+
+    /**
+     *
+     * Opens the log of a build for a scan, from the shared log if the scan has not been left behind by it.
+     *
+     * @param build current build.
+     * @param sharedLog the shared log, or null.
+     * @return a reader, to be closed by the caller.
+     * @throws IOException if the log could not be opened.
+     */
+    private static Reader openLogReader(Run build, SharedLogStream sharedLog) throws IOException {
+        if (sharedLog != null) {
+            InputStream stream = sharedLog.openStream();
+            if (stream != null) {
+                return new InputStreamReader(stream, build.getCharset());
+            }
+        }
+        return build.getLogReader();
+    }
+
+    /**
+     *
+     * Finds the head and the tail of a log exceeding the max size to scan instead of the whole log.
+     *
+     * @param build current build.
+     * @return the windows, empty if none are configured, or null if they cover the whole log.
+     */
+    private static List<LogSection> findLogWindows(Run build) {
+        if (!PluginImpl.isLogWindowEnabled()) {
+            return Collections.emptyList();
+        }
+        return LogWindow.find(build, PluginImpl.getInstance().getLogHeadSizeBytes(),
+                PluginImpl.getInstance().getLogTailSizeBytes());
+    }
+
+    /**
+     *
+     * Finds the sections of the log of a build to scan instead of the whole log.
+     *
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @return the sections, or null if the whole log should be scanned.
+     */
+    private static List<LogSection> findLogSections(Run build, PrintStream scanLog) {
+        try {
+            List<LogSection> sections = LogSectionFinder.find(build,
+                    PluginImpl.getInstance().isPipelineScanningFailedOnly());
+            if (sections != null) {
+                logToScanLog(scanLog, "Scanning " + sections.size() + " pipeline step log(s)");
+            }
+            return sections;
+        } catch (IOException e) {
+            logToScanLog(scanLog, "Could not read the pipeline steps, scanning the whole log: " + e);
+            return null;
+        }
+    }
+
+    /**
+     *
+     * Finds indications for all causes in the sections of the log of a build, scanning the sections in parallel.
+     * What is found is attributed to the section it is found in, and the causes found in several sections get the
+     * indications of each. The sections are shared by at most as many queued scans as there are scan threads, so a
+     * pipeline with many steps does not fill the queue of its priority.
+     *
+     * @param allCauses the list of possible causes.
+     * @param multiLineCauses the causes with multi-line indications.
+     * @param matcher the compiled single line indications of the causes.
+     * @param sections the sections of the log, in log order.
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @param priority the priority of the scans among the other scans.
+     * @param reservation the reserved memory of the scan, or null.
+     * @return a list of found indications, could be empty.
+     */
+    private static List<FoundFailureCause> findIndicationsInSections(final List<FailureCause> allCauses,
+                                                                     final List<FailureCause> multiLineCauses,
+                                                                     final MultiPatternMatcher matcher,
+                                                                     final List<LogSection> sections,
+                                                                     final Run build,
+                                                                     final PrintStream scanLog,
+                                                                     final ScanScheduler.Priority priority,
+                                                                     final ScanMemoryBudget.Reservation reservation) {
+        final List<List<FoundFailureCause>> foundInSections = new ArrayList<List<FoundFailureCause>>();
+        long sectionBytes = 0;
+        for (LogSection section : sections) {
+            foundInSections.add(Collections.synchronizedList(new ArrayList<FoundFailureCause>()));
+            sectionBytes += section.length();
+        }
+        int tasks = Math.max(1, Math.min(sections.size(), PluginImpl.getInstance().getNrOfScanThreads()));
+        final List<Future<?>> scanningTasks = new ArrayList<Future<?>>(tasks);
+        final AtomicInteger next = new AtomicInteger();
+        int indications = matcher.getIndicationCount() + multiLineCauses.size();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                scanningTasks.add(scheduler.submit(priority,
+                        ScanScheduler.estimateNanos(sectionBytes / tasks, indications), new Runnable() {
+                    @Override
+                    public void run() {
+                        int position;
+                        while ((position = next.getAndIncrement()) < sections.size()) {
+                            LogSection section = sections.get(position);
+                            Thread.currentThread().setName("BFA-scanner-" + build.getFullDisplayName() + ": "
+                                    + section.getId());
+                            foundInSections.get(position).addAll(reserveFound(reservation, parseSection(build,
+                                    scanLog, section, allCauses, matcher, multiLineCauses, priority)));
+                        }
+                    }
+                }));
+            }
+        } catch (InterruptedException e) {
+            logToScanLog(scanLog, "was interrupted while queued: " + e);
+            Thread.currentThread().interrupt();
         }
 
         waitAllTasks(scanLog, scanningTasks);
+        // When the wait was interrupted, the scans still running do not start on other sections.
+        next.set(sections.size());
 
-        return foundFailureCauses;
+        List<FoundFailureCause> merged = new ArrayList<FoundFailureCause>();
+        for (List<FoundFailureCause> found : foundInSections) {
+            merged = LogFileScan.mergeFoundCauses(allCauses, merged, found);
+        }
+        return merged;
+    }
+
+    /**
+     *
+     * Parses the single line and the multi line indications of all causes in a section of the log.
+     *
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @param section the section.
+     * @param allCauses the list of possible causes.
+     * @param matcher the compiled single line indications of the causes.
+     * @param multiLineCauses the causes with multi-line indications.
+     * @param priority the priority of the scan, for the helpers evaluating a window in parallel.
+     * @return a list of causes with found indications attributed to the section, could be empty.
+     */
+    private static List<FoundFailureCause> parseSection(Run build,
+                                                        PrintStream scanLog,
+                                                        LogSection section,
+                                                        List<FailureCause> allCauses,
+                                                        MultiPatternMatcher matcher,
+                                                        List<FailureCause> multiLineCauses,
+                                                        ScanScheduler.Priority priority) {
+        List<FoundFailureCause> singleLineFound = new ArrayList<FoundFailureCause>();
+        List<FoundFailureCause> multiLineFound = new ArrayList<FoundFailureCause>();
+        try {
+            if (matcher.getIndicationCount() > 0) {
+                try (BufferedReader reader = new BufferedReader(section.openReader())) {
+                    singleLineFound.addAll(FailureReader.scanSingleLinePatterns(matcher, build,
+                            new ReaderLineSource(reader, PluginImpl.getInstance().getMaxLineLength()), LOG_FILE_NAME));
+                }
+            }
+            if (!multiLineCauses.isEmpty()) {
+                try (Reader reader = section.openReader()) {
+                    multiLineFound.addAll(
+                            FailureReader.scanMultiLinePatterns(
+                                    multiLineCauses,
+                                    build,
+                                    reader,
+                                    LOG_FILE_NAME,
+                                    PluginImpl.getInstance().getMultilineWindowSize(),
+                                    PluginImpl.getInstance().getMultilineMaxMatchSpan(),
+                                    scheduler.getHelperExecutor(priority),
+                                    PluginImpl.getInstance().getNrOfScanThreads()));
+                }
+            }
+        } catch (Exception e) {
+            logToScanLog(scanLog, "Exception during parsing step " + section.getId() + ": " + e);
+            setExceptionMessage(build, e);
+        }
+        List<FoundFailureCause> found = LogFileScan.mergeFoundCauses(allCauses, singleLineFound, multiLineFound);
+        for (FoundFailureCause cause : found) {
+            for (FoundIndication indication : cause.getIndications()) {
+                section.attribute(indication);
+            }
+        }
+        return found;
+    }
+
+    /**
+     *
+     * Collects the result of the live scan of the build, if it was scanned while running.
+     *
+     * @param build current build.
+     * @param scanLog build log for providing feedback.
+     * @param matcher the compiled single line indications of the causes to be found.
+     * @return the causes found by the live scan, or null if the log should be scanned.
+     */
+    private static List<FoundFailureCause> finishLiveScan(Run build, PrintStream scanLog, MultiPatternMatcher matcher) {
+        LiveScan liveScan = LiveScan.get(build);
+        if (liveScan == null) {
+            return null;
+        }
+        try {
+            List<FoundFailureCause> found = liveScan.finish(matcher, LIVE_SCAN_TIMEOUT);
+            if (found == null) {
+                logToScanLog(scanLog, "Live scan not usable, scanning the log");
+            } else {
+                logToScanLog(scanLog, "Single-line indications scanned while the build was running");
+            }
+            return found;
+        } catch (InterruptedException e) {
+            logToScanLog(scanLog, "was interrupted: " + e);
+            Thread.currentThread().interrupt();
+            return null;
+        }
     }
 
     /**
@@ -519,88 +1292,86 @@ public class BuildFailureScanner extends RunListener<Run> {
 
     /**
      *
-     * Split list of causes in two part: causes with single line indication only and others.
-     *
-     * @param causes All causes.
-     * @param singleLineCauses Collection to put list of causes with single line indication.
-     * @param notOnlySingleLineCauses Collection to put other causes.
-     */
-    private static void splitCauses(Collection<FailureCause> causes,
-                                    List<FailureCause> singleLineCauses,
-                                    List<FailureCause> notOnlySingleLineCauses) {
-        for (FailureCause cause : causes) {
-            boolean atLeastOneNonSignalLine = false;
-            for (Indication indication : cause.getIndications()) {
-                if (indication instanceof MultilineBuildLogIndication) {
-                    atLeastOneNonSignalLine = true;
-                    break;
-                }
-            }
-
-            if (atLeastOneNonSignalLine) {
-                notOnlySingleLineCauses.add(cause);
-            } else {
-                singleLineCauses.add(cause);
-            }
-        }
-    }
-
-    /**
-     *
-     * Parse any indication.
+     * Parses the single line indications of all causes.
      *
      * @param build current build.
      * @param scanLog build log for providing feedback.
-     * @param indication indication to be found.
-     * @param causeName name of cause this indication belongs to.
-     * @return a found indication, null otherwise.
-     */
-    private static FoundIndication parseIndication(Run build,
-                                                   PrintStream scanLog,
-                                                   Indication indication,
-                                                   String causeName) {
-        long start = System.currentTimeMillis();
-
-        final FoundIndication foundIndication = findIndication(indication, build, scanLog);
-        if (foundIndication != null) {
-            if (logger.isLoggable(Level.FINER)) {
-                logger.log(Level.FINER, "[{0}] [{1}] {2}ms", new Object[]{build.getFullDisplayName(),
-                        causeName,
-                        String.valueOf(System.currentTimeMillis() - start), });
+     * @param matcher the compiled single line indications of the causes to be found.
+     * @param sharedLog the compressed log shared with the multi-line scan, or null.
+     * @param plan the plan shared with the multi-line scan, to stop reading the log when every cause is decided.
+     * @param parallelScanThreshold the size from which the log is scanned in parallel segments, 0 to disable.
+     * @return a list of causes with found indication, could be empty.
+     */
+    private static List<FoundFailureCause> parseSingleLineCauses(Run build,
+                                              PrintStream scanLog,
+                                              MultiPatternMatcher matcher,
+                                              SharedLogStream sharedLog,
+                                              ScanPlan plan,
+                                              long parallelScanThreshold) {
+        final List<FoundFailureCause> foundFailureCauses = new ArrayList<FoundFailureCause>();
+        try {
+            if (sharedLog != null) {
+                // A compressed log is read through a reader anyway, see FailureReader.
+                try (BufferedReader reader = new BufferedReader(openLogReader(build, sharedLog))) {
+                    foundFailureCauses.addAll(FailureReader.scanSingleLinePatterns(matcher, build,
+                            new ReaderLineSource(reader, PluginImpl.getInstance().getMaxLineLength()), LOG_FILE_NAME,
+                            plan));
+                }
+                return foundFailureCauses;
             }
+            foundFailureCauses.addAll(
+                    FailureReader.scanSingleLinePatterns(
+                            matcher,
+                            build,
+                            PluginImpl.getInstance().isByteLevelScanningEnabled(),
+                            parallelScanThreshold,
+                            segmentScanPool,
+                            PluginImpl.getInstance().getMaxLineLength(),
+                            plan));
+        } catch (Exception e) {
+            logToScanLog(scanLog, "Exception during parsing file: " + e);
+            setExceptionMessage(build, e);
         }
-
-        return foundIndication;
+        return foundFailureCauses;
     }
 
     /**
      *
-     * Parses all causes with only single line indications.
+     * Parses the multi line indications of all causes, in one pass over the log.
      *
      * @param build current build.
      * @param scanLog build log for providing feedback.
-     * @param singleLineCauses list of causes to be found.
+     * @param multiLineCauses list of causes with multi line indications.
+     * @param priority the priority of the scan, for the helpers evaluating a window in parallel.
+     * @param sharedLog the compressed log shared with the single-line scan, or null.
+     * @param plan the plan shared with the single-line scan, to stop reading the log when every cause is decided.
      * @return a list of causes with found indication, could be empty.
      */
-    private static List<FoundFailureCause> parseSingleLineCauses(Run build,
-                                              PrintStream scanLog,
-                                              List<FailureCause> singleLineCauses) {
+    private static List<FoundFailureCause> parseMultiLineCauses(Run build,
+                                                                PrintStream scanLog,
+                                                                List<FailureCause> multiLineCauses,
+                                                                ScanScheduler.Priority priority,
+                                                                SharedLogStream sharedLog,
+                                                                ScanPlan plan) {
         final List<FoundFailureCause> foundFailureCauses = new ArrayList<FoundFailureCause>();
-        BufferedReader reader = null;
+        long start = System.currentTimeMillis();
+        Reader reader = null;
         try {
-            reader = new BufferedReader(build.getLogReader());
+            reader = openLogReader(build, sharedLog);
             foundFailureCauses.addAll(
-                    FailureReader.scanSingleLinePatterns(
-                            singleLineCauses,
+                    FailureReader.scanMultiLinePatterns(
+                            multiLineCauses,
                             build,
                             reader,
-                            LOG_FILE_NAME));
+                            LOG_FILE_NAME,
+                            PluginImpl.getInstance().getMultilineWindowSize(),
+                            PluginImpl.getInstance().getMultilineMaxMatchSpan(),
+                            scheduler.getHelperExecutor(priority),
+                            PluginImpl.getInstance().getNrOfScanThreads(),
+                            plan));
         } catch (Exception e) {
             logToScanLog(scanLog, "Exception during parsing file: " + e);
-            ScanLogAction logAction = build.getAction(ScanLogAction.class);
-            if (logAction != null && logAction.getExceptionMessage() == null) {
-                logAction.setExceptionMessage(e.toString());
-            }
+            setExceptionMessage(build, e);
         } finally {
             if (reader != null) {
                 try {
@@ -610,20 +1381,24 @@ public class BuildFailureScanner extends RunListener<Run> {
                 }
             }
         }
+        if (logger.isLoggable(Level.FINER)) {
+            logger.log(Level.FINER, "[{0}] multi-line {1}ms", new Object[]{build.getFullDisplayName(),
+                    String.valueOf(System.currentTimeMillis() - start), });
+        }
         return foundFailureCauses;
     }
 
     /**
-     * Finds out if this indication matches the build.
+     * Records the first exception of a scan in the {@link ScanLogAction} of the build.
      *
-     * @param indication the indication to look for.
-     * @param build      the build to analyze.
-     * @param scanLog   the build log.
-     * @return an indication if one is found, null otherwise.
+     * @param build current build.
+     * @param e the exception.
      */
-    private static FoundIndication findIndication(Indication indication, Run build, PrintStream scanLog) {
-        FailureReader failureReader = indication.getReader();
-        return failureReader.scan(build, scanLog);
+    private static void setExceptionMessage(Run build, Exception e) {
+        ScanLogAction logAction = build.getAction(ScanLogAction.class);
+        if (logAction != null && logAction.getExceptionMessage() == null) {
+            logAction.setExceptionMessage(e.toString());
+        }
     }
 
     /**
@@ -27,6 +27,7 @@ package com.sonyericsson.jenkins.plugins.bfa;
 
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanCost;
 
 import hudson.Extension;
 import hudson.ExtensionList;
@@ -46,6 +47,7 @@ import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.StaplerResponse;
 import org.kohsuke.stapler.verb.POST;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Page for managing the failure causes.
@@ -163,6 +165,17 @@ public class CauseManagement implements RootAction {
         return returnValue;
     }
 
+    /**
+     * The indications ranked by the time spent evaluating them over the last {@link ScanCost#WINDOW_HOURS} hours,
+     * for the scan cost page. Does a permission check for {@link PluginImpl#UPDATE_PERMISSION}.
+     *
+     * @return the ranking, the most expensive first.
+     */
+    public List<ScanCost.Entry> getScanCostRanking() {
+        Jenkins.get().checkPermission(PluginImpl.UPDATE_PERMISSION);
+        return ScanCost.getInstance().getRanking();
+    }
+
     /**
      * Sets an error message as an attribute to the current request.
      *
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LiveScan;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MultiPatternMatcher;
+import hudson.Extension;
+import hudson.console.ConsoleLogFilter;
+import hudson.model.AbstractBuild;
+import hudson.model.Run;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Feeds the log of a running build to a {@link LiveScan} as it is written, when live scanning is enabled, so that
+ * the single-line indications are already looked for when the build completes.
+ *
+ * Only builds whose whole log goes through the build's own logger are scanned live; others, e.g. Pipeline runs, are
+ * scanned from their log file when they complete.
+ */
+@Extension
+public class LiveScanConsoleLogFilter extends ConsoleLogFilter {
+
+    private static final Logger logger = Logger.getLogger(LiveScanConsoleLogFilter.class.getName());
+
+    @Override
+    public OutputStream decorateLogger(Run build, OutputStream output) throws IOException, InterruptedException {
+        if (!(build instanceof AbstractBuild)
+                || !PluginImpl.getInstance().isLiveScanningEnabled()
+                || !PluginImpl.shouldScan(build)) {
+            return output;
+        }
+        MultiPatternMatcher matcher;
+        try {
+            matcher = MultiPatternMatcher.forCauses(
+                    new ArrayList<FailureCause>(PluginImpl.getInstance().getKnowledgeBase().getCauses()),
+                    PluginImpl.getInstance().isLinearMatchingEnabled());
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not get the causes from the knowledge base, the log of "
+                    + build.getFullDisplayName() + " is scanned when the build completes", e);
+            return output;
+        }
+        if (matcher.getIndicationCount() == 0) {
+            return output;
+        }
+        return new LiveScanOutputStream(output,
+                LiveScan.start(build, matcher, PluginImpl.getInstance().getMaxLineLength()));
+    }
+
+    /**
+     * Passes everything written on unchanged and feeds a copy to the live scan.
+     */
+    private static class LiveScanOutputStream extends FilterOutputStream {
+
+        private final LiveScan liveScan;
+
+        /**
+         * Standard constructor.
+         *
+         * @param out the log.
+         * @param liveScan the scan to feed.
+         */
+        LiveScanOutputStream(OutputStream out, LiveScan liveScan) {
+            super(out);
+            this.liveScan = liveScan;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            liveScan.write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            liveScan.write(b, off, len);
+        }
+    }
+}
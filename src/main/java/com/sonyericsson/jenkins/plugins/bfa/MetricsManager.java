@@ -1,18 +1,35 @@
 package com.sonyericsson.jenkins.plugins.bfa;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.model.IFailureCauseMetricData;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanMemoryBudget;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanScheduler;
 import jenkins.metrics.api.Metrics;
+import jenkins.model.Jenkins;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
 
 public final class MetricsManager {
     static final String CAUSEPREFIX = "jenkins_bfa.cause.";
     static final String CATEGORYPREFIX = "jenkins_bfa.category.";
+    static final String SCANCAUSEPREFIX = "jenkins_bfa.scan.cause.";
+    static final String SCANINDICATIONPREFIX = "jenkins_bfa.scan.indication.";
+    static final String PATTERNCACHEPREFIX = "jenkins_bfa.patterncache.";
+    static final String SCHEDULERPREFIX = "jenkins_bfa.scheduler.";
+    static final String SCANMEMORYPREFIX = "jenkins_bfa.scan.memory.";
+
+    /** The counter of patterns found in the pattern cache. */
+    public static final String PATTERN_CACHE_HITS = "hits";
+    /** The counter of patterns compiled because they were not in the pattern cache. */
+    public static final String PATTERN_CACHE_MISSES = "misses";
+    /** The counter of patterns evicted from the full pattern cache. */
+    public static final String PATTERN_CACHE_EVICTIONS = "evictions";
 
     /**A magic cause to represent builds that match no causes in the database. */
     public static final FailureCause UNKNOWNCAUSE = new FailureCause("no matching cause", "");
@@ -72,4 +89,159 @@ public final class MetricsManager {
             }
         }
     }
+
+    /**
+     * The prefix of the scan cost metrics of a cause, for all its indications.
+     *
+     * @param cause the cause.
+     * @return the prefix.
+     */
+    public static String getScanCostName(IFailureCauseMetricData cause) {
+        return SCANCAUSEPREFIX + cause.getName();
+    }
+
+    /**
+     * The prefix of the scan cost metrics of an indication.
+     *
+     * @param cause the cause of the indication.
+     * @param index the index of the indication among those of the cause.
+     * @return the prefix.
+     */
+    public static String getScanCostName(IFailureCauseMetricData cause, int index) {
+        return SCANINDICATIONPREFIX + cause.getName() + "." + index;
+    }
+
+    /**
+     * Adds what one scan has spent on an indication or a cause: the time to a histogram, in microseconds, and the
+     * evaluations, matches and timeouts to counters. Does nothing when Jenkins is not running, e.g. when scanning
+     * in unit tests.
+     *
+     * @param name the prefix of the metrics.
+     * @param nanos the time spent evaluating the patterns.
+     * @param evaluations the number of times the patterns were evaluated.
+     * @param matches the number of matches.
+     * @param timeouts the number of evaluations that timed out.
+     * @see #getScanCostName(IFailureCauseMetricData)
+     * @see #getScanCostName(IFailureCauseMetricData, int)
+     */
+    public static void updateScanCost(String name, long nanos, int evaluations, int matches, int timeouts) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return;
+        }
+        MetricRegistry metricRegistry = Metrics.metricRegistry();
+        metricRegistry.histogram(name + ".time").update(TimeUnit.NANOSECONDS.toMicros(nanos));
+        metricRegistry.counter(name + ".evaluations").inc(evaluations);
+        metricRegistry.counter(name + ".matches").inc(matches);
+        metricRegistry.counter(name + ".timeouts").inc(timeouts);
+    }
+
+    /**
+     * Increments a counter of the pattern cache. Does nothing when Jenkins is not running.
+     *
+     * @param counter {@link #PATTERN_CACHE_HITS}, {@link #PATTERN_CACHE_MISSES} or {@link #PATTERN_CACHE_EVICTIONS}.
+     * @see com.sonyericsson.jenkins.plugins.bfa.scan.PatternCache
+     */
+    public static void incPatternCacheCounter(String counter) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return;
+        }
+        Metrics.metricRegistry().counter(PATTERNCACHEPREFIX + counter).inc();
+    }
+
+    /**
+     * Adds the gauges of a scan scheduler: the number of waiting scans of each priority, and the number of busy
+     * and all workers. Replaces the gauges of an earlier scheduler. Does nothing when Jenkins is not running.
+     *
+     * @param scheduler the scheduler.
+     */
+    public static void addScanSchedulerGauges(final ScanScheduler scheduler) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return;
+        }
+        MetricRegistry metricRegistry = Metrics.metricRegistry();
+        for (final ScanScheduler.Priority priority : ScanScheduler.Priority.values()) {
+            replaceGauge(metricRegistry, SCHEDULERPREFIX + priority.getMetricName() + ".queued", new Gauge<Integer>() {
+                @Override
+                public Integer getValue() {
+                    return scheduler.getQueued(priority);
+                }
+            });
+        }
+        replaceGauge(metricRegistry, SCHEDULERPREFIX + "active", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return scheduler.getActiveWorkers();
+            }
+        });
+        replaceGauge(metricRegistry, SCHEDULERPREFIX + "workers", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return scheduler.getWorkers();
+            }
+        });
+    }
+
+    /**
+     * Adds the gauges of the scan memory budget: the memory reserved by the scans in flight and the budget, in
+     * bytes. Replaces the gauges of an earlier budget. Does nothing when Jenkins is not running.
+     *
+     * @param budget the budget.
+     */
+    public static void addScanMemoryGauges(final ScanMemoryBudget budget) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return;
+        }
+        MetricRegistry metricRegistry = Metrics.metricRegistry();
+        replaceGauge(metricRegistry, SCANMEMORYPREFIX + "used", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return budget.getUsed();
+            }
+        });
+        replaceGauge(metricRegistry, SCANMEMORYPREFIX + "budget", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return budget.getBudget();
+            }
+        });
+    }
+
+    /**
+     * Increments the counter of the scans that were made smaller because the scan memory budget was exhausted. Does
+     * nothing when Jenkins is not running.
+     */
+    public static void incScanMemoryDegraded() {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return;
+        }
+        Metrics.metricRegistry().counter(SCANMEMORYPREFIX + "degraded").inc();
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge of the same name.
+     *
+     * @param metricRegistry the registry.
+     * @param name the name of the gauge.
+     * @param gauge the gauge.
+     */
+    private static void replaceGauge(MetricRegistry metricRegistry, String name, Gauge<?> gauge) {
+        metricRegistry.remove(name);
+        metricRegistry.register(name, gauge);
+    }
+
+    /**
+     * Adds the time a scan waited in the queue of the scan scheduler to a histogram, in microseconds. Does nothing
+     * when Jenkins is not running.
+     *
+     * @param priority the metric name of the priority of the scan.
+     * @param nanos the time the scan waited.
+     * @see ScanScheduler.Priority#getMetricName()
+     */
+    public static void updateScanWait(String priority, long nanos) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return;
+        }
+        Metrics.metricRegistry().histogram(SCHEDULERPREFIX + priority + ".wait")
+                .update(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
 }
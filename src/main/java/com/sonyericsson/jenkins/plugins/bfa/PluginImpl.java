@@ -29,6 +29,7 @@ import com.sonyericsson.jenkins.plugins.bfa.db.KnowledgeBase;
 import com.sonyericsson.jenkins.plugins.bfa.db.LocalFileKnowledgeBase;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.model.ScannerJobProperty;
+import com.sonyericsson.jenkins.plugins.bfa.scan.SlidingWindow;
 import com.sonyericsson.jenkins.plugins.bfa.sod.ScanOnDemandQueue;
 import com.sonyericsson.jenkins.plugins.bfa.sod.ScanOnDemandVariables;
 import edu.umd.cs.findbugs.annotations.NonNull;
@@ -94,8 +95,53 @@ public class PluginImpl extends GlobalConfiguration {
      */
     public static final int DEFAULT_MAX_LOG_SIZE = 0;
 
+    /**
+     * Default size (in MB) of the head of a log exceeding the max size that is scanned anyway ('0' scans no head).
+     */
+    public static final int DEFAULT_LOG_HEAD_SIZE = 0;
+
+    /**
+     * Default size (in MB) of the tail of a log exceeding the max size that is scanned anyway ('0' scans no tail).
+     */
+    public static final int DEFAULT_LOG_TAIL_SIZE = 0;
+
+    /**
+     * Default length (in chars) from which a log line is scanned in overlapping chunks ('0' scans whole lines).
+     */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 1024 * 1024;
+
+    /**
+     * Default number of chars read into the search area each round when looking for multi-line indications.
+     */
+    public static final int DEFAULT_MULTILINE_WINDOW_SIZE = SlidingWindow.DEFAULT_WINDOW_SIZE;
+
+    /**
+     * Default maximum length of a multi-line indication match spanning two rounds of the search area.
+     */
+    public static final int DEFAULT_MULTILINE_MAX_MATCH_SPAN = SlidingWindow.DEFAULT_MAX_MATCH_SPAN;
+
+    /**
+     * Default size (in MB) from which a log file is scanned for single-line indications in parallel segments.
+     */
+    public static final int DEFAULT_PARALLEL_SCAN_THRESHOLD = 64;
+
+    /**
+     * Default memory (in MB) that the scans in flight may hold together ('0' is no budget).
+     */
+    public static final int DEFAULT_SCAN_MEMORY_BUDGET = 0;
+
     private static final int BYTES_IN_MEGABYTE = 1024 * 1024;
 
+    /**
+     * Default number of days back builds without any found cause are scanned for a saved cause.
+     */
+    public static final int DEFAULT_RESCAN_ON_CAUSE_SAVE_DAYS = 7;
+
+    /**
+     * Default number of minutes to wait for the scan workers before scanning on the controller.
+     */
+    public static final int DEFAULT_DISTRIBUTED_SCAN_TIMEOUT = 10;
+
     /**
      * Default slack channel to use.
      */
@@ -161,6 +207,13 @@ public class PluginImpl extends GlobalConfiguration {
 
     private int nrOfScanThreads;
     private int maxLogSize;
+    private Integer logHeadSize;
+    private Integer logTailSize;
+    private Integer maxLineLength;
+    private int multilineWindowSize;
+    private int multilineMaxMatchSpan;
+    private Integer parallelScanThreshold;
+    private Integer scanMemoryBudget;
 
     private Boolean graphsEnabled;
 
@@ -169,6 +222,23 @@ public class PluginImpl extends GlobalConfiguration {
 
     private Boolean metricSquashingEnabled;
 
+    private Boolean byteLevelScanningEnabled;
+
+    private Boolean linearMatchingEnabled;
+
+    private Boolean liveScanningEnabled;
+
+    private Boolean rescanOnCauseSaveEnabled;
+    private Integer rescanOnCauseSaveDays;
+
+    private Boolean virtualThreadsEnabled;
+
+    private Boolean pipelineScanningEnabled;
+    private Boolean pipelineScanningFailedOnly;
+
+    private Boolean distributedScanningEnabled;
+    private Integer distributedScanTimeout;
+
     /**
      * ScanOnDemandVariable instance.
      */
@@ -692,6 +762,455 @@ public class PluginImpl extends GlobalConfiguration {
         this.maxLogSize = maxLogSize;
     }
 
+    /**
+     * If single-line indications should be looked for in the raw bytes of the log file, decoding only the lines
+     * that may match. Logs that are not stored as plain files are always read as text.
+     *
+     * @return true if on.
+     */
+    public boolean isByteLevelScanningEnabled() {
+        if (byteLevelScanningEnabled == null) {
+            return true;
+        } else {
+            return byteLevelScanningEnabled;
+        }
+    }
+
+    /**
+     * Sets if byte level scanning is enabled.
+     * Default value is true.
+     *
+     * @param byteLevelScanningEnabled on or off.
+     */
+    @DataBoundSetter
+    public void setByteLevelScanningEnabled(boolean byteLevelScanningEnabled) {
+        this.byteLevelScanningEnabled = byteLevelScanningEnabled;
+    }
+
+    /**
+     * If single-line indications without backreferences, lookaround or other backtracking constructs should be
+     * matched in linear time instead of with java.util.regex, so that no log line can make a scan time out.
+     *
+     * @return true if on.
+     * @see com.sonyericsson.jenkins.plugins.bfa.scan.LinearPattern
+     */
+    public boolean isLinearMatchingEnabled() {
+        if (linearMatchingEnabled == null) {
+            return true;
+        } else {
+            return linearMatchingEnabled;
+        }
+    }
+
+    /**
+     * Sets if linear time matching is enabled.
+     * Default value is true.
+     *
+     * @param linearMatchingEnabled on or off.
+     */
+    @DataBoundSetter
+    public void setLinearMatchingEnabled(boolean linearMatchingEnabled) {
+        this.linearMatchingEnabled = linearMatchingEnabled;
+    }
+
+    /**
+     * If the single-line indications should be looked for while a build is running, as its log is written, so that
+     * only the result has to be collected when the build completes.
+     *
+     * @return true if on.
+     */
+    public boolean isLiveScanningEnabled() {
+        if (liveScanningEnabled == null) {
+            return false;
+        } else {
+            return liveScanningEnabled;
+        }
+    }
+
+    /**
+     * Sets if live scanning is enabled.
+     * Default value is false.
+     *
+     * @param liveScanningEnabled on or off.
+     */
+    @DataBoundSetter
+    public void setLiveScanningEnabled(boolean liveScanningEnabled) {
+        this.liveScanningEnabled = liveScanningEnabled;
+    }
+
+    /**
+     * If recent builds where no cause was found should be scanned for a cause when it is added or changed.
+     *
+     * @return true if on.
+     */
+    public boolean isRescanOnCauseSaveEnabled() {
+        if (rescanOnCauseSaveEnabled == null) {
+            return false;
+        } else {
+            return rescanOnCauseSaveEnabled;
+        }
+    }
+
+    /**
+     * Sets if recent builds are scanned for saved causes.
+     * Default value is false.
+     *
+     * @param rescanOnCauseSaveEnabled on or off.
+     */
+    @DataBoundSetter
+    public void setRescanOnCauseSaveEnabled(boolean rescanOnCauseSaveEnabled) {
+        this.rescanOnCauseSaveEnabled = rescanOnCauseSaveEnabled;
+    }
+
+    /**
+     * How many days back builds are scanned for a saved cause.
+     *
+     * @return the number of days.
+     * @see #isRescanOnCauseSaveEnabled()
+     */
+    public int getRescanOnCauseSaveDays() {
+        if (rescanOnCauseSaveDays == null || rescanOnCauseSaveDays < 1) {
+            return DEFAULT_RESCAN_ON_CAUSE_SAVE_DAYS;
+        }
+        return rescanOnCauseSaveDays;
+    }
+
+    /**
+     * Sets how many days back builds are scanned for a saved cause.
+     *
+     * @param rescanOnCauseSaveDays the number of days, less than 1 for the default.
+     */
+    @DataBoundSetter
+    public void setRescanOnCauseSaveDays(int rescanOnCauseSaveDays) {
+        this.rescanOnCauseSaveDays = rescanOnCauseSaveDays;
+    }
+
+    /**
+     * If the scans, the scans on demand, the statistics and the conversion of old data should run on virtual
+     * threads, when the JVM supports them. Only takes effect when the plugin is started.
+     *
+     * @return true if on.
+     * @see com.sonyericsson.jenkins.plugins.bfa.utils.VirtualThreads
+     */
+    public boolean isVirtualThreadsEnabled() {
+        if (virtualThreadsEnabled == null) {
+            return false;
+        } else {
+            return virtualThreadsEnabled;
+        }
+    }
+
+    /**
+     * Sets if virtual threads are used.
+     * Default value is false.
+     *
+     * @param virtualThreadsEnabled on or off.
+     */
+    @DataBoundSetter
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    /**
+     * If the logs of the steps of a pipeline should be scanned on their own instead of the whole log, so that what is
+     * found is attributed to the step and stage that wrote it.
+     *
+     * @return true if on.
+     * @see com.sonyericsson.jenkins.plugins.bfa.scan.LogSectionFinder
+     */
+    public boolean isPipelineScanningEnabled() {
+        if (pipelineScanningEnabled == null) {
+            return false;
+        } else {
+            return pipelineScanningEnabled;
+        }
+    }
+
+    /**
+     * Sets if the logs of the steps of a pipeline are scanned on their own.
+     * Default value is false.
+     *
+     * @param pipelineScanningEnabled on or off.
+     */
+    @DataBoundSetter
+    public void setPipelineScanningEnabled(boolean pipelineScanningEnabled) {
+        this.pipelineScanningEnabled = pipelineScanningEnabled;
+    }
+
+    /**
+     * If only the steps of the failed stages and parallel branches of a pipeline should be scanned.
+     *
+     * @return true if on.
+     * @see #isPipelineScanningEnabled()
+     */
+    public boolean isPipelineScanningFailedOnly() {
+        if (pipelineScanningFailedOnly == null) {
+            return true;
+        } else {
+            return pipelineScanningFailedOnly;
+        }
+    }
+
+    /**
+     * Sets if only the steps of the failed stages and parallel branches are scanned.
+     * Default value is true.
+     *
+     * @param pipelineScanningFailedOnly on or off.
+     */
+    @DataBoundSetter
+    public void setPipelineScanningFailedOnly(boolean pipelineScanningFailedOnly) {
+        this.pipelineScanningFailedOnly = pipelineScanningFailedOnly;
+    }
+
+    /**
+     * If the logs should be scanned by scan workers, separate processes that take the scans from a queue in the
+     * MongoDB knowledge base and read the logs from a file system shared with the controller. Has no effect with
+     * another knowledge base.
+     *
+     * @return true if on.
+     * @see com.sonyericsson.jenkins.plugins.bfa.db.MongoDBScanWorker
+     */
+    public boolean isDistributedScanningEnabled() {
+        if (distributedScanningEnabled == null) {
+            return false;
+        } else {
+            return distributedScanningEnabled;
+        }
+    }
+
+    /**
+     * Sets if the logs are scanned by scan workers.
+     * Default value is false.
+     *
+     * @param distributedScanningEnabled on or off.
+     */
+    @DataBoundSetter
+    public void setDistributedScanningEnabled(boolean distributedScanningEnabled) {
+        this.distributedScanningEnabled = distributedScanningEnabled;
+    }
+
+    /**
+     * How many minutes to wait for the scan workers to scan a log, before scanning it on the controller.
+     *
+     * @return the number of minutes.
+     * @see #isDistributedScanningEnabled()
+     */
+    public int getDistributedScanTimeout() {
+        if (distributedScanTimeout == null || distributedScanTimeout < 1) {
+            return DEFAULT_DISTRIBUTED_SCAN_TIMEOUT;
+        }
+        return distributedScanTimeout;
+    }
+
+    /**
+     * Sets how many minutes to wait for the scan workers.
+     *
+     * @param distributedScanTimeout the number of minutes, less than 1 for the default.
+     */
+    @DataBoundSetter
+    public void setDistributedScanTimeout(int distributedScanTimeout) {
+        this.distributedScanTimeout = distributedScanTimeout;
+    }
+
+    /**
+     * The number of chars read into the sliding search area each round when looking for multi-line indications.
+     *
+     * @return the window size.
+     */
+    public int getMultilineWindowSize() {
+        if (multilineWindowSize < 1) {
+            return DEFAULT_MULTILINE_WINDOW_SIZE;
+        }
+        return multilineWindowSize;
+    }
+
+    /**
+     * Sets the multi-line window size.
+     *
+     * @param multilineWindowSize the window size, less than 1 for the default.
+     */
+    @DataBoundSetter
+    public void setMultilineWindowSize(int multilineWindowSize) {
+        this.multilineWindowSize = multilineWindowSize;
+    }
+
+    /**
+     * The maximum length of a multi-line indication match that starts in one round of the sliding search area and
+     * ends in the next.
+     *
+     * @return the maximum match span.
+     */
+    public int getMultilineMaxMatchSpan() {
+        if (multilineMaxMatchSpan < 1) {
+            return DEFAULT_MULTILINE_MAX_MATCH_SPAN;
+        }
+        return multilineMaxMatchSpan;
+    }
+
+    /**
+     * Sets the multi-line maximum match span.
+     *
+     * @param multilineMaxMatchSpan the maximum match span, less than 1 for the default.
+     */
+    @DataBoundSetter
+    public void setMultilineMaxMatchSpan(int multilineMaxMatchSpan) {
+        this.multilineMaxMatchSpan = multilineMaxMatchSpan;
+    }
+
+    /**
+     * The size (in MB) of the head of a log exceeding {@link #getMaxLogSize()} that is scanned anyway.
+     *
+     * @return the size in MB, 0 if the head is not scanned.
+     */
+    public int getLogHeadSize() {
+        if (logHeadSize == null || logHeadSize < 0) {
+            return DEFAULT_LOG_HEAD_SIZE;
+        }
+        return logHeadSize;
+    }
+
+    /**
+     * Sets the size of the head of a log exceeding the max size that is scanned anyway.
+     *
+     * @param logHeadSize the size in MB, 0 to not scan the head.
+     */
+    @DataBoundSetter
+    public void setLogHeadSize(int logHeadSize) {
+        this.logHeadSize = logHeadSize;
+    }
+
+    /**
+     * The size (in MB) of the tail of a log exceeding {@link #getMaxLogSize()} that is scanned anyway.
+     *
+     * @return the size in MB, 0 if the tail is not scanned.
+     */
+    public int getLogTailSize() {
+        if (logTailSize == null || logTailSize < 0) {
+            return DEFAULT_LOG_TAIL_SIZE;
+        }
+        return logTailSize;
+    }
+
+    /**
+     * Sets the size of the tail of a log exceeding the max size that is scanned anyway.
+     *
+     * @param logTailSize the size in MB, 0 to not scan the tail.
+     */
+    @DataBoundSetter
+    public void setLogTailSize(int logTailSize) {
+        this.logTailSize = logTailSize;
+    }
+
+    /**
+     * The length (in chars) from which a log line is scanned in overlapping chunks instead of as a whole, so that a
+     * huge line is neither held in memory nor matched against every pattern as a whole.
+     *
+     * @return the length, 0 if lines are scanned whole.
+     */
+    public int getMaxLineLength() {
+        if (maxLineLength == null || maxLineLength < 0) {
+            return DEFAULT_MAX_LINE_LENGTH;
+        }
+        return maxLineLength;
+    }
+
+    /**
+     * Sets the length from which a log line is scanned in overlapping chunks.
+     *
+     * @param maxLineLength the length in chars, 0 to scan whole lines.
+     */
+    @DataBoundSetter
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * The size of the head of a log exceeding the max size that is scanned anyway.
+     *
+     * @return the size in bytes, 0 if the head is not scanned.
+     * @see #getLogHeadSize()
+     */
+    public long getLogHeadSizeBytes() {
+        return (long)getLogHeadSize() * BYTES_IN_MEGABYTE;
+    }
+
+    /**
+     * The size of the tail of a log exceeding the max size that is scanned anyway.
+     *
+     * @return the size in bytes, 0 if the tail is not scanned.
+     * @see #getLogTailSize()
+     */
+    public long getLogTailSizeBytes() {
+        return (long)getLogTailSize() * BYTES_IN_MEGABYTE;
+    }
+
+    /**
+     * The size (in MB) from which a log file scanned at byte level is split into segments that are scanned for
+     * single-line indications in parallel. 0 disables parallel scanning.
+     *
+     * @return the threshold in MB.
+     */
+    public int getParallelScanThreshold() {
+        if (parallelScanThreshold == null || parallelScanThreshold < 0) {
+            return DEFAULT_PARALLEL_SCAN_THRESHOLD;
+        }
+        return parallelScanThreshold;
+    }
+
+    /**
+     * The parallel scan threshold in bytes.
+     *
+     * @return the threshold in bytes, 0 if disabled.
+     * @see #getParallelScanThreshold()
+     */
+    public long getParallelScanThresholdBytes() {
+        return (long)getParallelScanThreshold() * BYTES_IN_MEGABYTE;
+    }
+
+    /**
+     * Sets the parallel scan threshold.
+     *
+     * @param parallelScanThreshold the threshold in MB, 0 to disable.
+     */
+    @DataBoundSetter
+    public void setParallelScanThreshold(int parallelScanThreshold) {
+        this.parallelScanThreshold = parallelScanThreshold;
+    }
+
+    /**
+     * The memory (in MB) that the scans in flight may hold together, by estimate. A scan that does not fit is made
+     * smaller: it only scans for single-line indications, without parallel segments, and only the head and tail of
+     * the log if they are configured. 0 disables the budget.
+     *
+     * @return the budget in MB.
+     */
+    public int getScanMemoryBudget() {
+        if (scanMemoryBudget == null || scanMemoryBudget < 0) {
+            return DEFAULT_SCAN_MEMORY_BUDGET;
+        }
+        return scanMemoryBudget;
+    }
+
+    /**
+     * The scan memory budget in bytes.
+     *
+     * @return the budget in bytes, 0 if disabled.
+     * @see #getScanMemoryBudget()
+     */
+    public long getScanMemoryBudgetBytes() {
+        return (long)getScanMemoryBudget() * BYTES_IN_MEGABYTE;
+    }
+
+    /**
+     * Sets the scan memory budget.
+     *
+     * @param scanMemoryBudget the budget in MB, 0 to disable.
+     */
+    @DataBoundSetter
+    public void setScanMemoryBudget(int scanMemoryBudget) {
+        this.scanMemoryBudget = scanMemoryBudget;
+    }
+
     /**
      * Returns the maximum log size that should be scanned.
      *
@@ -742,6 +1261,16 @@ public class PluginImpl extends GlobalConfiguration {
                 || getInstance().getMaxLogSize() > (build.getLogText().length() / BYTES_IN_MEGABYTE);
     }
 
+    /**
+     * Checks if a log exceeding the max size should be scanned in part, see {@link #getLogHeadSize()} and
+     * {@link #getLogTailSize()}.
+     *
+     * @return true if a head or a tail is scanned.
+     */
+    public static boolean isLogWindowEnabled() {
+        return getInstance().getLogHeadSize() > 0 || getInstance().getLogTailSize() > 0;
+    }
+
     /**
      * Checks if the specified project should be scanned or not. Determined by {@link #isGlobalEnabled()} and if the
      * project has {@link com.sonyericsson.jenkins.plugins.bfa.model.ScannerJobProperty#isDoNotScan()}.
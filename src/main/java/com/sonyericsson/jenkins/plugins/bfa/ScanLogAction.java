@@ -31,6 +31,12 @@ public class ScanLogAction implements RunAction2 {
 
     private String exceptionMessage;
 
+    private boolean partial;
+
+    private int longLines;
+
+    private boolean degraded;
+
     /**
      * {@inheritDoc}
      */
@@ -117,6 +123,57 @@ public class ScanLogAction implements RunAction2 {
         this.exceptionMessage = exceptionMessage;
     }
 
+    /**
+     * If only a part of the log was scanned, since it exceeds the max size.
+     * @return true if the scan was partial
+     */
+    @Exported
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Set if only a part of the log was scanned.
+     * @param partial true if the scan was partial
+     */
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+    /**
+     * If the scan was made smaller, since the scan memory budget was exhausted.
+     * @return true if the scan was degraded
+     */
+    @Exported
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * Set if the scan was made smaller to fit the scan memory budget.
+     * @param degraded true if the scan was degraded
+     */
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+    }
+
+    /**
+     * The number of log lines that exceed the max line length, and were scanned in chunks.
+     * @return the number of lines
+     */
+    @Exported
+    public synchronized int getLongLines() {
+        return longLines;
+    }
+
+    /**
+     * Add to the number of log lines that were scanned in chunks.
+     * @param lines the number of lines to add
+     */
+    public synchronized void addLongLines(int lines) {
+        this.longLines += lines;
+    }
+
     /**
      * {@inheritDoc}
      */
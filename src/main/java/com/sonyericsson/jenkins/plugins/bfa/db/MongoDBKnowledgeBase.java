@@ -99,6 +99,8 @@ public class MongoDBKnowledgeBase extends KnowledgeBase {
     public static final String COLLECTION_NAME = "failureCauses";
     /**The name of the statistics collection in the database.*/
     public static final String STATISTICS_COLLECTION_NAME = "statistics";
+    /**The name of the scan queue collection in the database.*/
+    public static final String SCAN_QUEUE_COLLECTION_NAME = "scanQueue";
     private static final int MONGO_DEFAULT_PORT = 27017;
     /**
      * Query to single out documents that doesn't have a "removed" property
@@ -120,6 +122,7 @@ public class MongoDBKnowledgeBase extends KnowledgeBase {
     private transient JacksonMongoCollection<FailureCause> jacksonCollection;
     private transient JacksonMongoCollection<DBObject> jacksonStatisticsCollection;
     private transient MongoDBKnowledgeBaseCache cache;
+    private transient MongoDBScanQueue scanQueue;
 
     private String host;
     private int port;
@@ -787,6 +790,18 @@ public class MongoDBKnowledgeBase extends KnowledgeBase {
         return jacksonStatisticsCollection;
     }
 
+    /**
+     * Gets the queue of the scans for the scan workers.
+     * @return the queue.
+     * @see MongoDBScanWorker
+     */
+    public synchronized MongoDBScanQueue getScanQueue() {
+        if (scanQueue == null) {
+            scanQueue = new MongoDBScanQueue(getDb().getCollection(SCAN_QUEUE_COLLECTION_NAME));
+        }
+        return scanQueue;
+    }
+
     /**
      * Descriptor for {@link MongoDBKnowledgeBase}.
      */
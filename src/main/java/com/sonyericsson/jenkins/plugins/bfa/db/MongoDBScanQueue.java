@@ -0,0 +1,517 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.db;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.SlidingWindow;
+import hudson.model.Run;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.lt;
+import static com.mongodb.client.model.Filters.or;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
+import static com.mongodb.client.model.Updates.set;
+
+/**
+ * A queue of scans in a collection of the MongoDB knowledge base, shared by the controller that enqueues the scans
+ * and the {@link MongoDBScanWorker}s that scan the logs.
+ *
+ * A worker claims a queued scan with a lease that it renews while it scans. When a worker dies, its lease runs out
+ * and the scan is claimed by another worker, up to {@link #MAX_ATTEMPTS} times. The worker writes what it found back
+ * to the scan, where the controller waiting for it takes it and removes the scan. Scans that nobody takes are
+ * removed by MongoDB after {@link #EXPIRE_AFTER_HOURS} hours.
+ */
+public class MongoDBScanQueue {
+
+    /**
+     * The number of times a scan is claimed before it is given up on, e.g. when its log kills the workers.
+     */
+    public static final int MAX_ATTEMPTS = 3;
+    /**
+     * The number of hours after which a scan is removed, whatever its state.
+     */
+    public static final long EXPIRE_AFTER_HOURS = 24;
+
+    static final String QUEUED = "queued";
+    static final String CLAIMED = "claimed";
+    static final String DONE = "done";
+    static final String FAILED = "failed";
+
+    private static final String ID = "_id";
+    private static final String STATE = "state";
+    private static final String CREATED = "created";
+    private static final String WORKER = "worker";
+    private static final String LEASE_EXPIRES = "leaseExpires";
+    private static final String ATTEMPTS = "attempts";
+    private static final String ERROR = "error";
+    private static final String RESULTS = "results";
+    private static final String CAUSE_ID = "failureCause";
+    private static final String INDICATIONS = "indications";
+
+    private final MongoCollection<Document> collection;
+    private boolean indexed;
+
+    /**
+     * Standard constructor.
+     *
+     * @param collection the collection of the queue.
+     */
+    public MongoDBScanQueue(MongoCollection<Document> collection) {
+        this.collection = collection;
+    }
+
+    /**
+     * Creates the indexes of the collection, once: for the workers to find the oldest queued scan, and for MongoDB
+     * to remove the scans nobody took.
+     */
+    private synchronized void ensureIndexes() {
+        if (!indexed) {
+            collection.createIndex(Indexes.ascending(STATE, CREATED));
+            collection.createIndex(Indexes.ascending(CREATED),
+                    new IndexOptions().expireAfter(EXPIRE_AFTER_HOURS, TimeUnit.HOURS));
+            indexed = true;
+        }
+    }
+
+    /**
+     * Adds a scan to the queue.
+     *
+     * @param job the scan.
+     * @return the id of the scan.
+     */
+    public String enqueue(Job job) {
+        ensureIndexes();
+        Document document = job.toDocument();
+        document.put(STATE, QUEUED);
+        document.put(CREATED, new Date());
+        document.put(ATTEMPTS, 0);
+        collection.insertOne(document);
+        job.id = document.getObjectId(ID).toHexString();
+        return job.id;
+    }
+
+    /**
+     * Claims the oldest queued scan, or a scan whose worker let its lease run out.
+     *
+     * @param workerId the id of the claiming worker.
+     * @param leaseMillis how long the scan is the worker's without being renewed.
+     * @return the scan, or null if there is none to claim.
+     */
+    public Job claim(String workerId, long leaseMillis) {
+        Date now = new Date();
+        Bson claimable = or(eq(STATE, QUEUED),
+                and(eq(STATE, CLAIMED), lt(LEASE_EXPIRES, now), lt(ATTEMPTS, MAX_ATTEMPTS)));
+        Document document = collection.findOneAndUpdate(claimable,
+                combine(set(STATE, CLAIMED), set(WORKER, workerId),
+                        set(LEASE_EXPIRES, new Date(now.getTime() + leaseMillis)), inc(ATTEMPTS, 1)),
+                new FindOneAndUpdateOptions().sort(Sorts.ascending(CREATED)).returnDocument(ReturnDocument.AFTER));
+        if (document == null) {
+            return null;
+        }
+        return Job.fromDocument(document);
+    }
+
+    /**
+     * Renews the lease of a claimed scan.
+     *
+     * @param job the scan.
+     * @param workerId the id of the worker.
+     * @param leaseMillis how long the scan is the worker's from now.
+     * @return true if the scan is still the worker's.
+     */
+    public boolean renew(Job job, String workerId, long leaseMillis) {
+        return collection.updateOne(claimedBy(job, workerId),
+                set(LEASE_EXPIRES, new Date(System.currentTimeMillis() + leaseMillis))).getModifiedCount() == 1;
+    }
+
+    /**
+     * Writes what a worker found to a claimed scan.
+     *
+     * @param job the scan.
+     * @param workerId the id of the worker.
+     * @param found the found causes.
+     * @return true if the scan was still the worker's, false if it was given to another worker or given up on.
+     */
+    public boolean complete(Job job, String workerId, List<FoundFailureCause> found) {
+        List<Document> results = new ArrayList<Document>(found.size());
+        for (FoundFailureCause cause : found) {
+            if (cause.getId() == null) {
+                continue;
+            }
+            List<Document> indications = new ArrayList<Document>(cause.getIndications().size());
+            for (FoundIndication indication : cause.getIndications()) {
+                Document indicationDocument = new Document();
+                indicationDocument.put("pattern", indication.getPattern());
+                indicationDocument.put("matchingFile", indication.getMatchingFile());
+                indicationDocument.put("matchingString", indication.getMatchingString());
+                indicationDocument.put("matchingLine", indication.getMatchingLine());
+                indications.add(indicationDocument);
+            }
+            results.add(new Document(CAUSE_ID, cause.getId()).append(INDICATIONS, indications));
+        }
+        return collection.updateOne(claimedBy(job, workerId),
+                combine(set(STATE, DONE), set(RESULTS, results))).getModifiedCount() == 1;
+    }
+
+    /**
+     * Records that a worker could not scan a claimed scan.
+     *
+     * @param job the scan.
+     * @param workerId the id of the worker.
+     * @param error what went wrong.
+     * @return true if the scan was still the worker's.
+     */
+    public boolean fail(Job job, String workerId, String error) {
+        return collection.updateOne(claimedBy(job, workerId),
+                combine(set(STATE, FAILED), set(ERROR, error))).getModifiedCount() == 1;
+    }
+
+    /**
+     * The filter of a scan claimed by a worker.
+     *
+     * @param job the scan.
+     * @param workerId the id of the worker.
+     * @return the filter.
+     */
+    private static Bson claimedBy(Job job, String workerId) {
+        return and(eq(ID, new ObjectId(job.getId())), eq(STATE, CLAIMED), eq(WORKER, workerId));
+    }
+
+    /**
+     * Waits for the workers to scan a scan, and removes it from the queue. A scan that was not done in time is
+     * removed as well, so that no worker starts it late.
+     *
+     * @param id the id of the scan.
+     * @param causes the causes of the knowledge base, to look up the found causes by id. Causes found by a worker
+     *               that are not among them, e.g. because they were removed in the meantime, are left out.
+     * @param build the scanned build.
+     * @param timeoutMillis how long to wait.
+     * @param pollMillis how often to look at the scan.
+     * @return the found causes, or null if the scan was not done in time.
+     * @throws IOException if the workers could not scan the log.
+     * @throws InterruptedException if interrupted while waiting, the scan is removed.
+     */
+    public List<FoundFailureCause> await(String id, Collection<FailureCause> causes, Run build, long timeoutMillis,
+                                         long pollMillis) throws IOException, InterruptedException {
+        Bson byId = eq(ID, new ObjectId(id));
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (true) {
+                Document document = collection.find(byId).first();
+                if (document == null) {
+                    throw new IOException("The scan was removed from the queue");
+                }
+                String state = document.getString(STATE);
+                if (DONE.equals(state)) {
+                    return toFoundCauses(document.getList(RESULTS, Document.class), causes, build);
+                } else if (FAILED.equals(state)) {
+                    throw new IOException(document.getString(ERROR));
+                } else if (CLAIMED.equals(state) && document.getInteger(ATTEMPTS, 0) >= MAX_ATTEMPTS
+                        && document.getDate(LEASE_EXPIRES).before(new Date())) {
+                    throw new IOException("The scan was given up on after " + MAX_ATTEMPTS + " attempts");
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                Thread.sleep(Math.min(pollMillis, remaining));
+            }
+        } finally {
+            collection.deleteOne(byId);
+        }
+    }
+
+    /**
+     * Converts the results written by a worker to found causes.
+     *
+     * @param results the results.
+     * @param causes the causes of the knowledge base.
+     * @param build the scanned build.
+     * @return the found causes.
+     */
+    private static List<FoundFailureCause> toFoundCauses(List<Document> results, Collection<FailureCause> causes,
+                                                         Run build) {
+        if (results == null) {
+            return Collections.emptyList();
+        }
+        Map<String, FailureCause> causesById = new HashMap<String, FailureCause>();
+        for (FailureCause cause : causes) {
+            causesById.put(cause.getId(), cause);
+        }
+        List<FoundFailureCause> found = new ArrayList<FoundFailureCause>(results.size());
+        for (Document result : results) {
+            FailureCause cause = causesById.get(result.getString(CAUSE_ID));
+            if (cause == null) {
+                continue;
+            }
+            List<FoundIndication> indications = new ArrayList<FoundIndication>();
+            for (Document indication : result.getList(INDICATIONS, Document.class)) {
+                indications.add(new FoundIndication(build, indication.getString("pattern"),
+                        indication.getString("matchingFile"), indication.getString("matchingString"),
+                        indication.getInteger("matchingLine")));
+            }
+            found.add(new FoundFailureCause(cause, indications));
+        }
+        return found;
+    }
+
+    /**
+     * A scan of the log of a build, with the settings of the controller that the worker should scan with.
+     */
+    public static class Job {
+        private String id;
+        private final String projectName;
+        private final int buildNumber;
+        private final String logPath;
+        private final String charset;
+        private boolean linearMatching = true;
+        private int maxLineLength;
+        private int multilineWindowSize = SlidingWindow.DEFAULT_WINDOW_SIZE;
+        private int multilineMaxMatchSpan = SlidingWindow.DEFAULT_MAX_MATCH_SPAN;
+        private List<String> fallbackCategories = Collections.emptyList();
+        private int maxFoundCauses;
+
+        /**
+         * Standard constructor.
+         *
+         * @param projectName the full name of the project of the build.
+         * @param buildNumber the number of the build.
+         * @param logPath the path of the log file, where the workers can read it.
+         * @param charset the charset of the log.
+         */
+        public Job(String projectName, int buildNumber, String logPath, String charset) {
+            this.projectName = projectName;
+            this.buildNumber = buildNumber;
+            this.logPath = logPath;
+            this.charset = charset;
+        }
+
+        /**
+         * The id of the scan in the queue.
+         *
+         * @return the id, or null if not queued.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * The full name of the project of the build.
+         *
+         * @return the name.
+         */
+        public String getProjectName() {
+            return projectName;
+        }
+
+        /**
+         * The number of the build.
+         *
+         * @return the number.
+         */
+        public int getBuildNumber() {
+            return buildNumber;
+        }
+
+        /**
+         * The path of the log file.
+         *
+         * @return the path.
+         */
+        public String getLogPath() {
+            return logPath;
+        }
+
+        /**
+         * The charset of the log.
+         *
+         * @return the charset.
+         */
+        public Charset getCharset() {
+            return Charset.forName(charset);
+        }
+
+        /**
+         * If the patterns that can be should be matched in linear time.
+         *
+         * @return true if so.
+         */
+        public boolean isLinearMatching() {
+            return linearMatching;
+        }
+
+        /**
+         * Sets if the patterns that can be should be matched in linear time.
+         *
+         * @param linearMatching true if so.
+         */
+        public void setLinearMatching(boolean linearMatching) {
+            this.linearMatching = linearMatching;
+        }
+
+        /**
+         * The length from which a line is scanned in overlapping chunks.
+         *
+         * @return the length, 0 to scan whole lines.
+         */
+        public int getMaxLineLength() {
+            return maxLineLength;
+        }
+
+        /**
+         * Sets the length from which a line is scanned in overlapping chunks.
+         *
+         * @param maxLineLength the length, 0 to scan whole lines.
+         */
+        public void setMaxLineLength(int maxLineLength) {
+            this.maxLineLength = maxLineLength;
+        }
+
+        /**
+         * The number of chars read into the sliding search area of the multi-line scan each round.
+         *
+         * @return the window size.
+         */
+        public int getMultilineWindowSize() {
+            return multilineWindowSize;
+        }
+
+        /**
+         * The maximum length of a multi-line match spanning two rounds.
+         *
+         * @return the match span.
+         */
+        public int getMultilineMaxMatchSpan() {
+            return multilineMaxMatchSpan;
+        }
+
+        /**
+         * Sets the sliding search area of the multi-line scan.
+         *
+         * @param windowSize the number of chars read into the search area each round.
+         * @param maxMatchSpan the maximum length of a match spanning two rounds.
+         */
+        public void setMultiline(int windowSize, int maxMatchSpan) {
+            this.multilineWindowSize = windowSize;
+            this.multilineMaxMatchSpan = maxMatchSpan;
+        }
+
+        /**
+         * The categories of the causes that do not keep the scan going once another cause has been found.
+         *
+         * @return the categories.
+         */
+        public List<String> getFallbackCategories() {
+            return fallbackCategories;
+        }
+
+        /**
+         * The number of causes after which the scan stops.
+         *
+         * @return the number, 0 to find all causes.
+         */
+        public int getMaxFoundCauses() {
+            return maxFoundCauses;
+        }
+
+        /**
+         * Sets when the scan may stop before the end of the log, see
+         * {@link com.sonyericsson.jenkins.plugins.bfa.scan.ScanPlan}.
+         *
+         * @param categories the fallback categories.
+         * @param maxCauses the number of causes after which the scan stops, 0 to find all causes.
+         */
+        public void setPlan(List<String> categories, int maxCauses) {
+            this.fallbackCategories = new ArrayList<String>(categories);
+            this.maxFoundCauses = maxCauses;
+        }
+
+        /**
+         * Converts the scan to a document of the queue.
+         *
+         * @return the document.
+         */
+        private Document toDocument() {
+            Document document = new Document();
+            document.put("projectName", projectName);
+            document.put("buildNumber", buildNumber);
+            document.put("logPath", logPath);
+            document.put("charset", charset);
+            document.put("linearMatching", linearMatching);
+            document.put("maxLineLength", maxLineLength);
+            document.put("multilineWindowSize", multilineWindowSize);
+            document.put("multilineMaxMatchSpan", multilineMaxMatchSpan);
+            document.put("fallbackCategories", fallbackCategories);
+            document.put("maxFoundCauses", maxFoundCauses);
+            return document;
+        }
+
+        /**
+         * Converts a document of the queue to a scan.
+         *
+         * @param document the document.
+         * @return the scan.
+         */
+        private static Job fromDocument(Document document) {
+            Job job = new Job(document.getString("projectName"), document.getInteger("buildNumber", 0),
+                    document.getString("logPath"), document.getString("charset"));
+            job.id = document.getObjectId(ID).toHexString();
+            job.setLinearMatching(document.getBoolean("linearMatching", true));
+            job.setMaxLineLength(document.getInteger("maxLineLength", 0));
+            job.setMultiline(document.getInteger("multilineWindowSize", SlidingWindow.DEFAULT_WINDOW_SIZE),
+                    document.getInteger("multilineMaxMatchSpan", SlidingWindow.DEFAULT_MAX_MATCH_SPAN));
+            List<String> categories = document.getList("fallbackCategories", String.class);
+            if (categories == null) {
+                categories = Collections.emptyList();
+            }
+            job.setPlan(categories, document.getInteger("maxFoundCauses", 0));
+            return job;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.db;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LogFileScan;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanPlan;
+import hudson.util.Secret;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A scan worker: takes the scans that a controller queued in the MongoDB knowledge base, see
+ * {@link MongoDBScanQueue}, scans the logs with the causes of the knowledge base, and writes what it found back for
+ * the controller. The workers run in processes of their own, so that scanning does not compete with the controller,
+ * and read the logs from a file system shared with the controller.
+ *
+ * Started with the plugin and Jenkins core on the class path:
+ * <pre>
+ * java com.sonyericsson.jenkins.plugins.bfa.db.MongoDBScanWorker host port dbName [threads]
+ * </pre>
+ * The user name and password of the database, if any, are read from the environment variables
+ * {@value #USER_NAME_VARIABLE} and {@value #PASSWORD_VARIABLE}.
+ */
+public class MongoDBScanWorker implements Runnable {
+
+    /**
+     * The environment variable with the user name of the database.
+     */
+    public static final String USER_NAME_VARIABLE = "BFA_MONGO_USER";
+    /**
+     * The environment variable with the password of the database.
+     */
+    public static final String PASSWORD_VARIABLE = "BFA_MONGO_PASSWORD";
+    /**
+     * How long (in ms) a claimed scan is the worker's without being renewed.
+     */
+    public static final long DEFAULT_LEASE = 60000;
+    /**
+     * How long (in ms) a worker waits before looking at the queue again when it was empty.
+     */
+    public static final long POLL_INTERVAL = 1000;
+
+    private static final Logger logger = Logger.getLogger(MongoDBScanWorker.class.getName());
+    private static final int ARGS_MIN = 3;
+    private static final int ARGS_MAX = 4;
+    private static final int LEASE_RENEWALS = 3;
+
+    private static final ScheduledExecutorService LEASE_RENEWER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "BFA-scan-worker-lease");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final MongoDBKnowledgeBase knowledgeBase;
+    private final String workerId;
+    private final long lease;
+    private volatile boolean stopped;
+
+    /**
+     * Standard constructor.
+     *
+     * @param knowledgeBase the knowledge base with the queue and the causes.
+     * @param workerId the id of the worker, unique among the workers.
+     * @param lease how long (in ms) a claimed scan is the worker's without being renewed.
+     */
+    public MongoDBScanWorker(MongoDBKnowledgeBase knowledgeBase, String workerId, long lease) {
+        this.knowledgeBase = knowledgeBase;
+        this.workerId = workerId;
+        this.lease = lease;
+    }
+
+    /**
+     * Claims the next queued scan and scans it, renewing its lease while scanning.
+     *
+     * @return true if a scan was claimed, false if the queue was empty.
+     */
+    public boolean scanNext() {
+        final MongoDBScanQueue queue = knowledgeBase.getScanQueue();
+        final MongoDBScanQueue.Job job = queue.claim(workerId, lease);
+        if (job == null) {
+            return false;
+        }
+        ScheduledFuture<?> renewal = LEASE_RENEWER.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!queue.renew(job, workerId, lease)) {
+                        logger.log(Level.WARNING, "Lost the lease of the scan of {0} #{1}",
+                                new Object[]{job.getProjectName(), job.getBuildNumber(), });
+                    }
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Could not renew the lease of a scan", e);
+                }
+            }
+        }, lease / LEASE_RENEWALS, lease / LEASE_RENEWALS, TimeUnit.MILLISECONDS);
+        try {
+            List<FoundFailureCause> found = scan(job);
+            if (!queue.complete(job, workerId, found)) {
+                logger.log(Level.WARNING, "The scan of {0} #{1} was no longer ours when done",
+                        new Object[]{job.getProjectName(), job.getBuildNumber(), });
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Could not scan " + job.getProjectName() + " #" + job.getBuildNumber(), e);
+            queue.fail(job, workerId, e.toString());
+        } finally {
+            renewal.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Scans the log of a scan with the causes of the knowledge base, as they are when the scan starts.
+     *
+     * @param job the scan.
+     * @return the found causes.
+     * @throws Exception if the causes could not be read or the log could not be scanned.
+     */
+    private List<FoundFailureCause> scan(MongoDBScanQueue.Job job) throws Exception {
+        List<FailureCause> causes = new ArrayList<FailureCause>(knowledgeBase.getCauses());
+        ScanPlan plan = new ScanPlan(causes, job.getFallbackCategories(), job.getMaxFoundCauses());
+        return LogFileScan.scan(causes, new File(job.getLogPath()), job.getCharset(), job.isLinearMatching(),
+                job.getMaxLineLength(), job.getMultilineWindowSize(), job.getMultilineMaxMatchSpan(),
+                ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors(), plan);
+    }
+
+    /**
+     * Scans until stopped, looking at the queue every {@link #POLL_INTERVAL} ms while it is empty.
+     */
+    @Override
+    public void run() {
+        while (!stopped) {
+            boolean scanned = false;
+            try {
+                scanned = scanNext();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Could not claim a scan", e);
+            }
+            if (!scanned) {
+                try {
+                    Thread.sleep(POLL_INTERVAL);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the worker after the scan in progress.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Runs scan workers until the process is stopped.
+     *
+     * @param args the host, the port and the name of the database, and the number of workers, by default the
+     *             number of processors.
+     * @throws InterruptedException if interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < ARGS_MIN || args.length > ARGS_MAX) {
+            System.err.println("Usage: " + MongoDBScanWorker.class.getName() + " host port dbName [threads]");
+            System.exit(1);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length == ARGS_MAX) {
+            threads = Integer.parseInt(args[ARGS_MAX - 1]);
+        }
+        Secret password = null;
+        String plainPassword = System.getenv(PASSWORD_VARIABLE);
+        if (plainPassword != null) {
+            password = Secret.fromString(plainPassword);
+        }
+        MongoDBKnowledgeBase knowledgeBase = new MongoDBKnowledgeBase(args[0], Integer.parseInt(args[1]), args[2],
+                System.getenv(USER_NAME_VARIABLE), password, false, false);
+        String processId = ManagementFactory.getRuntimeMXBean().getName();
+        List<Thread> workers = new ArrayList<Thread>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(new MongoDBScanWorker(knowledgeBase, processId + "-" + i, DEFAULT_LEASE),
+                    "BFA-scan-worker-" + i);
+            thread.start();
+            workers.add(thread);
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+    }
+}
@@ -24,16 +24,15 @@
 
 package com.sonyericsson.jenkins.plugins.bfa.model;
 
+import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MultiPatternMatcher;
 import hudson.model.Run;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 
 /**
@@ -43,8 +42,6 @@ import java.util.logging.Logger;
  */
 public class BuildLogFailureReader extends FailureReader {
 
-    private static final Logger logger = Logger.getLogger(BuildLogFailureReader.class.getName());
-
     /**
      * Standard constructor.
      * @param indication the indication to look for.
@@ -63,30 +60,18 @@ public class BuildLogFailureReader extends FailureReader {
      */
     @Override
     public FoundIndication scan(Run build) throws IOException {
-        BufferedReader reader = null;
-        try {
-            reader = new BufferedReader(build.getLogReader());
-            List<FailureCause> causes = new ArrayList<FailureCause>(1);
-            FailureCause fc = new FailureCause("somename", "somedescription");
-            causes.add(fc);
-            fc.addIndication(indication);
-            List<FoundFailureCause> foundFailureCauses = FailureReader.scanSingleLinePatterns(causes,
-                                                                                              build,
-                                                                                              reader,
-                                                                                              "log");
-            if (foundFailureCauses.isEmpty()) {
-                return null;
-            } else {
-                return foundFailureCauses.get(0).getIndications().get(0);
-            }
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                    logger.log(Level.WARNING, "Failed to close the reader. ", e);
-                }
-            }
+        List<FailureCause> causes = new ArrayList<FailureCause>(1);
+        FailureCause fc = new FailureCause("somename", "somedescription");
+        causes.add(fc);
+        fc.addIndication(indication);
+        List<FoundFailureCause> foundFailureCauses = FailureReader.scanSingleLinePatterns(
+                MultiPatternMatcher.compile(causes, PluginImpl.getInstance().isLinearMatchingEnabled()),
+                build,
+                PluginImpl.getInstance().isByteLevelScanningEnabled());
+        if (foundFailureCauses.isEmpty()) {
+            return null;
+        } else {
+            return foundFailureCauses.get(0).getIndications().get(0);
         }
     }
 }
@@ -32,6 +32,7 @@ import com.sonyericsson.jenkins.plugins.bfa.CauseManagement;
 import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
 import com.sonyericsson.jenkins.plugins.bfa.db.KnowledgeBase;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.sod.RescanOnCauseSave;
 import hudson.Extension;
 import hudson.Util;
 import hudson.model.Action;
@@ -295,10 +296,14 @@ public class FailureCause implements Serializable, Action, Describable<FailureCa
 
         this.modifications.add(0, new FailureCauseModification(user, new Date()));
 
+        FailureCause saved;
         if (newId == null) {
-            PluginImpl.getInstance().getKnowledgeBase().addCause(this);
+            saved = PluginImpl.getInstance().getKnowledgeBase().addCause(this);
         } else {
-            PluginImpl.getInstance().getKnowledgeBase().saveCause(this);
+            saved = PluginImpl.getInstance().getKnowledgeBase().saveCause(this);
+        }
+        if (saved != null) {
+            RescanOnCauseSave.causeSaved(saved);
         }
 
         response.sendRedirect2("../");
@@ -557,6 +562,23 @@ public class FailureCause implements Serializable, Action, Describable<FailureCa
         return indications;
     }
 
+    /**
+     * A digest of what a scan looks for to find this cause, i.e. its indications. Two versions of the cause with the
+     * same fingerprint find the same in any build log.
+     *
+     * @return the fingerprint.
+     * @see FailureCauseBuildAction#getChangedCauses(java.util.Collection)
+     */
+    @JsonIgnore
+    public String getScanFingerprint() {
+        StringBuilder indicationsString = new StringBuilder();
+        for (Indication indication : getIndications()) {
+            indicationsString.append(indication.getClass().getName()).append('\n');
+            indicationsString.append(indication.getUserProvidedExpression()).append('\n');
+        }
+        return Util.getDigestOf(indicationsString.toString());
+    }
+
     //CS IGNORE JavadocMethod FOR NEXT 8 LINES. REASON: The exception can be thrown.
 
     /**
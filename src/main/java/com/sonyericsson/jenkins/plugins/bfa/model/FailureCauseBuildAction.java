@@ -28,6 +28,7 @@ package com.sonyericsson.jenkins.plugins.bfa.model;
 import com.sonyericsson.jenkins.plugins.bfa.Messages;
 import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
 import com.sonyericsson.jenkins.plugins.bfa.model.dbf.DownstreamBuildFinder;
+import hudson.Util;
 import hudson.matrix.MatrixRun;
 import hudson.model.BuildBadgeAction;
 import hudson.model.Run;
@@ -38,10 +39,16 @@ import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -55,6 +62,11 @@ import java.util.logging.Logger;
 public class FailureCauseBuildAction implements BuildBadgeAction {
     private transient List<FailureCause> failureCauses;
     private List<FoundFailureCause> foundFailureCauses;
+    /**
+     * The {@link FailureCause#getScanFingerprint()} of each cause the build has been scanned for, by id.
+     * Null if the action was created before this was recorded.
+     */
+    private Map<String, String> scannedCauses;
     /**
      * The url of this action.
      */
@@ -72,6 +84,149 @@ public class FailureCauseBuildAction implements BuildBadgeAction {
         this.foundFailureCauses = foundFailureCauses;
     }
 
+    /**
+     * Records the causes the build has been scanned for, in the state they were scanned with.
+     *
+     * @param causes the causes of the knowledge base that produced {@link #getFoundFailureCauses()}.
+     */
+    public synchronized void setScannedCauses(Collection<FailureCause> causes) {
+        Map<String, String> fingerprints = new TreeMap<String, String>();
+        for (FailureCause cause : causes) {
+            if (cause.getId() != null) {
+                fingerprints.put(cause.getId(), cause.getScanFingerprint());
+            }
+        }
+        this.scannedCauses = fingerprints;
+    }
+
+    /**
+     * The causes the build has been scanned for.
+     *
+     * @return the {@link FailureCause#getScanFingerprint()} of each cause by id, or null if not recorded.
+     */
+    public synchronized Map<String, String> getScannedCauses() {
+        if (scannedCauses == null) {
+            return null;
+        }
+        return Collections.unmodifiableMap(scannedCauses);
+    }
+
+    /**
+     * The version of the knowledge base that produced the found causes: a digest of the causes the build was
+     * scanned for and what they looked for.
+     *
+     * @return the version, or null if not recorded.
+     */
+    @Exported
+    public synchronized String getKnowledgeBaseVersion() {
+        if (scannedCauses == null) {
+            return null;
+        }
+        StringBuilder version = new StringBuilder();
+        for (Map.Entry<String, String> entry : scannedCauses.entrySet()) {
+            version.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return Util.getDigestOf(version.toString());
+    }
+
+    /**
+     * Finds the causes that could find something else than when the build was scanned: causes that have been added
+     * to the knowledge base since, or whose indications have been changed.
+     *
+     * @param causes the causes of the knowledge base.
+     * @return the added and changed causes, all causes if it is not recorded what the build was scanned for.
+     */
+    public synchronized List<FailureCause> getChangedCauses(Collection<FailureCause> causes) {
+        List<FailureCause> changed = new ArrayList<FailureCause>();
+        for (FailureCause cause : causes) {
+            if (scannedCauses == null || cause.getId() == null
+                    || !cause.getScanFingerprint().equals(scannedCauses.get(cause.getId()))) {
+                changed.add(cause);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Merges the result of scanning the build again for some causes with the causes found before. What was found
+     * for those causes before is replaced, the rest is kept.
+     *
+     * @param causes the causes of the knowledge base, in the order the result should have.
+     * @param rescannedCauses the causes the build was scanned again for.
+     * @param found what was found for the rescanned causes.
+     * @return the merged list of found causes, in knowledge base order followed by causes not in it.
+     */
+    public synchronized List<FoundFailureCause> mergeFoundFailureCauses(Collection<FailureCause> causes,
+                                                                         Collection<FailureCause> rescannedCauses,
+                                                                         List<FoundFailureCause> found) {
+        Set<String> rescannedIds = new TreeSet<String>();
+        for (FailureCause cause : rescannedCauses) {
+            if (cause.getId() != null) {
+                rescannedIds.add(cause.getId());
+            }
+        }
+        List<FoundFailureCause> merged = new ArrayList<FoundFailureCause>();
+        if (foundFailureCauses != null) {
+            for (FoundFailureCause foundBefore : foundFailureCauses) {
+                if (foundBefore.getId() == null || !rescannedIds.contains(foundBefore.getId())) {
+                    merged.add(foundBefore);
+                }
+            }
+        }
+        merged.addAll(found);
+        final Map<String, Integer> order = new HashMap<String, Integer>();
+        for (FailureCause cause : causes) {
+            if (cause.getId() != null) {
+                order.put(cause.getId(), order.size());
+            }
+        }
+        // A stable sort, so found failed tests and causes no longer in the knowledge base keep their order.
+        Collections.sort(merged, new Comparator<FoundFailureCause>() {
+            @Override
+            public int compare(FoundFailureCause o1, FoundFailureCause o2) {
+                return Integer.compare(getOrder(o1), getOrder(o2));
+            }
+
+            /**
+             * The position of the cause in the knowledge base.
+             *
+             * @param foundCause the found cause.
+             * @return the index, or {@link Integer#MAX_VALUE} if not in the knowledge base.
+             */
+            private int getOrder(FoundFailureCause foundCause) {
+                Integer index = null;
+                if (foundCause.getId() != null) {
+                    index = order.get(foundCause.getId());
+                }
+                if (index == null) {
+                    return Integer.MAX_VALUE;
+                }
+                return index;
+            }
+        });
+        return merged;
+    }
+
+    /**
+     * Replaces the found causes after the build has been scanned again for some causes.
+     *
+     * @param mergedFoundFailureCauses the found causes, from {@link #mergeFoundFailureCauses(Collection,
+     * Collection, List)}.
+     * @param rescannedCauses the causes the build was scanned again for.
+     */
+    public synchronized void setFoundFailureCauses(List<FoundFailureCause> mergedFoundFailureCauses,
+                                                   Collection<FailureCause> rescannedCauses) {
+        this.foundFailureCauses = mergedFoundFailureCauses;
+        if (scannedCauses == null) {
+            scannedCauses = new TreeMap<String, String>();
+        }
+        for (FailureCause cause : rescannedCauses) {
+            if (cause.getId() != null) {
+                scannedCauses.put(cause.getId(), cause.getScanFingerprint());
+            }
+        }
+    }
+
     @Override
     public String getIconFileName() {
         if (Jenkins.getInstance().hasPermission(PluginImpl.UPDATE_PERMISSION)) {
@@ -26,23 +26,51 @@ package com.sonyericsson.jenkins.plugins.bfa.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
 import com.google.common.base.Joiner;
+import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
+import com.sonyericsson.jenkins.plugins.bfa.ScanLogAction;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ByteLineSource;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LineSource;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LogSegment;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MatchingPermits;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MultiPatternMatcher;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MultilineWindowScan;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ReaderLineSource;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanPlan;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanWatchdog;
+import com.sonyericsson.jenkins.plugins.bfa.scan.SlidingWindow;
+import com.sonyericsson.jenkins.plugins.bfa.scan.WindowSearch;
 import hudson.Util;
 import hudson.console.ConsoleNote;
 import hudson.model.AbstractBuild;
 import hudson.model.Run;
+import jenkins.model.Jenkins;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -60,26 +88,7 @@ public abstract class FailureReader {
     private static final long TIMEOUT_BLOCK = 2000;
     private static final long TIMEOUT_FILE = 10000;
     private static final long TIMEOUT_LINE = 1000;
-    private static final long SLEEPTIME = 200;
-
-    /**
-     * Overlapping bytes when moving the sliding window searching area.
-     * A value of 5000 essentially means that a regular expression can span
-     * 5000 bytes (~50 lines) anywhere in the buildlog and still get a match.
-     * Used when scanning for
-     * {@link com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication}.
-     *
-     * Can never be larger than BUF_SIZE_BYTES.
-     */
-    private static final int OVERLAP_BYTES = 5000;
-
-    /**
-     * The read buffer size for scanMultiLineOneFile(). This is also the size
-     * of the total "search area" when moving the sliding window through
-     * the buildlog. Used when scanning for
-     * {@link com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication}.
-     */
-    private static final int BUF_SIZE_BYTES = 15000;
+    private static final String LOG_FILE_NAME = "log";
 
     /** The indication we are looking for. */
     protected Indication indication;
@@ -153,7 +162,7 @@ public abstract class FailureReader {
     }
 
     /**
-     * Checks all patterns one-by-one for entire file.
+     * Checks all patterns for entire file, in one pass over the lines.
      *
      * @param causes list of failure causes that we a looking for.
      * @param build current build.
@@ -161,158 +170,431 @@ public abstract class FailureReader {
      * @param currentFile file name.
      * @return found indications.
      * @throws IOException Exception.
+     * @see MultiPatternMatcher#compile(List, boolean)
      */
-   public static List<FoundFailureCause> scanSingleLinePatterns(List<FailureCause> causes,
-                                                              Run build,
-                                                              BufferedReader reader,
-                                                              String currentFile) throws IOException {
-        TimerThread timerThread = new TimerThread(Thread.currentThread(), TIMEOUT_LINE);
-        final long adjustedFileTimeout = TIMEOUT_FILE * getTotalNumberOfPatterns(causes);
+    public static List<FoundFailureCause> scanSingleLinePatterns(List<FailureCause> causes,
+                                                               Run build,
+                                                               BufferedReader reader,
+                                                               String currentFile) throws IOException {
+        // Usually a few causes, e.g. to test an indication, which must not replace the shared snapshot.
+        boolean linearMatching = true;
+        if (Jenkins.getInstanceOrNull() != null) {
+            linearMatching = PluginImpl.getInstance().isLinearMatchingEnabled();
+        }
+        return scanSingleLinePatterns(MultiPatternMatcher.compile(causes, linearMatching), build, reader,
+                currentFile);
+    }
 
-        Map<FailureCause, List<FoundIndication>> resultMap = new HashMap<FailureCause, List<FoundIndication>>();
-        Map<FailureCause, List<Indication>> firstOccurrences = new HashMap<FailureCause, List<Indication>>();
+    /**
+     * Checks all patterns of a compiled matcher for entire file, in one pass over the lines.
+     * Only the first occurrence of each indication is reported. Patterns whose required literal
+     * is not in a line are not evaluated for that line.
+     *
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param reader file reader.
+     * @param currentFile file name.
+     * @return found indications.
+     * @throws IOException Exception.
+     */
+    public static List<FoundFailureCause> scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                                               Run build,
+                                                               BufferedReader reader,
+                                                               String currentFile) throws IOException {
+        return scanSingleLinePatterns(matcher, build, new ReaderLineSource(reader), currentFile);
+    }
 
-        timerThread.start();
-        try {
-            long startTime = System.currentTimeMillis();
-            int currentLine = 0;
-            String line;
-            while ((line = reader.readLine()) != null) {
-                currentLine++;
-                for (FailureCause cause : causes) {
-                    for (Indication indication : cause.getIndications()) {
-                        try {
-                            List<Indication> wasBefore = firstOccurrences.get(cause);
-                            if (wasBefore == null || !wasBefore.contains(indication)) {
-                                if (processIndication(build, currentFile, resultMap, line, cause, indication,
-                                        currentLine)) {
-                                    wasBefore = new ArrayList<Indication>();
-                                    wasBefore.add(indication);
-                                    firstOccurrences.put(cause, wasBefore);
-                                }
-                            }
-                        } catch (RuntimeException e) {
-                            if (e.getCause() instanceof InterruptedException) {
-                                logger.warning("Timeout scanning for indication '" + indication.toString() + "'"
-                                        + " for file " + currentFile + ":" + currentLine);
-                            } else {
-                                // This is not a timeout exception
-                                throw e;
-                            }
-                        }
-                        timerThread.touch();
-                        if (System.currentTimeMillis() - startTime > adjustedFileTimeout) {
-                            logger.warning("File timeout scanning for indication '" + indication.toString() + "'"
-                                    + " for file " + currentFile + ":" + currentLine);
-                            return convertToFoundFailureCauses(resultMap);
+    /**
+     * Checks all patterns of a compiled matcher for the log of a build.
+     * With byte level scanning, a log stored as a plain file is read into direct buffers and only the lines that
+     * contain the required literal of some pattern are decoded. Otherwise, or if the charset of the build does not
+     * allow it, the log is read through {@link Run#getLogReader()}.
+     *
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param byteLevel true to scan the log file at byte level when possible.
+     * @return found indications.
+     * @throws IOException Exception.
+     */
+    public static List<FoundFailureCause> scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                                               Run build,
+                                                               boolean byteLevel) throws IOException {
+        return scanSingleLinePatterns(matcher, build, byteLevel, 0, null);
+    }
+
+    /**
+     * Checks all patterns of a compiled matcher for the log of a build, like
+     * {@link #scanSingleLinePatterns(MultiPatternMatcher, Run, boolean)}, but a log file scanned at byte level that
+     * is at least as large as the threshold is split into line aligned segments that are scanned in parallel.
+     *
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param byteLevel true to scan the log file at byte level when possible.
+     * @param parallelThreshold the size in bytes from which a log file is scanned in segments, 0 to never do so.
+     * @param pool the pool to scan the segments on, one segment per thread of its parallelism.
+     * @return found indications.
+     * @throws IOException Exception, or if interrupted while waiting for the segments.
+     */
+    public static List<FoundFailureCause> scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                                               Run build,
+                                                               boolean byteLevel,
+                                                               long parallelThreshold,
+                                                               ForkJoinPool pool) throws IOException {
+        return scanSingleLinePatterns(matcher, build, byteLevel, parallelThreshold, pool, 0, null);
+    }
+
+    /**
+     * Checks all patterns of a compiled matcher for the log of a build, like
+     * {@link #scanSingleLinePatterns(MultiPatternMatcher, Run, boolean, long, ForkJoinPool)}, but stops reading the
+     * log when the plan is done. The segments of a log scanned in parallel are read to their end, and what they
+     * found is told to the plan when they are all done.
+     *
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param byteLevel true to scan the log file at byte level when possible.
+     * @param parallelThreshold the size in bytes from which a log file is scanned in segments, 0 to never do so.
+     * @param pool the pool to scan the segments on, one segment per thread of its parallelism.
+     * @param maxLineLength the length from which a line is scanned in overlapping chunks, 0 to scan whole lines.
+     * @param plan the plan of the scans of the log, told what is found, or null to read the whole log.
+     * @return found indications.
+     * @throws IOException Exception, or if interrupted while waiting for the segments.
+     */
+    public static List<FoundFailureCause> scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                                               Run build,
+                                                               boolean byteLevel,
+                                                               long parallelThreshold,
+                                                               ForkJoinPool pool,
+                                                               int maxLineLength,
+                                                               ScanPlan plan) throws IOException {
+        if (byteLevel) {
+            File logFile = build.getLogFile();
+            // Compressed or non file log storage goes through the reader.
+            if (logFile != null && logFile.isFile() && !logFile.getName().endsWith(".gz")) {
+                if (parallelThreshold > 0 && logFile.length() >= parallelThreshold && pool != null
+                        && pool.getParallelism() > 1 && matcher.getBytePrefilter(build.getCharset()) != null) {
+                    List<FoundFailureCause> found = scanSegments(matcher, build, logFile, pool, maxLineLength);
+                    if (plan != null) {
+                        for (FoundFailureCause cause : found) {
+                            plan.found(cause);
                         }
                     }
+                    return found;
+                }
+                ByteLineSource source = ByteLineSource.open(logFile, build.getCharset(), matcher);
+                if (source != null) {
+                    source.setMaxLineLength(maxLineLength);
+                    try {
+                        return scanSingleLinePatterns(matcher, build, source, LOG_FILE_NAME, plan);
+                    } finally {
+                        closeSource(source);
+                    }
                 }
             }
-            return convertToFoundFailureCauses(resultMap);
+        }
+        BufferedReader reader = new BufferedReader(build.getLogReader());
+        try {
+            return scanSingleLinePatterns(matcher, build, new ReaderLineSource(reader, maxLineLength), LOG_FILE_NAME,
+                    plan);
         } finally {
-            timerThread.requestStop();
-            timerThread.interrupt();
             try {
-                timerThread.join();
-                //CS IGNORE EmptyBlock FOR NEXT 2 LINES. REASON: unimportant exception
-            } catch (InterruptedException eIgnore) {
+                reader.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close the reader. ", e);
             }
-            // reset the interrupt
-            Thread.interrupted();
         }
     }
 
     /**
-     * Calculates total number of patterns in list of causes.
+     * Scans the segments of a log file in parallel and merges what they found.
      *
-     * @param causes list of failure causes that we a looking for.
-     * @return total number of patterns.
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param logFile the log file.
+     * @param pool the pool to scan the segments on.
+     * @param maxLineLength the length from which a line is scanned in overlapping chunks, 0 to scan whole lines.
+     * @return found indications, as if the file had been scanned from start to end.
+     * @throws IOException if a segment could not be read, or if interrupted while waiting for the segments.
      */
-    private static int getTotalNumberOfPatterns(List<FailureCause> causes) {
-        int total = 0;
-        for (FailureCause cause : causes) {
-            total += cause.getIndications().size();
+    private static List<FoundFailureCause> scanSegments(final MultiPatternMatcher matcher,
+                                                        final Run build,
+                                                        final File logFile,
+                                                        ForkJoinPool pool,
+                                                        final int maxLineLength) throws IOException {
+        final List<LogSegment> segments = LogSegment.split(logFile, pool.getParallelism());
+        ForkJoinTask<Void> task = pool.submit(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> segmentScans = new ArrayList<RecursiveAction>(segments.size());
+                for (final LogSegment segment : segments) {
+                    segmentScans.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            try {
+                                scanSegment(matcher, build, logFile, segment, maxLineLength);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                    });
+                }
+                invokeAll(segmentScans);
+            }
+        });
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw new InterruptedIOException("Interrupted while scanning the segments of the log");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException)e.getCause()).getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        MultiPatternMatcher.Scan total = matcher.newScan();
+        for (LogSegment segment : segments) {
+            total.addCost(segment.getScan());
         }
-        return total;
+        total.recordCost();
+        return matcher.merge(segments);
     }
 
     /**
+     * Scans one segment of a log file, counting its lines.
      *
-     * Updates map of found failure causes if pattern matches the line
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param logFile the log file.
+     * @param segment the segment, gets the result.
+     * @param maxLineLength the length from which a line is scanned in overlapping chunks, 0 to scan whole lines.
+     * @throws IOException if the segment could not be read.
+     */
+    private static void scanSegment(MultiPatternMatcher matcher, Run build, File logFile, LogSegment segment,
+                                    int maxLineLength) throws IOException {
+        ByteLineSource source = ByteLineSource.open(logFile, build.getCharset(), matcher, segment);
+        source.setMaxLineLength(maxLineLength);
+        try {
+            MultiPatternMatcher.Scan scan = matcher.newScan();
+            scanSingleLinePatterns(matcher, scan, build, source, LOG_FILE_NAME, 0, true);
+            segment.setResult(scan, source.countLines());
+        } finally {
+            closeSource(source);
+        }
+    }
+
+    /**
+     * Closes a byte level source, logging failures.
      *
-     * @param build current build
-     * @param currentFile current file
-     * @param causeIndicationsMap result map
-     * @param line line with content
-     * @param cause current cause
-     * @param indication indication that should be checked
-     * @param lineNumber The line number of the indication
-     * @return true if new indication was found
+     * @param source the source.
      */
-    private static boolean processIndication(Run build,
-                                             String currentFile,
-                                             Map<FailureCause, List<FoundIndication>> causeIndicationsMap,
-                                             String line,
-                                             FailureCause cause,
-                                             Indication indication,
-                                             int lineNumber) {
-        Pattern pattern = indication.getPattern();
-
-        if (pattern.matcher(new InterruptibleCharSequence(line)).matches()) {
-            FoundIndication foundIndication = new FoundIndication(
-                                                    build,
-                                                    pattern.toString(),
-                                                    currentFile,
-                                                    ConsoleNote.removeNotes(line),
-                                                    lineNumber);
-
-
-            putToMapWithList(causeIndicationsMap, cause, foundIndication);
-            return true;
+    private static void closeSource(ByteLineSource source) {
+        try {
+            source.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close the log file. ", e);
         }
-        return false;
     }
 
     /**
-     * Put FoundIndication to List of according FailureCause
-     * @param causeIndicationsMap result map
-     * @param cause Failure cause that would be used as key
-     * @param foundIndication Found indication that would be pushed to map
+     * Checks all patterns of a compiled matcher for the lines of a source, in one pass.
+     * Only the first occurrence of each indication is reported. Patterns whose required literal
+     * is not in a line are not evaluated for that line, and a line that no pattern needs is not decoded.
+     *
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param source the lines to scan.
+     * @param currentFile file name.
+     * @return found indications.
+     * @throws IOException Exception.
      */
-    private static void putToMapWithList(Map<FailureCause,
-                                         List<FoundIndication>> causeIndicationsMap,
-                                         FailureCause cause,
-                                         FoundIndication foundIndication) {
-        if (causeIndicationsMap.containsKey(cause)) {
-            causeIndicationsMap.get(cause).add(foundIndication);
-        } else {
-            List<FoundIndication> foundIndications = new ArrayList<FoundIndication>();
-            foundIndications.add(foundIndication);
-            causeIndicationsMap.put(cause, foundIndications);
+    public static List<FoundFailureCause> scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                                               Run build,
+                                                               LineSource source,
+                                                               String currentFile) throws IOException {
+        return scanSingleLinePatterns(matcher, build, source, currentFile, null);
+    }
+
+    /**
+     * Checks all patterns of a compiled matcher for the lines of a source, in one pass, like
+     * {@link #scanSingleLinePatterns(MultiPatternMatcher, Run, LineSource, String)}, but stops reading the source
+     * when the plan is done.
+     *
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param build current build.
+     * @param source the lines to scan.
+     * @param currentFile file name.
+     * @param plan the plan of the scans of the log, told what is found, or null to read the whole source.
+     * @return found indications.
+     * @throws IOException Exception.
+     */
+    public static List<FoundFailureCause> scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                                               Run build,
+                                                               LineSource source,
+                                                               String currentFile,
+                                                               ScanPlan plan) throws IOException {
+        MultiPatternMatcher.Scan scan = matcher.newScan();
+        try {
+            scanSingleLinePatterns(matcher, scan, build, source, currentFile, 0, true, plan);
+        } finally {
+            scan.recordCost();
         }
+        return scan.getFoundFailureCauses();
     }
 
     /**
-     * Converts from a map with a FailureCause as key
-     * and a list of FoundIndications as value
-     * to a list of FoundFailureCauses
+     * Checks all patterns of a compiled matcher for the lines of a source, recording what is found in a scan. A scan
+     * can be continued with more lines of the same log, e.g. as they are written.
      *
-     * @param causes input data
-     * @return List of FoundFailureCauses that was generated from input data
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param scan the scan state, from {@link MultiPatternMatcher#newScan()}.
+     * @param build current build.
+     * @param source the lines to scan.
+     * @param currentFile file name.
+     * @param linesBefore the number of lines of the log before the first line of the source.
+     * @param fileTimeout true to stop when the file timeout has passed, false for lines that arrive over time.
+     * @return the line number of the last line read.
+     * @throws IOException Exception.
      */
-    private static List<FoundFailureCause> convertToFoundFailureCauses(Map<FailureCause, List<FoundIndication>> causes) {
-        List<FoundFailureCause> foundFailureCauses = new ArrayList<FoundFailureCause>(causes.size());
+    public static int scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                             MultiPatternMatcher.Scan scan,
+                                             Run build,
+                                             LineSource source,
+                                             String currentFile,
+                                             int linesBefore,
+                                             boolean fileTimeout) throws IOException {
+        return scanSingleLinePatterns(matcher, scan, build, source, currentFile, linesBefore, fileTimeout, null);
+    }
 
-        for (Map.Entry<FailureCause, List<FoundIndication>> entry : causes.entrySet()) {
-            foundFailureCauses.add(new FoundFailureCause(entry.getKey(), entry.getValue()));
+    /**
+     * Checks all patterns of a compiled matcher for the lines of a source, recording what is found in a scan and
+     * telling it to a plan, and stops reading the source when the plan is done.
+     *
+     * @param matcher the compiled indications of the failure causes that we are looking for.
+     * @param scan the scan state, from {@link MultiPatternMatcher#newScan()}.
+     * @param build current build.
+     * @param source the lines to scan.
+     * @param currentFile file name.
+     * @param linesBefore the number of lines of the log before the first line of the source.
+     * @param fileTimeout true to stop when the file timeout has passed, false for lines that arrive over time.
+     * @param plan the plan of the scans of the log, or null to read the whole source.
+     * @return the line number of the last line read.
+     * @throws IOException Exception.
+     */
+    public static int scanSingleLinePatterns(MultiPatternMatcher matcher,
+                                             MultiPatternMatcher.Scan scan,
+                                             Run build,
+                                             LineSource source,
+                                             String currentFile,
+                                             int linesBefore,
+                                             boolean fileTimeout,
+                                             ScanPlan plan) throws IOException {
+        long adjustedFileTimeout = Long.MAX_VALUE;
+        if (fileTimeout) {
+            adjustedFileTimeout = TIMEOUT_FILE * matcher.getIndicationCount();
         }
 
-        return foundFailureCauses;
+        ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), TIMEOUT_LINE);
+        int currentLine = linesBefore;
+        int longLines = 0;
+        try {
+            long startTime = System.currentTimeMillis();
+            boolean inLongLine = false;
+            // Reused for every line, so that a line without a match costs no allocation.
+            InterruptibleCharSequence interruptible = new InterruptibleCharSequence();
+            while ((plan == null || !plan.isDone()) && source.nextLine()) {
+                // Reading and prefiltering a line is progress too, even when no regular expression is evaluated.
+                watch.touch();
+                // The chunks of a long line have the line number of the line.
+                if (!source.isContinuation()) {
+                    currentLine++;
+                    inLongLine = false;
+                } else if (!inLongLine) {
+                    longLines++;
+                    inLongLine = true;
+                }
+                if (!source.prefilter(scan)) {
+                    continue;
+                }
+                // Console notes and escape sequences are not matched, they are not part of what the user sees.
+                final CharSequence line = source.getVisibleLine();
+                // Only the patterns that may backtrack need to be interruptible.
+                interruptible.reset(line);
+                Semaphore permit = MatchingPermits.acquire();
+                try {
+                    for (int position = 0; position < scan.getPendingCount(); position++) {
+                        final int entry = scan.getPending(position);
+                        if (!scan.isCandidate(entry)) {
+                            continue;
+                        }
+                        CharSequence input = line;
+                        if (!matcher.isLinear(entry)) {
+                            input = interruptible;
+                        }
+                        try {
+                            if (scan.matches(entry, input)) {
+                                scan.found(entry, new FoundIndication(
+                                        build,
+                                        matcher.getPattern(entry).toString(),
+                                        currentFile,
+                                        ConsoleNote.removeNotes(source.getLine()),
+                                        currentLine));
+                                if (plan != null) {
+                                    plan.found(matcher.getIndication(entry));
+                                }
+                            }
+                        } catch (RuntimeException e) {
+                            if (e.getCause() instanceof InterruptedException) {
+                                scan.timedOut(entry);
+                                logger.warning("Timeout scanning for indication '" + matcher.getIndication(entry) + "'"
+                                        + " for file " + currentFile + ":" + currentLine);
+                            } else {
+                                // This is not a timeout exception
+                                throw e;
+                            }
+                        }
+                        watch.touch();
+                        if (System.currentTimeMillis() - startTime > adjustedFileTimeout) {
+                            logger.warning("File timeout scanning for indication '" + matcher.getIndication(entry) + "'"
+                                    + " for file " + currentFile + ":" + currentLine);
+                            return currentLine;
+                        }
+                    }
+                } finally {
+                    MatchingPermits.release(permit);
+                }
+                scan.endLine();
+            }
+            return currentLine;
+        } finally {
+            watch.close();
+            // reset the interrupt
+            Thread.interrupted();
+            if (longLines > 0) {
+                addLongLines(build, longLines);
+            }
+        }
     }
 
     /**
-     * Scans one file for the required multi-line pattern.
+     * Adds to the number of lines of the log of a build that were scanned in chunks, in its {@link ScanLogAction}.
+     *
+     * @param build the build, may be null.
+     * @param longLines the number of lines.
+     */
+    private static void addLongLines(Run build, int longLines) {
+        if (build == null) {
+            return;
+        }
+        ScanLogAction logAction = build.getAction(ScanLogAction.class);
+        if (logAction != null) {
+            logAction.addLongLines(longLines);
+        }
+    }
+
+    /**
+     * Scans one file for the required multi-line pattern, with the default window size and maximum match span.
      * @param build the build we are processing.
      * @param reader the reader to read from.
      * @param currentFile the file path of the file we want to scan.
@@ -321,28 +603,37 @@ public abstract class FailureReader {
      */
     protected FoundIndication scanMultiLineOneFile(Run build, LineNumberReader reader, String currentFile)
             throws IOException {
-        TimerThread timerThread = new TimerThread(Thread.currentThread(), TIMEOUT_BLOCK);
+        return scanMultiLineOneFile(build, reader, currentFile, SlidingWindow.DEFAULT_WINDOW_SIZE,
+                SlidingWindow.DEFAULT_MAX_MATCH_SPAN);
+    }
+
+    /**
+     * Scans one file for the required multi-line pattern.
+     * @param build the build we are processing.
+     * @param reader the reader to read from.
+     * @param currentFile the file path of the file we want to scan.
+     * @param windowSize the number of chars read into the sliding search area each round.
+     * @param maxMatchSpan the maximum length of a match spanning two rounds.
+     * @return a FoundIndication if we find the pattern, null if not.
+     * @throws IOException if problems occur in the reader handling.
+     */
+    protected FoundIndication scanMultiLineOneFile(Run build, Reader reader, String currentFile, int windowSize,
+                                                   int maxMatchSpan) throws IOException {
         FoundIndication foundIndication = null;
-        final Pattern pattern = indication.getPattern();
-        timerThread.start();
+        SlidingWindow window = new SlidingWindow(reader, windowSize, maxMatchSpan);
+        WindowSearch search = new WindowSearch(indication.getPattern());
+        ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), TIMEOUT_BLOCK);
         try {
             long startTime = System.currentTimeMillis();
-            char[] buf = new char[BUF_SIZE_BYTES];
-            StringBuilder searchBuffer = new StringBuilder();
-            int read;
-            boolean firstRead = true;
-            //CS IGNORE AvoidInlineConditionals FOR NEXT 1 LINES. REASON: Split up makes code less reasable.
-            while ((read = reader.read(buf, 0, BUF_SIZE_BYTES - (firstRead ? 0 : OVERLAP_BYTES))) != -1) {
+            while (window.next()) {
+                Semaphore permit = MatchingPermits.acquire();
                 try {
-                    firstRead = false;
-                    searchBuffer.append(buf, 0, read);
-                    Matcher matcher = pattern.matcher(new InterruptibleCharSequence(searchBuffer.toString()));
-                    if (matcher.find()) {
-                        foundIndication = new FoundIndication(build, pattern.pattern(), currentFile,
-                                removeConsoleNotes(matcher.group()), reader.getLineNumber());
+                    Matcher matcher = search.find(window);
+                    if (matcher != null) {
+                        foundIndication = createFoundIndication(build, search.getPattern(), currentFile, window,
+                                matcher);
                         break;
                     }
-                    searchBuffer.delete(0, BUF_SIZE_BYTES - OVERLAP_BYTES);
                 } catch (RuntimeException e) {
                     if (e.getCause() instanceof InterruptedException) {
                         logger.warning("Timeout scanning for indication '" + indication.toString() + "' for file "
@@ -351,8 +642,11 @@ public abstract class FailureReader {
                         // This is not a timeout exception
                         throw e;
                     }
+                } finally {
+                    MatchingPermits.release(permit);
                 }
-                timerThread.touch();
+                window.retain(search.getResumeFrom());
+                watch.touch();
                 if (System.currentTimeMillis() - startTime > TIMEOUT_FILE) {
                     logger.warning("File timeout scanning for indication '" + indication.toString() + "' for file "
                             + currentFile);
@@ -361,24 +655,217 @@ public abstract class FailureReader {
             }
             return foundIndication;
         } finally {
-            timerThread.requestStop();
-            timerThread.interrupt();
-            try {
-                timerThread.join();
-                //CS IGNORE EmptyBlock FOR NEXT 2 LINES. REASON: unimportant exception
-            } catch (InterruptedException eIgnore) {
-            }
+            watch.close();
             // reset the interrupt
             Thread.interrupted();
         }
     }
 
+    /**
+     * Scans one file for the multi-line indications of many causes, reading it only once.
+     * Every window of the sliding search area is given to all indications not found yet, spread over the calling
+     * thread and up to <code>parallelism - 1</code> threads of the executor. An indication is given up on when the
+     * time spent evaluating it exceeds the file timeout.
+     *
+     * @param causes the causes whose multi-line indications should be looked for.
+     * @param build the build we are processing.
+     * @param reader the reader to read from.
+     * @param currentFile the file path of the file we want to scan.
+     * @param windowSize the number of chars read into the sliding search area each round.
+     * @param maxMatchSpan the maximum length of a match spanning two rounds.
+     * @param executor the executor to evaluate a window in parallel with.
+     * @param parallelism the maximum number of threads evaluating a window, including the calling thread.
+     * @return the causes with multi-line indications found, could be empty.
+     * @throws IOException if problems occur in the reader handling or if interrupted while waiting for the executor.
+     */
+    public static List<FoundFailureCause> scanMultiLinePatterns(List<FailureCause> causes,
+                                                              Run build,
+                                                              Reader reader,
+                                                              String currentFile,
+                                                              int windowSize,
+                                                              int maxMatchSpan,
+                                                              Executor executor,
+                                                              int parallelism) throws IOException {
+        return scanMultiLinePatterns(causes, build, reader, currentFile, windowSize, maxMatchSpan, executor,
+                parallelism, null);
+    }
+
+    /**
+     * Scans one file for the multi-line indications of many causes, like
+     * {@link #scanMultiLinePatterns(List, Run, Reader, String, int, int, Executor, int)}, but stops reading the file
+     * when the plan is done.
+     *
+     * @param causes the causes whose multi-line indications should be looked for.
+     * @param build the build we are processing.
+     * @param reader the reader to read from.
+     * @param currentFile the file path of the file we want to scan.
+     * @param windowSize the number of chars read into the sliding search area each round.
+     * @param maxMatchSpan the maximum length of a match spanning two rounds.
+     * @param executor the executor to evaluate a window in parallel with.
+     * @param parallelism the maximum number of threads evaluating a window, including the calling thread.
+     * @param plan the plan of the scans of the log, told what is found, or null to read the whole file.
+     * @return the causes with multi-line indications found, could be empty.
+     * @throws IOException if problems occur in the reader handling or if interrupted while waiting for the executor.
+     */
+    public static List<FoundFailureCause> scanMultiLinePatterns(List<FailureCause> causes,
+                                                              Run build,
+                                                              Reader reader,
+                                                              String currentFile,
+                                                              int windowSize,
+                                                              int maxMatchSpan,
+                                                              Executor executor,
+                                                              int parallelism,
+                                                              ScanPlan plan) throws IOException {
+        final MultilineWindowScan scan = new MultilineWindowScan(causes);
+        SlidingWindow window = new SlidingWindow(reader, windowSize, maxMatchSpan);
+        try {
+            while (scan.getPendingCount() > 0 && (plan == null || !plan.isDone()) && window.next()) {
+                scanWindow(scan, build, window, currentFile, executor, parallelism, plan);
+                scan.endWindow(window);
+            }
+        } finally {
+            scan.recordCost();
+        }
+        return scan.getFoundFailureCauses();
+    }
+
+    /**
+     * Evaluates all pending entries of a scan on one window. The entries are claimed one at a time by the calling
+     * thread and the helpers from the executor, so a helper that never gets to run does not hold up the scan.
+     *
+     * @param scan the scan.
+     * @param build the build we are processing.
+     * @param window the search area.
+     * @param currentFile the file path of the file we are scanning.
+     * @param executor the executor for the helpers.
+     * @param parallelism the maximum number of threads evaluating the window.
+     * @param plan the plan of the scans of the log, or null.
+     * @throws IOException if interrupted while waiting for the helpers.
+     */
+    private static void scanWindow(final MultilineWindowScan scan,
+                                   final Run build,
+                                   final SlidingWindow window,
+                                   final String currentFile,
+                                   Executor executor,
+                                   int parallelism,
+                                   final ScanPlan plan) throws IOException {
+        final int count = scan.getPendingCount();
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(1);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), TIMEOUT_BLOCK);
+                try {
+                    int position;
+                    while ((position = next.getAndIncrement()) < count) {
+                        try {
+                            evaluateWindow(scan, scan.getPending(position), build, window, currentFile, plan);
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            watch.touch();
+                            if (done.incrementAndGet() == count) {
+                                finished.countDown();
+                            }
+                        }
+                    }
+                } finally {
+                    watch.close();
+                    // reset the interrupt
+                    Thread.interrupted();
+                }
+            }
+        };
+        int helpers = Math.min(parallelism, count) - 1;
+        try {
+            for (int i = 0; i < helpers; i++) {
+                executor.execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.FINE, "Scanning the window without helpers", e);
+        }
+        worker.run();
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while scanning for multi-line indications");
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Evaluates the pattern of one entry on a window.
+     *
+     * @param scan the scan.
+     * @param entry the entry.
+     * @param build the build we are processing.
+     * @param window the search area.
+     * @param currentFile the file path of the file we are scanning.
+     * @param plan the plan of the scans of the log, or null.
+     */
+    private static void evaluateWindow(MultilineWindowScan scan,
+                                       int entry,
+                                       Run build,
+                                       SlidingWindow window,
+                                       String currentFile,
+                                       ScanPlan plan) {
+        WindowSearch search = scan.getSearch(entry);
+        long start = System.nanoTime();
+        Semaphore permit = MatchingPermits.acquire();
+        try {
+            Matcher matcher = search.find(window);
+            if (matcher != null) {
+                scan.found(entry, createFoundIndication(build, search.getPattern(), currentFile, window, matcher));
+                if (plan != null) {
+                    plan.found(scan.getIndication(entry));
+                }
+            }
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof InterruptedException) {
+                scan.timedOut(entry);
+                logger.warning("Timeout scanning for indication '" + scan.getIndication(entry) + "' for file "
+                        + currentFile);
+            } else {
+                // This is not a timeout exception
+                throw e;
+            }
+        } finally {
+            MatchingPermits.release(permit);
+        }
+        if (scan.addSpentNanos(entry, System.nanoTime() - start) > TimeUnit.MILLISECONDS.toNanos(TIMEOUT_FILE)) {
+            logger.warning("File timeout scanning for indication '" + scan.getIndication(entry) + "' for file "
+                    + currentFile);
+            scan.giveUp(entry);
+        }
+    }
+
+    /**
+     * Creates the indication found by a match in a window.
+     *
+     * @param build the build we are processing.
+     * @param pattern the pattern that matched.
+     * @param currentFile the file path of the file we are scanning.
+     * @param window the search area.
+     * @param matcher the matcher positioned on the match.
+     * @return the found indication, with the line the match starts on.
+     */
+    private static FoundIndication createFoundIndication(Run build, Pattern pattern, String currentFile,
+                                                         SlidingWindow window, Matcher matcher) {
+        return new FoundIndication(build, pattern.pattern(), currentFile, removeConsoleNotes(matcher.group()),
+                window.getLineNumber(matcher.start()));
+    }
+
     /**
      * @param input the input string from which to remove any console notes
      * @return the input string less console notes. Note the returned string may not contain the same line endings
      * as the input string.
      */
-    private String removeConsoleNotes(final String input) {
+    private static String removeConsoleNotes(final String input) {
         final List<String> cleanLines = new LinkedList<String>();
         final Scanner lineTokenizer = new Scanner(input);
         try {
@@ -408,6 +895,25 @@ public abstract class FailureReader {
             this.inner = inner.toString();
         }
 
+        /**
+         * Constructor for a sequence that is given its chars by {@link #reset(CharSequence)}.
+         */
+        public InterruptibleCharSequence() {
+            this("");
+        }
+
+        /**
+         * Makes this sequence interruptible access to other chars, without copying them, e.g. to reuse it for every
+         * line of a log. The chars must not change while they are matched.
+         *
+         * @param chars the CharSequence to be able to interrupt.
+         * @return this.
+         */
+        public InterruptibleCharSequence reset(CharSequence chars) {
+            this.inner = chars;
+            return this;
+        }
+
         @Override
         public char charAt(int index) {
             if (Thread.interrupted()) { // clears flag if set
@@ -431,58 +937,4 @@ public abstract class FailureReader {
             return inner.toString();
         }
     }
-
-    /**
-     * TimerThread interrupting a monitored thread unless TimerThread is touched within the
-     * specified timeout value
-     */
-    static class TimerThread extends Thread {
-
-        private Thread monitorThread;
-        private boolean stop = false;
-        private long timeout;
-        private long lastTouched;
-
-        /**
-       * Standard constructor.
-       * @param monitorThread The thread to monitor and interrupt after the timeout.
-       * @param timeout The timeout in ms.
-         */
-        TimerThread(Thread monitorThread, long timeout) {
-            this.monitorThread = monitorThread;
-            this.timeout = timeout;
-        }
-
-        @Override
-        public void run() {
-            lastTouched = System.currentTimeMillis();
-            while (!stop) {
-                try {
-                    Thread.sleep(SLEEPTIME);
-                    if (System.currentTimeMillis() - lastTouched >= timeout) {
-                        monitorThread.interrupt();
-                        // timeout met, interrupt the launcherThread
-                    }
-                //CS IGNORE EmptyBlock FOR NEXT 5 LINES. REASON: timeout exception
-                } catch (InterruptedException eRestartSleep) {
-                    // My thread was interrupted so continue loop and
-                    // check if I'm stopped and otherwise just restart sleep
-                }
-            }
-        }
-
-        /**
-        * Touch, i.e. reset countdown timer.
-        */
-        public void touch() {
-            lastTouched = System.currentTimeMillis();
-        }
-
-        /**
-         * Set stop flag to stop executing
-         */
-        public void requestStop() {
-            stop = true;
-        }
-    }
 }
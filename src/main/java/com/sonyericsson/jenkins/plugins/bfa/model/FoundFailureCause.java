@@ -24,6 +24,8 @@
 package com.sonyericsson.jenkins.plugins.bfa.model;
 
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.PatternCache;
+import com.sonyericsson.jenkins.plugins.bfa.scan.VisibleText;
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
@@ -35,6 +37,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
 
 /**
  * Found Failure Cause of a build.
@@ -44,6 +47,8 @@ import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
 @ExportedBean
 public class FoundFailureCause implements IFailureCauseMetricData {
     private static final Logger logger = Logger.getLogger(FoundFailureCause.class.getName());
+    private static final Pattern NON_EXPRESSION_TOKEN = Pattern.compile("(?<!\\\\)\\$\\{\\s*\\d+?\\s*,\\s*\\d+?\\s*\\}");
+    private static final Pattern ESCAPED_TOKEN = Pattern.compile("\\\\(\\$\\{\\s*\\d+?\\s*,\\s*\\d+?\\s*\\})");
 
     private final String id;
 
@@ -191,8 +196,14 @@ public class FoundFailureCause implements IFailureCauseMetricData {
                         // Convert the "${1,2}" tokens in the description to "$2"
                         formattedDescription = convertFormat(formattedDescription, expressionNumber);
                         // Replace the "$2" tokens with the values from the matched indication.
-                        final Pattern contentPattern = Pattern.compile(firstFoundIndication.getPattern());
-                        final Matcher contentMatcher = contentPattern.matcher(firstFoundIndication.getMatchingString());
+                        final Pattern contentPattern =
+                            PatternCache.getInstance().compile(firstFoundIndication.getPattern());
+                        CharSequence content = firstFoundIndication.getMatchingString();
+                        if (!(originalCauseIndications.get(expressionIndex) instanceof MultilineBuildLogIndication)) {
+                            // Single-line indications are matched against the line without escape sequences.
+                            content = new VisibleText().reset(content);
+                        }
+                        final Matcher contentMatcher = contentPattern.matcher(content);
                         formattedDescription = contentMatcher.replaceAll(formattedDescription);
                     }
                 }
@@ -214,19 +225,17 @@ public class FoundFailureCause implements IFailureCauseMetricData {
         // Replace the input's "${i,G}" with "$M". e.g., if i == 2,
         // "Foo ${2,1}${3,1}" becomes "Foo $1${3,1}"
         // Do not replace \${E,G}.
-        final Pattern expressionPattern = Pattern.compile(
+        final Pattern expressionPattern = PatternCache.getInstance().compile(
             "(?<!\\\\)\\$\\{\\s*" + Integer.toString(expressionNumber) + "\\s*,\\s*(\\d+?)\\s*\\}");
         final Matcher expressionMatcher = expressionPattern.matcher(input);
         final String expressionTokensReplaced = expressionMatcher.replaceAll("\\$$1");
         // Replace the rest of input's "${E,G}" with "". e.g.,
         // "Foo $1${3,1}" becomes "Foo $1"
         // Do not replace \${E,G}.
-        final Pattern nonExpressionPattern = Pattern.compile("(?<!\\\\)\\$\\{\\s*\\d+?\\s*,\\s*\\d+?\\s*\\}");
-        final Matcher nonExpressionMatcher = nonExpressionPattern.matcher(expressionTokensReplaced);
+        final Matcher nonExpressionMatcher = NON_EXPRESSION_TOKEN.matcher(expressionTokensReplaced);
         final String nonExpressionTokensRemoved = nonExpressionMatcher.replaceAll("");
         // Because we ignored \${E,G}, now replace \${E,G} with ${E,G}.
-        final Pattern escapedTokenPattern = Pattern.compile("\\\\(\\$\\{\\s*\\d+?\\s*,\\s*\\d+?\\s*\\})");
-        final Matcher escapedTokenMatcher = escapedTokenPattern.matcher(nonExpressionTokensRemoved);
+        final Matcher escapedTokenMatcher = ESCAPED_TOKEN.matcher(nonExpressionTokensRemoved);
         return escapedTokenMatcher.replaceAll("$1");
     }
 }
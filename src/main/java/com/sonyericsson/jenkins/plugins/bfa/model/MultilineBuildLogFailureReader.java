@@ -25,11 +25,12 @@
 package com.sonyericsson.jenkins.plugins.bfa.model;
 
 import java.io.IOException;
-import java.io.LineNumberReader;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
 import hudson.model.Run;
@@ -62,10 +63,11 @@ public class MultilineBuildLogFailureReader extends FailureReader {
      */
     @Override
     public FoundIndication scan(Run build) throws IOException {
-        LineNumberReader reader = null;
+        Reader reader = null;
         try {
-            reader = new LineNumberReader(build.getLogReader());
-            return scanMultiLineOneFile(build, reader, "log");
+            reader = build.getLogReader();
+            return scanMultiLineOneFile(build, reader, "log", PluginImpl.getInstance().getMultilineWindowSize(),
+                    PluginImpl.getInstance().getMultilineMaxMatchSpan());
         } finally {
             if (reader != null) {
                 try {
@@ -88,11 +90,13 @@ public class MultilineBuildLogFailureReader extends FailureReader {
      */
     public FoundIndication scan(Run build, PrintStream buildLog) {
         FoundIndication foundIndication = null;
-        LineNumberReader reader = null;
+        Reader reader = null;
         long start = System.currentTimeMillis();
         try {
-            reader = new LineNumberReader(build.getLogReader());
-            foundIndication = scanMultiLineOneFile(build, reader, "log");
+            reader = build.getLogReader();
+            foundIndication = scanMultiLineOneFile(build, reader, "log",
+                    PluginImpl.getInstance().getMultilineWindowSize(),
+                    PluginImpl.getInstance().getMultilineMaxMatchSpan());
         } catch (IOException ioe) {
             logger.log(Level.SEVERE, "[BFA] I/O problems during indication analysis: ", ioe);
             buildLog.println("[BFA] I/O problems during indication analysis.");
@@ -37,6 +37,7 @@ import hudson.model.Job;
 import hudson.model.JobProperty;
 import hudson.model.JobPropertyDescriptor;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 import java.io.Serializable;
 
@@ -51,6 +52,7 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 public class ScannerJobProperty extends JobProperty<Job<?, ?>> implements MatrixAggregatable, Serializable {
 
     private boolean doNotScan;
+    private int maxFoundCauses;
 
     /**
      * Standard DataBound Constructor.
@@ -77,6 +79,26 @@ public class ScannerJobProperty extends JobProperty<Job<?, ?>> implements Matrix
         return doNotScan;
     }
 
+    /**
+     * The number of causes after which a scan of a build stops reading the log, so that a build with many causes is
+     * scanned faster at the cost of not reporting all of them. Causes in the fallback categories are not counted.
+     *
+     * @return the number of causes, 0 to find all causes.
+     */
+    public int getMaxFoundCauses() {
+        return maxFoundCauses;
+    }
+
+    /**
+     * Sets the number of causes after which a scan of a build stops reading the log.
+     *
+     * @param maxFoundCauses the number of causes, 0 to find all causes.
+     */
+    @DataBoundSetter
+    public void setMaxFoundCauses(int maxFoundCauses) {
+        this.maxFoundCauses = maxFoundCauses;
+    }
+
     @Override
     @Restricted(NoExternalUse.class)
     public Action getJobAction(Job<?, ?> job) {
@@ -33,6 +33,7 @@ import com.sonyericsson.jenkins.plugins.bfa.Messages;
 import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
 import com.sonyericsson.jenkins.plugins.bfa.model.BuildLogFailureReader;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.scan.PatternCache;
 import hudson.Extension;
 import hudson.matrix.MatrixConfiguration;
 import hudson.matrix.MatrixProject;
@@ -85,7 +86,7 @@ public class BuildLogIndication extends Indication {
     @JsonIgnore
     public Pattern getPattern() {
         if (compiled == null) {
-            compiled = Pattern.compile(getUserProvidedExpression());
+            compiled = PatternCache.getInstance().compile(getUserProvidedExpression());
         }
         return compiled;
     }
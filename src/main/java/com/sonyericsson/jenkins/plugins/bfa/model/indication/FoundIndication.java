@@ -56,6 +56,8 @@ public class FoundIndication {
     private Run build;
     private String matchingString;
     private Integer matchingLine;
+    private String flowNodeId;
+    private String stageName;
 
     /**
      * Standard constructor.
@@ -220,6 +222,57 @@ public class FoundIndication {
         }
     }
 
+    /**
+     * Setter for the matching line number, e.g. when the line was found in a part of the log that does not start at
+     * its first line.
+     *
+     * @param matchingLine the line number, -1 if it is not known.
+     */
+    public void setMatchingLine(Integer matchingLine) {
+        this.matchingLine = matchingLine;
+    }
+
+    /**
+     * The id of the pipeline step that wrote the matching line, when the logs of the steps were scanned on their own.
+     * The matching line is then counted from the start of the log of the step.
+     *
+     * @return the id of the flow node, or null if the whole log was scanned.
+     */
+    @Exported
+    public String getFlowNodeId() {
+        return flowNodeId;
+    }
+
+    /**
+     * Setter for the id of the pipeline step that wrote the matching line.
+     *
+     * @param flowNodeId the id of the flow node.
+     * @see #getFlowNodeId()
+     */
+    public void setFlowNodeId(String flowNodeId) {
+        this.flowNodeId = flowNodeId;
+    }
+
+    /**
+     * The name of the stage or parallel branch of the pipeline step that wrote the matching line.
+     *
+     * @return the name, or null if unknown.
+     * @see #getFlowNodeId()
+     */
+    @Exported
+    public String getStageName() {
+        return stageName;
+    }
+
+    /**
+     * Setter for the name of the stage or parallel branch of the pipeline step that wrote the matching line.
+     *
+     * @param stageName the name.
+     */
+    public void setStageName(String stageName) {
+        this.stageName = stageName;
+    }
+
     /**
      * The hash-code of the {@link #matchingString}.
      * Convenience method mostly for jelly.
@@ -29,7 +29,10 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreType;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.sonyericsson.jenkins.plugins.bfa.Messages;
+import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.scan.LinearPattern;
 import hudson.ExtensionList;
 import hudson.model.Describable;
 import hudson.model.Descriptor;
@@ -96,6 +99,27 @@ public abstract class Indication implements Describable<Indication>, Serializabl
     @JsonIgnore
     public abstract Pattern getPattern();
 
+    /**
+     * The name of the engine the pattern is matched with, shown when the cause is edited. Patterns without
+     * backreferences, lookaround or other backtracking constructs are matched in linear time when that is enabled.
+     *
+     * @return the name of the engine, or null if the pattern does not compile.
+     * @see PluginImpl#isLinearMatchingEnabled()
+     */
+    @JsonIgnore
+    public String getMatchingEngine() {
+        Pattern compiled;
+        try {
+            compiled = getPattern();
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+        if (PluginImpl.getInstance().isLinearMatchingEnabled() && LinearPattern.compile(compiled) != null) {
+            return Messages.Indication_MatchingEngine_Linear();
+        }
+        return Messages.Indication_MatchingEngine_Java();
+    }
+
     @Override
     public String toString() {
         return getUserProvidedExpression();
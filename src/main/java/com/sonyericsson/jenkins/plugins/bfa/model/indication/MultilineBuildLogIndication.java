@@ -29,6 +29,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.sonyericsson.jenkins.plugins.bfa.Messages;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
 import com.sonyericsson.jenkins.plugins.bfa.model.MultilineBuildLogFailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.scan.PatternCache;
 import hudson.Extension;
 import hudson.model.Hudson;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -65,7 +66,8 @@ public class MultilineBuildLogIndication extends BuildLogIndication {
     @Override
     public Pattern getPattern() {
         if (compiled == null) {
-            compiled = Pattern.compile("(?m)(?s)^[^\\r\\n]*?" + getUserProvidedExpression() + "[^\\r\\n]*?$",
+            compiled = PatternCache.getInstance().compile(
+                "(?m)(?s)^[^\\r\\n]*?" + getUserProvidedExpression() + "[^\\r\\n]*?$",
                 Pattern.MULTILINE | Pattern.DOTALL);
         }
         return compiled;
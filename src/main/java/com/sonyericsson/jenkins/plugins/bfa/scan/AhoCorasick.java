@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton that finds which of a set of literals occur in a text, in one pass over the text.
+ * Immutable once built, so it can be shared between scanning threads.
+ */
+public final class AhoCorasick {
+
+    private static final int[] NO_OUTPUT = new int[0];
+    private static final int BYTE_MASK = 0xFF;
+
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    /**
+     * Builds the automaton.
+     *
+     * @param literals the literals to look for, the index in the list is the id reported when found.
+     */
+    public AhoCorasick(List<String> literals) {
+        List<Map<Character, Integer>> trie = new ArrayList<Map<Character, Integer>>();
+        List<List<Integer>> ownOutputs = new ArrayList<List<Integer>>();
+        trie.add(new TreeMap<Character, Integer>());
+        ownOutputs.add(new ArrayList<Integer>());
+        for (int id = 0; id < literals.size(); id++) {
+            String literal = literals.get(id);
+            int node = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                Integer next = trie.get(node).get(literal.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(node).put(literal.charAt(i), next);
+                    trie.add(new TreeMap<Character, Integer>());
+                    ownOutputs.add(new ArrayList<Integer>());
+                }
+                node = next;
+            }
+            ownOutputs.get(node).add(id);
+        }
+
+        int size = trie.size();
+        labels = new char[size][];
+        targets = new int[size][];
+        fail = new int[size];
+        outputs = new int[size][];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> children = trie.get(node);
+            labels[node] = new char[children.size()];
+            targets[node] = new int[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : children.entrySet()) {
+                labels[node][i] = child.getKey();
+                targets[node][i] = child.getValue();
+                i++;
+            }
+        }
+
+        // Breadth first, so the failure link of a node's parent is always done before the node itself.
+        outputs[0] = toArray(ownOutputs.get(0), NO_OUTPUT);
+        Deque<Integer> queue = new ArrayDeque<Integer>();
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            outputs[child] = toArray(ownOutputs.get(child), outputs[0]);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < labels[node].length; i++) {
+                char c = labels[node][i];
+                int child = targets[node][i];
+                int state = fail[node];
+                int next = step(state, c);
+                while (next < 0 && state != 0) {
+                    state = fail[state];
+                    next = step(state, c);
+                }
+                if (next < 0) {
+                    next = 0;
+                }
+                fail[child] = next;
+                outputs[child] = toArray(ownOutputs.get(child), outputs[next]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Merges the literals ending at a node with the ones reachable through its failure link.
+     *
+     * @param own the ids of the literals ending at the node.
+     * @param inherited the outputs of the failure node.
+     * @return the merged outputs.
+     */
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) {
+            return inherited;
+        }
+        int[] result = Arrays.copyOf(inherited, inherited.length + own.size());
+        for (int i = 0; i < own.size(); i++) {
+            result[inherited.length + i] = own.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Follows the goto edge of a node.
+     *
+     * @param node the node.
+     * @param c the character.
+     * @return the next node, or -1 if there is no edge for the character.
+     */
+    private int step(int node, char c) {
+        int index = Arrays.binarySearch(labels[node], c);
+        if (index < 0) {
+            return -1;
+        }
+        return targets[node][index];
+    }
+
+    /**
+     * The number of states, for diagnostics.
+     *
+     * @return the number of nodes in the trie.
+     */
+    public int getStateCount() {
+        return labels.length;
+    }
+
+    /**
+     * Finds the literals occurring in a text. For every literal found, <code>marks[id]</code> is set to the stamp,
+     * so that callers can reuse the same array for many texts without clearing it.
+     *
+     * @param text the text to search.
+     * @param marks one slot per literal id.
+     * @param stamp the value to mark found literals with.
+     */
+    public void mark(CharSequence text, int[] marks, int stamp) {
+        int state = 0;
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            state = advance(state, text.charAt(i), marks, stamp);
+        }
+    }
+
+    /**
+     * Finds the literals occurring in a range of bytes, like {@link #mark(CharSequence, int[], int)}. Each byte is
+     * treated as the char with the same unsigned value, so the automaton should be built from literals encoded that
+     * way, see {@link #forBytes(List)}.
+     *
+     * @param buffer the bytes to search, only read with absolute gets.
+     * @param start the index of the first byte.
+     * @param end the index after the last byte.
+     * @param marks one slot per literal id.
+     * @param stamp the value to mark found literals with.
+     */
+    public void mark(ByteBuffer buffer, int start, int end, int[] marks, int stamp) {
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = advance(state, (char)(buffer.get(i) & BYTE_MASK), marks, stamp);
+        }
+    }
+
+    /**
+     * Builds an automaton that finds byte sequences with {@link #mark(ByteBuffer, int, int, int[], int)}.
+     *
+     * @param literals the encoded literals, the index in the list is the id reported when found.
+     * @return the automaton.
+     */
+    public static AhoCorasick forBytes(List<byte[]> literals) {
+        List<String> asChars = new ArrayList<String>(literals.size());
+        for (byte[] literal : literals) {
+            asChars.add(new String(literal, StandardCharsets.ISO_8859_1));
+        }
+        return new AhoCorasick(asChars);
+    }
+
+    /**
+     * Moves the automaton one character forward and marks the literals ending there.
+     *
+     * @param state the current state.
+     * @param c the character.
+     * @param marks one slot per literal id.
+     * @param stamp the value to mark found literals with.
+     * @return the new state.
+     */
+    private int advance(int state, char c, int[] marks, int stamp) {
+        int next = step(state, c);
+        while (next < 0 && state != 0) {
+            state = fail[state];
+            next = step(state, c);
+        }
+        if (next < 0) {
+            return 0;
+        }
+        for (int id : outputs[next]) {
+            marks[id] = stamp;
+        }
+        return next;
+    }
+}
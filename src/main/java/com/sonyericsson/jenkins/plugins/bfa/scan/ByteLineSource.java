@@ -0,0 +1,425 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The lines of a log file read into a direct buffer. Line boundaries are found and the literal prefilter is run on
+ * the raw bytes; a line is only decoded when some indication needs its regular expression evaluated. A line with
+ * escape sequences is decoded for the prefilter, since a sequence in the middle of a literal hides it from the
+ * prefilter of the raw bytes.
+ *
+ * A line is decoded into a char buffer that is reused for the next line, and only copied into a string by
+ * {@link #getLine()}, e.g. when something was found in it. The direct buffers of the standard size are pooled, since
+ * they are expensive to allocate and only freed by the garbage collector.
+ *
+ * Lines are split like {@link java.io.BufferedReader#readLine()} does, on '\n', '\r' or "\r\n". With a maximum
+ * line length, a longer line is split into chunks like {@link ReaderLineSource} does, counting bytes instead of chars.
+ */
+public final class ByteLineSource implements LineSource, Closeable {
+
+    /**
+     * The initial size of the buffer. The buffer grows when a single line does not fit.
+     */
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The number of direct buffers kept for later sources, at most.
+     */
+    static final int MAX_POOLED_BUFFERS = 8;
+
+    private static final Deque<ByteBuffer> POOLED_BUFFERS = new ArrayDeque<ByteBuffer>();
+
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final AhoCorasick bytePrefilter;
+    private final VisibleText visibleText = new VisibleText();
+    private ByteBuffer buffer;
+    private ByteBuffer decodeInput;
+    private CharBuffer decoded = CharBuffer.allocate(0);
+    private boolean lineDecoded;
+    private long filePosition;
+    private long remainingBytes;
+    private boolean endOfFile;
+    private int lineCount;
+    private int lineStart;
+    private int lineEnd;
+    private int nextStart;
+    private boolean lineHasEscape;
+    private int maxLineLength;
+    private int overlap;
+    private boolean continuation;
+    private boolean nextIsContinuation;
+    private String line;
+    private CharSequence visibleLine;
+
+    /**
+     * Constructor, see {@link #open(File, Charset, MultiPatternMatcher)}.
+     *
+     * @param channel the open file.
+     * @param charset the charset of the file.
+     * @param bytePrefilter the prefilter for the charset.
+     * @param bufferSize the initial size of the buffer.
+     * @param start the position of the first byte to read.
+     * @param length the number of bytes to read from the start.
+     */
+    private ByteLineSource(FileChannel channel, Charset charset, AhoCorasick bytePrefilter, int bufferSize,
+                           long start, long length) {
+        this.channel = channel;
+        this.filePosition = start;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytePrefilter = bytePrefilter;
+        this.remainingBytes = length;
+        this.buffer = takeBuffer(bufferSize);
+        this.decodeInput = buffer.duplicate();
+        buffer.limit(0);
+    }
+
+    /**
+     * Takes a direct buffer from the pool, or allocates it.
+     *
+     * @param size the size of the buffer.
+     * @return a cleared buffer.
+     */
+    private static ByteBuffer takeBuffer(int size) {
+        if (size == BUFFER_SIZE) {
+            synchronized (POOLED_BUFFERS) {
+                ByteBuffer pooled = POOLED_BUFFERS.poll();
+                if (pooled != null) {
+                    pooled.clear();
+                    return pooled;
+                }
+            }
+        }
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    /**
+     * Gives a direct buffer back to the pool, unless it is not of the standard size or the pool is full.
+     *
+     * @param buffer the buffer, not used any more.
+     */
+    private static void giveBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() != BUFFER_SIZE) {
+            return;
+        }
+        synchronized (POOLED_BUFFERS) {
+            if (POOLED_BUFFERS.size() < MAX_POOLED_BUFFERS) {
+                POOLED_BUFFERS.push(buffer);
+            }
+        }
+    }
+
+    /**
+     * Opens a log file for byte level scanning.
+     *
+     * @param file the log file.
+     * @param charset the charset of the log.
+     * @param matcher the matcher that will be used for the scan.
+     * @return the source, or null if the matcher's literals can not be looked for in bytes of the charset.
+     * @throws IOException if the file could not be opened.
+     */
+    public static ByteLineSource open(File file, Charset charset, MultiPatternMatcher matcher) throws IOException {
+        return open(file, charset, matcher, BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a log file for byte level scanning with a given initial buffer size.
+     *
+     * @param file the log file.
+     * @param charset the charset of the log.
+     * @param matcher the matcher that will be used for the scan.
+     * @param bufferSize the initial size of the buffer.
+     * @return the source, or null if the matcher's literals can not be looked for in bytes of the charset.
+     * @throws IOException if the file could not be opened.
+     */
+    static ByteLineSource open(File file, Charset charset, MultiPatternMatcher matcher, int bufferSize)
+            throws IOException {
+        return open(file, charset, matcher, bufferSize, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens a segment of a log file for byte level scanning. The segment should start at the start of a line and
+     * end after a line break or at the end of the file, see {@link LogSegment#split(File, int)}.
+     *
+     * @param file the log file.
+     * @param charset the charset of the log.
+     * @param matcher the matcher that will be used for the scan.
+     * @param segment the segment.
+     * @return the source, or null if the matcher's literals can not be looked for in bytes of the charset.
+     * @throws IOException if the file could not be opened.
+     */
+    public static ByteLineSource open(File file, Charset charset, MultiPatternMatcher matcher, LogSegment segment)
+            throws IOException {
+        return open(file, charset, matcher, BUFFER_SIZE, segment.getStart(), segment.getEnd() - segment.getStart());
+    }
+
+    /**
+     * Opens a range of a log file for byte level scanning.
+     *
+     * @param file the log file.
+     * @param charset the charset of the log.
+     * @param matcher the matcher that will be used for the scan.
+     * @param bufferSize the initial size of the buffer.
+     * @param start the position of the first byte to read.
+     * @param length the maximum number of bytes to read.
+     * @return the source, or null if the matcher's literals can not be looked for in bytes of the charset.
+     * @throws IOException if the file could not be opened.
+     */
+    private static ByteLineSource open(File file, Charset charset, MultiPatternMatcher matcher, int bufferSize,
+                                       long start, long length) throws IOException {
+        AhoCorasick bytePrefilter = matcher.getBytePrefilter(charset);
+        if (bytePrefilter == null) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        return new ByteLineSource(channel, charset, bytePrefilter, bufferSize, start, length);
+    }
+
+    /**
+     * Sets the length from which a line is split into chunks.
+     *
+     * @param maxLineLength the maximum number of bytes of a line, 0 to read whole lines.
+     */
+    public void setMaxLineLength(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+        this.overlap = Math.min(ReaderLineSource.LINE_OVERLAP, maxLineLength / 2);
+    }
+
+    @Override
+    public boolean nextLine() throws IOException {
+        lineStart = nextStart;
+        line = null;
+        visibleLine = null;
+        lineDecoded = false;
+        lineHasEscape = false;
+        continuation = nextIsContinuation;
+        nextIsContinuation = false;
+        int position = lineStart;
+        while (true) {
+            int limit = buffer.limit();
+            for (; position < limit; position++) {
+                byte b = buffer.get(position);
+                if (maxLineLength > 0 && position - lineStart == maxLineLength && b != '\n' && b != '\r') {
+                    // Not counted as a line, the rest of the line follows as a continuation.
+                    lineEnd = position;
+                    nextStart = position - overlap;
+                    nextIsContinuation = true;
+                    return true;
+                }
+                if (b == VisibleText.ESCAPE) {
+                    lineHasEscape = true;
+                    continue;
+                }
+                if (b == '\n') {
+                    lineEnd = position;
+                    nextStart = position + 1;
+                    lineCount++;
+                    return true;
+                }
+                if (b == '\r') {
+                    if (position + 1 == limit && !endOfFile) {
+                        // Need the next byte to know if this is "\r\n".
+                        break;
+                    }
+                    lineEnd = position;
+                    nextStart = position + 1;
+                    if (nextStart < limit && buffer.get(nextStart) == '\n') {
+                        nextStart++;
+                    }
+                    lineCount++;
+                    return true;
+                }
+            }
+            if (endOfFile) {
+                if (lineStart == limit) {
+                    return false;
+                }
+                lineEnd = limit;
+                nextStart = limit;
+                lineCount++;
+                return true;
+            }
+            position -= lineStart;
+            fill();
+        }
+    }
+
+    /**
+     * Moves the current partial line to the start of the buffer and reads more of the file after it, growing the
+     * buffer if the line fills it.
+     *
+     * @throws IOException if the file could not be read.
+     */
+    private void fill() throws IOException {
+        int remaining = buffer.limit() - lineStart;
+        if (remaining == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            buffer.position(lineStart);
+            larger.put(buffer);
+            giveBuffer(buffer);
+            buffer = larger;
+            decodeInput = buffer.duplicate();
+        } else {
+            buffer.position(lineStart);
+            buffer.compact();
+        }
+        // The buffer is now in write mode with the partial line first.
+        lineStart = 0;
+        nextStart = 0;
+        if (remainingBytes < buffer.remaining()) {
+            buffer.limit(buffer.position() + (int)remainingBytes);
+        }
+        // A file channel is closed when its thread is interrupted, so the watchdog must not interrupt the read.
+        ScanWatchdog.Watch watch = ScanWatchdog.suspendCurrent();
+        try {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, filePosition);
+                if (read < 0) {
+                    break;
+                }
+                filePosition += read;
+                remainingBytes -= read;
+            }
+        } finally {
+            if (watch != null) {
+                watch.resume();
+            }
+        }
+        endOfFile = remainingBytes == 0 || buffer.hasRemaining();
+        buffer.flip();
+    }
+
+    /**
+     * Reads the lines not read yet, to count them.
+     *
+     * @return the number of lines of the source.
+     * @throws IOException if the file could not be read.
+     */
+    public int countLines() throws IOException {
+        while (nextLine()) {
+            // Counted by nextLine.
+            continue;
+        }
+        return lineCount;
+    }
+
+    @Override
+    public boolean isContinuation() {
+        return continuation;
+    }
+
+    @Override
+    public boolean prefilter(MultiPatternMatcher.Scan scan) {
+        if (lineHasEscape) {
+            scan.startLine(getVisibleLine());
+        } else {
+            scan.startLine(buffer, lineStart, lineEnd, bytePrefilter);
+        }
+        return scan.hasCandidates();
+    }
+
+    /**
+     * Decodes the current line into the reused char buffer, like {@link String#String(byte[], Charset)} does.
+     *
+     * @return the decoded line, valid until the next line.
+     */
+    private CharBuffer decode() {
+        if (lineDecoded) {
+            return decoded;
+        }
+        int length = lineEnd - lineStart;
+        int capacity = Math.max(length, decoded.capacity());
+        while (true) {
+            if (decoded.capacity() < capacity) {
+                decoded = CharBuffer.allocate(capacity);
+            }
+            decodeInput.clear();
+            decodeInput.position(lineStart);
+            decodeInput.limit(lineEnd);
+            decoded.clear();
+            decoder.reset();
+            CoderResult result = decoder.decode(decodeInput, decoded, true);
+            if (!result.isOverflow()) {
+                result = decoder.flush(decoded);
+            }
+            if (!result.isOverflow()) {
+                break;
+            }
+            capacity = decoded.capacity() * 2;
+        }
+        decoded.flip();
+        lineDecoded = true;
+        return decoded;
+    }
+
+    @Override
+    public String getLine() {
+        if (line == null) {
+            line = decode().toString();
+        }
+        return line;
+    }
+
+    @Override
+    public CharSequence getVisibleLine() {
+        if (visibleLine == null) {
+            if (lineHasEscape) {
+                visibleLine = visibleText.reset(decode());
+            } else {
+                visibleLine = decode();
+            }
+        }
+        return visibleLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            if (buffer != null) {
+                giveBuffer(buffer);
+                buffer = null;
+                decodeInput = null;
+            }
+        }
+    }
+}
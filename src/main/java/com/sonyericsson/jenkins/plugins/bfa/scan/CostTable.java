@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What one scan has spent on each of its entries: the time evaluating the pattern, the number of evaluations, the
+ * matches and the timeouts. Not thread safe, an entry should only be updated by one thread at a time.
+ *
+ * @see ScanCost
+ */
+final class CostTable {
+
+    private final long[] nanos;
+    private final int[] evaluations;
+    private final int[] matches;
+    private final int[] timeouts;
+
+    /**
+     * Standard constructor.
+     *
+     * @param entries the number of entries.
+     */
+    CostTable(int entries) {
+        nanos = new long[entries];
+        evaluations = new int[entries];
+        matches = new int[entries];
+        timeouts = new int[entries];
+    }
+
+    /**
+     * Adds one evaluation of an entry.
+     *
+     * @param entry the entry.
+     * @param spentNanos the time it took.
+     */
+    void evaluated(int entry, long spentNanos) {
+        nanos[entry] += spentNanos;
+        evaluations[entry]++;
+    }
+
+    /**
+     * Counts a match of an entry.
+     *
+     * @param entry the entry.
+     */
+    void matched(int entry) {
+        matches[entry]++;
+    }
+
+    /**
+     * Counts a timeout of an entry.
+     *
+     * @param entry the entry.
+     */
+    void timedOut(int entry) {
+        timeouts[entry]++;
+    }
+
+    /**
+     * Adds what another scan with the same entries has spent, e.g. on another segment of the log.
+     *
+     * @param other the other table.
+     */
+    void add(CostTable other) {
+        for (int entry = 0; entry < nanos.length; entry++) {
+            nanos[entry] += other.nanos[entry];
+            evaluations[entry] += other.evaluations[entry];
+            matches[entry] += other.matches[entry];
+            timeouts[entry] += other.timeouts[entry];
+        }
+    }
+
+    /**
+     * Adds what has been spent to {@link ScanCost}, per indication and per cause, and starts over.
+     *
+     * @param causes the causes.
+     * @param causeOfEntry the index of the cause of each entry.
+     * @param indications the indication of each entry.
+     */
+    void record(List<FailureCause> causes, int[] causeOfEntry, Indication[] indications) {
+        ScanCost scanCost = ScanCost.getInstance();
+        int entry = 0;
+        // The entries of a cause are next to each other.
+        while (entry < nanos.length) {
+            int cause = causeOfEntry[entry];
+            long causeNanos = 0;
+            int causeEvaluations = 0;
+            int causeMatches = 0;
+            int causeTimeouts = 0;
+            for (; entry < nanos.length && causeOfEntry[entry] == cause; entry++) {
+                if (evaluations[entry] == 0) {
+                    continue;
+                }
+                scanCost.record(causes.get(cause), indications[entry], nanos[entry], evaluations[entry],
+                        matches[entry], timeouts[entry]);
+                causeNanos += nanos[entry];
+                causeEvaluations += evaluations[entry];
+                causeMatches += matches[entry];
+                causeTimeouts += timeouts[entry];
+            }
+            if (causeEvaluations > 0) {
+                scanCost.recordCause(causes.get(cause), causeNanos, causeEvaluations, causeMatches, causeTimeouts);
+            }
+        }
+        Arrays.fill(nanos, 0);
+        Arrays.fill(evaluations, 0);
+        Arrays.fill(matches, 0);
+        Arrays.fill(timeouts, 0);
+    }
+}
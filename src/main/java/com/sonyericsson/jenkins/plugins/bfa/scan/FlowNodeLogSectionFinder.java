@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import hudson.Extension;
+import hudson.model.Run;
+import org.jenkinsci.plugins.workflow.actions.LabelAction;
+import org.jenkinsci.plugins.workflow.actions.LogAction;
+import org.jenkinsci.plugins.workflow.actions.ThreadNameAction;
+import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.flow.FlowExecutionOwner;
+import org.jenkinsci.plugins.workflow.graph.BlockEndNode;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graphanalysis.DepthFirstScanner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits the log of a pipeline build into the logs of its steps. Only the steps of the stages and parallel branches
+ * where a step failed are returned when only the failed parts are asked for: the innermost stage or branch around
+ * each failed step, with all its steps, since the cause is often written by an earlier step than the one that
+ * failed.
+ *
+ * A pipeline where a step failed outside of any stage, or where no step failed, e.g. because it was aborted, is
+ * scanned as a whole.
+ */
+@Extension(optional = true)
+public class FlowNodeLogSectionFinder extends LogSectionFinder {
+
+    @Override
+    public List<LogSection> findSections(Run build, boolean failedOnly) throws IOException {
+        if (!(build instanceof FlowExecutionOwner.Executable)) {
+            return null;
+        }
+        FlowExecutionOwner owner = ((FlowExecutionOwner.Executable)build).asFlowExecutionOwner();
+        if (owner == null) {
+            return null;
+        }
+        FlowExecution execution = owner.get();
+        List<FlowNode> nodes = new ArrayList<FlowNode>(new DepthFirstScanner().allNodes(execution));
+        // The scanner walks the graph from its end.
+        Collections.reverse(nodes);
+        Set<String> failedBranches = null;
+        if (failedOnly) {
+            failedBranches = findFailedBranches(nodes);
+            if (failedBranches == null) {
+                return null;
+            }
+        }
+        List<LogSection> sections = new ArrayList<LogSection>();
+        for (FlowNode node : nodes) {
+            LogAction log = node.getAction(LogAction.class);
+            if (log == null) {
+                continue;
+            }
+            BlockStartNode branch = getBranch(node);
+            if (failedBranches == null || node.getError() != null
+                    || (branch != null && failedBranches.contains(branch.getId()))) {
+                sections.add(new FlowNodeLogSection(node.getId(), getBranchName(branch), log));
+            }
+        }
+        return sections;
+    }
+
+    /**
+     * Finds the innermost stages or branches around the steps that failed.
+     *
+     * @param nodes all nodes of the pipeline.
+     * @return the ids of the start nodes of the failed stages and branches, or null if the pipeline should be scanned
+     *         as a whole.
+     */
+    private static Set<String> findFailedBranches(List<FlowNode> nodes) {
+        Set<String> failedBranches = new HashSet<String>();
+        for (FlowNode node : nodes) {
+            // The error of a step is also recorded at the end of every block it is thrown through.
+            if (node.getError() == null || node instanceof BlockEndNode) {
+                continue;
+            }
+            BlockStartNode branch = getBranch(node);
+            if (branch == null) {
+                return null;
+            }
+            failedBranches.add(branch.getId());
+        }
+        if (failedBranches.isEmpty()) {
+            return null;
+        }
+        return failedBranches;
+    }
+
+    /**
+     * Finds the innermost stage or parallel branch around a node.
+     *
+     * @param node the node.
+     * @return the start node of the stage or branch, or null if the node is not in one.
+     */
+    private static BlockStartNode getBranch(FlowNode node) {
+        for (BlockStartNode block : node.iterateEnclosingBlocks()) {
+            if (block.getAction(LabelAction.class) != null) {
+                return block;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The name of a stage or parallel branch.
+     *
+     * @param branch the start node of the stage or branch, or null.
+     * @return the name, or null.
+     */
+    private static String getBranchName(BlockStartNode branch) {
+        if (branch == null) {
+            return null;
+        }
+        ThreadNameAction thread = branch.getAction(ThreadNameAction.class);
+        if (thread != null) {
+            return thread.getThreadName();
+        }
+        return branch.getDisplayName();
+    }
+
+    /**
+     * The log of one step.
+     */
+    private static final class FlowNodeLogSection extends LogSection {
+        private final LogAction log;
+
+        /**
+         * Standard constructor.
+         *
+         * @param id the id of the node.
+         * @param stageName the name of the stage or branch of the node, or null.
+         * @param log the log of the node.
+         */
+        FlowNodeLogSection(String id, String stageName, LogAction log) {
+            super(id, stageName);
+            this.log = log;
+        }
+
+        @Override
+        public long length() {
+            return log.getLogText().length();
+        }
+
+        @Override
+        public Reader openReader() throws IOException {
+            return log.getLogText().readAll();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.io.IOException;
+
+/**
+ * The lines of a log, as seen by a single-line scan. Lets a source skip decoding the lines that no pending
+ * indication can match.
+ *
+ * A source may split a line that is longer than a maximum length into overlapping chunks, so that a single huge line
+ * does not have to be held in memory or matched as a whole; the chunks after the first are continuations.
+ */
+public interface LineSource {
+
+    /**
+     * Advances to the next line.
+     *
+     * @return false if there are no more lines.
+     * @throws IOException if the log could not be read.
+     */
+    boolean nextLine() throws IOException;
+
+    /**
+     * If the current line is a chunk of the same line of the log as the previous one, see {@link #nextLine()}.
+     *
+     * @return true if the current line continues the previous one.
+     */
+    boolean isContinuation();
+
+    /**
+     * Runs the literal prefilter of a scan over the visible text of the current line.
+     *
+     * @param scan the scan.
+     * @return false if no pending indication of the scan can match the line.
+     */
+    boolean prefilter(MultiPatternMatcher.Scan scan);
+
+    /**
+     * The current line.
+     *
+     * @return the decoded line.
+     */
+    String getLine();
+
+    /**
+     * The visible text of the current line, without console notes and ANSI escape sequences, which the indications
+     * are matched against. Only valid until the next line.
+     *
+     * @return the visible text.
+     * @see VisibleText
+     */
+    CharSequence getVisibleLine();
+}
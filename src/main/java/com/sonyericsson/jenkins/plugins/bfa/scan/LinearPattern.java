@@ -0,0 +1,1435 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A regular expression compiled for matching in time linear in the length of the input. All the ways the expression
+ * can match are followed at once, one input character at a time, instead of backtracking through them one by one
+ * (Thompson's construction, simulated like a Pike VM without captures). No input can make it slow, so a matcher of
+ * a linear pattern does not need the interrupt checks of
+ * {@link com.sonyericsson.jenkins.plugins.bfa.model.FailureReader.InterruptibleCharSequence}.
+ *
+ * Only expressions that can be matched this way are compiled, see {@link #compile(Pattern)}: no backreferences,
+ * lookaround, atomic groups, possessive quantifiers, word boundaries, Unicode properties or flags other than
+ * {@link Pattern#CASE_INSENSITIVE} and {@link Pattern#DOTALL}. Neither are repetitions, other than an optional
+ * {@code ?}, of something that can match the empty string, like {@code (a|^)*} or {@code (a?){2}}: {@link Pattern}
+ * stops repeating those after an iteration that matched nothing. Otherwise a compiled expression matches the input
+ * the {@link Pattern} it was compiled from matches. Only whole input matching, like
+ * {@link java.util.regex.Matcher#matches()}, is supported, which is what single-line indications use.
+ */
+public final class LinearPattern {
+
+    /**
+     * The maximum number of instructions of a compiled expression; larger, e.g. with large counted repetitions, are
+     * left to {@link Pattern}.
+     */
+    static final int MAX_PROGRAM_SIZE = 10000;
+
+    private static final int SUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.DOTALL;
+
+    private static final int CHAR = 0;
+    private static final int SPLIT = 1;
+    private static final int ASSERT = 2;
+    private static final int MATCH = 3;
+
+    private static final int BEGIN = 0;
+    private static final int END = 1;
+    private static final int END_OR_TERMINATOR = 2;
+
+    private final Pattern pattern;
+    private final int start;
+    private final int size;
+    private final int[] ops;
+    private final int[] outs;
+    private final int[] args;
+    private final CharClass[] classes;
+
+    /**
+     * Constructor.
+     *
+     * @param pattern the pattern compiled from.
+     * @param program the instructions.
+     * @param start the first instruction.
+     */
+    private LinearPattern(Pattern pattern, Program program, int start) {
+        this.pattern = pattern;
+        this.start = start;
+        this.size = program.size;
+        this.ops = Arrays.copyOf(program.ops, size);
+        this.outs = Arrays.copyOf(program.outs, size);
+        this.args = Arrays.copyOf(program.args, size);
+        this.classes = Arrays.copyOf(program.classes, size);
+    }
+
+    /**
+     * Compiles a pattern for linear time matching, if it can be, with the flags of {@link Pattern#flags()}.
+     * Those are the flags the pattern was compiled with, changed by the flags set inline outside of any group, so
+     * a pattern that sets flags inline after the start of the expression is left to {@link Pattern}: the flags it
+     * was compiled with are not known. See {@link #compile(Pattern, int)}.
+     *
+     * @param pattern the pattern.
+     * @return the compiled pattern, or null if the pattern uses something that can not be matched in linear time,
+     * or that is not supported.
+     */
+    public static LinearPattern compile(Pattern pattern) {
+        return compile(pattern, pattern.flags(), false);
+    }
+
+    /**
+     * Compiles a pattern for linear time matching, if it can be.
+     *
+     * @param pattern the pattern.
+     * @param flags the flags the pattern was compiled with, see {@link Pattern#compile(String, int)}.
+     * @return the compiled pattern, or null if the pattern uses something that can not be matched in linear time,
+     * or that is not supported.
+     */
+    public static LinearPattern compile(Pattern pattern, int flags) {
+        return compile(pattern, flags, true);
+    }
+
+    /**
+     * Compiles a pattern for linear time matching, if it can be.
+     *
+     * @param pattern the pattern.
+     * @param flags the flags to start parsing with.
+     * @param exactFlags true if the flags are the ones the pattern was compiled with, false if they are
+     *                   {@link Pattern#flags()}.
+     * @return the compiled pattern, or null.
+     */
+    private static LinearPattern compile(Pattern pattern, int flags, boolean exactFlags) {
+        if ((flags & ~SUPPORTED_FLAGS) != 0) {
+            return null;
+        }
+        try {
+            Parser parser = new Parser(pattern.pattern(), flags);
+            Node root = parser.parse();
+            if (!exactFlags && parser.hasLateFlags()) {
+                return null;
+            }
+            Program program = new Program();
+            int match = program.add(MATCH, -1, 0, null);
+            return new LinearPattern(pattern, program, root.emit(program, match));
+        } catch (UnsupportedException e) {
+            return null;
+        } catch (IndexOutOfBoundsException e) {
+            // Not what Pattern parsed, let it deal with the expression.
+            return null;
+        }
+    }
+
+    /**
+     * The pattern this was compiled from.
+     *
+     * @return the pattern.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Creates a matcher. A matcher holds the state of one match at a time, it is reusable but not thread safe.
+     *
+     * @return a new matcher.
+     */
+    public Matcher matcher() {
+        return new Matcher();
+    }
+
+    /**
+     * Checks if the whole input matches, with a new matcher.
+     *
+     * @param input the input.
+     * @return true if so.
+     * @see Matcher#matches(CharSequence)
+     */
+    public boolean matches(CharSequence input) {
+        return matcher().matches(input);
+    }
+
+    @Override
+    public String toString() {
+        return pattern.pattern();
+    }
+
+    /**
+     * Matches input against the compiled expression.
+     *
+     * Away from the ends of the input no assertion holds, so there the set of instructions after a character only
+     * depends on the set before it and the character. Those steps are cached per matcher for ASCII characters, like
+     * a lazily built DFA, so that most of a line costs one table lookup per character.
+     */
+    public final class Matcher {
+
+        private final int[] current = new int[size];
+        private final int[] next = new int[size];
+        private final int[] visited = new int[size];
+        private final int[] stack = new int[2 * size + 1];
+        private int stamp;
+        private final Map<StateKey, State> states = new HashMap<StateKey, State>();
+        private final StateKey probe = new StateKey();
+
+        /**
+         * Use {@link LinearPattern#matcher()}.
+         */
+        private Matcher() {
+        }
+
+        /**
+         * Checks if the whole input matches, in time proportional to the length of the input times the size of the
+         * compiled expression.
+         *
+         * @param input the input.
+         * @return true if so.
+         */
+        public boolean matches(CharSequence input) {
+            int length = input.length();
+            int count = closure(start, input, 0, current, 0, nextStamp());
+            State state = state(current, count);
+            int position = 0;
+            while (position < length && state.instructions.length > 0) {
+                int codePoint = Character.codePointAt(input, position);
+                int nextPosition = position + Character.charCount(codePoint);
+                State nextState = null;
+                boolean cacheable = codePoint < State.CACHED_CHARS && nextPosition < length - 2;
+                if (cacheable) {
+                    nextState = state.next[codePoint];
+                }
+                if (nextState == null) {
+                    nextState = state(next, step(state.instructions, codePoint, input, nextPosition));
+                    if (cacheable) {
+                        state.next[codePoint] = nextState;
+                    }
+                }
+                state = nextState;
+                position = nextPosition;
+            }
+            return position >= length && state.matching;
+        }
+
+        /**
+         * Follows a character from a set of instructions.
+         *
+         * @param instructions the instructions that consume a character or match.
+         * @param codePoint the character.
+         * @param input the input.
+         * @param nextPosition the position after the character.
+         * @return the number of instructions put in {@link #next}.
+         */
+        private int step(int[] instructions, int codePoint, CharSequence input, int nextPosition) {
+            int count = 0;
+            int listStamp = nextStamp();
+            for (int pc : instructions) {
+                if (ops[pc] == CHAR && classes[pc].matches(codePoint)) {
+                    count = closure(outs[pc], input, nextPosition, next, count, listStamp);
+                }
+            }
+            return count;
+        }
+
+        /**
+         * The cached state of a set of instructions, or a new state if there is no room left in the cache. A cached
+         * state is looked up without allocating anything.
+         *
+         * @param list the instructions, sorted by this method.
+         * @param count the number of instructions.
+         * @return the state.
+         */
+        private State state(int[] list, int count) {
+            Arrays.sort(list, 0, count);
+            State state = states.get(probe.set(list, count));
+            if (state == null) {
+                int[] instructions = Arrays.copyOf(list, count);
+                state = new State(instructions);
+                if (states.size() < State.MAX_CACHED) {
+                    states.put(new StateKey().set(instructions, count), state);
+                }
+            }
+            return state;
+        }
+
+        /**
+         * Adds the instructions that consume a character or match, reachable from an instruction without consuming
+         * anything, to a list.
+         *
+         * @param pc the instruction.
+         * @param input the input.
+         * @param position the position in the input.
+         * @param list the list.
+         * @param count the number of instructions in the list.
+         * @param listStamp the stamp of the list, to not add anything twice.
+         * @return the new number of instructions in the list.
+         */
+        private int closure(int pc, CharSequence input, int position, int[] list, int count, int listStamp) {
+            int newCount = count;
+            int top = 0;
+            stack[top++] = pc;
+            while (top > 0) {
+                int instruction = stack[--top];
+                if (visited[instruction] == listStamp) {
+                    continue;
+                }
+                visited[instruction] = listStamp;
+                switch (ops[instruction]) {
+                    case SPLIT:
+                        stack[top++] = args[instruction];
+                        stack[top++] = outs[instruction];
+                        break;
+                    case ASSERT:
+                        if (holds(args[instruction], input, position)) {
+                            stack[top++] = outs[instruction];
+                        }
+                        break;
+                    default:
+                        list[newCount++] = instruction;
+                        break;
+                }
+            }
+            return newCount;
+        }
+
+        /**
+         * Moves to a new stamp for the instructions of a list.
+         *
+         * @return the stamp.
+         */
+        private int nextStamp() {
+            if (stamp == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                stamp = 0;
+            }
+            return ++stamp;
+        }
+    }
+
+    /**
+     * A set of instructions that consume a character or match, with the sets that follow each ASCII character.
+     */
+    private final class State {
+        private static final int CACHED_CHARS = 128;
+        private static final int MAX_CACHED = 64;
+
+        private final int[] instructions;
+        private final boolean matching;
+        private final State[] next = new State[CACHED_CHARS];
+
+        /**
+         * Constructor.
+         *
+         * @param instructions the sorted instructions.
+         */
+        State(int[] instructions) {
+            this.instructions = instructions;
+            boolean match = false;
+            for (int pc : instructions) {
+                if (ops[pc] == MATCH) {
+                    match = true;
+                }
+            }
+            this.matching = match;
+        }
+    }
+
+    /**
+     * The key of a cached state: the first instructions of a list. A matcher reuses one key to look states up with.
+     */
+    private static final class StateKey {
+        private static final int HASH_MULTIPLIER = 31;
+
+        private int[] instructions;
+        private int count;
+        private int hash;
+
+        /**
+         * Makes this the key of some instructions.
+         *
+         * @param list the sorted instructions, not copied.
+         * @param newCount the number of instructions.
+         * @return this.
+         */
+        StateKey set(int[] list, int newCount) {
+            this.instructions = list;
+            this.count = newCount;
+            int h = 1;
+            for (int i = 0; i < newCount; i++) {
+                h = HASH_MULTIPLIER * h + list[i];
+            }
+            this.hash = h;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StateKey)) {
+                return false;
+            }
+            StateKey other = (StateKey)o;
+            if (count != other.count) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (instructions[i] != other.instructions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Checks a zero width assertion the way {@link Pattern} does without {@link Pattern#MULTILINE}.
+     *
+     * @param kind the assertion.
+     * @param input the input.
+     * @param position the position in the input.
+     * @return true if the assertion holds.
+     */
+    private static boolean holds(int kind, CharSequence input, int position) {
+        int length = input.length();
+        switch (kind) {
+            case BEGIN:
+                return position == 0;
+            case END:
+                return position == length;
+            default:
+                if (position == length) {
+                    return true;
+                }
+                if (position == length - 2) {
+                    return input.charAt(position) == '\r' && input.charAt(position + 1) == '\n';
+                }
+                if (position == length - 1) {
+                    char c = input.charAt(position);
+                    if (c == '\n') {
+                        return position == 0 || input.charAt(position - 1) != '\r';
+                    }
+                    return isLineTerminator(c);
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Checks if a character ends a line, for {@link Pattern} without {@link Pattern#UNIX_LINES}.
+     *
+     * @param c the character.
+     * @return true if so.
+     */
+    private static boolean isLineTerminator(int c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    /**
+     * Thrown when the expression uses something that is not supported.
+     */
+    private static final class UnsupportedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The instructions being compiled.
+     */
+    private static final class Program {
+        private static final int INITIAL_SIZE = 16;
+
+        private int[] ops = new int[INITIAL_SIZE];
+        private int[] outs = new int[INITIAL_SIZE];
+        private int[] args = new int[INITIAL_SIZE];
+        private CharClass[] classes = new CharClass[INITIAL_SIZE];
+        private int size;
+
+        /**
+         * Adds an instruction.
+         *
+         * @param op the kind of instruction.
+         * @param out the next instruction.
+         * @param arg the other next instruction of a split, or the kind of assertion.
+         * @param charClass the characters consumed.
+         * @return the index of the instruction.
+         */
+        int add(int op, int out, int arg, CharClass charClass) {
+            if (size == MAX_PROGRAM_SIZE) {
+                throw new UnsupportedException();
+            }
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                outs = Arrays.copyOf(outs, size * 2);
+                args = Arrays.copyOf(args, size * 2);
+                classes = Arrays.copyOf(classes, size * 2);
+            }
+            ops[size] = op;
+            outs[size] = out;
+            args[size] = arg;
+            classes[size] = charClass;
+            return size++;
+        }
+    }
+
+    /**
+     * A node of the parsed expression.
+     */
+    private abstract static class Node {
+        /**
+         * Compiles the node to instructions that continue with the given instruction.
+         *
+         * @param program the program.
+         * @param next the instruction after the node.
+         * @return the first instruction of the node.
+         */
+        abstract int emit(Program program, int next);
+
+        /**
+         * Checks if the node can match the empty string.
+         *
+         * @return true if it can.
+         */
+        abstract boolean matchesEmpty();
+    }
+
+    /**
+     * One character of a set.
+     */
+    private static final class CharNode extends Node {
+        private final CharClass charClass;
+
+        /**
+         * Constructor.
+         *
+         * @param charClass the set.
+         */
+        CharNode(CharClass charClass) {
+            this.charClass = charClass;
+        }
+
+        @Override
+        int emit(Program program, int next) {
+            return program.add(CHAR, next, 0, charClass);
+        }
+
+        @Override
+        boolean matchesEmpty() {
+            return false;
+        }
+    }
+
+    /**
+     * A zero width assertion.
+     */
+    private static final class AssertNode extends Node {
+        private final int kind;
+
+        /**
+         * Constructor.
+         *
+         * @param kind the assertion.
+         */
+        AssertNode(int kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        int emit(Program program, int next) {
+            return program.add(ASSERT, next, kind, null);
+        }
+
+        @Override
+        boolean matchesEmpty() {
+            return true;
+        }
+    }
+
+    /**
+     * Nodes one after the other.
+     */
+    private static final class ConcatNode extends Node {
+        private final List<Node> nodes;
+
+        /**
+         * Constructor.
+         *
+         * @param nodes the nodes, may be empty.
+         */
+        ConcatNode(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        int emit(Program program, int next) {
+            int entry = next;
+            for (int i = nodes.size() - 1; i >= 0; i--) {
+                entry = nodes.get(i).emit(program, entry);
+            }
+            return entry;
+        }
+
+        @Override
+        boolean matchesEmpty() {
+            for (Node node : nodes) {
+                if (!node.matchesEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Alternatives.
+     */
+    private static final class AlternationNode extends Node {
+        private final List<Node> alternatives;
+
+        /**
+         * Constructor.
+         *
+         * @param alternatives at least two alternatives.
+         */
+        AlternationNode(List<Node> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Override
+        int emit(Program program, int next) {
+            int entry = alternatives.get(alternatives.size() - 1).emit(program, next);
+            for (int i = alternatives.size() - 2; i >= 0; i--) {
+                entry = program.add(SPLIT, alternatives.get(i).emit(program, next), entry, null);
+            }
+            return entry;
+        }
+
+        @Override
+        boolean matchesEmpty() {
+            for (Node alternative : alternatives) {
+                if (alternative.matchesEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A repeated node. Greedy and reluctant repetitions match the same whole input.
+     */
+    private static final class RepeatNode extends Node {
+        private final Node node;
+        private final int min;
+        private final int max;
+
+        /**
+         * Constructor.
+         *
+         * @param node the repeated node.
+         * @param min the minimum number of repetitions.
+         * @param max the maximum number of repetitions, -1 for no limit.
+         */
+        RepeatNode(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        int emit(Program program, int next) {
+            int entry = next;
+            if (max < 0) {
+                int loop = program.add(SPLIT, -1, next, null);
+                // The body may grow the arrays of the program, so it is emitted before the array is read.
+                int body = node.emit(program, loop);
+                program.outs[loop] = body;
+                entry = loop;
+            } else {
+                for (int i = min; i < max; i++) {
+                    entry = program.add(SPLIT, node.emit(program, entry), next, null);
+                }
+            }
+            for (int i = 0; i < min; i++) {
+                entry = node.emit(program, entry);
+            }
+            return entry;
+        }
+
+        @Override
+        boolean matchesEmpty() {
+            return min == 0 || node.matchesEmpty();
+        }
+    }
+
+    /**
+     * A set of code points, matched with a bitmap for ASCII and ranges for the rest.
+     */
+    static final class CharClass {
+        private static final int ASCII_SIZE = 128;
+        private static final int WORD_SIZE = 64;
+        private static final int CASE_OFFSET = 'a' - 'A';
+
+        private final long low;
+        private final long high;
+        private final boolean allNonAscii;
+        private final int[] ranges;
+        private final boolean negated;
+        private final int single;
+
+        /**
+         * Constructor.
+         *
+         * @param low the bits of code points 0-63.
+         * @param high the bits of code points 64-127.
+         * @param allNonAscii if all code points above 127 are in the set.
+         * @param ranges pairs of first and last code points above 127 in the set.
+         * @param negated if the set is the complement of the above.
+         * @param single the only code point of the set, or -1.
+         */
+        private CharClass(long low, long high, boolean allNonAscii, int[] ranges, boolean negated, int single) {
+            this.low = low;
+            this.high = high;
+            this.allNonAscii = allNonAscii;
+            this.ranges = ranges;
+            this.negated = negated;
+            this.single = single;
+        }
+
+        /**
+         * Checks if a code point is in the set.
+         *
+         * @param codePoint the code point.
+         * @return true if so.
+         */
+        boolean matches(int codePoint) {
+            boolean in;
+            if (codePoint < WORD_SIZE) {
+                in = (low >>> codePoint & 1) != 0;
+            } else if (codePoint < ASCII_SIZE) {
+                in = (high >>> (codePoint - WORD_SIZE) & 1) != 0;
+            } else if (allNonAscii) {
+                in = true;
+            } else {
+                in = false;
+                for (int i = 0; i < ranges.length; i += 2) {
+                    if (codePoint >= ranges[i] && codePoint <= ranges[i + 1]) {
+                        in = true;
+                        break;
+                    }
+                }
+            }
+            return in != negated;
+        }
+
+        /**
+         * Builds a set.
+         */
+        static final class Builder {
+            private long low;
+            private long high;
+            private boolean allNonAscii;
+            private final List<Integer> ranges = new ArrayList<Integer>();
+
+            /**
+             * Adds a range of code points.
+             *
+             * @param first the first code point.
+             * @param last the last code point.
+             * @return this.
+             */
+            Builder add(int first, int last) {
+                for (int c = first; c <= last && c < ASCII_SIZE; c++) {
+                    if (c < WORD_SIZE) {
+                        low |= 1L << c;
+                    } else {
+                        high |= 1L << (c - WORD_SIZE);
+                    }
+                }
+                if (last >= ASCII_SIZE) {
+                    ranges.add(Math.max(first, ASCII_SIZE));
+                    ranges.add(last);
+                }
+                return this;
+            }
+
+            /**
+             * Adds all code points above 127.
+             *
+             * @return this.
+             */
+            Builder addAllNonAscii() {
+                allNonAscii = true;
+                return this;
+            }
+
+            /**
+             * Adds the code points of a set that is not negated.
+             *
+             * @param other the set.
+             * @return this.
+             */
+            Builder add(CharClass other) {
+                low |= other.low;
+                high |= other.high;
+                allNonAscii |= other.allNonAscii;
+                for (int range : other.ranges) {
+                    ranges.add(range);
+                }
+                return this;
+            }
+
+            /**
+             * Builds the set.
+             *
+             * @param caseInsensitive to also match the other case of ASCII letters, like {@link Pattern} does with
+             *                        {@link Pattern#CASE_INSENSITIVE}.
+             * @param negated to build the complement.
+             * @return the set.
+             */
+            CharClass build(boolean caseInsensitive, boolean negated) {
+                long lowBits = low;
+                long highBits = high;
+                if (caseInsensitive) {
+                    // Upper and lower case ASCII letters are both in the high word.
+                    long upper = highBits & letterBits('A');
+                    long lower = highBits & letterBits('a');
+                    highBits |= upper << CASE_OFFSET | lower >>> CASE_OFFSET;
+                }
+                int[] rangeArray = new int[ranges.size()];
+                for (int i = 0; i < rangeArray.length; i++) {
+                    rangeArray[i] = ranges.get(i);
+                }
+                return new CharClass(lowBits, highBits, allNonAscii, rangeArray, negated, -1);
+            }
+
+            /**
+             * The bits of the 26 letters from a letter in the high word.
+             *
+             * @param a 'A' or 'a'.
+             * @return the bits.
+             */
+            private static long letterBits(char a) {
+                //CS IGNORE MagicNumber FOR NEXT 1 LINES. REASON: The number of letters.
+                return ((1L << 26) - 1) << (a - WORD_SIZE);
+            }
+        }
+
+        /**
+         * A set of one code point.
+         *
+         * @param codePoint the code point.
+         * @param caseInsensitive to also match the other case of an ASCII letter.
+         * @return the set.
+         */
+        static CharClass single(int codePoint, boolean caseInsensitive) {
+            CharClass charClass = new Builder().add(codePoint, codePoint).build(caseInsensitive, false);
+            return new CharClass(charClass.low, charClass.high, false, charClass.ranges, false, codePoint);
+        }
+    }
+
+    /**
+     * Parses the syntax of {@link Pattern}, refusing what is not supported.
+     */
+    private static final class Parser {
+        private static final int MAX_REPETITIONS = 1000;
+        private static final int HEX_RADIX = 16;
+        private static final int UNICODE_ESCAPE_LENGTH = 4;
+        private static final int CONTROL_BIT = 0x40;
+        private static final int BELL = 0x07;
+        private static final int ESCAPE = 0x1B;
+        private static final int OCTAL_DIGIT_BITS = 3;
+
+        private static final CharClass DIGITS = new CharClass.Builder().add('0', '9').build(false, false);
+        private static final CharClass NON_DIGITS = new CharClass.Builder().add(0, '0' - 1).add('9' + 1,
+                CharClass.ASCII_SIZE - 1).addAllNonAscii().build(false, false);
+        private static final CharClass SPACES = new CharClass.Builder().add(' ', ' ').add('\t', '\r')
+                .build(false, false);
+        private static final CharClass NON_SPACES = new CharClass.Builder().add(0, '\t' - 1).add('\r' + 1, ' ' - 1)
+                .add(' ' + 1, CharClass.ASCII_SIZE - 1).addAllNonAscii().build(false, false);
+        private static final CharClass WORD = new CharClass.Builder().add('a', 'z').add('A', 'Z').add('0', '9')
+                .add('_', '_').build(false, false);
+        private static final CharClass NON_WORD = new CharClass.Builder().add(0, '0' - 1).add('9' + 1, 'A' - 1)
+                .add('Z' + 1, '_' - 1).add('_' + 1, 'a' - 1).add('z' + 1, CharClass.ASCII_SIZE - 1).addAllNonAscii()
+                .build(false, false);
+        private static final CharClass ANY = new CharClass.Builder().add(0, CharClass.ASCII_SIZE - 1)
+                .addAllNonAscii().build(false, false);
+        private static final CharClass ANY_BUT_TERMINATORS = new CharClass.Builder().add(0, '\n' - 1)
+                .add('\n' + 1, '\r' - 1).add('\r' + 1, '\u0084').add('\u0086', '\u2027')
+                .add('\u202a', Character.MAX_CODE_POINT).build(false, false);
+
+        private final String regex;
+        private int pos;
+        private int flags;
+        private int depth;
+        private int leadingFlagsEnd;
+        private boolean lateFlags;
+
+        /**
+         * Constructor.
+         *
+         * @param regex the expression.
+         * @param flags the flags it was compiled with.
+         */
+        Parser(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        /**
+         * Checks if the expression sets flags inline outside of any group, after the start of the expression.
+         * Such flags stay in {@link Pattern#flags()}, which then no longer tells the flags the pattern was compiled
+         * with.
+         *
+         * @return true if so.
+         */
+        boolean hasLateFlags() {
+            return lateFlags;
+        }
+
+        /**
+         * Parses the whole expression.
+         *
+         * @return the root node.
+         */
+        Node parse() {
+            Node root = parseAlternation();
+            if (pos < regex.length()) {
+                throw new UnsupportedException();
+            }
+            return root;
+        }
+
+        /**
+         * Parses alternatives up to the end of the group.
+         *
+         * @return the node.
+         */
+        private Node parseAlternation() {
+            List<Node> alternatives = new ArrayList<Node>();
+            alternatives.add(parseConcat());
+            while (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+                alternatives.add(parseConcat());
+            }
+            if (alternatives.size() == 1) {
+                return alternatives.get(0);
+            }
+            return new AlternationNode(alternatives);
+        }
+
+        /**
+         * Parses a sequence up to the end of the alternative.
+         *
+         * @return the node.
+         */
+        private Node parseConcat() {
+            List<Node> nodes = new ArrayList<Node>();
+            while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+                Node atom;
+                if (regex.startsWith("\\Q", pos)) {
+                    // Like plain characters, a quantifier after the quote is for its last character only.
+                    List<Node> quoted = parseQuote();
+                    if (quoted.isEmpty()) {
+                        continue;
+                    }
+                    nodes.addAll(quoted.subList(0, quoted.size() - 1));
+                    atom = quoted.get(quoted.size() - 1);
+                } else {
+                    atom = parseAtom();
+                }
+                if (atom == null) {
+                    if (isQuantifierAhead()) {
+                        throw new UnsupportedException();
+                    }
+                    continue;
+                }
+                nodes.add(parseQuantifier(atom));
+            }
+            if (nodes.size() == 1) {
+                return nodes.get(0);
+            }
+            return new ConcatNode(nodes);
+        }
+
+        /**
+         * Checks if the next character is a quantifier.
+         *
+         * @return true if so.
+         */
+        private boolean isQuantifierAhead() {
+            if (pos >= regex.length()) {
+                return false;
+            }
+            char c = regex.charAt(pos);
+            return c == '*' || c == '+' || c == '?' || c == '{';
+        }
+
+        /**
+         * Parses the quantifier after an atom, if any.
+         *
+         * @param atom the atom.
+         * @return the atom, or its repetition.
+         */
+        private Node parseQuantifier(Node atom) {
+            if (!isQuantifierAhead()) {
+                return atom;
+            }
+            int min;
+            int max;
+            char c = regex.charAt(pos++);
+            if (c == '*') {
+                min = 0;
+                max = -1;
+            } else if (c == '+') {
+                min = 1;
+                max = -1;
+            } else if (c == '?') {
+                min = 0;
+                max = 1;
+            } else {
+                min = parseNumber();
+                max = min;
+                if (regex.charAt(pos) == ',') {
+                    pos++;
+                    if (regex.charAt(pos) == '}') {
+                        max = -1;
+                    } else {
+                        max = parseNumber();
+                    }
+                }
+                if (regex.charAt(pos++) != '}' || max >= 0 && max < min) {
+                    throw new UnsupportedException();
+                }
+            }
+            if (pos < regex.length() && regex.charAt(pos) == '?') {
+                // Reluctant, matches the same whole input.
+                pos++;
+            } else if (pos < regex.length() && regex.charAt(pos) == '+') {
+                // Possessive, would need backtracking to get right.
+                throw new UnsupportedException();
+            }
+            if (atom instanceof AssertNode || isQuantifierAhead()) {
+                throw new UnsupportedException();
+            }
+            if (max != 1 && atom.matchesEmpty()) {
+                // Pattern ends a loop after an iteration that matched nothing, even before the minimum count,
+                // which a repetition of the same instructions can not follow.
+                throw new UnsupportedException();
+            }
+            return new RepeatNode(atom, min, max);
+        }
+
+        /**
+         * Parses the number of a counted repetition.
+         *
+         * @return the number.
+         */
+        private int parseNumber() {
+            int begin = pos;
+            while (pos < regex.length() && Character.isDigit(regex.charAt(pos)) && pos - begin < String.valueOf(
+                    MAX_REPETITIONS).length()) {
+                pos++;
+            }
+            if (pos == begin) {
+                throw new UnsupportedException();
+            }
+            int number = Integer.parseInt(regex.substring(begin, pos));
+            if (number > MAX_REPETITIONS) {
+                throw new UnsupportedException();
+            }
+            return number;
+        }
+
+        /**
+         * Parses one atom.
+         *
+         * @return the node, or null for a group that only sets flags.
+         */
+        private Node parseAtom() {
+            int c = regex.codePointAt(pos);
+            switch (c) {
+                case '(':
+                    return parseGroup();
+                case '[':
+                    pos++;
+                    return new CharNode(parseClass());
+                case '.':
+                    pos++;
+                    if ((flags & Pattern.DOTALL) != 0) {
+                        return new CharNode(ANY);
+                    }
+                    return new CharNode(ANY_BUT_TERMINATORS);
+                case '^':
+                    pos++;
+                    return new AssertNode(BEGIN);
+                case '$':
+                    pos++;
+                    return new AssertNode(END_OR_TERMINATOR);
+                case '\\':
+                    return parseEscapeAtom();
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw new UnsupportedException();
+                default:
+                    pos += Character.charCount(c);
+                    return new CharNode(CharClass.single(c, isCaseInsensitive()));
+            }
+        }
+
+        /**
+         * Parses a group, or flags.
+         *
+         * @return the node, or null if it only sets flags.
+         */
+        private Node parseGroup() {
+            int groupStart = pos;
+            pos++;
+            int saved = flags;
+            depth++;
+            Node node;
+            if (regex.charAt(pos) == '?') {
+                pos++;
+                char c = regex.charAt(pos);
+                if (c == ':') {
+                    pos++;
+                    node = parseAlternation();
+                } else if (c == '<' && Character.isLetter(regex.charAt(pos + 1))) {
+                    // Named group, the name is of no use without backreferences.
+                    pos = regex.indexOf('>', pos) + 1;
+                    if (pos == 0) {
+                        throw new UnsupportedException();
+                    }
+                    node = parseAlternation();
+                } else if (parseFlags()) {
+                    // The flags stay for the rest of the enclosing group.
+                    depth--;
+                    if (depth == 0) {
+                        if (groupStart == leadingFlagsEnd) {
+                            leadingFlagsEnd = pos;
+                        } else {
+                            lateFlags = true;
+                        }
+                    }
+                    return null;
+                } else {
+                    node = parseAlternation();
+                }
+            } else {
+                node = parseAlternation();
+            }
+            if (pos >= regex.length() || regex.charAt(pos) != ')') {
+                throw new UnsupportedException();
+            }
+            pos++;
+            depth--;
+            flags = saved;
+            return node;
+        }
+
+        /**
+         * Parses the flags of a group, the part after "(?".
+         *
+         * @return true if the group only sets flags, false if it has an expression after ':'.
+         */
+        private boolean parseFlags() {
+            boolean on = true;
+            while (true) {
+                char c = regex.charAt(pos++);
+                int flag;
+                switch (c) {
+                    case 'i':
+                        flag = Pattern.CASE_INSENSITIVE;
+                        break;
+                    case 's':
+                        flag = Pattern.DOTALL;
+                        break;
+                    case '-':
+                        if (!on) {
+                            throw new UnsupportedException();
+                        }
+                        on = false;
+                        continue;
+                    case ')':
+                        return true;
+                    case ':':
+                        return false;
+                    default:
+                        // Lookaround, atomic groups and flags that change more than supported.
+                        throw new UnsupportedException();
+                }
+                if (on) {
+                    flags |= flag;
+                } else {
+                    flags &= ~flag;
+                }
+            }
+        }
+
+        /**
+         * Parses an escape outside of a character class.
+         *
+         * @return the node.
+         */
+        private Node parseEscapeAtom() {
+            pos++;
+            char c = regex.charAt(pos);
+            switch (c) {
+                case 'A':
+                    pos++;
+                    return new AssertNode(BEGIN);
+                case 'z':
+                    pos++;
+                    return new AssertNode(END);
+                case 'Z':
+                    pos++;
+                    return new AssertNode(END_OR_TERMINATOR);
+                default:
+                    return new CharNode(parseEscape());
+            }
+        }
+
+        /**
+         * Parses "\Q...\E" into one node per character.
+         *
+         * @return the nodes.
+         */
+        private List<Node> parseQuote() {
+            pos += 2;
+            int end = regex.indexOf("\\E", pos);
+            int next = end + 2;
+            if (end < 0) {
+                end = regex.length();
+                next = end;
+            }
+            List<Node> nodes = new ArrayList<Node>();
+            while (pos < end) {
+                int c = regex.codePointAt(pos);
+                nodes.add(new CharNode(CharClass.single(c, isCaseInsensitive())));
+                pos += Character.charCount(c);
+            }
+            pos = next;
+            return nodes;
+        }
+
+        /**
+         * Parses a character class, after the '['.
+         *
+         * @return the set.
+         */
+        private CharClass parseClass() {
+            boolean negated = false;
+            if (regex.charAt(pos) == '^') {
+                negated = true;
+                pos++;
+            }
+            if (regex.charAt(pos) == ']') {
+                throw new UnsupportedException();
+            }
+            CharClass.Builder builder = new CharClass.Builder();
+            while (true) {
+                char c = regex.charAt(pos);
+                if (c == ']') {
+                    pos++;
+                    break;
+                }
+                if (c == '[' || c == '&' && regex.charAt(pos + 1) == '&') {
+                    // Unions and intersections.
+                    throw new UnsupportedException();
+                }
+                int first;
+                if (c == '\\') {
+                    pos++;
+                    CharClass escaped = parseEscape();
+                    if (escaped.single < 0) {
+                        builder.add(escaped);
+                        continue;
+                    }
+                    first = escaped.single;
+                } else {
+                    first = regex.codePointAt(pos);
+                    pos += Character.charCount(first);
+                }
+                int last = first;
+                if (regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                    pos++;
+                    char next = regex.charAt(pos);
+                    if (next == '[') {
+                        throw new UnsupportedException();
+                    }
+                    if (next == '\\') {
+                        pos++;
+                        last = parseEscape().single;
+                    } else {
+                        last = regex.codePointAt(pos);
+                        pos += Character.charCount(last);
+                    }
+                    if (last < first) {
+                        throw new UnsupportedException();
+                    }
+                }
+                builder.add(first, last);
+            }
+            return builder.build(isCaseInsensitive(), negated);
+        }
+
+        /**
+         * Parses an escape, after the '\', that stands for a character or a predefined class.
+         *
+         * @return the set.
+         */
+        private CharClass parseEscape() {
+            int c = regex.codePointAt(pos);
+            pos += Character.charCount(c);
+            switch (c) {
+                case 'd':
+                    return DIGITS;
+                case 'D':
+                    return NON_DIGITS;
+                case 's':
+                    return SPACES;
+                case 'S':
+                    return NON_SPACES;
+                case 'w':
+                    return WORD;
+                case 'W':
+                    return NON_WORD;
+                case 't':
+                    return literal('\t');
+                case 'n':
+                    return literal('\n');
+                case 'r':
+                    return literal('\r');
+                case 'f':
+                    return literal('\f');
+                case 'a':
+                    return literal(BELL);
+                case 'e':
+                    return literal(ESCAPE);
+                case 'c':
+                    return literal(regex.charAt(pos++) ^ CONTROL_BIT);
+                case '0':
+                    return literal(parseOctal());
+                case 'x':
+                    return literal(parseHex());
+                case 'u':
+                    return literal(parseUnicode());
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        // Backreferences, boundaries, properties and other classes.
+                        throw new UnsupportedException();
+                    }
+                    return literal(c);
+            }
+        }
+
+        /**
+         * A set of one escaped character.
+         *
+         * @param codePoint the character.
+         * @return the set.
+         */
+        private CharClass literal(int codePoint) {
+            return CharClass.single(codePoint, isCaseInsensitive());
+        }
+
+        /**
+         * Parses the digits of an octal escape, like {@link Pattern} does.
+         *
+         * @return the character.
+         */
+        private int parseOctal() {
+            int value = 0;
+            int digits = 0;
+            //CS IGNORE MagicNumber FOR NEXT 3 LINES. REASON: A third digit is only read after a first of 0-3.
+            int maxDigits = 3;
+            if (pos < regex.length() && regex.charAt(pos) > '3') {
+                maxDigits = 2;
+            }
+            while (digits < maxDigits && pos < regex.length() && regex.charAt(pos) >= '0'
+                    && regex.charAt(pos) <= '7') {
+                value = value << OCTAL_DIGIT_BITS | regex.charAt(pos) - '0';
+                pos++;
+                digits++;
+            }
+            if (digits == 0) {
+                throw new UnsupportedException();
+            }
+            return value;
+        }
+
+        /**
+         * Parses the digits of a "\x" escape.
+         *
+         * @return the character.
+         */
+        private int parseHex() {
+            if (regex.charAt(pos) == '{') {
+                int end = regex.indexOf('}', pos);
+                int value = Integer.parseInt(regex.substring(pos + 1, end), HEX_RADIX);
+                pos = end + 1;
+                return value;
+            }
+            int value = Integer.parseInt(regex.substring(pos, pos + 2), HEX_RADIX);
+            pos += 2;
+            return value;
+        }
+
+        /**
+         * Parses the digits of a unicode escape, combining an escaped surrogate pair into one code point.
+         *
+         * @return the character.
+         */
+        private int parseUnicode() {
+            char value = (char)Integer.parseInt(regex.substring(pos, pos + UNICODE_ESCAPE_LENGTH), HEX_RADIX);
+            pos += UNICODE_ESCAPE_LENGTH;
+            if (Character.isHighSurrogate(value) && regex.startsWith("\\u", pos)) {
+                int lowStart = pos + 2;
+                char low = (char)Integer.parseInt(regex.substring(lowStart, lowStart + UNICODE_ESCAPE_LENGTH),
+                        HEX_RADIX);
+                if (Character.isLowSurrogate(low)) {
+                    pos = lowStart + UNICODE_ESCAPE_LENGTH;
+                    return Character.toCodePoint(value, low);
+                }
+            }
+            return value;
+        }
+
+        /**
+         * If case insensitive matching is on where the parser is.
+         *
+         * @return true if so.
+         */
+        private boolean isCaseInsensitive() {
+            return (flags & Pattern.CASE_INSENSITIVE) != 0;
+        }
+    }
+}
@@ -0,0 +1,478 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import hudson.model.Run;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A scan for single-line indications of a running build, fed with the log as it is written so that only the
+ * result has to be collected when the build completes.
+ *
+ * The thread writing the log only splits it into lines and queues them; the lines are scanned on a shared pool with
+ * a thread per processor, a limited number at a time so that the running builds take turns. Like in a scan of the
+ * log file, a line longer than the maximum line length is queued in overlapping chunks. If the scan falls too far
+ * behind, the queued lines are dropped and the live scan is abandoned, the build is then scanned from its log file as
+ * usual.
+ */
+public final class LiveScan {
+
+    private static final Logger logger = Logger.getLogger(LiveScan.class.getName());
+
+    /**
+     * The maximum size of the lines waiting to be scanned, including the line being written.
+     */
+    static final long MAX_QUEUED_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * The maximum number of lines scanned before the thread is given to the live scans of other builds.
+     */
+    static final int MAX_LINES_PER_TURN = 10000;
+
+    private static final int INITIAL_LINE_SIZE = 256;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final String LOG_FILE_NAME = "log";
+    /**
+     * Queued before a chunk that continues the line of the chunk before it.
+     */
+    private static final byte[] CONTINUATION = new byte[0];
+    private static final Map<Run, LiveScan> SCANS = Collections.synchronizedMap(new WeakHashMap<Run, LiveScan>());
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        int threads = Runtime.getRuntime().availableProcessors();
+        // A live scan has at most one turn queued, so the queue is bounded by the number of running builds.
+        EXECUTOR = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "BFA live scan");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final Run build;
+    private final MultiPatternMatcher matcher;
+    private final MultiPatternMatcher.Scan scan;
+    private final Charset charset;
+    private final AhoCorasick bytePrefilter;
+    private final int maxLineLength;
+    private final int overlap;
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<byte[]>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Object drained = new Object();
+    private final QueueLineSource source = new QueueLineSource();
+    private volatile boolean abandoned;
+    private volatile boolean complete;
+    private int lineCount;
+
+    // Written under the lock of this scan.
+    private byte[] lineBuffer = new byte[INITIAL_LINE_SIZE];
+    private int lineLength;
+    private boolean lineContinues;
+    private boolean afterCarriageReturn;
+    private boolean closed;
+
+    /**
+     * Standard constructor.
+     *
+     * @param build the running build.
+     * @param matcher the compiled single-line indications to look for.
+     * @param charset the charset of the log.
+     * @param maxLineLength the number of bytes from which a line is queued in chunks, 0 to queue whole lines.
+     */
+    LiveScan(Run build, MultiPatternMatcher matcher, Charset charset, int maxLineLength) {
+        this.build = build;
+        this.matcher = matcher;
+        this.scan = matcher.newScan();
+        this.charset = charset;
+        this.bytePrefilter = matcher.getBytePrefilter(charset);
+        this.maxLineLength = maxLineLength;
+        this.overlap = Math.min(ReaderLineSource.LINE_OVERLAP, maxLineLength / 2);
+    }
+
+    /**
+     * Starts a live scan of a build that queues whole lines, replacing any earlier one.
+     *
+     * @param build the running build.
+     * @param matcher the compiled single-line indications to look for.
+     * @return the scan, to be fed with {@link #write(byte[], int, int)}.
+     */
+    public static LiveScan start(Run build, MultiPatternMatcher matcher) {
+        return start(build, matcher, 0);
+    }
+
+    /**
+     * Starts a live scan of a build, replacing any earlier one.
+     *
+     * @param build the running build.
+     * @param matcher the compiled single-line indications to look for.
+     * @param maxLineLength the number of bytes from which a line is scanned in overlapping chunks, like in a scan of
+     *                      the log file, 0 to scan whole lines.
+     * @return the scan, to be fed with {@link #write(byte[], int, int)}.
+     */
+    public static LiveScan start(Run build, MultiPatternMatcher matcher, int maxLineLength) {
+        LiveScan liveScan = new LiveScan(build, matcher, build.getCharset(), maxLineLength);
+        LiveScan earlier = SCANS.put(build, liveScan);
+        if (earlier != null) {
+            earlier.abandon();
+        }
+        return liveScan;
+    }
+
+    /**
+     * The live scan of a build.
+     *
+     * @param build the build.
+     * @return the scan, or null if there is none.
+     */
+    public static LiveScan get(Run build) {
+        return SCANS.get(build);
+    }
+
+    /**
+     * Stops and forgets the live scan of a build, if any.
+     *
+     * @param build the build.
+     */
+    public static void stop(Run build) {
+        LiveScan liveScan = SCANS.remove(build);
+        if (liveScan != null) {
+            liveScan.abandon();
+        }
+    }
+
+    /**
+     * Feeds bytes written to the log. Lines are split like {@link java.io.BufferedReader#readLine()} does.
+     *
+     * @param bytes the bytes.
+     * @param offset the index of the first byte written.
+     * @param length the number of bytes written.
+     */
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        if (closed || abandoned || complete) {
+            return;
+        }
+        int end = offset + length;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '\n' || b == '\r') {
+                append(bytes, start, i - start);
+                // The '\n' of a "\r\n" ends nothing.
+                if (b == '\r' || !afterCarriageReturn || i != start) {
+                    emit();
+                }
+                afterCarriageReturn = b == '\r';
+                start = i + 1;
+            }
+        }
+        if (start < end) {
+            append(bytes, start, end - start);
+            afterCarriageReturn = false;
+        }
+    }
+
+    /**
+     * Adds bytes to the line being written.
+     *
+     * @param bytes the bytes.
+     * @param offset the index of the first byte.
+     * @param length the number of bytes.
+     */
+    private void append(byte[] bytes, int offset, int length) {
+        // Like a line source with a maximum line length, a line is only split when it goes on after the maximum.
+        while (maxLineLength > 0 && lineLength + length > maxLineLength && !abandoned) {
+            int part = maxLineLength - lineLength;
+            copy(bytes, offset, part);
+            offset += part;
+            length -= part;
+            emitChunk();
+        }
+        copy(bytes, offset, length);
+    }
+
+    /**
+     * Copies bytes to the end of the line being written.
+     *
+     * @param bytes the bytes.
+     * @param offset the index of the first byte.
+     * @param length the number of bytes.
+     */
+    private void copy(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (lineLength + length > lineBuffer.length) {
+            if (queuedBytes.get() + lineLength + length > MAX_QUEUED_BYTES) {
+                abandon();
+                return;
+            }
+            lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineLength + length, lineBuffer.length * 2));
+        }
+        System.arraycopy(bytes, offset, lineBuffer, lineLength, length);
+        lineLength += length;
+    }
+
+    /**
+     * Queues the line being written for the scan.
+     */
+    private void emit() {
+        if (abandoned) {
+            return;
+        }
+        byte[] line = Arrays.copyOf(lineBuffer, lineLength);
+        lineLength = 0;
+        boolean continuation = lineContinues;
+        lineContinues = false;
+        enqueue(line, continuation);
+    }
+
+    /**
+     * Queues the line being written up to the maximum line length for the scan, keeping the overlap with the next
+     * chunk.
+     */
+    private void emitChunk() {
+        byte[] chunk = Arrays.copyOf(lineBuffer, lineLength);
+        System.arraycopy(lineBuffer, lineLength - overlap, lineBuffer, 0, overlap);
+        lineLength = overlap;
+        boolean continuation = lineContinues;
+        lineContinues = true;
+        enqueue(chunk, continuation);
+    }
+
+    /**
+     * Queues a line or a chunk of a line for the scan and makes sure it is drained.
+     *
+     * @param line the bytes of the line.
+     * @param continuation true if the line is a chunk that continues the one before.
+     */
+    private void enqueue(byte[] line, boolean continuation) {
+        if (queuedBytes.addAndGet(line.length) > MAX_QUEUED_BYTES) {
+            logger.log(Level.FINE, "Live scan of {0} fell behind", build.getFullDisplayName());
+            abandon();
+            return;
+        }
+        if (continuation) {
+            queue.add(CONTINUATION);
+        }
+        queue.add(line);
+        if (draining.compareAndSet(false, true)) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Gives the scan a turn on the shared pool.
+     */
+    private void scheduleDrain() {
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Scans the queued lines until there are none left, or until the turn is over.
+     */
+    private void drain() {
+        try {
+            source.startTurn();
+            lineCount = FailureReader.scanSingleLinePatterns(matcher, scan, build, source, LOG_FILE_NAME,
+                    lineCount, false);
+            if (scan.getPendingCount() == 0) {
+                complete = true;
+            }
+            draining.set(false);
+            // The lines left, or queued meanwhile, get another turn after the scans of the other builds.
+            if (!queue.isEmpty() && !abandoned && draining.compareAndSet(false, true)) {
+                scheduleDrain();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Live scan of " + build.getFullDisplayName() + " failed", e);
+            abandon();
+            draining.set(false);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Live scan of " + build.getFullDisplayName() + " failed", e);
+            abandon();
+            draining.set(false);
+        } finally {
+            synchronized (drained) {
+                drained.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Drops the queued lines and stops scanning.
+     */
+    private void abandon() {
+        abandoned = true;
+        queue.clear();
+        queuedBytes.set(0);
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+    }
+
+    /**
+     * Ends the scan when the whole log has been written: the last line is scanned even without a line break and
+     * later writes are ignored.
+     *
+     * @param expected the matcher the result is wanted for; a scan started with another one is of no use.
+     * @param timeoutMillis how long to wait for the queued lines to be scanned.
+     * @return the causes found, in knowledge base order, or null if the scan was abandoned, did not finish in time
+     * or was started with another matcher.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public List<FoundFailureCause> finish(MultiPatternMatcher expected, long timeoutMillis)
+            throws InterruptedException {
+        synchronized (this) {
+            if (!closed && lineLength > 0) {
+                emit();
+            }
+            closed = true;
+        }
+        if (expected != matcher) {
+            return null;
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (drained) {
+            while (!abandoned && (draining.get() || !queue.isEmpty())) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                drained.wait(remaining);
+            }
+        }
+        if (abandoned) {
+            return null;
+        }
+        scan.recordCost();
+        return scan.getFoundFailureCauses();
+    }
+
+    /**
+     * The lines waiting in the queue, as a source that runs dry when the queue is empty.
+     */
+    private final class QueueLineSource implements LineSource {
+
+        private final VisibleText visibleText = new VisibleText();
+        private byte[] line;
+        private String decoded;
+        private CharSequence visibleLine;
+        private boolean continuation;
+        // The chunk after a continuation mark may not have been queued yet when the queue is drained.
+        private boolean nextIsContinuation;
+        private int turnLines;
+
+        /**
+         * Starts a turn of the scan.
+         */
+        void startTurn() {
+            turnLines = 0;
+        }
+
+        @Override
+        public boolean nextLine() {
+            if (abandoned || turnLines == MAX_LINES_PER_TURN) {
+                return false;
+            }
+            line = queue.poll();
+            if (line == CONTINUATION) {
+                nextIsContinuation = true;
+                line = queue.poll();
+            }
+            decoded = null;
+            visibleLine = null;
+            if (line == null) {
+                return false;
+            }
+            continuation = nextIsContinuation;
+            nextIsContinuation = false;
+            turnLines++;
+            queuedBytes.addAndGet(-line.length);
+            return true;
+        }
+
+        @Override
+        public boolean isContinuation() {
+            return continuation;
+        }
+
+        @Override
+        public boolean prefilter(MultiPatternMatcher.Scan lineScan) {
+            if (bytePrefilter == null || VisibleText.hasEscape(line)) {
+                lineScan.startLine(getVisibleLine());
+            } else {
+                lineScan.startLine(ByteBuffer.wrap(line), 0, line.length, bytePrefilter);
+            }
+            return lineScan.hasCandidates();
+        }
+
+        @Override
+        public String getLine() {
+            if (decoded == null) {
+                decoded = new String(line, charset);
+            }
+            return decoded;
+        }
+
+        @Override
+        public CharSequence getVisibleLine() {
+            if (visibleLine == null) {
+                visibleLine = visibleText.reset(getLine());
+            }
+            return visibleLine;
+        }
+    }
+}
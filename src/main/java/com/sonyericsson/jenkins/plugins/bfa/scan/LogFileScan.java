@@ -0,0 +1,229 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Scans a log file outside of a build, for the processes that scan the logs of a controller, see
+ * {@link com.sonyericsson.jenkins.plugins.bfa.db.MongoDBScanWorker}. The single-line and the multi-line indications
+ * are scanned for with the same engine as the scans of a build, one after the other. A compressed log is inflated
+ * for each of them.
+ */
+public final class LogFileScan {
+
+    private static final String LOG_FILE_NAME = "log";
+
+    /**
+     * Utility class.
+     */
+    private LogFileScan() {
+    }
+
+    /**
+     * Scans a log file for the indications of all causes.
+     *
+     * @param causes the causes to look for.
+     * @param logFile the log file, compressed if its name ends with <code>.gz</code>.
+     * @param charset the charset of the log.
+     * @param linearMatching true to match the patterns that can be in linear time, see {@link LinearPattern}.
+     * @param maxLineLength the length from which a line is scanned in overlapping chunks, 0 to scan whole lines.
+     * @param windowSize the number of chars read into the sliding search area of the multi-line scan each round.
+     * @param maxMatchSpan the maximum length of a multi-line match spanning two rounds.
+     * @param executor the executor to evaluate a multi-line window in parallel with.
+     * @param parallelism the maximum number of threads evaluating a multi-line window.
+     * @param plan the plan of the scans, to stop reading the log when every cause is decided, or null.
+     * @return the found causes, in the order of the causes.
+     * @throws IOException if the log could not be read.
+     */
+    public static List<FoundFailureCause> scan(List<FailureCause> causes,
+                                               File logFile,
+                                               Charset charset,
+                                               boolean linearMatching,
+                                               int maxLineLength,
+                                               int windowSize,
+                                               int maxMatchSpan,
+                                               Executor executor,
+                                               int parallelism,
+                                               ScanPlan plan) throws IOException {
+        MultiPatternMatcher matcher = MultiPatternMatcher.forCauses(causes, linearMatching);
+        List<FoundFailureCause> singleLineFound = new ArrayList<FoundFailureCause>();
+        if (matcher.getIndicationCount() > 0) {
+            singleLineFound = scanSingleLine(matcher, logFile, charset, maxLineLength, plan);
+        }
+        List<FoundFailureCause> multiLineFound = new ArrayList<FoundFailureCause>();
+        List<FailureCause> multiLineCauses = getMultiLineCauses(causes);
+        if (!multiLineCauses.isEmpty() && (plan == null || !plan.isDone())) {
+            try (Reader reader = open(logFile, charset)) {
+                multiLineFound = FailureReader.scanMultiLinePatterns(multiLineCauses, null, reader, LOG_FILE_NAME,
+                        windowSize, maxMatchSpan, executor, parallelism, plan);
+            }
+        }
+        return mergeFoundCauses(causes, singleLineFound, multiLineFound);
+    }
+
+    /**
+     * Scans a log file for the single-line indications, at byte level when possible.
+     *
+     * @param matcher the compiled single-line indications.
+     * @param logFile the log file.
+     * @param charset the charset of the log.
+     * @param maxLineLength the length from which a line is scanned in overlapping chunks, 0 to scan whole lines.
+     * @param plan the plan of the scans, or null.
+     * @return the found causes.
+     * @throws IOException if the log could not be read.
+     */
+    private static List<FoundFailureCause> scanSingleLine(MultiPatternMatcher matcher, File logFile, Charset charset,
+                                                          int maxLineLength, ScanPlan plan) throws IOException {
+        if (!isCompressed(logFile)) {
+            ByteLineSource source = ByteLineSource.open(logFile, charset, matcher);
+            if (source != null) {
+                try {
+                    source.setMaxLineLength(maxLineLength);
+                    return FailureReader.scanSingleLinePatterns(matcher, null, source, LOG_FILE_NAME, plan);
+                } finally {
+                    source.close();
+                }
+            }
+        }
+        try (BufferedReader reader = new BufferedReader(open(logFile, charset))) {
+            return FailureReader.scanSingleLinePatterns(matcher, null, new ReaderLineSource(reader, maxLineLength),
+                    LOG_FILE_NAME, plan);
+        }
+    }
+
+    /**
+     * Checks if a log file is compressed.
+     *
+     * @param logFile the log file.
+     * @return true if its name ends with <code>.gz</code>.
+     */
+    private static boolean isCompressed(File logFile) {
+        return logFile.getName().endsWith(".gz");
+    }
+
+    /**
+     * Opens a log file, inflating it if it is compressed.
+     *
+     * @param logFile the log file.
+     * @param charset the charset of the log.
+     * @return a reader, to be closed by the caller.
+     * @throws IOException if the log could not be opened.
+     */
+    private static Reader open(File logFile, Charset charset) throws IOException {
+        InputStream stream = new FileInputStream(logFile);
+        try {
+            if (isCompressed(logFile)) {
+                stream = new GZIPInputStream(stream);
+            }
+            return new InputStreamReader(stream, charset);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the causes with multi-line indications.
+     *
+     * @param causes the causes.
+     * @return the causes with at least one multi-line indication.
+     */
+    public static List<FailureCause> getMultiLineCauses(List<FailureCause> causes) {
+        List<FailureCause> multiLineCauses = new ArrayList<FailureCause>();
+        for (FailureCause cause : causes) {
+            for (Indication indication : cause.getIndications()) {
+                if (indication instanceof MultilineBuildLogIndication) {
+                    multiLineCauses.add(cause);
+                    break;
+                }
+            }
+        }
+        return multiLineCauses;
+    }
+
+    /**
+     * Merges the results of the single-line and the multi-line scans, so that a cause with both kinds of indications
+     * is reported once.
+     *
+     * @param causes all causes, in the order the result should have.
+     * @param singleLineFound the causes found by the single-line scan.
+     * @param multiLineFound the causes found by the multi-line scan.
+     * @return the merged list of found causes.
+     */
+    public static List<FoundFailureCause> mergeFoundCauses(List<FailureCause> causes,
+                                                           List<FoundFailureCause> singleLineFound,
+                                                           List<FoundFailureCause> multiLineFound) {
+        if (multiLineFound.isEmpty()) {
+            return singleLineFound;
+        }
+        Map<String, FoundFailureCause> foundById = new HashMap<String, FoundFailureCause>();
+        List<FoundFailureCause> withoutId = new ArrayList<FoundFailureCause>();
+        for (FoundFailureCause found : singleLineFound) {
+            if (found.getId() == null) {
+                withoutId.add(found);
+            } else {
+                foundById.put(found.getId(), found);
+            }
+        }
+        for (FoundFailureCause found : multiLineFound) {
+            if (found.getId() == null) {
+                withoutId.add(found);
+            } else if (foundById.containsKey(found.getId())) {
+                foundById.get(found.getId()).addIndications(found.getIndications());
+            } else {
+                foundById.put(found.getId(), found);
+            }
+        }
+        List<FoundFailureCause> merged = new ArrayList<FoundFailureCause>(foundById.size() + withoutId.size());
+        for (FailureCause cause : causes) {
+            FoundFailureCause found = foundById.remove(cause.getId());
+            if (found != null) {
+                merged.add(found);
+            }
+        }
+        merged.addAll(withoutId);
+        return merged;
+    }
+}
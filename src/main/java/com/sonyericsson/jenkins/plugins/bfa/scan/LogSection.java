@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A part of the log of a build that is scanned on its own, e.g. the log of one step of a pipeline. What is found in
+ * it is attributed to the section, see {@link #attribute(FoundIndication)}; line numbers count from the start of the
+ * section.
+ *
+ * @see LogSectionFinder
+ */
+public abstract class LogSection {
+
+    private final String id;
+    private final String stageName;
+
+    /**
+     * Standard constructor.
+     *
+     * @param id the id of the section, e.g. the id of the flow node that wrote it.
+     * @param stageName the name of the stage or branch the section belongs to, or null.
+     */
+    protected LogSection(String id, String stageName) {
+        this.id = id;
+        this.stageName = stageName;
+    }
+
+    /**
+     * The id of the section.
+     *
+     * @return the id.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The name of the stage or branch the section belongs to.
+     *
+     * @return the name, or null.
+     */
+    public String getStageName() {
+        return stageName;
+    }
+
+    /**
+     * The size of the section, to order its scan among the others.
+     *
+     * @return the size in bytes.
+     */
+    public abstract long length();
+
+    /**
+     * Opens the text of the section.
+     *
+     * @return a reader, to be closed by the caller.
+     * @throws IOException if the section could not be read.
+     */
+    public abstract Reader openReader() throws IOException;
+
+    /**
+     * Attributes an indication found in the section to it.
+     *
+     * @param indication the indication.
+     */
+    public void attribute(FoundIndication indication) {
+        indication.setFlowNodeId(id);
+        indication.setStageName(stageName);
+    }
+}
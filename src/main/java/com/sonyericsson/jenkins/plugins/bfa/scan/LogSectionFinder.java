@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import hudson.ExtensionList;
+import hudson.ExtensionPoint;
+import hudson.model.Run;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Splits the log of a build into sections that are scanned on their own instead of the whole log, e.g. the logs of
+ * the steps of a pipeline. A build that no finder knows how to split is scanned as a whole.
+ */
+public abstract class LogSectionFinder implements ExtensionPoint {
+
+    /**
+     * Finds the sections of the log of a build.
+     *
+     * @param build the build.
+     * @param failedOnly true to only return the sections of the parts of the build that failed, e.g. failed stages
+     *                   or parallel branches.
+     * @return the sections, in log order, or null if this finder does not apply to the build or can not tell which
+     *         parts of it failed, so the whole log should be scanned.
+     * @throws IOException if the build could not be read.
+     */
+    public abstract List<LogSection> findSections(Run build, boolean failedOnly) throws IOException;
+
+    /**
+     * Return a list of all registered LogSectionFinder of this type.
+     *
+     * @return a list of LogSectionFinder
+     */
+    public static ExtensionList<LogSectionFinder> getAll() {
+        return ExtensionList.lookup(LogSectionFinder.class);
+    }
+
+    /**
+     * Finds the sections of the log of a build with the first finder that applies.
+     *
+     * @param build the build.
+     * @param failedOnly true to only return the sections of the parts of the build that failed.
+     * @return the sections, or null if the whole log should be scanned.
+     * @throws IOException if the build could not be read.
+     */
+    public static List<LogSection> find(Run build, boolean failedOnly) throws IOException {
+        for (LogSectionFinder finder : getAll()) {
+            List<LogSection> sections = finder.findSections(build, failedOnly);
+            if (sections != null) {
+                return sections;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A line aligned byte range of a log file, to be scanned in parallel with the other segments of the log, and the
+ * result of that scan.
+ */
+public final class LogSegment {
+
+    /**
+     * How much is read at a time when looking for the line break after a split position.
+     */
+    private static final int PROBE_SIZE = 8192;
+
+    private final long start;
+    private final long end;
+    private MultiPatternMatcher.Scan scan;
+    private int lineCount;
+
+    /**
+     * Standard constructor.
+     *
+     * @param start the position of the first byte.
+     * @param end the position after the last byte.
+     */
+    LogSegment(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Splits a log file into about equally large segments that start at the start of a line. A line break is never
+     * split between segments, so every segment has the same lines as it would have in the whole file.
+     *
+     * @param file the log file.
+     * @param count the wanted number of segments.
+     * @return the segments in file order, fewer than asked for if the lines are too long.
+     * @throws IOException if the file could not be read.
+     */
+    public static List<LogSegment> split(File file, int count) throws IOException {
+        List<LogSegment> segments = new ArrayList<LogSegment>(count);
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+            long start = 0;
+            for (int i = 1; i <= count && start < size; i++) {
+                long end = size;
+                if (i < count) {
+                    end = Math.max(start, findLineStart(channel, probe, size * i / count, size));
+                }
+                if (end > start) {
+                    segments.add(new LogSegment(start, end));
+                    start = end;
+                }
+            }
+        } finally {
+            channel.close();
+        }
+        return segments;
+    }
+
+    /**
+     * Finds the first start of a line at or after a position, the same way {@link ByteLineSource} splits lines.
+     *
+     * @param channel the log file.
+     * @param probe a buffer to read with.
+     * @param position the position.
+     * @param size the size of the file.
+     * @return the start of the line, or the size of the file if there is no line after the position.
+     * @throws IOException if the file could not be read.
+     */
+    private static long findLineStart(FileChannel channel, ByteBuffer probe, long position, long size)
+            throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        // The byte before tells if the position is already the start of a line.
+        long offset = position - 1;
+        boolean afterCarriageReturn = false;
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (afterCarriageReturn) {
+                    if (b == '\n') {
+                        return offset + i + 1;
+                    }
+                    return offset + i;
+                }
+                if (b == '\n') {
+                    return offset + i + 1;
+                }
+                afterCarriageReturn = b == '\r';
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * The position of the first byte.
+     *
+     * @return the start.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * The position after the last byte.
+     *
+     * @return the end.
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Records the result of scanning the segment.
+     *
+     * @param segmentScan the scan of the segment, with line numbers counted from the start of the segment.
+     * @param segmentLineCount the number of lines in the segment.
+     */
+    public void setResult(MultiPatternMatcher.Scan segmentScan, int segmentLineCount) {
+        this.scan = segmentScan;
+        this.lineCount = segmentLineCount;
+    }
+
+    /**
+     * The scan of the segment.
+     *
+     * @return the scan, null if not scanned.
+     */
+    public MultiPatternMatcher.Scan getScan() {
+        return scan;
+    }
+
+    /**
+     * The number of lines in the segment.
+     *
+     * @return the line count.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import hudson.model.Run;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The head or the tail of a log that is too large to be scanned as a whole. The tail is read from its offset in the
+ * log file without reading what comes before it, and starts at the first whole line in it. The head ends at the last
+ * whole line in it, unless the whole log fits in it. Only the head of a compressed log is read, since the tail could
+ * only be reached by inflating the whole log.
+ *
+ * What is found in a window is not attributed to it, since it is not a part of the build. The lines of the head are
+ * the first lines of the log, but the number of lines before the tail is not known without reading them, so what is
+ * found in the tail has no line number.
+ */
+public final class LogWindow extends LogSection {
+
+    /**
+     * The size of the end of the head that is searched for its last line break. A line cut by the end of the head
+     * that is longer than this is scanned up to the end of the head.
+     */
+    static final int LAST_LINE_SEARCH_BYTES = 64 * 1024;
+
+    private static final int UNKNOWN_LINE = -1;
+    private static final int BYTE_MASK = 0xFF;
+
+    private final Run build;
+    private final long offset;
+    private final long length;
+
+    /**
+     * Standard constructor.
+     *
+     * @param build the build.
+     * @param id "head" or "tail".
+     * @param offset the offset of the window in the log file.
+     * @param length the size of the window.
+     */
+    private LogWindow(Run build, String id, long offset, long length) {
+        super(id, null);
+        this.build = build;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Finds the head and the tail of the log of a build.
+     *
+     * @param build the build.
+     * @param headBytes the size of the head, 0 for no head.
+     * @param tailBytes the size of the tail, 0 for no tail.
+     * @return the windows, in log order, possibly none, or null if they cover the whole log so it should be scanned
+     *         as a whole.
+     */
+    public static List<LogSection> find(Run build, long headBytes, long tailBytes) {
+        File logFile = build.getLogFile();
+        long logBytes = logFile.length();
+        boolean compressed = logFile.getName().endsWith(".gz");
+        if (!compressed && headBytes + tailBytes >= logBytes) {
+            return null;
+        }
+        List<LogSection> windows = new ArrayList<LogSection>(2);
+        if (headBytes > 0) {
+            windows.add(new LogWindow(build, "head", 0, headBytes));
+        }
+        if (tailBytes > 0 && !compressed) {
+            windows.add(new LogWindow(build, "tail", logBytes - tailBytes, tailBytes));
+        }
+        return windows;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public Reader openReader() throws IOException {
+        InputStream stream;
+        if (offset == 0) {
+            stream = build.getLogInputStream();
+        } else {
+            SeekableByteChannel channel = Files.newByteChannel(build.getLogFile().toPath());
+            try {
+                channel.position(offset);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            stream = Channels.newInputStream(channel);
+        }
+        InputStream window;
+        if (offset == 0) {
+            window = new BufferedInputStream(new HeadInputStream(stream, length));
+        } else {
+            window = new BufferedInputStream(new BoundedInputStream(stream, length));
+        }
+        if (offset > 0) {
+            // The line cut by the start of the window.
+            int b = window.read();
+            while (b >= 0 && b != '\n') {
+                b = window.read();
+            }
+        }
+        return new InputStreamReader(window, build.getCharset());
+    }
+
+    @Override
+    public void attribute(FoundIndication indication) {
+        // Not a part of the build.
+        if (offset > 0) {
+            indication.setMatchingLine(UNKNOWN_LINE);
+        }
+    }
+
+    /**
+     * The head of a stream, up to the last line break before its end. The end of the head is read ahead, to find
+     * the line it cuts.
+     */
+    static final class HeadInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+        private byte[] end;
+        private int endPosition;
+        private int endLength;
+
+        /**
+         * Standard constructor.
+         *
+         * @param in the stream, closed with this.
+         * @param length the size of the head.
+         */
+        HeadInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            if (read(one, 0, 1) < 0) {
+                return -1;
+            }
+            return one[0] & BYTE_MASK;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (end == null && remaining > LAST_LINE_SEARCH_BYTES) {
+                int read = in.read(bytes, offset, (int)Math.min(length, remaining - LAST_LINE_SEARCH_BYTES));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+            if (end == null) {
+                readEnd();
+            }
+            if (endPosition == endLength) {
+                return -1;
+            }
+            int read = Math.min(length, endLength - endPosition);
+            System.arraycopy(end, endPosition, bytes, offset, read);
+            endPosition += read;
+            return read;
+        }
+
+        /**
+         * Reads the end of the head and drops the line cut by it, if the stream goes on after it.
+         *
+         * @throws IOException if the stream failed.
+         */
+        private void readEnd() throws IOException {
+            end = new byte[(int)remaining];
+            while (endLength < end.length) {
+                int read = in.read(end, endLength, end.length - endLength);
+                if (read < 0) {
+                    // The whole stream fits in the head.
+                    return;
+                }
+                endLength += read;
+            }
+            if (in.read() < 0) {
+                return;
+            }
+            for (int i = endLength - 1; i >= 0; i--) {
+                if (end[i] == '\n') {
+                    endLength = i + 1;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits how many threads match indications against logs at the same time, when the scans themselves are not
+ * limited, e.g. because each runs on its own virtual thread, see {@link ScanScheduler}. A permit is only held while
+ * the indications are evaluated on a line or a window, so a scan that waits for its log to be read, or for other
+ * scans, does not keep the others from matching.
+ */
+public final class MatchingPermits {
+
+    private static volatile Semaphore permits;
+    private static int permitLimit;
+
+    /**
+     * Utility class.
+     */
+    private MatchingPermits() {
+    }
+
+    /**
+     * Sets how many threads may match at the same time. Permits taken before keep being given back to the limit
+     * they were taken from.
+     *
+     * @param limit the number of threads, or 0 for no limit.
+     */
+    public static synchronized void setLimit(int limit) {
+        if (limit == permitLimit) {
+            return;
+        }
+        permitLimit = Math.max(limit, 0);
+        if (permitLimit == 0) {
+            permits = null;
+        } else {
+            permits = new Semaphore(permitLimit, true);
+        }
+    }
+
+    /**
+     * Takes a permit to match, waiting while the limit is reached. The watch of the thread, if any, is suspended
+     * while waiting, which is not a stuck regular expression.
+     *
+     * @return the permit to give back with {@link #release(Semaphore)}, or null if there is no limit.
+     */
+    public static Semaphore acquire() {
+        Semaphore current = permits;
+        if (current == null || current.tryAcquire()) {
+            return current;
+        }
+        ScanWatchdog.Watch watch = ScanWatchdog.suspendCurrent();
+        try {
+            // An interrupt is kept for the matching to see, the wait is short.
+            current.acquireUninterruptibly();
+        } finally {
+            if (watch != null) {
+                watch.resume();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Gives back a permit.
+     *
+     * @param permit the permit from {@link #acquire()}, may be null.
+     */
+    public static void release(Semaphore permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+}
@@ -0,0 +1,680 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * All single-line indications of a list of {@link FailureCause}s compiled into one flat evaluation table, so that a
+ * log line can be checked against every indication in one pass. {@link MultilineBuildLogIndication}s are left out,
+ * see {@link MultilineWindowScan}.
+ *
+ * The matcher is immutable and is built once per knowledge base snapshot, see {@link #forCauses(List)}. The per-scan
+ * state (which indications have fired and what was found) lives in a {@link Scan}.
+ *
+ * Every pattern with a {@link RequiredLiteral} is put behind an {@link AhoCorasick} prefilter: the regular expression
+ * is only evaluated for lines that contain the literal. Patterns without an extractable literal are evaluated for
+ * every line. For charsets where that is exact, the same literals can be looked for in the undecoded bytes of a line,
+ * see {@link #getBytePrefilter(Charset)}.
+ *
+ * Patterns that a {@link LinearPattern} matches like {@link Pattern} does are also compiled to one, which is matched in
+ * linear time and can not be slowed down by catastrophic backtracking; the others are matched with {@link Pattern}.
+ *
+ * A scan evaluates the indications in an order adapted to what the recent scans have recorded in {@link ScanCost}:
+ * the indications that have fired most for the time spent on them first, then the cheapest. So when the file timeout
+ * cuts a scan short, the indications most likely to fire have been evaluated.
+ */
+public final class MultiPatternMatcher {
+
+    private static final int NO_LITERAL = -1;
+
+    /**
+     * How often the evaluation order is recomputed from the statistics of the recent scans.
+     */
+    private static final long PLAN_REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Charsets where a literal occurs in the decoded text exactly when its encoding occurs in the bytes.
+     */
+    private static final List<Charset> BYTE_LEVEL_CHARSETS = Arrays.asList(
+            StandardCharsets.UTF_8, StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1);
+
+    private static volatile MultiPatternMatcher snapshot;
+
+    private final List<FailureCause> causes;
+    private final List<List<Indication>> indicationsPerCause;
+    private final int[] causeOfEntry;
+    private final Indication[] indications;
+    private final Pattern[] patterns;
+    private final LinearPattern[] linearPatterns;
+    private final boolean linearMatching;
+    private final int[] literalOfEntry;
+    private final List<String> literals;
+    private final AhoCorasick prefilter;
+    private final Map<Charset, AhoCorasick> bytePrefilters = new ConcurrentHashMap<Charset, AhoCorasick>();
+    private volatile int[] plan;
+    private volatile long planTime;
+
+    /**
+     * Compiles the matcher.
+     *
+     * @param causes the causes whose indications should be matched.
+     * @param linearMatching true to match the patterns that can be in linear time.
+     */
+    private MultiPatternMatcher(List<FailureCause> causes, boolean linearMatching) {
+        this.linearMatching = linearMatching;
+        this.causes = new ArrayList<FailureCause>(causes);
+        this.indicationsPerCause = new ArrayList<List<Indication>>(causes.size());
+        List<Integer> causeIndexes = new ArrayList<Integer>();
+        List<Indication> allIndications = new ArrayList<Indication>();
+        for (int i = 0; i < this.causes.size(); i++) {
+            List<Indication> causeIndications = new ArrayList<Indication>(this.causes.get(i).getIndications());
+            indicationsPerCause.add(causeIndications);
+            for (Indication indication : causeIndications) {
+                if (indication instanceof MultilineBuildLogIndication) {
+                    continue;
+                }
+                causeIndexes.add(i);
+                allIndications.add(indication);
+            }
+        }
+        this.causeOfEntry = new int[allIndications.size()];
+        this.indications = allIndications.toArray(new Indication[allIndications.size()]);
+        this.patterns = new Pattern[indications.length];
+        this.linearPatterns = new LinearPattern[indications.length];
+        this.literalOfEntry = new int[indications.length];
+        this.literals = new ArrayList<String>();
+        Map<String, Integer> literalIds = new HashMap<String, Integer>();
+        for (int entry = 0; entry < indications.length; entry++) {
+            causeOfEntry[entry] = causeIndexes.get(entry);
+            patterns[entry] = indications[entry].getPattern();
+            if (linearMatching) {
+                linearPatterns[entry] = LinearPattern.compile(patterns[entry]);
+            }
+            String literal = RequiredLiteral.extract(patterns[entry]);
+            if (literal == null) {
+                literalOfEntry[entry] = NO_LITERAL;
+            } else {
+                Integer id = literalIds.get(literal);
+                if (id == null) {
+                    id = literals.size();
+                    literals.add(literal);
+                    literalIds.put(literal, id);
+                }
+                literalOfEntry[entry] = id;
+            }
+        }
+        if (literals.isEmpty()) {
+            this.prefilter = null;
+        } else {
+            this.prefilter = new AhoCorasick(literals);
+        }
+    }
+
+    /**
+     * Compiles a new matcher for the given causes without touching the shared snapshot. Suitable for one-off scans
+     * such as testing a single indication.
+     *
+     * @param causes the causes whose indications should be matched.
+     * @return a new matcher, with linear time matching.
+     */
+    public static MultiPatternMatcher compile(List<FailureCause> causes) {
+        return compile(causes, true);
+    }
+
+    /**
+     * Compiles a new matcher for the given causes without touching the shared snapshot.
+     *
+     * @param causes the causes whose indications should be matched.
+     * @param linearMatching true to match the patterns that can be in linear time, see {@link LinearPattern}.
+     * @return a new matcher.
+     */
+    public static MultiPatternMatcher compile(List<FailureCause> causes, boolean linearMatching) {
+        return new MultiPatternMatcher(causes, linearMatching);
+    }
+
+    /**
+     * Provides the matcher for the given causes, with linear time matching.
+     *
+     * @param causes the causes whose indications should be matched.
+     * @return the matcher.
+     * @see #forCauses(List, boolean)
+     */
+    public static MultiPatternMatcher forCauses(List<FailureCause> causes) {
+        return forCauses(causes, true);
+    }
+
+    /**
+     * Provides the matcher for the given causes, reusing the previously compiled one if the causes are the same
+     * snapshot of the knowledge base, i.e. the same cause and indication instances in the same order, and it was
+     * compiled with the same engine.
+     *
+     * @param causes the causes whose indications should be matched.
+     * @param linearMatching true to match the patterns that can be in linear time, see {@link LinearPattern}.
+     * @return the matcher.
+     */
+    public static MultiPatternMatcher forCauses(List<FailureCause> causes, boolean linearMatching) {
+        MultiPatternMatcher current = snapshot;
+        if (current == null || current.linearMatching != linearMatching || !current.isCompiledFrom(causes)) {
+            current = new MultiPatternMatcher(causes, linearMatching);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Checks if this matcher was compiled from exactly these causes and indications.
+     *
+     * @param otherCauses the causes to compare with.
+     * @return true if nothing has changed since this matcher was compiled.
+     */
+    boolean isCompiledFrom(List<FailureCause> otherCauses) {
+        if (otherCauses.size() != causes.size()) {
+            return false;
+        }
+        int i = 0;
+        for (FailureCause cause : otherCauses) {
+            if (cause != causes.get(i)) {
+                return false;
+            }
+            List<Indication> compiled = indicationsPerCause.get(i);
+            List<Indication> current = cause.getIndications();
+            if (current.size() != compiled.size()) {
+                return false;
+            }
+            int j = 0;
+            for (Indication indication : current) {
+                if (indication != compiled.get(j)) {
+                    return false;
+                }
+                j++;
+            }
+            i++;
+        }
+        return true;
+    }
+
+    /**
+     * The total number of indications this matcher evaluates.
+     *
+     * @return the number of indications.
+     */
+    public int getIndicationCount() {
+        return indications.length;
+    }
+
+    /**
+     * The indication of an entry.
+     *
+     * @param entry the entry.
+     * @return the indication.
+     */
+    public Indication getIndication(int entry) {
+        return indications[entry];
+    }
+
+    /**
+     * The compiled pattern of an entry.
+     *
+     * @param entry the entry.
+     * @return the pattern.
+     */
+    public Pattern getPattern(int entry) {
+        return patterns[entry];
+    }
+
+    /**
+     * Checks if the pattern of an entry is matched in linear time, so it does not have to be interrupted.
+     *
+     * @param entry the entry.
+     * @return true if so.
+     */
+    public boolean isLinear(int entry) {
+        return linearPatterns[entry] != null;
+    }
+
+    /**
+     * The literal a line must contain for the pattern of an entry to match.
+     *
+     * @param entry the entry.
+     * @return the literal, or null if the pattern is evaluated for every line.
+     */
+    public String getRequiredLiteral(int entry) {
+        if (literalOfEntry[entry] == NO_LITERAL) {
+            return null;
+        }
+        return literals.get(literalOfEntry[entry]);
+    }
+
+    /**
+     * The prefilter for the literals encoded in a charset, to be used with
+     * {@link Scan#startLine(ByteBuffer, int, int, AhoCorasick)}.
+     *
+     * @param charset the charset of the bytes.
+     * @return the prefilter, or null if the literals can not be looked for in bytes of that charset.
+     */
+    public AhoCorasick getBytePrefilter(Charset charset) {
+        if (!BYTE_LEVEL_CHARSETS.contains(charset)) {
+            return null;
+        }
+        AhoCorasick bytePrefilter = bytePrefilters.get(charset);
+        if (bytePrefilter == null) {
+            CharsetEncoder encoder = charset.newEncoder();
+            List<byte[]> encoded = new ArrayList<byte[]>(literals.size());
+            for (String literal : literals) {
+                if (!encoder.canEncode(literal)) {
+                    return null;
+                }
+                encoded.add(literal.getBytes(charset));
+            }
+            bytePrefilter = AhoCorasick.forBytes(encoded);
+            bytePrefilters.put(charset, bytePrefilter);
+        }
+        return bytePrefilter;
+    }
+
+    /**
+     * Merges the scans of the consecutive segments of a log into what a scan of the whole log would have found: the
+     * earliest occurrence of each indication wins and line numbers are counted from the start of the log.
+     *
+     * @param segments the scanned segments, in log order.
+     * @return the found causes, in knowledge base order.
+     */
+    public List<FoundFailureCause> merge(List<LogSegment> segments) {
+        final FoundIndication[] first = new FoundIndication[patterns.length];
+        List<Integer> foundEntries = new ArrayList<Integer>();
+        int linesBefore = 0;
+        for (LogSegment segment : segments) {
+            Scan scan = segment.getScan();
+            for (int entry = 0; entry < patterns.length; entry++) {
+                FoundIndication found = scan.foundOfEntry[entry];
+                if (first[entry] == null && found != null) {
+                    first[entry] = new FoundIndication(found.getBuild(), found.getPattern(), found.getMatchingFile(),
+                            found.getMatchingString(), linesBefore + found.getMatchingLine());
+                    foundEntries.add(entry);
+                }
+            }
+            linesBefore += segment.getLineCount();
+        }
+        // The order a scan of the whole log finds them in.
+        Collections.sort(foundEntries, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byLine = Integer.compare(first[a].getMatchingLine(), first[b].getMatchingLine());
+                if (byLine != 0) {
+                    return byLine;
+                }
+                return a.compareTo(b);
+            }
+        });
+        List<List<FoundIndication>> perCause = new ArrayList<List<FoundIndication>>(causes.size());
+        for (int i = 0; i < causes.size(); i++) {
+            perCause.add(null);
+        }
+        for (int entry : foundEntries) {
+            List<FoundIndication> list = perCause.get(causeOfEntry[entry]);
+            if (list == null) {
+                list = new ArrayList<FoundIndication>();
+                perCause.set(causeOfEntry[entry], list);
+            }
+            list.add(first[entry]);
+        }
+        List<FoundFailureCause> result = new ArrayList<FoundFailureCause>();
+        for (int i = 0; i < causes.size(); i++) {
+            if (perCause.get(i) != null) {
+                result.add(new FoundFailureCause(causes.get(i), perCause.get(i)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts a new scan using this matcher.
+     *
+     * @return the scan state.
+     */
+    public Scan newScan() {
+        return new Scan(getEvaluationPlan());
+    }
+
+    /**
+     * The order the entries are evaluated in, recomputed from {@link ScanCost} when it is older than
+     * {@link #PLAN_REFRESH_MILLIS}.
+     *
+     * @return the entries, in evaluation order. Not to be modified.
+     */
+    private int[] getEvaluationPlan() {
+        long now = System.currentTimeMillis();
+        int[] current = plan;
+        if (current == null || now - planTime > PLAN_REFRESH_MILLIS) {
+            // Two scans may compute it at once, they compute the same plan.
+            current = plan(ScanCost.getInstance(), now);
+            plan = current;
+            planTime = now;
+        }
+        return current;
+    }
+
+    /**
+     * Orders the entries by the number of times they have fired for the time spent evaluating them, then by the
+     * time an evaluation takes, then in knowledge base order. Entries without statistics count as cheap and never
+     * fired.
+     *
+     * @param scanCost the statistics of the recent scans.
+     * @param now the current time, in ms.
+     * @return the entries, in evaluation order.
+     */
+    int[] plan(ScanCost scanCost, long now) {
+        final double[] firedPerNano = new double[patterns.length];
+        final long[] nanosPerEvaluation = new long[patterns.length];
+        Integer[] order = new Integer[patterns.length];
+        for (int entry = 0; entry < patterns.length; entry++) {
+            order[entry] = entry;
+            ScanCost.Entry statistics = scanCost.getEntry(causes.get(causeOfEntry[entry]), indications[entry], now);
+            if (statistics != null) {
+                firedPerNano[entry] = (double)statistics.getMatches() / Math.max(statistics.getNanos(), 1);
+                nanosPerEvaluation[entry] = statistics.getNanosPerEvaluation();
+            }
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byFired = Double.compare(firedPerNano[b], firedPerNano[a]);
+                if (byFired != 0) {
+                    return byFired;
+                }
+                int byCost = Long.compare(nanosPerEvaluation[a], nanosPerEvaluation[b]);
+                if (byCost != 0) {
+                    return byCost;
+                }
+                return a.compareTo(b);
+            }
+        });
+        int[] result = new int[order.length];
+        for (int position = 0; position < order.length; position++) {
+            result[position] = order[position];
+        }
+        return result;
+    }
+
+    /**
+     * The state of one scan: the matchers, the indications still waiting for their first occurrence and the
+     * indications found so far. Not thread safe, every scanning thread should have its own.
+     */
+    public final class Scan {
+
+        private final Matcher[] matchers = new Matcher[patterns.length];
+        private final LinearPattern.Matcher[] linearMatchers = new LinearPattern.Matcher[patterns.length];
+        private final boolean[] fired = new boolean[patterns.length];
+        private final FoundIndication[] foundOfEntry = new FoundIndication[patterns.length];
+        private final int[] pending = new int[patterns.length];
+        private int pendingCount;
+        private boolean foundInLine;
+        private final int[] literalHits = new int[literals.size()];
+        private int lineStamp;
+        private final CostTable costs = new CostTable(patterns.length);
+
+        /**
+         * Standard constructor.
+         *
+         * @param evaluationOrder the entries, in evaluation order.
+         */
+        private Scan(int[] evaluationOrder) {
+            System.arraycopy(evaluationOrder, 0, pending, 0, evaluationOrder.length);
+            pendingCount = pending.length;
+        }
+
+        /**
+         * The number of indications that have not fired yet.
+         *
+         * @return the number of pending indications.
+         */
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        /**
+         * The entry at a position among the pending indications, in evaluation order.
+         *
+         * @param position the position, less than {@link #getPendingCount()}.
+         * @return the entry.
+         */
+        public int getPending(int position) {
+            return pending[position];
+        }
+
+        /**
+         * To be called before the entries are evaluated for a new line, runs the literal prefilter over the line.
+         *
+         * @param line the line.
+         */
+        public void startLine(CharSequence line) {
+            if (prefilter == null) {
+                return;
+            }
+            nextStamp();
+            prefilter.mark(line, literalHits, lineStamp);
+        }
+
+        /**
+         * Like {@link #startLine(CharSequence)}, but runs the prefilter over the undecoded bytes of the line.
+         *
+         * @param buffer the bytes of the log.
+         * @param start the index of the first byte of the line.
+         * @param end the index after the last byte of the line.
+         * @param bytePrefilter the prefilter for the charset of the bytes, see {@link #getBytePrefilter(Charset)}.
+         */
+        public void startLine(ByteBuffer buffer, int start, int end, AhoCorasick bytePrefilter) {
+            if (prefilter == null) {
+                return;
+            }
+            nextStamp();
+            bytePrefilter.mark(buffer, start, end, literalHits, lineStamp);
+        }
+
+        /**
+         * Moves to a new stamp for the literal hits of the next line.
+         */
+        private void nextStamp() {
+            if (lineStamp == Integer.MAX_VALUE) {
+                Arrays.fill(literalHits, 0);
+                lineStamp = 0;
+            }
+            lineStamp++;
+        }
+
+        /**
+         * Checks if any of the pending entries can match the current line.
+         *
+         * @return false if no pattern needs to be evaluated for the line.
+         */
+        public boolean hasCandidates() {
+            for (int position = 0; position < pendingCount; position++) {
+                if (isCandidate(pending[position])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Checks if an entry can match the current line, i.e. if the line contains its required literal.
+         *
+         * @param entry the entry.
+         * @return false if the pattern of the entry can not match the line.
+         */
+        public boolean isCandidate(int entry) {
+            int literal = literalOfEntry[entry];
+            return literal == NO_LITERAL || literalHits[literal] == lineStamp;
+        }
+
+        /**
+         * Checks if the line matches the pattern of an entry.
+         *
+         * @param entry the entry.
+         * @param line the line.
+         * @return true if the whole line matches.
+         */
+        public boolean matches(int entry, CharSequence line) {
+            long start = System.nanoTime();
+            try {
+                LinearPattern linearPattern = linearPatterns[entry];
+                if (linearPattern != null) {
+                    LinearPattern.Matcher linearMatcher = linearMatchers[entry];
+                    if (linearMatcher == null) {
+                        linearMatcher = linearPattern.matcher();
+                        linearMatchers[entry] = linearMatcher;
+                    }
+                    return linearMatcher.matches(line);
+                }
+                Matcher matcher = matchers[entry];
+                if (matcher == null) {
+                    matcher = patterns[entry].matcher(line);
+                    matchers[entry] = matcher;
+                } else {
+                    matcher.reset(line);
+                }
+                return matcher.matches();
+            } finally {
+                costs.evaluated(entry, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Counts an evaluation of an entry that was interrupted by the line timeout.
+         *
+         * @param entry the entry.
+         */
+        public void timedOut(int entry) {
+            costs.timedOut(entry);
+        }
+
+        /**
+         * Records the first occurrence of an indication. The entry is removed from the pending indications at
+         * the next call to {@link #endLine()}.
+         *
+         * @param entry the entry.
+         * @param foundIndication what was found.
+         */
+        public void found(int entry, FoundIndication foundIndication) {
+            foundOfEntry[entry] = foundIndication;
+            fired[entry] = true;
+            matchers[entry] = null;
+            linearMatchers[entry] = null;
+            foundInLine = true;
+            costs.matched(entry);
+        }
+
+        /**
+         * Adds what another scan with this matcher has spent on each entry to this scan, e.g. another segment of the
+         * log.
+         *
+         * @param other the other scan.
+         */
+        public void addCost(Scan other) {
+            costs.add(other.costs);
+        }
+
+        /**
+         * Adds what has been spent on each entry so far to {@link ScanCost}, once the scan is done.
+         */
+        public void recordCost() {
+            costs.record(causes, causeOfEntry, indications);
+        }
+
+        /**
+         * To be called after each line, removes the indications that fired from the evaluation order.
+         */
+        public void endLine() {
+            if (!foundInLine) {
+                return;
+            }
+            int kept = 0;
+            for (int position = 0; position < pendingCount; position++) {
+                int entry = pending[position];
+                if (!fired[entry]) {
+                    pending[kept++] = entry;
+                }
+            }
+            pendingCount = kept;
+            foundInLine = false;
+        }
+
+        /**
+         * The causes found so far, in knowledge base order, with the indications of a cause in the order they were
+         * found in the log, whatever order they were evaluated in.
+         *
+         * @return the found causes.
+         */
+        public List<FoundFailureCause> getFoundFailureCauses() {
+            List<FoundFailureCause> result = new ArrayList<FoundFailureCause>();
+            int entry = 0;
+            // The entries of a cause are next to each other, in knowledge base order.
+            while (entry < foundOfEntry.length) {
+                int cause = causeOfEntry[entry];
+                List<FoundIndication> list = null;
+                for (; entry < foundOfEntry.length && causeOfEntry[entry] == cause; entry++) {
+                    if (foundOfEntry[entry] != null) {
+                        if (list == null) {
+                            list = new ArrayList<FoundIndication>();
+                        }
+                        list.add(foundOfEntry[entry]);
+                    }
+                }
+                if (list != null) {
+                    // Stable, so the indications found in the same line stay in knowledge base order.
+                    Collections.sort(list, new Comparator<FoundIndication>() {
+                        @Override
+                        public int compare(FoundIndication a, FoundIndication b) {
+                            return Integer.compare(a.getMatchingLine(), b.getMatchingLine());
+                        }
+                    });
+                    result.add(new FoundFailureCause(causes.get(cause), list));
+                }
+            }
+            return result;
+        }
+    }
+}
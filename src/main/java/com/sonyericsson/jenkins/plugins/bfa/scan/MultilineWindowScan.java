@@ -0,0 +1,238 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The state of one scan of a build log for all {@link MultilineBuildLogIndication}s of a list of causes, so that the
+ * log can be read once and every window of it given to all patterns.
+ *
+ * Entries are resolved (found or given up on) by the scanning threads while a window is being evaluated, each entry
+ * by one thread at a time. The set of pending entries is only changed between windows, by
+ * {@link #endWindow(SlidingWindow)}.
+ */
+public final class MultilineWindowScan {
+
+    private final List<FailureCause> causes;
+    private final int[] causeOfEntry;
+    private final Indication[] indications;
+    private final WindowSearch[] searches;
+    private final FoundIndication[] found;
+    private final boolean[] resolved;
+    private final long[] spentNanos;
+    private final CostTable costs;
+    private final int[] pending;
+    private int pendingCount;
+
+    /**
+     * Standard constructor.
+     *
+     * @param causes the causes whose multi-line indications should be looked for; other indications are ignored.
+     */
+    public MultilineWindowScan(List<FailureCause> causes) {
+        this.causes = new ArrayList<FailureCause>(causes);
+        List<Integer> causeIndexes = new ArrayList<Integer>();
+        List<Indication> multilineIndications = new ArrayList<Indication>();
+        for (int i = 0; i < this.causes.size(); i++) {
+            for (Indication indication : this.causes.get(i).getIndications()) {
+                if (indication instanceof MultilineBuildLogIndication) {
+                    causeIndexes.add(i);
+                    multilineIndications.add(indication);
+                }
+            }
+        }
+        int count = multilineIndications.size();
+        causeOfEntry = new int[count];
+        indications = multilineIndications.toArray(new Indication[count]);
+        searches = new WindowSearch[count];
+        found = new FoundIndication[count];
+        resolved = new boolean[count];
+        spentNanos = new long[count];
+        costs = new CostTable(count);
+        pending = new int[count];
+        for (int entry = 0; entry < count; entry++) {
+            causeOfEntry[entry] = causeIndexes.get(entry);
+            searches[entry] = new WindowSearch(indications[entry].getPattern());
+            pending[entry] = entry;
+        }
+        pendingCount = count;
+    }
+
+    /**
+     * The number of indications not yet found or given up on.
+     *
+     * @return the number of pending entries.
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * The entry at a position among the pending ones.
+     *
+     * @param position the position, less than {@link #getPendingCount()}.
+     * @return the entry.
+     */
+    public int getPending(int position) {
+        return pending[position];
+    }
+
+    /**
+     * The indication of an entry.
+     *
+     * @param entry the entry.
+     * @return the indication.
+     */
+    public Indication getIndication(int entry) {
+        return indications[entry];
+    }
+
+    /**
+     * The compiled pattern of an entry.
+     *
+     * @param entry the entry.
+     * @return the pattern.
+     */
+    public Pattern getPattern(int entry) {
+        return searches[entry].getPattern();
+    }
+
+    /**
+     * The search through the windows of an entry.
+     *
+     * @param entry the entry.
+     * @return the search.
+     */
+    public WindowSearch getSearch(int entry) {
+        return searches[entry];
+    }
+
+    /**
+     * Records that an indication was found. The entry is no longer pending after the next
+     * {@link #endWindow(SlidingWindow)}.
+     *
+     * @param entry the entry.
+     * @param foundIndication what was found.
+     */
+    public void found(int entry, FoundIndication foundIndication) {
+        found[entry] = foundIndication;
+        resolved[entry] = true;
+        costs.matched(entry);
+    }
+
+    /**
+     * Adds to the time spent evaluating an entry.
+     *
+     * @param entry the entry.
+     * @param nanos the time spent on the last window.
+     * @return the total time spent on the entry.
+     */
+    public long addSpentNanos(int entry, long nanos) {
+        spentNanos[entry] += nanos;
+        costs.evaluated(entry, nanos);
+        return spentNanos[entry];
+    }
+
+    /**
+     * Counts an evaluation of an entry that was interrupted by the timeout.
+     *
+     * @param entry the entry.
+     */
+    public void timedOut(int entry) {
+        costs.timedOut(entry);
+    }
+
+    /**
+     * Adds what has been spent on each entry to {@link ScanCost}, once the scan is done.
+     */
+    public void recordCost() {
+        costs.record(causes, causeOfEntry, indications);
+    }
+
+    /**
+     * Stops looking for an indication, e.g. when it has used up its time.
+     *
+     * @param entry the entry.
+     */
+    public void giveUp(int entry) {
+        resolved[entry] = true;
+    }
+
+    /**
+     * To be called after each window, when no thread is evaluating any entry, removes the resolved entries and
+     * makes the window keep what the others need for the next one.
+     *
+     * @param window the window.
+     */
+    public void endWindow(SlidingWindow window) {
+        int kept = 0;
+        for (int position = 0; position < pendingCount; position++) {
+            int entry = pending[position];
+            if (!resolved[entry]) {
+                pending[kept++] = entry;
+                window.retain(searches[entry].getResumeFrom());
+            }
+        }
+        pendingCount = kept;
+    }
+
+    /**
+     * The causes with multi-line indications found, in the order of the causes given to the constructor.
+     *
+     * @return the found causes.
+     */
+    public List<FoundFailureCause> getFoundFailureCauses() {
+        List<List<FoundIndication>> perCause = new ArrayList<List<FoundIndication>>(causes.size());
+        for (int i = 0; i < causes.size(); i++) {
+            perCause.add(null);
+        }
+        for (int entry = 0; entry < found.length; entry++) {
+            if (found[entry] != null) {
+                List<FoundIndication> list = perCause.get(causeOfEntry[entry]);
+                if (list == null) {
+                    list = new ArrayList<FoundIndication>();
+                    perCause.set(causeOfEntry[entry], list);
+                }
+                list.add(found[entry]);
+            }
+        }
+        List<FoundFailureCause> result = new ArrayList<FoundFailureCause>();
+        for (int i = 0; i < causes.size(); i++) {
+            if (perCause.get(i) != null) {
+                result.add(new FoundFailureCause(causes.get(i), perCause.get(i)));
+            }
+        }
+        return result;
+    }
+}
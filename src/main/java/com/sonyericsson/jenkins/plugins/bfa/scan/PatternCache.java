@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.sonyericsson.jenkins.plugins.bfa.MetricsManager;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * The compiled patterns of all indications, shared by the whole process. A knowledge base that is reloaded, like
+ * the cache of the MongoDB knowledge base, creates new indications for the same expressions; with this cache they
+ * get the same compiled patterns instead of compiling them again for the next scan.
+ *
+ * Patterns are cached by the regular expression that is compiled and its flags, which differ between the types of
+ * indications for the same user provided expression. The least recently used patterns are evicted when the cache
+ * is full. Hits, misses and evictions are counted in the metrics.
+ */
+public final class PatternCache {
+
+    /**
+     * The maximum number of patterns in the cache.
+     */
+    static final int MAXIMUM_SIZE = 10000;
+
+    private static final PatternCache INSTANCE = new PatternCache(MAXIMUM_SIZE);
+
+    private final Cache<Key, Pattern> cache;
+
+    /**
+     * Constructor, see {@link #getInstance()}.
+     *
+     * @param maximumSize the maximum number of patterns.
+     */
+    PatternCache(int maximumSize) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .removalListener(new RemovalListener<Key, Pattern>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<Key, Pattern> notification) {
+                        if (notification.wasEvicted()) {
+                            MetricsManager.incPatternCacheCounter(MetricsManager.PATTERN_CACHE_EVICTIONS);
+                        }
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The cache shared by all indications.
+     *
+     * @return the instance.
+     */
+    public static PatternCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Compiles a regular expression without flags, or gets it from the cache.
+     *
+     * @param regex the regular expression.
+     * @return the pattern.
+     * @throws java.util.regex.PatternSyntaxException if the expression is not valid, which is not cached.
+     */
+    public Pattern compile(String regex) {
+        return compile(regex, 0);
+    }
+
+    /**
+     * Compiles a regular expression, or gets it from the cache.
+     *
+     * @param regex the regular expression.
+     * @param flags the flags of {@link Pattern#compile(String, int)}.
+     * @return the pattern.
+     * @throws java.util.regex.PatternSyntaxException if the expression is not valid, which is not cached.
+     */
+    public Pattern compile(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        Pattern pattern = cache.getIfPresent(key);
+        if (pattern != null) {
+            MetricsManager.incPatternCacheCounter(MetricsManager.PATTERN_CACHE_HITS);
+            return pattern;
+        }
+        MetricsManager.incPatternCacheCounter(MetricsManager.PATTERN_CACHE_MISSES);
+        // Two threads may both compile a new pattern, the last one is kept.
+        pattern = Pattern.compile(regex, flags);
+        cache.put(key, pattern);
+        return pattern;
+    }
+
+    /**
+     * The number of patterns in the cache.
+     *
+     * @return the approximate number of patterns.
+     */
+    long size() {
+        return cache.size();
+    }
+
+    /**
+     * The hits, misses and evictions since the cache was created.
+     *
+     * @return the statistics.
+     */
+    CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * A regular expression and its flags.
+     */
+    private static final class Key {
+        private final String regex;
+        private final int flags;
+
+        /**
+         * Standard constructor.
+         *
+         * @param regex the regular expression.
+         * @param flags the flags.
+         */
+        Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key)o;
+            return flags == other.flags && regex.equals(other.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * The lines of an already decoded log. The reader is not closed by this class.
+ *
+ * Lines are split like {@link BufferedReader#readLine()} does, but are read into a buffer of this class that is
+ * reused for the next line; a line is only copied into a string by {@link #getLine()}, e.g. when something was found
+ * in it. The visible line is a view of the buffer. Only a source created without a maximum line length reads the
+ * lines with {@link BufferedReader#readLine()}, for readers that change the lines by overriding it.
+ *
+ * With a maximum line length, a longer line is split into chunks of the maximum length that overlap by
+ * {@link #LINE_OVERLAP} chars, so a huge line is never held in memory as a whole.
+ */
+public class ReaderLineSource implements LineSource {
+
+    /**
+     * The number of chars a chunk of a long line shares with the next chunk, so that a match of up to this length
+     * is not lost where the line is split.
+     */
+    public static final int LINE_OVERLAP = 4096;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final BufferedReader reader;
+    private final VisibleText visibleText = new VisibleText();
+    private final int maxLineLength;
+    private final int overlap;
+    private final boolean readLines;
+    private char[] buffer;
+    private CharBuffer view;
+    private int lineStart;
+    private int lineEnd;
+    private int nextStart;
+    private int limit;
+    private boolean endOfFile;
+    private boolean lineHasEscape;
+    private boolean continuation;
+    private boolean nextIsContinuation;
+    private String line;
+    private CharSequence visibleLine;
+
+    /**
+     * Standard constructor, reading whole lines with {@link BufferedReader#readLine()}.
+     *
+     * @param reader the reader to read lines from.
+     */
+    public ReaderLineSource(BufferedReader reader) {
+        this.reader = reader;
+        this.maxLineLength = 0;
+        this.overlap = 0;
+        this.readLines = true;
+    }
+
+    /**
+     * Constructor with a maximum line length.
+     *
+     * @param reader the reader to read lines from.
+     * @param maxLineLength the length from which a line is split into chunks, 0 to read whole lines.
+     */
+    public ReaderLineSource(BufferedReader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+        this.overlap = Math.min(LINE_OVERLAP, maxLineLength / 2);
+        this.readLines = false;
+    }
+
+    @Override
+    public boolean nextLine() throws IOException {
+        visibleLine = null;
+        if (readLines) {
+            line = reader.readLine();
+            return line != null;
+        }
+        lineStart = nextStart;
+        line = null;
+        lineHasEscape = false;
+        continuation = nextIsContinuation;
+        nextIsContinuation = false;
+        if (buffer == null) {
+            buffer = new char[INITIAL_BUFFER_SIZE];
+            view = CharBuffer.wrap(buffer);
+        }
+        int position = lineStart;
+        while (true) {
+            for (; position < limit; position++) {
+                char c = buffer[position];
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r' && position + 1 == limit && !endOfFile) {
+                        // Need the next char to know if this is "\r\n".
+                        break;
+                    }
+                    lineEnd = position;
+                    nextStart = position + 1;
+                    if (c == '\r' && nextStart < limit && buffer[nextStart] == '\n') {
+                        nextStart++;
+                    }
+                    return true;
+                }
+                if (maxLineLength > 0 && position - lineStart == maxLineLength) {
+                    lineEnd = position;
+                    nextStart = position - overlap;
+                    nextIsContinuation = true;
+                    return true;
+                }
+                if (c == VisibleText.ESCAPE) {
+                    lineHasEscape = true;
+                }
+            }
+            if (endOfFile) {
+                if (lineStart == limit) {
+                    return false;
+                }
+                lineEnd = limit;
+                nextStart = limit;
+                return true;
+            }
+            position -= lineStart;
+            fill();
+        }
+    }
+
+    /**
+     * Moves the current partial line to the start of the buffer and reads more after it, growing the buffer if the
+     * line fills it.
+     *
+     * @throws IOException if the reader failed.
+     */
+    private void fill() throws IOException {
+        int remaining = limit - lineStart;
+        char[] target = buffer;
+        if (remaining == buffer.length) {
+            target = new char[buffer.length * 2];
+        }
+        System.arraycopy(buffer, lineStart, target, 0, remaining);
+        if (target != buffer) {
+            buffer = target;
+            view = CharBuffer.wrap(buffer);
+        }
+        lineStart = 0;
+        nextStart = 0;
+        limit = remaining;
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    @Override
+    public boolean isContinuation() {
+        return continuation;
+    }
+
+    @Override
+    public boolean prefilter(MultiPatternMatcher.Scan scan) {
+        // The line is decoded already, so there is nothing to save by checking the candidates here.
+        scan.startLine(getVisibleLine());
+        return true;
+    }
+
+    @Override
+    public String getLine() {
+        if (line == null) {
+            line = new String(buffer, lineStart, lineEnd - lineStart);
+        }
+        return line;
+    }
+
+    @Override
+    public CharSequence getVisibleLine() {
+        if (visibleLine == null && readLines) {
+            visibleLine = visibleText.reset(line);
+        } else if (visibleLine == null) {
+            view.clear();
+            view.position(lineStart);
+            view.limit(lineEnd);
+            if (lineHasEscape) {
+                visibleLine = visibleText.reset(view);
+            } else {
+                visibleLine = view;
+            }
+        }
+        return visibleLine;
+    }
+}
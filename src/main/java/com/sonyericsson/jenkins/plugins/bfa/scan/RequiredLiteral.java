@@ -0,0 +1,374 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.util.regex.Pattern;
+
+/**
+ * Extracts a literal substring that every match of a regular expression must contain, e.g. "OutOfMemoryError" from
+ * <code>.*java.lang.OutOfMemoryError.*</code>. Only the top level of the expression is analyzed; groups, classes and
+ * anything else that is not a plain character just ends the current literal run. Expressions with top level
+ * alternation or flags that change how characters match yield no literal at all.
+ */
+public final class RequiredLiteral {
+
+    /**
+     * Shorter literals than this are not worth filtering on.
+     */
+    public static final int MINIMUM_LENGTH = 3;
+
+    /**
+     * Flags that do not change how a plain character matches.
+     */
+    private static final int HARMLESS_FLAGS = Pattern.MULTILINE | Pattern.DOTALL | Pattern.UNIX_LINES;
+
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+    private static final int MAX_OCTAL_ESCAPE_LENGTH = 3;
+
+    private final String regex;
+    private int pos;
+    private final StringBuilder run = new StringBuilder();
+    private String best = "";
+
+    /**
+     * Constructor.
+     *
+     * @param regex the expression to analyze.
+     */
+    private RequiredLiteral(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * Extracts the longest required literal of a compiled pattern.
+     *
+     * @param pattern the pattern.
+     * @return the literal, or null if no literal of at least {@link #MINIMUM_LENGTH} characters could be found.
+     */
+    public static String extract(Pattern pattern) {
+        if ((pattern.flags() & ~HARMLESS_FLAGS) != 0) {
+            return null;
+        }
+        return extract(pattern.pattern());
+    }
+
+    /**
+     * Extracts the longest required literal of an expression compiled without flags.
+     *
+     * @param regex the expression.
+     * @return the literal, or null if no literal of at least {@link #MINIMUM_LENGTH} characters could be found.
+     */
+    public static String extract(String regex) {
+        try {
+            String literal = new RequiredLiteral(regex).parse();
+            if (literal == null || literal.length() < MINIMUM_LENGTH) {
+                return null;
+            }
+            return literal;
+        } catch (IndexOutOfBoundsException e) {
+            // Malformed expression, let the regex engine deal with it.
+            return null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Walks the top level of the expression.
+     *
+     * @return the longest literal run, or null if the expression can not be analyzed.
+     */
+    private String parse() {
+        while (pos < regex.length()) {
+            char c = regex.charAt(pos);
+            switch (c) {
+                case '\\':
+                    if (!parseEscape()) {
+                        return null;
+                    }
+                    break;
+                case '[':
+                    skipClass();
+                    nonLiteral();
+                    break;
+                case '(':
+                    if (!parseGroup()) {
+                        return null;
+                    }
+                    break;
+                case '|':
+                case ')':
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    return null;
+                case '.':
+                case '^':
+                case '$':
+                    pos++;
+                    nonLiteral();
+                    break;
+                default:
+                    pos++;
+                    literal(c);
+                    break;
+            }
+        }
+        endRun();
+        return best;
+    }
+
+    /**
+     * Parses an escape sequence starting at the backslash.
+     *
+     * @return false if the expression can not be analyzed.
+     */
+    private boolean parseEscape() {
+        char c = regex.charAt(pos + 1);
+        if (c == 'Q') {
+            int end = regex.indexOf("\\E", pos + 2);
+            if (end < 0) {
+                end = regex.length();
+            }
+            String quoted = regex.substring(pos + 2, end);
+            pos = Math.min(end + 2, regex.length());
+            if (quoted.isEmpty()) {
+                return true;
+            }
+            run.append(quoted, 0, quoted.length() - 1);
+            literal(quoted.charAt(quoted.length() - 1));
+            return true;
+        }
+        if (!Character.isLetterOrDigit(c)) {
+            pos += 2;
+            literal(c);
+            return true;
+        }
+        pos += 2;
+        switch (c) {
+            case 'x':
+                if (regex.charAt(pos) == '{') {
+                    pos = regex.indexOf('}', pos) + 1;
+                } else {
+                    pos += 2;
+                }
+                break;
+            case 'u':
+                pos += UNICODE_ESCAPE_LENGTH;
+                break;
+            case '0':
+                int digits = 0;
+                while (digits < MAX_OCTAL_ESCAPE_LENGTH && pos < regex.length() && isOctal(regex.charAt(pos))) {
+                    pos++;
+                    digits++;
+                }
+                break;
+            case 'c':
+                pos++;
+                break;
+            case 'p':
+            case 'P':
+                if (regex.charAt(pos) == '{') {
+                    pos = regex.indexOf('}', pos) + 1;
+                } else {
+                    pos++;
+                }
+                break;
+            case 'N':
+                pos = regex.indexOf('}', pos) + 1;
+                break;
+            case 'k':
+                pos = regex.indexOf('>', pos) + 1;
+                break;
+            default:
+                while (Character.isDigit(c) && pos < regex.length() && Character.isDigit(regex.charAt(pos))) {
+                    pos++;
+                }
+                break;
+        }
+        if (pos <= 0) {
+            return false;
+        }
+        nonLiteral();
+        return true;
+    }
+
+    /**
+     * Checks for an octal digit.
+     *
+     * @param c the character.
+     * @return true if 0-7.
+     */
+    private static boolean isOctal(char c) {
+        return c >= '0' && c <= '7';
+    }
+
+    /**
+     * Skips a character class starting at the opening bracket, including nested classes.
+     */
+    private void skipClass() {
+        int depth = 0;
+        do {
+            char c = regex.charAt(pos);
+            if (c == '\\') {
+                skipNestedEscape();
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                pos++;
+                // A ']' directly after '[' or '[^' is a literal member of the class.
+                if (regex.charAt(pos) == '^') {
+                    pos++;
+                }
+                if (regex.charAt(pos) == ']') {
+                    pos++;
+                }
+                continue;
+            }
+            if (c == ']') {
+                depth--;
+            }
+            pos++;
+        } while (depth > 0);
+    }
+
+    /**
+     * Skips an escape sequence inside a class or a group.
+     *
+     * @throws IllegalArgumentException for quoted sequences, whose extent is not worth tracking there.
+     */
+    private void skipNestedEscape() {
+        if (regex.charAt(pos + 1) == 'Q') {
+            throw new IllegalArgumentException("Quoting inside a group or class");
+        }
+        pos += 2;
+    }
+
+    /**
+     * Parses a group starting at the opening parenthesis.
+     *
+     * @return false if the expression can not be analyzed.
+     */
+    private boolean parseGroup() {
+        int start = pos;
+        int depth = 0;
+        do {
+            char c = regex.charAt(pos);
+            if (c == '\\') {
+                skipNestedEscape();
+                continue;
+            }
+            if (c == '[') {
+                skipClass();
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+            pos++;
+        } while (depth > 0);
+        String group = regex.substring(start, pos);
+        if (group.matches("\\(\\?[a-zA-Z-]*\\)")) {
+            // Inline flags, zero width but they may change how the rest of the expression matches.
+            return group.matches("\\(\\?[mds-]*\\)");
+        }
+        nonLiteral();
+        return true;
+    }
+
+    /**
+     * A plain character was read, checks if it is quantified.
+     *
+     * @param c the character.
+     */
+    private void literal(char c) {
+        int min = quantifier();
+        if (min < 0) {
+            run.append(c);
+        } else if (min == 0) {
+            endRun();
+        } else {
+            run.append(c);
+            endRun();
+        }
+    }
+
+    /**
+     * Something that is not a plain character was read; skips any quantifier and ends the current run.
+     */
+    private void nonLiteral() {
+        quantifier();
+        endRun();
+    }
+
+    /**
+     * Consumes a quantifier at the current position, if any.
+     *
+     * @return the minimum number of repetitions, or -1 if there is no quantifier.
+     */
+    private int quantifier() {
+        if (pos >= regex.length()) {
+            return -1;
+        }
+        int min;
+        char c = regex.charAt(pos);
+        if (c == '*' || c == '?') {
+            min = 0;
+            pos++;
+        } else if (c == '+') {
+            min = 1;
+            pos++;
+        } else if (c == '{') {
+            int end = regex.indexOf('}', pos);
+            String bounds = regex.substring(pos + 1, end);
+            int comma = bounds.indexOf(',');
+            if (comma >= 0) {
+                bounds = bounds.substring(0, comma);
+            }
+            min = Integer.parseInt(bounds.trim());
+            pos = end + 1;
+        } else {
+            return -1;
+        }
+        if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+            pos++;
+        }
+        return min;
+    }
+
+    /**
+     * Ends the current literal run, keeping it if it is the longest so far.
+     */
+    private void endRun() {
+        if (run.length() > best.length()) {
+            best = run.toString();
+        }
+        run.setLength(0);
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.MetricsManager;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time the scans have spent on each indication of the knowledge base, over a rolling window of the last
+ * {@link #WINDOW_HOURS} hours, to find the patterns that use most of the scan time. Each scan adds what it has spent
+ * when it is done, which is also published as histograms and counters through {@link MetricsManager}. The scans
+ * evaluate the indications in an order based on it, see {@link MultiPatternMatcher}.
+ *
+ * Only the causes of the knowledge base are counted, i.e. causes with an id; not e.g. an indication being tested.
+ */
+public final class ScanCost {
+
+    /**
+     * The number of hours the ranking covers.
+     */
+    public static final int WINDOW_HOURS = 24;
+
+    private static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final ScanCost INSTANCE = new ScanCost();
+
+    private final ConcurrentMap<String, IndicationCost> costs = new ConcurrentHashMap<String, IndicationCost>();
+
+    /**
+     * Use {@link #getInstance()}.
+     */
+    ScanCost() {
+    }
+
+    /**
+     * The instance the scans record to.
+     *
+     * @return the instance.
+     */
+    public static ScanCost getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds what one scan has spent on an indication.
+     *
+     * @param cause the cause of the indication.
+     * @param indication the indication.
+     * @param nanos the time spent evaluating the pattern.
+     * @param evaluations the number of times the pattern was evaluated.
+     * @param matches the number of matches.
+     * @param timeouts the number of evaluations that timed out.
+     */
+    public void record(FailureCause cause, Indication indication, long nanos, int evaluations, int matches,
+                       int timeouts) {
+        if (cause.getId() == null) {
+            return;
+        }
+        record(cause, indication, nanos, evaluations, matches, timeouts, System.currentTimeMillis());
+        String name = MetricsManager.getScanCostName(cause, cause.getIndications().indexOf(indication));
+        MetricsManager.updateScanCost(name, nanos, evaluations, matches, timeouts);
+    }
+
+    /**
+     * Adds to the rolling window.
+     *
+     * @param cause the cause of the indication.
+     * @param indication the indication.
+     * @param nanos the time spent evaluating the pattern.
+     * @param evaluations the number of times the pattern was evaluated.
+     * @param matches the number of matches.
+     * @param timeouts the number of evaluations that timed out.
+     * @param now the current time, in ms.
+     */
+    void record(FailureCause cause, Indication indication, long nanos, int evaluations, int matches, int timeouts,
+                long now) {
+        String key = key(cause, indication);
+        IndicationCost cost = costs.get(key);
+        if (cost == null) {
+            IndicationCost newCost = new IndicationCost(indication.getUserProvidedExpression());
+            cost = costs.putIfAbsent(key, newCost);
+            if (cost == null) {
+                cost = newCost;
+            }
+        }
+        cost.add(cause, nanos, evaluations, matches, timeouts, now / BUCKET_MILLIS);
+    }
+
+    /**
+     * The key of an indication.
+     *
+     * @param cause the cause of the indication.
+     * @param indication the indication.
+     * @return the key.
+     */
+    private static String key(FailureCause cause, Indication indication) {
+        return cause.getId() + '\n' + indication.getClass().getName() + '\n' + indication.getUserProvidedExpression();
+    }
+
+    /**
+     * Adds what one scan has spent on all the indications of a cause, to the metrics of the cause.
+     *
+     * @param cause the cause.
+     * @param nanos the time spent evaluating its patterns.
+     * @param evaluations the number of times its patterns were evaluated.
+     * @param matches the number of matches.
+     * @param timeouts the number of evaluations that timed out.
+     */
+    public void recordCause(FailureCause cause, long nanos, int evaluations, int matches, int timeouts) {
+        if (cause.getId() == null) {
+            return;
+        }
+        MetricsManager.updateScanCost(MetricsManager.getScanCostName(cause), nanos, evaluations, matches, timeouts);
+    }
+
+    /**
+     * The indications evaluated in the last {@link #WINDOW_HOURS} hours, the most expensive first.
+     *
+     * @return the ranking.
+     */
+    public List<Entry> getRanking() {
+        return getRanking(System.currentTimeMillis());
+    }
+
+    /**
+     * The indications evaluated in the window that ends now, the most expensive first. Indications that have not
+     * been evaluated in the window are forgotten.
+     *
+     * @param now the current time, in ms.
+     * @return the ranking.
+     */
+    List<Entry> getRanking(long now) {
+        long oldestBucket = now / BUCKET_MILLIS - WINDOW_HOURS + 1;
+        List<Entry> ranking = new ArrayList<Entry>();
+        long totalNanos = 0;
+        Iterator<IndicationCost> iterator = costs.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().total(oldestBucket);
+            if (entry == null) {
+                iterator.remove();
+            } else {
+                ranking.add(entry);
+                totalNanos += entry.getNanos();
+            }
+        }
+        for (Entry entry : ranking) {
+            entry.share(totalNanos);
+        }
+        Collections.sort(ranking, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                return Long.compare(b.getNanos(), a.getNanos());
+            }
+        });
+        return ranking;
+    }
+
+    /**
+     * What has been spent on an indication in the window that ends now.
+     *
+     * @param cause the cause of the indication.
+     * @param indication the indication.
+     * @param now the current time, in ms.
+     * @return what has been spent, without a percentage, or null if the indication has not been evaluated in the
+     * window or its cause has no id.
+     */
+    Entry getEntry(FailureCause cause, Indication indication, long now) {
+        if (cause.getId() == null) {
+            return null;
+        }
+        IndicationCost cost = costs.get(key(cause, indication));
+        if (cost == null) {
+            return null;
+        }
+        return cost.total(now / BUCKET_MILLIS - WINDOW_HOURS + 1);
+    }
+
+    /**
+     * Forgets everything, for tests.
+     */
+    void clear() {
+        costs.clear();
+    }
+
+    /**
+     * What has been spent on an indication, one bucket per hour of the window.
+     */
+    private static final class IndicationCost {
+        private final String pattern;
+        private String causeId;
+        private String causeName;
+        private final long[] bucketOf = new long[WINDOW_HOURS];
+        private final long[] nanos = new long[WINDOW_HOURS];
+        private final long[] evaluations = new long[WINDOW_HOURS];
+        private final long[] matches = new long[WINDOW_HOURS];
+        private final long[] timeouts = new long[WINDOW_HOURS];
+
+        /**
+         * Standard constructor.
+         *
+         * @param pattern the pattern of the indication.
+         */
+        IndicationCost(String pattern) {
+            this.pattern = pattern;
+        }
+
+        /**
+         * Adds to the bucket of an hour.
+         *
+         * @param cause the cause of the indication, its name may have changed.
+         * @param spentNanos the time spent evaluating the pattern.
+         * @param evaluated the number of times the pattern was evaluated.
+         * @param matched the number of matches.
+         * @param timedOut the number of evaluations that timed out.
+         * @param bucket the hour since the epoch.
+         */
+        synchronized void add(FailureCause cause, long spentNanos, int evaluated, int matched, int timedOut,
+                              long bucket) {
+            causeId = cause.getId();
+            causeName = cause.getName();
+            int index = (int)(bucket % WINDOW_HOURS);
+            if (bucketOf[index] != bucket) {
+                bucketOf[index] = bucket;
+                nanos[index] = 0;
+                evaluations[index] = 0;
+                matches[index] = 0;
+                timeouts[index] = 0;
+            }
+            nanos[index] += spentNanos;
+            evaluations[index] += evaluated;
+            matches[index] += matched;
+            timeouts[index] += timedOut;
+        }
+
+        /**
+         * Sums the buckets of the window.
+         *
+         * @param oldestBucket the first hour of the window.
+         * @return the sums, or null if nothing was spent in the window.
+         */
+        synchronized Entry total(long oldestBucket) {
+            long totalNanos = 0;
+            long totalEvaluations = 0;
+            long totalMatches = 0;
+            long totalTimeouts = 0;
+            for (int index = 0; index < WINDOW_HOURS; index++) {
+                if (bucketOf[index] >= oldestBucket) {
+                    totalNanos += nanos[index];
+                    totalEvaluations += evaluations[index];
+                    totalMatches += matches[index];
+                    totalTimeouts += timeouts[index];
+                }
+            }
+            if (totalEvaluations == 0) {
+                return null;
+            }
+            return new Entry(causeId, causeName, pattern, totalNanos, totalEvaluations, totalMatches, totalTimeouts);
+        }
+    }
+
+    /**
+     * What has been spent on an indication in the window.
+     */
+    public static final class Entry {
+        private final String causeId;
+        private final String causeName;
+        private final String pattern;
+        private final long nanos;
+        private final long evaluations;
+        private final long matches;
+        private final long timeouts;
+        private double percentage;
+
+        /**
+         * Standard constructor.
+         *
+         * @param causeId the id of the cause.
+         * @param causeName the name of the cause.
+         * @param pattern the pattern of the indication.
+         * @param nanos the time spent evaluating the pattern.
+         * @param evaluations the number of times the pattern was evaluated.
+         * @param matches the number of matches.
+         * @param timeouts the number of evaluations that timed out.
+         */
+        Entry(String causeId, String causeName, String pattern, long nanos, long evaluations, long matches,
+              long timeouts) {
+            this.causeId = causeId;
+            this.causeName = causeName;
+            this.pattern = pattern;
+            this.nanos = nanos;
+            this.evaluations = evaluations;
+            this.matches = matches;
+            this.timeouts = timeouts;
+        }
+
+        /**
+         * Sets the share of the time of the whole ranking.
+         *
+         * @param totalNanos the time spent on all entries.
+         */
+        private void share(long totalNanos) {
+            if (totalNanos > 0) {
+                //CS IGNORE MagicNumber FOR NEXT 1 LINES. REASON: Percent.
+                percentage = nanos * 100.0 / totalNanos;
+            }
+        }
+
+        /**
+         * The share of the time spent on all the indications of the ranking.
+         *
+         * @return the share, in percent.
+         */
+        public double getPercentage() {
+            return percentage;
+        }
+
+        /**
+         * The id of the cause.
+         *
+         * @return the id.
+         */
+        public String getCauseId() {
+            return causeId;
+        }
+
+        /**
+         * The name of the cause.
+         *
+         * @return the name.
+         */
+        public String getCauseName() {
+            return causeName;
+        }
+
+        /**
+         * The pattern of the indication, as the user wrote it.
+         *
+         * @return the pattern.
+         */
+        public String getPattern() {
+            return pattern;
+        }
+
+        /**
+         * The time spent evaluating the pattern.
+         *
+         * @return the time, in ns.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * The time spent evaluating the pattern.
+         *
+         * @return the time, in ms.
+         */
+        public long getMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        /**
+         * The average time of an evaluation.
+         *
+         * @return the time, in ns.
+         */
+        public long getNanosPerEvaluation() {
+            return nanos / evaluations;
+        }
+
+        /**
+         * The number of times the pattern was evaluated.
+         *
+         * @return the number of evaluations.
+         */
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        /**
+         * The number of matches.
+         *
+         * @return the number of matches.
+         */
+        public long getMatches() {
+            return matches;
+        }
+
+        /**
+         * The number of evaluations that timed out.
+         *
+         * @return the number of timeouts.
+         */
+        public long getTimeouts() {
+            return timeouts;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accounts the memory of the scans in flight against a budget shared by all scans. A scan reserves what it is
+ * estimated to hold, its buffers and search windows, before it starts, adds what it finds while it runs, and gives it
+ * all back when it is done. The estimates are rough: they are there to keep many scans of large logs from being in
+ * flight at the same time, not to measure the heap.
+ *
+ * A reservation that does not fit is refused by {@link #tryReserve(long)}, so that the scan can be made smaller, and
+ * waited for by {@link #reserve(long, long)}. A scan is never refused when no other scan holds a reservation, so a
+ * scan larger than the whole budget still runs, alone.
+ */
+public final class ScanMemoryBudget {
+
+    /**
+     * The bytes of a char on the heap.
+     */
+    static final int CHAR_BYTES = 2;
+
+    /**
+     * The estimated bytes of a found cause or indication besides its strings.
+     */
+    static final int FOUND_OVERHEAD_BYTES = 256;
+
+    private long budget;
+    private long used;
+    private int reservations;
+
+    /**
+     * Standard constructor.
+     *
+     * @param budgetBytes the budget, 0 for no budget.
+     */
+    public ScanMemoryBudget(long budgetBytes) {
+        this.budget = budgetBytes;
+    }
+
+    /**
+     * Changes the budget, e.g. when the configuration has changed.
+     *
+     * @param budgetBytes the budget, 0 for no budget.
+     */
+    public synchronized void setBudget(long budgetBytes) {
+        if (budgetBytes != budget) {
+            budget = budgetBytes;
+            notifyAll();
+        }
+    }
+
+    /**
+     * The budget.
+     *
+     * @return the budget in bytes, 0 if there is no budget.
+     */
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    /**
+     * The memory reserved by the scans in flight.
+     *
+     * @return the reserved bytes.
+     */
+    public synchronized long getUsed() {
+        return used;
+    }
+
+    /**
+     * Reserves memory for a scan if it fits in the budget.
+     *
+     * @param bytes the estimated memory of the scan.
+     * @return the reservation, to be closed when the scan is done, or null if it does not fit.
+     */
+    public synchronized Reservation tryReserve(long bytes) {
+        if (!fits(bytes)) {
+            return null;
+        }
+        return new Reservation(bytes);
+    }
+
+    /**
+     * Reserves memory for a scan, waiting for other scans to give back theirs while it does not fit in the budget.
+     * After the timeout the memory is reserved anyway, so that a scan is deferred but never dropped.
+     *
+     * @param bytes the estimated memory of the scan.
+     * @param timeoutMillis the longest time to wait.
+     * @return the reservation, to be closed when the scan is done.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized Reservation reserve(long bytes, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!fits(bytes) && remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return new Reservation(bytes);
+    }
+
+    /**
+     * Checks if a reservation fits in the budget.
+     *
+     * @param bytes the bytes to reserve.
+     * @return true if there is no budget, no other reservation, or room for the bytes.
+     */
+    private boolean fits(long bytes) {
+        return budget <= 0 || reservations == 0 || used + bytes <= budget;
+    }
+
+    /**
+     * Estimates the memory of a scan of the single-line indications: the buffer of each line source and its longest
+     * line.
+     *
+     * @param logBytes the size of the log.
+     * @param sources the number of line sources, more than one when the log is scanned in parallel segments.
+     * @param maxLineLength the length from which a line is scanned in chunks, 0 if lines are scanned whole.
+     * @return the estimated bytes.
+     */
+    public static long estimateSingleLineScan(long logBytes, int sources, int maxLineLength) {
+        long lineChars = Math.min(logBytes, ByteLineSource.BUFFER_SIZE);
+        if (maxLineLength > 0) {
+            lineChars = Math.min(logBytes, maxLineLength);
+        }
+        return sources * (Math.min(logBytes, ByteLineSource.BUFFER_SIZE) + CHAR_BYTES * lineChars);
+    }
+
+    /**
+     * Estimates the memory of a scan of the multi-line indications: its search window.
+     *
+     * @param windowSize the number of chars read into the window each round.
+     * @param maxMatchSpan the number of chars kept for a match that continues in the next round.
+     * @return the estimated bytes.
+     */
+    public static long estimateMultiLineScan(int windowSize, int maxMatchSpan) {
+        return CHAR_BYTES * ((long)windowSize + maxMatchSpan);
+    }
+
+    /**
+     * Estimates the memory of a compressed log that is inflated once for its scans, see {@link SharedLogStream}.
+     *
+     * @return the estimated bytes.
+     */
+    public static long estimateSharedLog() {
+        return (long)SharedLogStream.CHUNK_SIZE * SharedLogStream.RING_CHUNKS;
+    }
+
+    /**
+     * Estimates the memory of found causes: their matched lines and the objects around them.
+     *
+     * @param found the found causes.
+     * @return the estimated bytes.
+     */
+    public static long estimateFound(List<FoundFailureCause> found) {
+        long bytes = 0;
+        for (FoundFailureCause cause : found) {
+            bytes += FOUND_OVERHEAD_BYTES;
+            for (FoundIndication indication : cause.getIndications()) {
+                bytes += FOUND_OVERHEAD_BYTES;
+                if (indication.getMatchingString() != null) {
+                    bytes += CHAR_BYTES * (long)indication.getMatchingString().length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * The memory reserved by one scan.
+     */
+    public final class Reservation implements Closeable {
+        private long bytes;
+        private boolean closed;
+
+        /**
+         * Reserves the memory, called with the lock of the budget held.
+         *
+         * @param reserved the bytes to reserve.
+         */
+        private Reservation(long reserved) {
+            this.bytes = reserved;
+            used += reserved;
+            reservations++;
+        }
+
+        /**
+         * Adds memory held by the scan, e.g. what it found, whether it fits in the budget or not.
+         *
+         * @param more the bytes to add.
+         */
+        public void add(long more) {
+            synchronized (ScanMemoryBudget.this) {
+                if (!closed) {
+                    bytes += more;
+                    used += more;
+                }
+            }
+        }
+
+        /**
+         * The memory reserved by the scan.
+         *
+         * @return the reserved bytes.
+         */
+        public long getBytes() {
+            synchronized (ScanMemoryBudget.this) {
+                return bytes;
+            }
+        }
+
+        /**
+         * Gives the memory back, once the scan is done.
+         */
+        @Override
+        public void close() {
+            synchronized (ScanMemoryBudget.this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                used -= bytes;
+                reservations--;
+                ScanMemoryBudget.this.notifyAll();
+            }
+        }
+    }
+}
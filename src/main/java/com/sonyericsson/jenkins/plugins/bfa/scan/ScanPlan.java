@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks what the scans of one build log have found, to tell when reading more of the log can not change the
+ * result, so that the scans can stop before the end of the log. That is when:
+ * <ul>
+ *     <li>every indication of every cause has been found,</li>
+ *     <li>every indication of the causes outside the fallback categories has been found and at least one of those
+ *     causes was found, so the fallback causes would be removed from the result anyway, or</li>
+ *     <li>the given number of causes outside the fallback categories has been found.</li>
+ * </ul>
+ *
+ * Shared by the single-line and the multi-line scans of the log; an indication that is found more than once is
+ * counted once.
+ */
+public final class ScanPlan {
+
+    private final Map<Indication, FailureCause> causeOfIndication = new IdentityHashMap<Indication, FailureCause>();
+    private final Map<Indication, Boolean> foundIndications = new IdentityHashMap<Indication, Boolean>();
+    private final Map<FailureCause, Boolean> foundCauses = new IdentityHashMap<FailureCause, Boolean>();
+    private final Collection<String> fallbackCategories;
+    private final int maxFoundCauses;
+    private int pendingIndications;
+    private int pendingFallbackIndications;
+    private int foundNonFallbackCauses;
+    private volatile boolean done;
+
+    /**
+     * Standard constructor.
+     *
+     * @param causes the causes looked for.
+     * @param fallbackCategories the categories of the fallback causes, see
+     *                           {@link com.sonyericsson.jenkins.plugins.bfa.PluginImpl#getFallbackCategories()}.
+     * @param maxFoundCauses the number of causes outside the fallback categories after which the scans stop, 0 to
+     *                       find all causes.
+     */
+    public ScanPlan(List<FailureCause> causes, Collection<String> fallbackCategories, int maxFoundCauses) {
+        this.fallbackCategories = fallbackCategories;
+        this.maxFoundCauses = maxFoundCauses;
+        for (FailureCause cause : causes) {
+            boolean fallback = isFallback(cause);
+            for (Indication indication : cause.getIndications()) {
+                causeOfIndication.put(indication, cause);
+                if (fallback) {
+                    pendingFallbackIndications++;
+                } else {
+                    pendingIndications++;
+                }
+            }
+        }
+        done = causeOfIndication.isEmpty();
+    }
+
+    /**
+     * If the scans can stop.
+     *
+     * @return true if reading more of the log can not change the result.
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Records that an indication was found. Indications that are not of the causes of the plan are ignored.
+     *
+     * @param indication the indication.
+     */
+    public synchronized void found(Indication indication) {
+        FailureCause cause = causeOfIndication.get(indication);
+        if (cause == null || foundIndications.put(indication, Boolean.TRUE) != null) {
+            return;
+        }
+        boolean fallback = isFallback(cause);
+        if (fallback) {
+            pendingFallbackIndications--;
+        } else {
+            pendingIndications--;
+        }
+        if (!fallback && foundCauses.put(cause, Boolean.TRUE) == null) {
+            foundNonFallbackCauses++;
+        }
+        if (pendingIndications == 0 && (pendingFallbackIndications == 0 || foundNonFallbackCauses > 0)) {
+            done = true;
+        } else if (maxFoundCauses > 0 && foundNonFallbackCauses >= maxFoundCauses) {
+            done = true;
+        }
+    }
+
+    /**
+     * Records that the indications of a found cause were found, e.g. by a scan that did not tell the plan as it went.
+     *
+     * @param foundCause the found cause.
+     */
+    public synchronized void found(FoundFailureCause foundCause) {
+        if (foundCause.getId() == null) {
+            return;
+        }
+        for (Map.Entry<Indication, FailureCause> entry : causeOfIndication.entrySet()) {
+            if (!foundCause.getId().equals(entry.getValue().getId())) {
+                continue;
+            }
+            for (FoundIndication foundIndication : foundCause.getIndications()) {
+                if (entry.getKey().getPattern().pattern().equals(foundIndication.getPattern())) {
+                    found(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a cause is in a fallback category.
+     *
+     * @param cause the cause.
+     * @return true if it is.
+     */
+    private boolean isFallback(FailureCause cause) {
+        return cause.getCategories() != null && !Collections.disjoint(cause.getCategories(), fallbackCategories);
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.MetricsManager;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The workers that all scans of build logs are run on, whether the build has just completed, a token or request
+ * needs the causes of a build now, or builds are scanned on demand. Waiting scans are run by {@link Priority}
+ * first; within a priority, a scan is ordered by its submission time plus its estimated duration, so small scans go
+ * ahead of large ones, but a large scan is not passed by small scans submitted long after it.
+ *
+ * Workers are started when scans are waiting, up to the maximum, and stop when they have been idle for a while.
+ * Each priority has a bounded queue: submitting a scan blocks while the queue of its priority is full, which holds
+ * back the threads that produce the scans, e.g. the scan on demand queue, without holding back other priorities.
+ * Helper tasks that a running scan can do without are rejected instead, see {@link #getHelperExecutor(Priority)}.
+ *
+ * Scans may instead each run on their own thread as soon as they are submitted, e.g. a virtual thread, see
+ * {@link #ScanScheduler(int, int, ThreadFactory)}. The maximum number of workers then limits how many threads match
+ * indications at the same time, see {@link MatchingPermits}, so that the scans do not compete for the processors
+ * with each other and with the builds, while a scan waiting for its log does not hold back the others.
+ *
+ * The number of waiting scans and the number of busy workers are gauges in the metrics, and the time scans have
+ * waited is a histogram, see {@link MetricsManager#addScanSchedulerGauges(ScanScheduler)}.
+ */
+public final class ScanScheduler {
+
+    /**
+     * How long an idle worker is kept.
+     */
+    static final long KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * The maximum number of waiting scans of a priority.
+     */
+    public static final int QUEUE_CAPACITY = 1000;
+
+    /**
+     * The estimated time, in nanoseconds, to scan one byte of log for one indication. Only used to order scans, so
+     * only its size relative to the time a scan has waited matters.
+     */
+    static final long ESTIMATED_NANOS_PER_BYTE_AND_INDICATION = 1;
+
+    /**
+     * Who is waiting for a scan, in the order they are served.
+     */
+    public enum Priority {
+        /**
+         * A build that has just completed, which its developers are waiting for.
+         */
+        COMPLETED,
+        /**
+         * A token or a request that needs the causes of a build to respond.
+         */
+        REQUESTED,
+        /**
+         * Builds scanned on demand or rescanned for new causes in the background.
+         */
+        ON_DEMAND;
+
+        /**
+         * The name used in the metrics.
+         *
+         * @return the name in lower case.
+         */
+        public String getMetricName() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadFactory threadPerScan;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean shutdown;
+    private final Semaphore[] capacity = new Semaphore[Priority.values().length];
+    private final AtomicInteger[] queued = new AtomicInteger[Priority.values().length];
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Constructor with the default queue capacity.
+     *
+     * @param maximumWorkers the maximum number of workers.
+     */
+    public ScanScheduler(int maximumWorkers) {
+        this(maximumWorkers, QUEUE_CAPACITY);
+    }
+
+    /**
+     * Standard constructor.
+     *
+     * @param maximumWorkers the maximum number of workers.
+     * @param queueCapacity the maximum number of waiting scans of a priority.
+     */
+    public ScanScheduler(int maximumWorkers, int queueCapacity) {
+        this(new ThreadPoolExecutor(maximumWorkers, maximumWorkers, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "BFA-scanner-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }), null, queueCapacity);
+        executor.allowCoreThreadTimeOut(true);
+        MatchingPermits.setLimit(0);
+    }
+
+    /**
+     * Constructor that runs each scan on its own thread, e.g. a virtual thread, as soon as it is submitted. The
+     * maximum number of workers is the number of threads that may match indications at the same time.
+     *
+     * @param maximumWorkers the maximum number of threads matching at the same time.
+     * @param queueCapacity the maximum number of waiting scans of a priority.
+     * @param threadFactory the factory of the threads of the scans, which should be daemon threads.
+     * @see com.sonyericsson.jenkins.plugins.bfa.utils.VirtualThreads#newThreadFactory(String)
+     */
+    public ScanScheduler(int maximumWorkers, int queueCapacity, ThreadFactory threadFactory) {
+        this(null, threadFactory, queueCapacity);
+        MatchingPermits.setLimit(maximumWorkers);
+    }
+
+    /**
+     * Constructor with the workers.
+     *
+     * @param workers the pool of workers, or null to run each scan on its own thread.
+     * @param threadFactory the factory of the threads of the scans when there is no pool, else null.
+     * @param queueCapacity the maximum number of waiting scans of a priority.
+     */
+    private ScanScheduler(ThreadPoolExecutor workers, ThreadFactory threadFactory, int queueCapacity) {
+        executor = workers;
+        threadPerScan = threadFactory;
+        for (Priority priority : Priority.values()) {
+            capacity[priority.ordinal()] = new Semaphore(queueCapacity);
+            queued[priority.ordinal()] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Changes the maximum number of workers, or of threads matching at the same time when each scan runs on its own
+     * thread.
+     *
+     * @param maximumWorkers the maximum number of workers.
+     */
+    public void setMaximumWorkers(int maximumWorkers) {
+        if (executor == null) {
+            MatchingPermits.setLimit(maximumWorkers);
+            return;
+        }
+        if (maximumWorkers == executor.getMaximumPoolSize()) {
+            return;
+        }
+        synchronized (executor) {
+            // The core size may not be above the maximum size, so the order depends on the direction.
+            if (maximumWorkers > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(maximumWorkers);
+                executor.setCorePoolSize(maximumWorkers);
+            } else {
+                executor.setCorePoolSize(maximumWorkers);
+                executor.setMaximumPoolSize(maximumWorkers);
+            }
+        }
+    }
+
+    /**
+     * Estimates the time a scan takes, to order it among the scans of its priority.
+     *
+     * @param logBytes the size of the log.
+     * @param indications the number of indications to look for.
+     * @return the estimated time in nanoseconds.
+     */
+    public static long estimateNanos(long logBytes, int indications) {
+        if (indications > 0 && logBytes > Long.MAX_VALUE / ESTIMATED_NANOS_PER_BYTE_AND_INDICATION / indications) {
+            return Long.MAX_VALUE;
+        }
+        return logBytes * indications * ESTIMATED_NANOS_PER_BYTE_AND_INDICATION;
+    }
+
+    /**
+     * Submits a scan, waiting while the queue of its priority is full.
+     *
+     * @param priority the priority of the scan.
+     * @param estimatedNanos the estimated duration of the scan, see {@link #estimateNanos(long, int)}.
+     * @param task the scan.
+     * @return the future of the scan.
+     * @throws InterruptedException if interrupted while waiting for room in the queue.
+     * @throws RejectedExecutionException if the scheduler is shut down.
+     */
+    public Future<?> submit(Priority priority, long estimatedNanos, Runnable task) throws InterruptedException {
+        capacity[priority.ordinal()].acquire();
+        return schedule(priority, estimatedNanos, task);
+    }
+
+    /**
+     * An executor for the helpers of a running scan, which are rejected when the queue of the priority is full.
+     *
+     * @param priority the priority of the scan.
+     * @return the executor.
+     */
+    public Executor getHelperExecutor(final Priority priority) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                if (!capacity[priority.ordinal()].tryAcquire()) {
+                    throw new RejectedExecutionException("The " + priority.getMetricName() + " scan queue is full");
+                }
+                schedule(priority, 0, command);
+            }
+        };
+    }
+
+    /**
+     * Queues a task that has a place in the queue of its priority.
+     *
+     * @param priority the priority.
+     * @param estimatedNanos the estimated duration.
+     * @param task the task.
+     * @return the queued task.
+     */
+    private ScheduledScan schedule(Priority priority, long estimatedNanos, Runnable task) {
+        ScheduledScan scan = new ScheduledScan(priority, estimatedNanos, task);
+        queued[priority.ordinal()].incrementAndGet();
+        try {
+            if (executor != null) {
+                executor.execute(scan);
+            } else if (shutdown) {
+                throw new RejectedExecutionException("The scan scheduler is shut down");
+            } else {
+                threadPerScan.newThread(scan).start();
+            }
+        } catch (RejectedExecutionException e) {
+            scan.dequeued();
+            throw e;
+        }
+        return scan;
+    }
+
+    /**
+     * The number of scans waiting to run.
+     *
+     * @param priority the priority of the scans.
+     * @return the number of waiting scans.
+     */
+    public int getQueued(Priority priority) {
+        return queued[priority.ordinal()].get();
+    }
+
+    /**
+     * The number of workers running a scan.
+     *
+     * @return the approximate number of busy workers.
+     */
+    public int getActiveWorkers() {
+        if (executor == null) {
+            return running.get();
+        }
+        return executor.getActiveCount();
+    }
+
+    /**
+     * The number of workers, busy or idle.
+     *
+     * @return the number of workers.
+     */
+    public int getWorkers() {
+        if (executor == null) {
+            return running.get();
+        }
+        return executor.getPoolSize();
+    }
+
+    /**
+     * Stops the workers once the queued scans are done.
+     */
+    public void shutdown() {
+        shutdown = true;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A scan in the queue, ordered by priority, then by submission time plus estimated duration.
+     */
+    private final class ScheduledScan extends FutureTask<Void> implements Comparable<ScheduledScan> {
+        private final Priority priority;
+        private final long submitted = System.nanoTime();
+        private final long due;
+        private final long order = sequence.getAndIncrement();
+
+        /**
+         * Standard constructor.
+         *
+         * @param scanPriority the priority.
+         * @param estimatedNanos the estimated duration.
+         * @param task the task.
+         */
+        ScheduledScan(Priority scanPriority, long estimatedNanos, Runnable task) {
+            super(task, null);
+            this.priority = scanPriority;
+            // Compared by difference, like System.nanoTime() values are, so the sum may overflow.
+            this.due = submitted + Math.min(estimatedNanos, Long.MAX_VALUE / 2);
+        }
+
+        /**
+         * Gives up the place in the queue.
+         */
+        void dequeued() {
+            queued[priority.ordinal()].decrementAndGet();
+            capacity[priority.ordinal()].release();
+        }
+
+        @Override
+        public void run() {
+            // Run by the executor when taken from the queue, also when the scan has been cancelled.
+            dequeued();
+            MetricsManager.updateScanWait(priority.getMetricName(), System.nanoTime() - submitted);
+            running.incrementAndGet();
+            try {
+                super.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledScan other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            long difference = due - other.due;
+            if (difference != 0) {
+                return Long.signum(difference);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
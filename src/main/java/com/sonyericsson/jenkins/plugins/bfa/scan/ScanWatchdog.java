@@ -0,0 +1,335 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One hashed-wheel timer shared by all scans, interrupting a scanning thread that has not touched its
+ * {@link Watch} within the timeout. Replaces the thread per scan that was used before.
+ *
+ * Touching a watch only writes a timestamp. The wheel thread checks a watch when its bucket comes up; if the watch
+ * was touched since, it is put back in the bucket of its new deadline. A thread that stays silent is interrupted
+ * again every {@link #REINTERRUPT_MILLIS} until it touches or closes its watch.
+ *
+ * A scan that waits for its input, e.g. reads the log file, suspends its watch meanwhile, see
+ * {@link #suspendCurrent()}: waiting is not a stuck regular expression, and an interrupt would abort the read.
+ */
+public final class ScanWatchdog {
+
+    private static final Logger logger = Logger.getLogger(ScanWatchdog.class.getName());
+
+    /**
+     * Resolution of the wheel.
+     */
+    static final long TICK_MILLIS = 50;
+
+    /**
+     * How often a thread that has already been interrupted is interrupted again.
+     */
+    static final long REINTERRUPT_MILLIS = 200;
+
+    /**
+     * Number of buckets, a power of two. Watches further away than one turn just get rechecked once per turn.
+     */
+    private static final int WHEEL_SIZE = 64;
+
+    private static final ScanWatchdog INSTANCE = new ScanWatchdog();
+
+    private static final ThreadLocal<Watch> CURRENT = new ThreadLocal<Watch>();
+
+    private final long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+    private final Watch[] wheel = new Watch[WHEEL_SIZE];
+    private final long startNanos = System.nanoTime();
+    private long processedTick;
+    private int tracked;
+    private Thread wheelThread;
+
+    /**
+     * Constructor, see {@link #getInstance()}.
+     */
+    private ScanWatchdog() {
+    }
+
+    /**
+     * The watchdog shared by all scans.
+     *
+     * @return the instance.
+     */
+    public static ScanWatchdog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts watching a thread. The watch must be closed, normally in a finally block.
+     *
+     * @param thread the thread to interrupt on timeout.
+     * @param timeout the timeout in ms between touches.
+     * @return the watch.
+     */
+    public Watch watch(Thread thread, long timeout) {
+        Watch watch = new Watch(thread, TimeUnit.MILLISECONDS.toNanos(timeout));
+        if (thread == Thread.currentThread()) {
+            watch.outer = CURRENT.get();
+            CURRENT.set(watch);
+        }
+        synchronized (wheel) {
+            tracked++;
+            schedule(watch, watch.lastTouched + watch.timeout);
+            if (wheelThread == null) {
+                wheelThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        turn();
+                    }
+                }, "BFA scan watchdog");
+                wheelThread.setDaemon(true);
+                wheelThread.start();
+            }
+            wheel.notifyAll();
+        }
+        return watch;
+    }
+
+    /**
+     * Suspends the watch of the current thread, if it has one, until {@link Watch#resume()}. An interrupt of the
+     * watchdog that is still pending is cleared, so that an interrupt while suspended is not from the watchdog.
+     *
+     * @return the suspended watch, or null if the current thread is not watched.
+     */
+    public static Watch suspendCurrent() {
+        Watch watch = CURRENT.get();
+        if (watch != null) {
+            watch.suspend();
+        }
+        return watch;
+    }
+
+    /**
+     * The number of scans currently being watched.
+     *
+     * @return the number of open watches.
+     */
+    public int getTrackedScanCount() {
+        synchronized (wheel) {
+            return tracked;
+        }
+    }
+
+    /**
+     * Converts a {@link System#nanoTime()} value to a tick of the wheel.
+     *
+     * @param nanos the time.
+     * @return the tick.
+     */
+    private long toTick(long nanos) {
+        return (nanos - startNanos) / tickNanos;
+    }
+
+    /**
+     * Links a watch into the bucket of a deadline. Must hold the wheel lock.
+     *
+     * @param watch the watch.
+     * @param deadline the deadline in {@link System#nanoTime()} terms.
+     */
+    private void schedule(Watch watch, long deadline) {
+        long tick = Math.max(toTick(deadline), processedTick + 1);
+        int bucket = (int)(tick & (WHEEL_SIZE - 1));
+        watch.bucket = bucket;
+        watch.previous = null;
+        watch.next = wheel[bucket];
+        if (watch.next != null) {
+            watch.next.previous = watch;
+        }
+        wheel[bucket] = watch;
+    }
+
+    /**
+     * Unlinks a watch from its bucket. Must hold the wheel lock.
+     *
+     * @param watch the watch.
+     */
+    private void unlink(Watch watch) {
+        if (watch.previous == null) {
+            wheel[watch.bucket] = watch.next;
+        } else {
+            watch.previous.next = watch.next;
+        }
+        if (watch.next != null) {
+            watch.next.previous = watch.previous;
+        }
+        watch.previous = null;
+        watch.next = null;
+    }
+
+    /**
+     * The loop of the wheel thread; sleeps while nothing is watched.
+     */
+    private void turn() {
+        synchronized (wheel) {
+            processedTick = toTick(System.nanoTime());
+            while (true) {
+                try {
+                    if (tracked == 0) {
+                        wheel.wait();
+                        processedTick = toTick(System.nanoTime());
+                        continue;
+                    }
+                    wheel.wait(TICK_MILLIS);
+                    long now = System.nanoTime();
+                    long currentTick = toTick(now);
+                    // Process every bucket passed since last time, but each bucket at most once.
+                    long from = Math.max(processedTick + 1, currentTick - WHEEL_SIZE + 1);
+                    processedTick = currentTick;
+                    for (long tick = from; tick <= currentTick; tick++) {
+                        expire((int)(tick & (WHEEL_SIZE - 1)), now);
+                    }
+                } catch (InterruptedException e) {
+                    logger.log(Level.FINE, "Scan watchdog interrupted, ignoring", e);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Unexpected failure in the scan watchdog", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the watches of one bucket, interrupting the overdue ones and rescheduling the rest.
+     * Must hold the wheel lock.
+     *
+     * @param bucket the bucket.
+     * @param now the current time.
+     */
+    private void expire(int bucket, long now) {
+        Watch watch = wheel[bucket];
+        wheel[bucket] = null;
+        while (watch != null) {
+            Watch next = watch.next;
+            watch.previous = null;
+            watch.next = null;
+            long deadline = watch.lastTouched + watch.timeout;
+            if (watch.suspended > 0) {
+                deadline = now + watch.timeout;
+            } else if (now - deadline >= 0) {
+                watch.interrupted = true;
+                watch.thread.interrupt();
+                deadline = now + TimeUnit.MILLISECONDS.toNanos(REINTERRUPT_MILLIS);
+            }
+            schedule(watch, deadline);
+            watch = next;
+        }
+    }
+
+    /**
+     * The registration of one scanning thread with the watchdog.
+     */
+    public final class Watch {
+        private final Thread thread;
+        private final long timeout;
+        private volatile long lastTouched = System.nanoTime();
+        private boolean closed;
+        private int suspended;
+        private volatile boolean interrupted;
+        private Watch outer;
+        private int bucket;
+        private Watch previous;
+        private Watch next;
+
+        /**
+         * Constructor.
+         *
+         * @param thread the thread to interrupt.
+         * @param timeout the timeout in ns.
+         */
+        private Watch(Thread thread, long timeout) {
+            this.thread = thread;
+            this.timeout = timeout;
+        }
+
+        /**
+         * Touch, i.e. reset countdown timer. Once the thread has taken an interrupt of the watchdog, a later
+         * interrupt is not from the watchdog, and is no longer cleared by {@link #suspend()}.
+         */
+        public void touch() {
+            lastTouched = System.nanoTime();
+            if (interrupted) {
+                synchronized (wheel) {
+                    if (!thread.isInterrupted()) {
+                        interrupted = false;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stops interrupting the thread until {@link #resume()}, and clears an interrupt of the watchdog that is
+         * still pending. Must be called by the watched thread.
+         */
+        private void suspend() {
+            synchronized (wheel) {
+                suspended++;
+                if (interrupted) {
+                    interrupted = false;
+                    if (thread.isInterrupted()) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Ends a {@link ScanWatchdog#suspendCurrent()}, counting the timeout from now.
+         */
+        public void resume() {
+            synchronized (wheel) {
+                suspended--;
+                lastTouched = System.nanoTime();
+            }
+        }
+
+        /**
+         * Stops watching. The thread is not interrupted after this returns, but an interrupt made just before
+         * may still be pending; the caller should clear it with {@link Thread#interrupted()}.
+         */
+        public void close() {
+            synchronized (wheel) {
+                if (!closed) {
+                    closed = true;
+                    unlink(this);
+                    tracked--;
+                }
+            }
+            if (CURRENT.get() == this) {
+                if (outer == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(outer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A log that is read once, by one thread, and shared by the scans that need it, e.g. a compressed log that would
+ * otherwise be inflated by the single-line scan and again by the multi-line scan. The thread reads the log into a
+ * ring of chunks that the scans read from at their own pace; it waits while the slowest scan still needs the oldest
+ * chunk, so only the ring is held in memory whatever the size of the log.
+ *
+ * The number of scans is given up front. A scan that has not started when the ring is full and a started scan is
+ * waiting for more of the log is left behind, so that the started scans do not wait for a scan that may be queued
+ * behind them; {@link #openStream()} then returns null and that scan reads the log on its own.
+ *
+ * A scan waiting for the log suspends its {@link ScanWatchdog} watch, so that a scan held up by a slower one is not
+ * timed out.
+ */
+public final class SharedLogStream {
+
+    /**
+     * The size of a chunk of the ring.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The number of chunks of the ring.
+     */
+    static final int RING_CHUNKS = 32;
+
+    private static final Logger logger = Logger.getLogger(SharedLogStream.class.getName());
+
+    private final InputStream source;
+    private final int chunkSize;
+    private final byte[][] chunks;
+    private final int[] lengths;
+    private final List<ChunkStream> open = new ArrayList<ChunkStream>();
+    private final Lock lock = new ReentrantLock();
+    /**
+     * Signalled to the scans when a chunk is published, or the log ends, fails or is closed.
+     */
+    private final Condition published = lock.newCondition();
+    /**
+     * Signalled to the reading thread when a scan is done with a chunk, opens, closes or starts waiting.
+     */
+    private final Condition released = lock.newCondition();
+    private int unopened;
+    private int waiting;
+    private long produced;
+    private boolean eof;
+    private boolean leftBehind;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Constructor with the default ring.
+     *
+     * @param source the log, closed when it has been read.
+     * @param readers the number of scans that will read the log.
+     */
+    public SharedLogStream(InputStream source, int readers) {
+        this(source, readers, CHUNK_SIZE, RING_CHUNKS);
+    }
+
+    /**
+     * Standard constructor.
+     *
+     * @param source the log, closed when it has been read.
+     * @param readers the number of scans that will read the log.
+     * @param chunkSize the size of a chunk.
+     * @param ringChunks the number of chunks.
+     */
+    SharedLogStream(InputStream source, int readers, int chunkSize, int ringChunks) {
+        this.source = source;
+        this.unopened = readers;
+        this.chunkSize = chunkSize;
+        this.chunks = new byte[ringChunks][];
+        this.lengths = new int[ringChunks];
+    }
+
+    /**
+     * Starts reading the log.
+     *
+     * @param executor the executor to read the log on, which must not wait for the scans.
+     */
+    public void start(Executor executor) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                pump();
+            }
+        });
+    }
+
+    /**
+     * Opens the log for one of the scans.
+     *
+     * @return the log from its start, or null if the scan was left behind and should read the log on its own.
+     */
+    public InputStream openStream() {
+        lock.lock();
+        try {
+            if (leftBehind || closed || unopened == 0) {
+                return null;
+            }
+            unopened--;
+            ChunkStream stream = new ChunkStream();
+            open.add(stream);
+            released.signal();
+            return stream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops reading the log, e.g. when the scans were cancelled before they opened it. The scans that are still
+     * reading get an exception.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            published.signalAll();
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the log into the ring until it ends, it fails or no scan needs more of it.
+     */
+    void pump() {
+        try {
+            while (true) {
+                byte[] chunk;
+                lock.lock();
+                try {
+                    while (!mayProduce()) {
+                        if (closed || (open.isEmpty() && unopened == 0)) {
+                            return;
+                        }
+                        released.await();
+                    }
+                    int slot = (int)(produced % chunks.length);
+                    if (chunks[slot] == null) {
+                        chunks[slot] = new byte[chunkSize];
+                    }
+                    chunk = chunks[slot];
+                } finally {
+                    lock.unlock();
+                }
+                // The slot is not read by any scan until it is published below.
+                int length = fill(chunk);
+                lock.lock();
+                try {
+                    if (length > 0) {
+                        lengths[(int)(produced % chunks.length)] = length;
+                        produced++;
+                    }
+                    if (length < chunkSize) {
+                        eof = true;
+                    }
+                    published.signalAll();
+                    if (eof) {
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new InterruptedIOException("Interrupted while reading the log"));
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                source.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close the log. ", e);
+            }
+        }
+    }
+
+    /**
+     * Whether the next chunk can be read into the ring, leaving the scans that have not started behind if a started
+     * scan is waiting for it. Called with the lock held.
+     *
+     * @return true if the slot of the next chunk is free.
+     */
+    private boolean mayProduce() {
+        if (closed || (open.isEmpty() && unopened == 0)) {
+            return false;
+        }
+        if (produced < chunks.length) {
+            return true;
+        }
+        long overwritten = produced - chunks.length;
+        for (ChunkStream stream : open) {
+            if (stream.chunk <= overwritten) {
+                return false;
+            }
+        }
+        if (unopened > 0) {
+            if (waiting == 0) {
+                return false;
+            }
+            unopened = 0;
+            leftBehind = true;
+        }
+        return true;
+    }
+
+    /**
+     * Reads a chunk from the source.
+     *
+     * @param chunk the chunk to fill.
+     * @return the number of bytes read, less than the size of the chunk at the end of the log.
+     * @throws IOException if the source could not be read.
+     */
+    private int fill(byte[] chunk) throws IOException {
+        int length = 0;
+        while (length < chunk.length) {
+            int read = source.read(chunk, length, chunk.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * Records that the log could not be read.
+     *
+     * @param e the exception.
+     */
+    private void fail(IOException e) {
+        lock.lock();
+        try {
+            failure = e;
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The log as read by one scan.
+     */
+    private final class ChunkStream extends InputStream {
+        private long chunk;
+        private int offset;
+        private boolean streamClosed;
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            if (read(b, 0, 1) < 0) {
+                return -1;
+            }
+            return Byte.toUnsignedInt(b[0]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                while (true) {
+                    if (streamClosed || closed) {
+                        throw new IOException("The log is closed");
+                    }
+                    if (chunk < produced) {
+                        int slot = (int)(chunk % chunks.length);
+                        int read = Math.min(len, lengths[slot] - offset);
+                        System.arraycopy(chunks[slot], offset, b, off, read);
+                        offset += read;
+                        if (offset == lengths[slot]) {
+                            chunk++;
+                            offset = 0;
+                            released.signal();
+                        }
+                        return read;
+                    }
+                    if (failure != null) {
+                        throw new IOException("Failed to read the log", failure);
+                    }
+                    if (eof) {
+                        return -1;
+                    }
+                    waiting++;
+                    released.signal();
+                    // Waiting for a slower scan is not a stuck regular expression, the watchdog must not interrupt it.
+                    ScanWatchdog.Watch watch = ScanWatchdog.suspendCurrent();
+                    try {
+                        published.await();
+                    } catch (InterruptedException e) {
+                        // Not from the watchdog, e.g. the scan was cancelled.
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for the log");
+                    } finally {
+                        waiting--;
+                        if (watch != null) {
+                            watch.resume();
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!streamClosed) {
+                    streamClosed = true;
+                    open.remove(this);
+                    released.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
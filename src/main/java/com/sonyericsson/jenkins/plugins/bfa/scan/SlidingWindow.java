@@ -0,0 +1,231 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * A window sliding over a log, backed by one reusable {@link CharBuffer} that is compacted in place between rounds,
+ * so that the chars of the log are copied once and never turned into strings just to be searched.
+ *
+ * Each round reads up to the window size of new chars. Only the chars that some {@link WindowSearch} still needs,
+ * because a match may have started in them, are kept for the next round, and never more than the maximum match
+ * span. The window is interruptible like
+ * {@link com.sonyericsson.jenkins.plugins.bfa.model.FailureReader.InterruptibleCharSequence}.
+ */
+public final class SlidingWindow implements CharSequence {
+
+    /**
+     * The default number of new chars read each round.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 10000;
+
+    /**
+     * The default maximum length of a match spanning two rounds.
+     */
+    public static final int DEFAULT_MAX_MATCH_SPAN = 5000;
+
+    private final Reader reader;
+    private final int windowSize;
+    private final int maxMatchSpan;
+    private final CharBuffer buffer;
+    private final char[] chars;
+    private int length;
+    private long offset;
+    private long retainFrom;
+    private boolean endOfInput;
+    private int linesBefore;
+    private char lastDiscarded;
+
+    /**
+     * Standard constructor.
+     *
+     * @param reader the log.
+     * @param windowSize the number of new chars to read each round.
+     * @param maxMatchSpan the maximum number of chars kept for a match that may continue in the next round.
+     */
+    public SlidingWindow(Reader reader, int windowSize, int maxMatchSpan) {
+        this.reader = reader;
+        this.windowSize = windowSize;
+        // One extra char so that a kept match still sees the char before it, for ^ and look-behinds.
+        this.maxMatchSpan = maxMatchSpan + 1;
+        this.buffer = CharBuffer.allocate(windowSize + this.maxMatchSpan);
+        this.chars = buffer.array();
+    }
+
+    /**
+     * Moves the window, dropping the chars no longer retained and reading new ones.
+     *
+     * @return false if the whole log has already been searched.
+     * @throws IOException if the log could not be read.
+     */
+    public boolean next() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        int keep = (int)Math.max(0, Math.min(length, offset + length - retainFrom));
+        keep = Math.min(keep, maxMatchSpan);
+        discard(length - keep);
+        int end = length + windowSize;
+        int position = length;
+        while (position < end) {
+            int read = reader.read(chars, position, end - position);
+            if (read < 0) {
+                endOfInput = true;
+                break;
+            }
+            position += read;
+        }
+        boolean moved = position > length;
+        length = position;
+        retainFrom = offset + length;
+        // Finding the end is news too, to a search waiting for more input.
+        return moved || length > 0;
+    }
+
+    /**
+     * Drops chars from the start of the window, keeping track of the lines in them.
+     *
+     * @param count the number of chars to drop.
+     */
+    private void discard(int count) {
+        if (count <= 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (isLineBreak(i)) {
+                linesBefore++;
+            }
+        }
+        lastDiscarded = chars[count - 1];
+        buffer.position(count);
+        buffer.limit(length);
+        buffer.compact();
+        offset += count;
+        length -= count;
+    }
+
+    /**
+     * Checks if a line ends at an index, counting "\r\n" once like {@link java.io.LineNumberReader}.
+     *
+     * @param index the index.
+     * @return true if the char at the index ends a line.
+     */
+    private boolean isLineBreak(int index) {
+        char c = chars[index];
+        if (c == '\r') {
+            return true;
+        }
+        if (c != '\n') {
+            return false;
+        }
+        char previous;
+        if (index == 0) {
+            previous = lastDiscarded;
+        } else {
+            previous = chars[index - 1];
+        }
+        return previous != '\r';
+    }
+
+    /**
+     * Keeps the chars from a position in the log for the next round, unless further back than the maximum match
+     * span.
+     *
+     * @param position the position in the log, as returned by {@link #getOffset()} plus an index.
+     */
+    public void retain(long position) {
+        // The char before is needed too, for ^ and look-behinds.
+        retainFrom = Math.min(retainFrom, position - 1);
+    }
+
+    /**
+     * The position in the log of the first char of the window.
+     *
+     * @return the offset.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * The maximum length of a match spanning two rounds.
+     *
+     * @return the maximum match span.
+     */
+    public int getMaxMatchSpan() {
+        return maxMatchSpan - 1;
+    }
+
+    /**
+     * If the whole log has been read into the window.
+     *
+     * @return true if there is nothing more to read.
+     */
+    public boolean isEndOfInput() {
+        return endOfInput;
+    }
+
+    /**
+     * The line number, starting at 1, of the char at an index.
+     *
+     * @param index the index.
+     * @return the line number.
+     */
+    public int getLineNumber(int index) {
+        int lines = linesBefore;
+        for (int i = 0; i < index; i++) {
+            if (isLineBreak(i)) {
+                lines++;
+            }
+        }
+        return lines + 1;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (Thread.interrupted()) { // clears flag if set
+            throw new RuntimeException(new InterruptedException());
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import hudson.console.ConsoleNote;
+
+import java.util.Arrays;
+
+/**
+ * The visible text of a log line: the line without console notes and ANSI escape sequences, which is what the
+ * single-line indications are matched against. The text is extracted in one pass into a buffer that is reused for
+ * the next line, so it is only valid until then; a line without escape characters is used as it is. The line may be
+ * any char sequence, e.g. a view of the buffer of a line source, and is not copied unless it has escape characters.
+ *
+ * The positions of the text can be mapped back to the line with {@link #getRawIndex(int)}.
+ *
+ * An escape sequence that is not complete, e.g. a console note without an end, is part of the visible text.
+ */
+public final class VisibleText implements CharSequence {
+
+    /**
+     * The escape character that starts console notes and ANSI escape sequences.
+     */
+    static final char ESCAPE = '\u001B';
+
+    private static final char CSI = '[';
+    private static final char OSC = ']';
+    private static final char DCS = 'P';
+    private static final char SOS = 'X';
+    private static final char PM = '^';
+    private static final char APC = '_';
+    private static final char STRING_TERMINATOR = '\\';
+    private static final char BELL = '\u0007';
+    private static final char PARAMETER_FIRST = '0';
+    private static final char PARAMETER_LAST = '?';
+    private static final char INTERMEDIATE_FIRST = ' ';
+    private static final char INTERMEDIATE_LAST = '/';
+    private static final char FINAL_FIRST = '@';
+    private static final char FINAL_LAST = '~';
+
+    private CharSequence line;
+    private char[] chars = new char[0];
+    private int length;
+    private boolean stripped;
+    private int[] visibleStarts = new int[0];
+    private int[] rawStarts = new int[0];
+    private int segmentCount;
+
+    /**
+     * Extracts the visible text of a line.
+     *
+     * @param rawLine the line.
+     * @return the visible text: the line itself if it has no escape characters, else this.
+     */
+    public CharSequence reset(CharSequence rawLine) {
+        line = rawLine;
+        segmentCount = 0;
+        int escape = indexOf(rawLine, ESCAPE, 0);
+        if (escape < 0) {
+            stripped = false;
+            length = rawLine.length();
+            return rawLine;
+        }
+        stripped = true;
+        length = 0;
+        if (chars.length < rawLine.length()) {
+            chars = new char[Math.max(rawLine.length(), chars.length * 2)];
+        }
+        int visibleStart = 0;
+        while (escape >= 0) {
+            int end = skipSequence(rawLine, escape);
+            if (end == escape) {
+                escape = indexOf(rawLine, ESCAPE, escape + 1);
+                continue;
+            }
+            append(visibleStart, escape);
+            visibleStart = end;
+            escape = indexOf(rawLine, ESCAPE, end);
+        }
+        append(visibleStart, rawLine.length());
+        return this;
+    }
+
+    /**
+     * Whether some bytes of a line contain the escape character, in an ASCII compatible charset.
+     *
+     * @param bytes the bytes of the line.
+     * @return true if there is an escape character.
+     */
+    static boolean hasEscape(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b == ESCAPE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies a part of the line to the end of the visible text.
+     *
+     * @param start the start of the part in the line.
+     * @param end the end of the part in the line, exclusive.
+     */
+    private void append(int start, int end) {
+        if (start == end) {
+            return;
+        }
+        if (segmentCount == visibleStarts.length) {
+            int capacity = Math.max(2, segmentCount * 2);
+            visibleStarts = Arrays.copyOf(visibleStarts, capacity);
+            rawStarts = Arrays.copyOf(rawStarts, capacity);
+        }
+        visibleStarts[segmentCount] = length;
+        rawStarts[segmentCount] = start;
+        segmentCount++;
+        for (int i = start; i < end; i++) {
+            chars[length++] = line.charAt(i);
+        }
+    }
+
+    /**
+     * Finds a character in a line, like {@link String#indexOf(int, int)}.
+     *
+     * @param text the line.
+     * @param c the character.
+     * @param from the position to start at.
+     * @return the position of the character, or -1 if it is not there.
+     */
+    private static int indexOf(CharSequence text, char c, int from) {
+        if (text instanceof String) {
+            return ((String)text).indexOf(c, from);
+        }
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a string in a line, like {@link String#indexOf(String, int)}.
+     *
+     * @param text the line.
+     * @param str the string.
+     * @param from the position to start at.
+     * @return the position of the string, or -1 if it is not there.
+     */
+    private static int indexOf(CharSequence text, String str, int from) {
+        for (int i = from; i + str.length() <= text.length(); i++) {
+            if (startsWith(text, str, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a string is at a position of a line, like {@link String#startsWith(String, int)}.
+     *
+     * @param text the line.
+     * @param str the string.
+     * @param position the position.
+     * @return true if the string is there.
+     */
+    private static boolean startsWith(CharSequence text, String str, int position) {
+        if (position + str.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            if (text.charAt(position + i) != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the end of the escape sequence at a position of a line.
+     *
+     * @param text the line.
+     * @param start the position of the escape character.
+     * @return the position after the sequence, or start if it is not a complete sequence.
+     */
+    private static int skipSequence(CharSequence text, int start) {
+        if (startsWith(text, ConsoleNote.PREAMBLE_STR, start)) {
+            int end = indexOf(text, ConsoleNote.POSTAMBLE_STR, start + ConsoleNote.PREAMBLE_STR.length());
+            if (end >= 0) {
+                return end + ConsoleNote.POSTAMBLE_STR.length();
+            }
+            // Like ConsoleNote.removeNotes, a note without an end is kept, though its conceal sequence is not.
+        }
+        int position = start + 1;
+        if (position == text.length()) {
+            return start;
+        }
+        char c = text.charAt(position++);
+        if (c == CSI) {
+            while (position < text.length() && isBetween(text.charAt(position), PARAMETER_FIRST, PARAMETER_LAST)) {
+                position++;
+            }
+            while (position < text.length()
+                    && isBetween(text.charAt(position), INTERMEDIATE_FIRST, INTERMEDIATE_LAST)) {
+                position++;
+            }
+            if (position < text.length() && isBetween(text.charAt(position), FINAL_FIRST, FINAL_LAST)) {
+                return position + 1;
+            }
+            return start;
+        }
+        if (c == OSC || c == DCS || c == SOS || c == PM || c == APC) {
+            for (; position < text.length(); position++) {
+                char s = text.charAt(position);
+                if (s == BELL) {
+                    return position + 1;
+                }
+                if (s == ESCAPE && position + 1 < text.length() && text.charAt(position + 1) == STRING_TERMINATOR) {
+                    return position + 2;
+                }
+            }
+            return start;
+        }
+        if (isBetween(c, FINAL_FIRST, FINAL_LAST)) {
+            return position;
+        }
+        return start;
+    }
+
+    /**
+     * Whether a character is in a range.
+     *
+     * @param c the character.
+     * @param first the first character of the range.
+     * @param last the last character of the range.
+     * @return true if first &lt;= c &lt;= last.
+     */
+    private static boolean isBetween(char c, char first, char last) {
+        return c >= first && c <= last;
+    }
+
+    /**
+     * Maps a position of the visible text to the line it was extracted from.
+     *
+     * @param index a position of the visible text, or its length.
+     * @return the position of the same character in the line, or the length of the line for the length.
+     */
+    public int getRawIndex(int index) {
+        if (!stripped) {
+            return index;
+        }
+        if (index == length) {
+            return line.length();
+        }
+        int low = 0;
+        int high = segmentCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (visibleStarts[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return rawStarts[low] + index - visibleStarts[low];
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (!stripped) {
+            return line.charAt(index);
+        }
+        if (index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (!stripped) {
+            return line.subSequence(start, end);
+        }
+        if (start < 0 || start > end || end > length) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (!stripped) {
+            return line.toString();
+        }
+        return new String(chars, 0, length);
+    }
+}
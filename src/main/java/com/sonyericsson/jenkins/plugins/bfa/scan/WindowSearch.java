@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A search for one pattern through the rounds of a {@link SlidingWindow}, resuming each round where the last one
+ * left off instead of searching an overlap again.
+ *
+ * A round that ends inside a possible match ({@link Matcher#hitEnd()}), or in a match that more input could change
+ * ({@link Matcher#requireEnd()}), makes the window keep the chars the match may have started in, up to the maximum
+ * match span. Otherwise nothing already searched is searched again.
+ */
+public final class WindowSearch {
+
+    private final Pattern pattern;
+    private Matcher matcher;
+    private long resumeFrom;
+
+    /**
+     * Standard constructor.
+     *
+     * @param pattern the pattern to search for.
+     */
+    public WindowSearch(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * The pattern searched for.
+     *
+     * @return the pattern.
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * The position in the log the next round is searched from.
+     *
+     * @return the position.
+     */
+    public long getResumeFrom() {
+        return resumeFrom;
+    }
+
+    /**
+     * Searches the part of the window not already searched. May be called from another thread than the last round,
+     * but not by two threads at once.
+     *
+     * @param window the window, moved since the last round.
+     * @return the matcher positioned on the match if found, null if not found yet.
+     */
+    public Matcher find(SlidingWindow window) {
+        if (matcher == null) {
+            matcher = pattern.matcher(window);
+            // See the chars before the searched region, for ^ and look-behinds, but not as the start of the input.
+            matcher.useTransparentBounds(true);
+            matcher.useAnchoringBounds(false);
+        }
+        int from = (int)Math.max(0, resumeFrom - window.getOffset());
+        matcher.reset();
+        matcher.region(from, window.length());
+        if (matcher.find()) {
+            if (matcher.requireEnd() && !window.isEndOfInput()) {
+                resumeFrom = window.getOffset() + matcher.start();
+                return null;
+            }
+            return matcher;
+        }
+        long end = window.getOffset() + window.length();
+        if (matcher.hitEnd() && !window.isEndOfInput()) {
+            resumeFrom = Math.max(window.getOffset() + from, end - window.getMaxMatchSpan());
+        } else {
+            resumeFrom = end;
+        }
+        return null;
+    }
+}
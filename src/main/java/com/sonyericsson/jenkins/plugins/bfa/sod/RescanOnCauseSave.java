@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.sod;
+
+import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseBuildAction;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queues delta scans of the recent builds where no cause was found, when a cause is added or changed, so that they
+ * get the new cause without anyone asking for it.
+ *
+ * @see ScanOnDemandTask#ScanOnDemandTask(Run, boolean)
+ */
+public final class RescanOnCauseSave {
+
+    private static final Logger logger = Logger.getLogger(RescanOnCauseSave.class.getName());
+
+    /**
+     * Utility class.
+     */
+    private RescanOnCauseSave() {
+    }
+
+    /**
+     * Looks for the builds to scan in the background, if enabled.
+     *
+     * @param cause the added or changed cause.
+     * @see PluginImpl#isRescanOnCauseSaveEnabled()
+     */
+    public static void causeSaved(final FailureCause cause) {
+        final PluginImpl plugin = PluginImpl.getInstance();
+        if (!plugin.isRescanOnCauseSaveEnabled() || cause.getId() == null) {
+            return;
+        }
+        final long since = System.currentTimeMillis()
+                - TimeUnit.DAYS.toMillis(plugin.getRescanOnCauseSaveDays());
+        Timer.get().submit(new Runnable() {
+            @Override
+            public void run() {
+                try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                    int queued = queueRecentBuilds(cause, since);
+                    logger.log(Level.FINE, "Queued {0} recent builds to scan for {1}",
+                            new Object[]{queued, cause.getName()});
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Could not queue recent builds to scan for " + cause.getName(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues delta scans of the builds started after a point in time, where no cause was found and that have not
+     * been scanned for the cause as it is now.
+     *
+     * @param cause the added or changed cause.
+     * @param since the earliest start time of a build to scan, in ms.
+     * @return the number of builds queued.
+     */
+    static int queueRecentBuilds(FailureCause cause, long since) {
+        List<FailureCause> saved = Collections.singletonList(cause);
+        int queued = 0;
+        for (Job<?, ?> job : Jenkins.get().getAllItems(Job.class)) {
+            // Newest first, so the builds that are too old are never loaded.
+            for (Run<?, ?> run : job.getBuilds()) {
+                if (run.getTimeInMillis() < since) {
+                    break;
+                }
+                if (run.isBuilding()) {
+                    continue;
+                }
+                FailureCauseBuildAction action = run.getAction(FailureCauseBuildAction.class);
+                if (action != null
+                        && action.getFoundFailureCauses().isEmpty()
+                        && !action.getChangedCauses(saved).isEmpty()) {
+                    ScanOnDemandQueue.queue(new ScanOnDemandTask(run, true));
+                    queued++;
+                }
+            }
+        }
+        return queued;
+    }
+}
@@ -25,6 +25,7 @@ package com.sonyericsson.jenkins.plugins.bfa.sod;
 
 import com.sonyericsson.jenkins.plugins.bfa.Messages;
 import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseBuildAction;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseMatrixBuildAction;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
@@ -54,8 +55,12 @@ import org.kohsuke.stapler.StaplerResponse;
 
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static com.sonyericsson.jenkins.plugins.bfa.sod.ScanOnDemandBaseAction.ScanMode.BFA_SOD_BUILD_TYPE;
 import static org.apache.commons.lang.StringUtils.isBlank;
@@ -464,4 +469,93 @@ public class ScanOnDemandBaseAction implements Action {
             };
         }
     }
+
+    /**
+     * ScanMode that re-scans already scanned builds only for the causes that have been added to the knowledge base,
+     * or had their indications changed, since they were scanned. What is found is merged into the earlier result.
+     */
+    @Extension
+    @Restricted(NoExternalUse.class)
+    public static class ChangedCauses extends ScanMode {
+
+        private static final Logger logger = Logger.getLogger(ChangedCauses.class.getName());
+
+        @NonNull
+        @Override
+        public String getUrlName() {
+            return "changed";
+        }
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.ScanOnDemandBaseAction_ChangedCauses_DisplayName();
+        }
+
+        @NonNull
+        @Override
+        Iterator<Run> getRuns(Job job) {
+            final Collection<FailureCause> causes;
+            try {
+                causes = PluginImpl.getInstance().getKnowledgeBase().getCauses();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Could not get the causes from the knowledge base", e);
+                return Collections.<Run>emptyIterator();
+            }
+            return new Iterators.FilterIterator<Run>(job.getBuilds().iterator()) {
+                @Override
+                protected boolean filter(Run run) {
+                    final Result result = run.getResult();
+                    return result != null
+                            && PluginImpl.needToAnalyze(result)
+                            && hasChangedCauses(run, causes);
+                }
+            };
+        }
+
+        /**
+         * Checks if a build has been scanned, or has matrix runs that have been scanned, before some of the causes
+         * were added or changed.
+         *
+         * @param run the build.
+         * @param causes the causes of the knowledge base.
+         * @return true if so.
+         */
+        private static boolean hasChangedCauses(Run run, Collection<FailureCause> causes) {
+            FailureCauseBuildAction action = run.getAction(FailureCauseBuildAction.class);
+            if (action != null) {
+                return !action.getChangedCauses(causes).isEmpty();
+            }
+            if (run instanceof MatrixBuild && run.getAction(FailureCauseMatrixBuildAction.class) != null) {
+                for (MatrixRun matrixRun : ((MatrixBuild)run).getRuns()) {
+                    if (matrixRun.getNumber() == run.getNumber() && hasChangedCauses(matrixRun, causes)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Queues a delta scan of the matching builds, keeping what they have already been found to have.
+         *
+         * @param action the action we have as an ancestor
+         * @param request  StaplerRequest
+         * @param response StaplerResponse
+         * @throws ServletException if something unfortunate happens.
+         * @throws IOException if something unfortunate happens.
+         * @throws InterruptedException if something unfortunate happens.
+         */
+        @Override
+        public void doPerformScan(@AncestorInPath ScanOnDemandBaseAction action,
+                                  StaplerRequest request, StaplerResponse response)
+                throws ServletException, IOException, InterruptedException {
+            action.checkPermission();
+            Iterator<Run> runIterator = getRuns(action.getProject());
+            while (runIterator.hasNext()) {
+                ScanOnDemandQueue.queue(new ScanOnDemandTask(runIterator.next(), true));
+            }
+            response.sendRedirect2(Functions.joinPath("/", request.getContextPath(), getParent().getProject().getUrl()));
+        }
+    }
 }
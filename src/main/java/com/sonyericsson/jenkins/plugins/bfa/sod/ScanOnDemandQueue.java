@@ -24,6 +24,8 @@
 package com.sonyericsson.jenkins.plugins.bfa.sod;
 
 import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
+import com.sonyericsson.jenkins.plugins.bfa.utils.VirtualThreads;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -32,7 +34,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * A thread-pool and queue implementation for queueing builds for scanning.
+ * A thread-pool and queue implementation for queueing builds for scanning. The scans of the log are run by the
+ * {@link com.sonyericsson.jenkins.plugins.bfa.scan.ScanScheduler}, after the scans of builds that have just
+ * completed.
+ *
+ * When virtual threads are used, each task runs on its own virtual thread as soon as it is queued, so tasks that wait
+ * for the knowledge base do not hold back the others; the scans themselves still wait for the scan workers.
  *
  * @author Shemeer Sulaiman &lt;shemeer.x.sulaiman@sonymobile.com&gt;
  */
@@ -40,7 +47,7 @@ public final class ScanOnDemandQueue {
 
     private static final Logger logger = LoggerFactory.getLogger(ScanOnDemandQueue.class);
     private static ScanOnDemandQueue instance;
-    private ThreadPoolExecutor executor = null;
+    private ExecutorService executor = null;
     /**
      * Private Default constructor.
      */
@@ -61,13 +68,13 @@ public final class ScanOnDemandQueue {
     }
 
     /**
-     * Returns the current queue size.
+     * Returns the current queue size, which is always 0 when virtual threads are used.
      *
      * @return the queue size,
      */
     public static int getQueueSize() {
-        if (instance != null && instance.executor != null) {
-            return instance.executor.getQueue().size();
+        if (instance != null && instance.executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor)instance.executor).getQueue().size();
         } else {
             return 0;
         }
@@ -88,22 +95,32 @@ public final class ScanOnDemandQueue {
      */
     protected void startQueue() {
         PluginImpl pluginImpl = PluginImpl.getInstance();
-        if (executor == null) {
+        if (executor == null && VirtualThreads.isEnabled()) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("BFA-sod-");
+            logger.info("SendQueue started on virtual threads!");
+        }
+        if (executor != null && !(executor instanceof ThreadPoolExecutor)) {
+            // Virtual threads are not pooled, so there is no pool size to update.
+            return;
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor)executor;
+        if (pool == null) {
             logger.debug("Starting the sending thread pool.");
-            executor = new ThreadPoolExecutor(
+            pool = new ThreadPoolExecutor(
                     pluginImpl.getSodVariables().getMinimumSodWorkerThreads(),
                     pluginImpl.getSodVariables().getMinimumSodWorkerThreads(),
                     pluginImpl.getSodVariables().getSodThreadKeepAliveTime(), TimeUnit.MINUTES,
                     new LinkedBlockingQueue<>());
-            executor.allowCoreThreadTimeOut(true);
-            executor.prestartCoreThread();
-            logger.info("SendQueue started! Current pool size: {}", executor.getPoolSize());
+            pool.allowCoreThreadTimeOut(true);
+            pool.prestartCoreThread();
+            executor = pool;
+            logger.info("SendQueue started! Current pool size: {}", pool.getPoolSize());
         }
-        executor.setMaximumPoolSize(pluginImpl.getSodVariables().getMaximumSodWorkerThreads());
-        executor.setCorePoolSize(pluginImpl.getSodVariables().getSodCorePoolNumberOfThreads());
+        pool.setMaximumPoolSize(pluginImpl.getSodVariables().getMaximumSodWorkerThreads());
+        pool.setCorePoolSize(pluginImpl.getSodVariables().getSodCorePoolNumberOfThreads());
         logger.debug("SendQueue running. Current pool size: {}. Current Queue size: {}",
-                executor.getPoolSize(), getQueueSize());
-        logger.debug("Nr of active pool-threads: {}", executor.getActiveCount());
+                pool.getPoolSize(), getQueueSize());
+        logger.debug("Nr of active pool-threads: {}", pool.getActiveCount());
     }
 
     /**
@@ -128,7 +145,7 @@ public final class ScanOnDemandQueue {
      */
     public static void shutdown() {
         if (instance != null && instance.executor != null) {
-            ThreadPoolExecutor pool = instance.executor;
+            ExecutorService pool = instance.executor;
             pool.shutdown(); // Disable new tasks from being submitted
             try {
                 // Wait a while for existing tasks to terminate
@@ -28,6 +28,7 @@ import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseBuildAction;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseMatrixBuildAction;
 import com.sonyericsson.jenkins.plugins.bfa.BuildFailureScanner;
 import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanScheduler;
 import hudson.matrix.MatrixBuild;
 import hudson.matrix.MatrixRun;
 import hudson.model.Run;
@@ -50,6 +51,8 @@ public class ScanOnDemandTask implements Runnable {
 
     private static final Logger logger = Logger.getLogger(ScanOnDemandTask.class.getName());
     private Run build;
+    private boolean delta;
+    private ScanScheduler.Priority priority;
 
     /**
      * SODExecutor constructor.
@@ -57,13 +60,49 @@ public class ScanOnDemandTask implements Runnable {
      * @param build the build to analyze.
      */
     public ScanOnDemandTask(final Run build) {
+        this(build, false);
+    }
+
+    /**
+     * SODExecutor constructor.
+     *
+     * @param build the build to analyze.
+     * @param delta true to only scan an already scanned build for the causes that are new or changed since, false
+     *              to scan the build for all causes.
+     * @see BuildFailureScanner#rescanChanged(Run, PrintStream)
+     */
+    public ScanOnDemandTask(final Run build, final boolean delta) {
+        this(build, delta, ScanScheduler.Priority.ON_DEMAND);
+    }
+
+    /**
+     * SODExecutor constructor.
+     *
+     * @param build the build to analyze.
+     * @param delta true to only scan an already scanned build for the causes that are new or changed since, false
+     *              to scan the build for all causes.
+     * @param priority the priority of the scan among the other scans, {@link ScanScheduler.Priority#ON_DEMAND}
+     *                 unless someone is waiting for it.
+     */
+    public ScanOnDemandTask(final Run build, final boolean delta, final ScanScheduler.Priority priority) {
         this.build = build;
+        this.delta = delta;
+        this.priority = priority;
     }
 
     @Override
     public void run() {
         try {
-            if (build instanceof MatrixBuild) {
+            if (delta && build instanceof MatrixBuild
+                    && !build.getActions(FailureCauseMatrixBuildAction.class).isEmpty()) {
+                // The matrix action shows what the runs' actions have, so it is up to date with them.
+                for (MatrixRun run : ((MatrixBuild)build).getRuns()) {
+                    if (run.getNumber() == build.getNumber()
+                            && !run.getActions(FailureCauseBuildAction.class).isEmpty()) {
+                        scanBuild(run);
+                    }
+                }
+            } else if (build instanceof MatrixBuild) {
                 List<MatrixRun> runs = ((MatrixBuild)build).getRuns();
                 for (Run run : runs) {
                     if (run.getActions(FailureCauseBuildAction.class).isEmpty()
@@ -112,8 +151,14 @@ public class ScanOnDemandTask implements Runnable {
                 FileOutputStream fos = new FileOutputStream(file, true);
                 PrintStream buildLog = new PrintStream(fos, true, "UTF8")
         ) {
+            if (delta) {
+                if (BuildFailureScanner.rescanChanged(run, buildLog, priority)) {
+                    run.save();
+                }
+                return;
+            }
             PluginImpl.getInstance().getKnowledgeBase().removeBuildfailurecause(run);
-            BuildFailureScanner.scanIfNotScanned(run, buildLog);
+            BuildFailureScanner.scanIfNotScanned(run, buildLog, priority);
             run.save();
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Could not get the causes from the knowledge base", e);
@@ -28,6 +28,7 @@ import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
 import com.sonyericsson.jenkins.plugins.bfa.db.KnowledgeBase;
 import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.utils.BfaUtils;
+import com.sonyericsson.jenkins.plugins.bfa.utils.VirtualThreads;
 
 import hudson.model.AbstractBuild;
 import hudson.model.Cause;
@@ -63,12 +64,19 @@ public final class StatisticsLogger {
      * @see #getInstance()
      */
     private StatisticsLogger() {
-        queueExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable target) {
-                return new Thread(target, "BFA StatisticsLogger Queue");
-            }
-        });
+        if (VirtualThreads.isEnabled()) {
+            // Still one at a time, in the order they were queued, so the statistics of a rescanned build are saved
+            // after those of its earlier scan.
+            queueExecutor = Executors.newSingleThreadExecutor(
+                    VirtualThreads.newThreadFactory("BFA StatisticsLogger Queue "));
+        } else {
+            queueExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable target) {
+                    return new Thread(target, "BFA StatisticsLogger Queue");
+                }
+            });
+        }
     }
 
     /**
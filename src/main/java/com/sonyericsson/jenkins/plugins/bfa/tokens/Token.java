@@ -25,6 +25,7 @@ package com.sonyericsson.jenkins.plugins.bfa.tokens;
 
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseBuildAction;
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseMatrixBuildAction;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanScheduler;
 import com.sonyericsson.jenkins.plugins.bfa.sod.ScanOnDemandTask;
 import hudson.Extension;
 import hudson.FilePath;
@@ -119,7 +120,7 @@ public class Token extends DataBoundTokenMacro {
     private String evaluate(final Run<?, ?> run) {
 
         // Scan the build now.
-        new ScanOnDemandTask(run).run();
+        new ScanOnDemandTask(run, false, ScanScheduler.Priority.REQUESTED).run();
 
 
         renderer.setEscapeHtml(this.escapeHtml);
@@ -105,7 +105,12 @@ public final class OldDataConverter extends ItemListener {
     public OldDataConverter() {
         performedBuilds = Collections.synchronizedSet(new HashSet<Run>());
         actionsToConvert = Collections.synchronizedMap(new HashMap<String, List<FailureCauseMatrixBuildAction>>());
-        executor = (ScheduledThreadPoolExecutor)Executors.newScheduledThreadPool(POOL_SIZE);
+        if (VirtualThreads.isEnabled()) {
+            executor = new ScheduledThreadPoolExecutor(POOL_SIZE,
+                    VirtualThreads.newThreadFactory("BFA OldDataConverter "));
+        } else {
+            executor = (ScheduledThreadPoolExecutor)Executors.newScheduledThreadPool(POOL_SIZE);
+        }
     }
 
     /**
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.utils;
+
+import com.sonyericsson.jenkins.plugins.bfa.PluginImpl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Virtual threads, for the work of the plugin that mostly waits for the knowledge base, the log files or other
+ * servers. The plugin is built for older Java versions than the ones that have virtual threads, so they are created
+ * by reflection; when the JVM does not have them, or only as a preview feature, {@link #isSupported()} is false and
+ * the callers keep using their thread pools.
+ *
+ * Virtual threads do not limit how much work runs at the same time, so work that keeps the processors busy, like
+ * matching the indications against a log, must still be limited by the caller.
+ */
+public final class VirtualThreads {
+
+    private static final Logger logger = Logger.getLogger(VirtualThreads.class.getName());
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            // The builder is not a public class, so its methods are called through its public interfaces.
+            name = Class.forName("java.lang.Thread$Builder$OfVirtual").getMethod("name", String.class, long.class);
+            factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // Throws UnsupportedOperationException when virtual threads are a preview feature that is not enabled.
+            ofVirtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.log(Level.FINE, "Virtual threads are not supported by this JVM", e);
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    /**
+     * Utility class.
+     */
+    private VirtualThreads() {
+    }
+
+    /**
+     * If the JVM has virtual threads.
+     *
+     * @return true if supported.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * If virtual threads should be used, i.e. they are supported and turned on in the plugin configuration.
+     *
+     * @return true if virtual threads should be used.
+     * @see PluginImpl#isVirtualThreadsEnabled()
+     */
+    public static boolean isEnabled() {
+        return isSupported() && PluginImpl.getInstance().isVirtualThreadsEnabled();
+    }
+
+    /**
+     * A factory of virtual threads, which are named by a prefix and a counter.
+     *
+     * @param namePrefix the prefix of the names of the threads.
+     * @return the factory.
+     * @throws IllegalStateException if virtual threads are not supported.
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads are not supported by this JVM");
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 1L);
+            return (ThreadFactory)FACTORY.invoke(builder);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Could not create a virtual thread factory", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a virtual thread factory", e.getCause());
+        }
+    }
+
+    /**
+     * An executor that runs each task on a new virtual thread, which are named by a prefix and a counter.
+     *
+     * @param namePrefix the prefix of the names of the threads.
+     * @return the executor.
+     * @throws IllegalStateException if virtual threads are not supported.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory factory = newThreadFactory(namePrefix);
+        try {
+            return (ExecutorService)NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e.getCause());
+        }
+    }
+}
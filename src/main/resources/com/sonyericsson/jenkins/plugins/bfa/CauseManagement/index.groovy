@@ -94,6 +94,7 @@ l.layout(norefresh: true) {
                     + "background-repeat: no-repeat;",
                     href: "new",
                     alt: _("New")) { text(_("Create new")) }
+            a(style: "margin-left: 20px;", href: "scanCost") { text(_("Scan cost")) }
         }
     }
 
@@ -0,0 +1,59 @@
+package com.sonyericsson.jenkins.plugins.bfa.CauseManagement
+
+import com.sonyericsson.jenkins.plugins.bfa.CauseManagement
+import com.sonyericsson.jenkins.plugins.bfa.PluginImpl
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanCost
+
+def l = namespace(lib.LayoutTagLib)
+
+l.layout(permission: PluginImpl.UPDATE_PERMISSION) {
+  l.header(title: _("Failure Cause Management - Scan Cost"))
+
+  def management = CauseManagement.getInstance();
+
+  l.side_panel() {
+    if (!management.isUnderTest()) {
+      include(management.getOwner(), "sidepanel.jelly")
+    }
+  }
+
+  l.main_panel() {
+    h1(_("Scan Cost"))
+    p(_("description", ScanCost.WINDOW_HOURS))
+
+    def ranking = management.getScanCostRanking()
+    if (ranking.isEmpty()) {
+      p(_("Nothing has been scanned yet."))
+    } else {
+      table(cellpadding: "2", cellspacing: "0", border: "1", class: "sortable pane bigtable", width: "90%",
+              style: "width: 90%; white-space: normal", id: "scanCostTable") {
+        tr {
+          th{text(_("Cause"))}
+          th{text(_("Pattern"))}
+          th{text(_("Time (ms)"))}
+          th{text(_("Share"))}
+          th{text(_("Evaluations"))}
+          th{text(_("Per evaluation (ns)"))}
+          th{text(_("Matches"))}
+          th{text(_("Timeouts"))}
+        }
+        ranking.each{ entry ->
+          tr {
+            td{
+              a(href: entry.getCauseId()) { text(entry.getCauseName()) }
+            }
+            td{
+              code(entry.getPattern())
+            }
+            td(data: entry.getNanos()){text(entry.getMillis())}
+            td(data: entry.getNanos()){text(String.format("%.1f%%", entry.getPercentage()))}
+            td{text(entry.getEvaluations())}
+            td{text(entry.getNanosPerEvaluation())}
+            td{text(entry.getMatches())}
+            td{text(entry.getTimeouts())}
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa;
+
+import com.sonyericsson.jenkins.plugins.bfa.benchmark.SyntheticKnowledgeBase;
+import com.sonyericsson.jenkins.plugins.bfa.benchmark.SyntheticLog;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanScheduler;
+import hudson.model.Run;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//CS IGNORE VisibilityModifier FOR NEXT 100 LINES. REASON: JMH sets the parameters.
+
+/**
+ * Benchmark of finding the indications of a knowledge base in a log with {@link BuildFailureScanner}, the way a
+ * completed build is scanned, in scans per second. It runs in a Jenkins instance, for the settings and thread pools
+ * of the plugin.
+ *
+ * @see com.sonyericsson.jenkins.plugins.bfa.benchmark.BenchmarkRunner
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BuildFailureScannerBenchmark {
+
+    /**
+     * A Jenkins instance, a log and a knowledge base.
+     */
+    public static class ScannerState extends JmhBenchmarkState {
+        /** The number of lines of the log. */
+        @Param("100000")
+        public int lines;
+        /** The approximate length of a line. */
+        @Param("120")
+        public int lineLength;
+        /** The share of the lines with a console note. */
+        @Param("0.05")
+        public double noteDensity;
+        /** The number of single-line indications. */
+        @Param({"10", "500"})
+        public int patterns;
+        /** The share of the single-line indications without a required literal. */
+        @Param("0.1")
+        public double wildcardRatio;
+        /** The number of multi-line indications. */
+        @Param({"0", "10"})
+        public int multiLinePatterns;
+
+        private File log;
+        private Run build;
+        private List<FailureCause> causes;
+        private PrintStream scanLog;
+
+        @Override
+        public void setup() throws Exception {
+            causes = SyntheticKnowledgeBase.generate(patterns, wildcardRatio);
+            causes.addAll(SyntheticKnowledgeBase.generateMultiLine(multiLinePatterns, patterns));
+            // One single-line and one multi-line indication are found.
+            List<String> failures = SyntheticKnowledgeBase.failureMessages(0, 1);
+            if (multiLinePatterns > 0) {
+                failures.addAll(SyntheticKnowledgeBase.failureMessages(patterns, 1));
+            }
+            log = SyntheticLog.write(SyntheticLog.generate(lines, lineLength, noteDensity, failures));
+            build = SyntheticLog.mockBuild(log);
+            scanLog = new PrintStream(OutputStream.nullOutputStream());
+        }
+
+        @Override
+        public void tearDown() {
+            log.delete();
+        }
+    }
+
+    /**
+     * Finds the indications of the knowledge base in the log.
+     *
+     * @param state the log and knowledge base.
+     * @return the found causes.
+     */
+    @Benchmark
+    public List<FoundFailureCause> findIndications(ScannerState state) {
+        return BuildFailureScanner.findIndications(state.causes, state.build, state.scanLog,
+                ScanScheduler.Priority.COMPLETED);
+    }
+}
@@ -88,7 +88,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-//CS IGNORE MagicNumber FOR NEXT 1000 LINES. REASON: TestData.
+//CS IGNORE MagicNumber FOR NEXT 1100 LINES. REASON: TestData.
 
 /**
  * Tests for the FailureScanner.
@@ -873,6 +873,26 @@ public class BuildFailureScannerHudsonTest {
         assertNotNull(action);
     }
 
+    /**
+     * Tests that the tail of a log exceeding the max log size is scanned when configured.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testScanTailIfLogSizeExceedsLimit() throws Exception {
+        PluginImpl.getInstance().setMaxLogSize(1);
+        PluginImpl.getInstance().setLogTailSize(1);
+        FreeStyleProject project = createProject(createHugeString(1024 * 1024) + BUILD_LOG);
+        configureCauseAndIndication();
+        QueueTaskFuture<FreeStyleBuild> future = project.scheduleBuild2(0, new Cause.UserIdCause());
+        FreeStyleBuild build = future.get(10, TimeUnit.SECONDS);
+        jenkins.assertBuildStatus(Result.FAILURE, build);
+        FailureCauseBuildAction action = build.getAction(FailureCauseBuildAction.class);
+        assertNotNull(action);
+        assertEquals(1, action.getFoundFailureCauses().size());
+        assertTrue(build.getAction(ScanLogAction.class).isPartial());
+    }
+
 
     /**
      * Create a string with any length than contains only 'a' letters
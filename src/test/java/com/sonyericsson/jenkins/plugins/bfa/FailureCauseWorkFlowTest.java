@@ -24,6 +24,9 @@
 package com.sonyericsson.jenkins.plugins.bfa;
 
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCauseBuildAction;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
 import hudson.model.Result;
 import hudson.model.queue.QueueTaskFuture;
 import org.hamcrest.Matchers;
@@ -34,7 +37,10 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -81,4 +87,30 @@ public class FailureCauseWorkFlowTest {
         FailureCauseBuildAction action = run.getAction(FailureCauseBuildAction.class);
         assertNull(action);
     }
+
+    /**
+     * Tests that with pipeline scanning only the failed parallel branch is scanned and what is found is attributed
+     * to it.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testPipelineScanningFailedBranch() throws Exception {
+        BuildFailureScannerHudsonTest.configureCauseAndIndication("Specific Error", "an error", "", "Specific",
+                new BuildLogIndication(".*Specific Error.*"));
+        PluginImpl.getInstance().setPipelineScanningEnabled(true);
+        WorkflowJob proj = j.jenkins.createProject(WorkflowJob.class, "proj");
+        proj.setDefinition(new CpsFlowDefinition("parallel(good: { echo 'Specific Error in good' }, "
+                + "bad: { echo 'Specific Error in bad'; error('failed') })", true));
+        WorkflowRun run = j.assertBuildStatus(Result.FAILURE, proj.scheduleBuild2(0).get());
+        FailureCauseBuildAction action = run.getAction(FailureCauseBuildAction.class);
+        assertNotNull(action);
+        List<FoundFailureCause> causes = action.getFoundFailureCauses();
+        assertEquals(1, causes.size());
+        List<FoundIndication> indications = causes.get(0).getIndications();
+        assertEquals(1, indications.size());
+        assertEquals("Specific Error in bad", indications.get(0).getMatchingString());
+        assertEquals("bad", indications.get(0).getStageName());
+        assertNotNull(indications.get(0).getFlowNodeId());
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa;
+
+import com.sonyericsson.jenkins.plugins.bfa.benchmark.SyntheticKnowledgeBase;
+import com.sonyericsson.jenkins.plugins.bfa.benchmark.SyntheticLog;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import hudson.MarkupText;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//CS IGNORE VisibilityModifier FOR NEXT 100 LINES. REASON: JMH sets the parameters.
+
+/**
+ * Benchmark of annotating a whole log with {@link IndicationAnnotator}, as when it is shown, in logs per second.
+ *
+ * @see com.sonyericsson.jenkins.plugins.bfa.benchmark.BenchmarkRunner
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IndicationAnnotatorBenchmark {
+
+    /**
+     * The lines of a log and an annotator for the causes found in it.
+     */
+    @State(Scope.Benchmark)
+    public static class AnnotatorState {
+        /** The number of lines of the log. */
+        @Param("10000")
+        public int lines;
+        /** The approximate length of a line. */
+        @Param("120")
+        public int lineLength;
+        /** The share of the lines with a console note. */
+        @Param({"0", "0.2"})
+        public double noteDensity;
+        /** The number of found causes. */
+        @Param({"1", "20"})
+        public int foundCauses;
+
+        private List<String> log;
+        private IndicationAnnotator annotator;
+
+        /**
+         * Generates the log and the found causes.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<String> failures = SyntheticKnowledgeBase.failureMessages(0, foundCauses);
+            log = SyntheticLog.generate(lines, lineLength, noteDensity, failures);
+            List<FailureCause> causes = SyntheticKnowledgeBase.generate(foundCauses, 0);
+            List<FoundFailureCause> found = new ArrayList<FoundFailureCause>(foundCauses);
+            for (int i = 0; i < foundCauses; i++) {
+                FailureCause cause = causes.get(i);
+                // The single-line indication is found in the first line of the message.
+                String line = failures.get(i).split("\n")[0];
+                FoundIndication indication = new FoundIndication(null,
+                        cause.getIndications().get(0).getUserProvidedExpression(), "log", line, log.indexOf(line) + 1);
+                found.add(new FoundFailureCause(cause, Collections.singletonList(indication)));
+            }
+            annotator = new IndicationAnnotator(found);
+        }
+    }
+
+    /**
+     * Annotates every line of the log.
+     *
+     * @param state the log and annotator.
+     * @param blackhole consumes the annotated lines.
+     */
+    @Benchmark
+    public void annotate(AnnotatorState state, Blackhole blackhole) {
+        for (String line : state.log) {
+            MarkupText text = new MarkupText(line);
+            state.annotator.annotate(null, text);
+            blackhole.consume(text);
+        }
+    }
+}
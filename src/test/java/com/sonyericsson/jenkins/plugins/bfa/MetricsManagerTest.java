@@ -1,13 +1,16 @@
 package com.sonyericsson.jenkins.plugins.bfa;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 
 import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
 import com.sonyericsson.jenkins.plugins.bfa.model.IFailureCauseMetricData;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.ScanScheduler;
 import jenkins.metrics.api.Metrics;
+import jenkins.model.Jenkins;
 
 import org.junit.After;
 import org.junit.Before;
@@ -21,7 +24,12 @@ import java.util.LinkedList;
 import java.util.List;
 
 import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.addMetric;
+import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.getScanCostName;
 import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.incCounters;
+import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.incPatternCacheCounter;
+import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.updateScanCost;
+import static com.sonyericsson.jenkins.plugins.bfa.MetricsManager.updateScanWait;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -34,6 +42,10 @@ import static org.mockito.Mockito.when;
  * Tests for {@link MetricsManager}.
  */
 public class MetricsManagerTest {
+    private static final long SCAN_NANOS = 2000000;
+    private static final long SCAN_MICROS = 2000;
+    private static final int EVALUATIONS = 3;
+
     private MetricRegistry metricRegistry;
     private Counter counter;
 
@@ -100,4 +112,55 @@ public class MetricsManagerTest {
         verify(counter, times(mockedCauseList.size())).inc();
     }
 
+    /**
+     * Test that the scan cost of an indication is added to its histogram, in microseconds, and its counters.
+     */
+    @Test
+    public void testUpdateScanCost() {
+        Histogram histogram = mock(Histogram.class);
+        when(metricRegistry.histogram(anyString())).thenReturn(histogram);
+        try (MockedStatic<Jenkins> jenkinsMockedStatic = mockStatic(Jenkins.class)) {
+            jenkinsMockedStatic.when(Jenkins::getInstanceOrNull).thenReturn(mock(Jenkins.class));
+            String name = getScanCostName(mockedCause, 0);
+            updateScanCost(name, SCAN_NANOS, EVALUATIONS, 1, 0);
+
+            assertEquals("jenkins_bfa.scan.indication.myFailureCause.0", name);
+            verify(metricRegistry).histogram("jenkins_bfa.scan.indication.myFailureCause.0.time");
+            verify(histogram).update(SCAN_MICROS);
+            verify(metricRegistry).counter("jenkins_bfa.scan.indication.myFailureCause.0.evaluations");
+            verify(counter).inc(EVALUATIONS);
+            verify(counter).inc(1);
+            verify(counter).inc(0);
+        }
+    }
+
+    /**
+     * Test that a counter of the pattern cache is incremented.
+     */
+    @Test
+    public void testIncPatternCacheCounter() {
+        try (MockedStatic<Jenkins> jenkinsMockedStatic = mockStatic(Jenkins.class)) {
+            jenkinsMockedStatic.when(Jenkins::getInstanceOrNull).thenReturn(mock(Jenkins.class));
+            incPatternCacheCounter(MetricsManager.PATTERN_CACHE_HITS);
+
+            verify(metricRegistry).counter("jenkins_bfa.patterncache.hits");
+            verify(counter).inc();
+        }
+    }
+
+    /**
+     * Test that the time a scan waited in the scheduler is added to the histogram of its priority, in microseconds.
+     */
+    @Test
+    public void testUpdateScanWait() {
+        Histogram histogram = mock(Histogram.class);
+        when(metricRegistry.histogram(anyString())).thenReturn(histogram);
+        try (MockedStatic<Jenkins> jenkinsMockedStatic = mockStatic(Jenkins.class)) {
+            jenkinsMockedStatic.when(Jenkins::getInstanceOrNull).thenReturn(mock(Jenkins.class));
+            updateScanWait(ScanScheduler.Priority.ON_DEMAND.getMetricName(), SCAN_NANOS);
+
+            verify(metricRegistry).histogram("jenkins_bfa.scheduler.on_demand.wait");
+            verify(histogram).update(SCAN_MICROS);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.benchmark;
+
+import org.junit.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the scanning engine. It is only run with the <code>benchmark</code> profile:
+ * <pre>
+ * mvn -P benchmark test -Dbenchmark.args="FailureReaderBenchmark -p patterns=1000 -rf json"
+ * </pre>
+ * where <code>benchmark.args</code> takes the JMH command line options. Without a benchmark pattern, all the
+ * benchmarks of the plugin are run. The allocation rate of the scans is reported by the GC profiler of JMH, e.g.
+ * <code>-Dbenchmark.args="FailureReaderBenchmark -prof gc"</code> gives the bytes allocated per scan as
+ * <code>gc.alloc.rate.norm</code>.
+ */
+public class BenchmarkRunner {
+
+    private static final String ALL_BENCHMARKS = "com\\.sonyericsson\\.jenkins\\.plugins\\.bfa\\..*Benchmark\\.";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 5;
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @throws Exception if the options are not valid or a benchmark fails.
+     */
+    @Test
+    public void runBenchmarks() throws Exception {
+        String args = System.getProperty("benchmark.args", "").trim();
+        CommandLineOptions commandLine;
+        if (args.isEmpty()) {
+            commandLine = new CommandLineOptions();
+        } else {
+            commandLine = new CommandLineOptions(args.split("\\s+"));
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).shouldFailOnError(true);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(ALL_BENCHMARKS);
+        }
+        // Fewer iterations and forks than the JMH defaults, unless given.
+        if (!commandLine.getWarmupIterations().hasValue()) {
+            options.warmupIterations(WARMUP_ITERATIONS);
+        }
+        if (!commandLine.getMeasurementIterations().hasValue()) {
+            options.measurementIterations(MEASUREMENT_ITERATIONS);
+        }
+        if (!commandLine.getForkCount().hasValue()) {
+            options.forks(1);
+        }
+        new Runner(options.build()).run();
+    }
+}
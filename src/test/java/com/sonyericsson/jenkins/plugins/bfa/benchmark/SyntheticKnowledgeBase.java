@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.benchmark;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates knowledge bases for the benchmarks, with one indication per cause. A literal indication has a long
+ * required literal, like most indications written for a specific error message; a wildcard indication has none, so
+ * it has to be evaluated on every line. The same parameters give the same causes.
+ */
+public final class SyntheticKnowledgeBase {
+
+    private static final int WILDCARD_DIGITS = 9;
+
+    /**
+     * Utility class.
+     */
+    private SyntheticKnowledgeBase() {
+    }
+
+    /**
+     * Generates causes with single-line indications.
+     *
+     * @param patterns the number of causes.
+     * @param wildcardRatio the share of the indications, between 0 and 1, without a required literal.
+     * @return the causes, the literal ones first.
+     */
+    public static List<FailureCause> generate(int patterns, double wildcardRatio) {
+        List<FailureCause> causes = new ArrayList<FailureCause>(patterns);
+        int wildcards = (int)Math.round(patterns * wildcardRatio);
+        for (int i = 0; i < patterns; i++) {
+            Indication indication;
+            if (i < patterns - wildcards) {
+                indication = new BuildLogIndication(".*ERROR: component" + i + " failed with code \\d+.*");
+            } else {
+                indication = new BuildLogIndication(".*(?:[Ee]rror|[Ff]ail(?:ed|ure)):?\\s+[a-z]+\\d{"
+                        + (1 + i % WILDCARD_DIGITS) + "}\\W.*");
+            }
+            causes.add(cause(i, indication));
+        }
+        return causes;
+    }
+
+    /**
+     * Generates causes with multi-line indications, numbered after the single-line ones.
+     *
+     * @param patterns the number of causes.
+     * @param first the number of the first cause.
+     * @return the causes.
+     */
+    public static List<FailureCause> generateMultiLine(int patterns, int first) {
+        List<FailureCause> causes = new ArrayList<FailureCause>(patterns);
+        for (int i = first; i < first + patterns; i++) {
+            // Multi-line indications are matched with DOTALL, so the lines in between are matched explicitly.
+            causes.add(cause(i, new MultilineBuildLogIndication("ERROR: component" + i
+                    + " failed with code \\d+\\n(?:[^\\n]*\\n){0,3}Caused by: [^\\n]*")));
+        }
+        return causes;
+    }
+
+    /**
+     * The failure messages that the literal indications of some causes, single-line or multi-line, are found in.
+     * The first line of a message is found by the single-line indication of a cause, the whole message by the
+     * multi-line one.
+     *
+     * @param first the number of the first cause.
+     * @param count the number of causes.
+     * @return one message of two lines per cause, without a line terminator at the end.
+     */
+    public static List<String> failureMessages(int first, int count) {
+        List<String> messages = new ArrayList<String>();
+        for (int i = first; i < first + count; i++) {
+            messages.add("ERROR: component" + i + " failed with code 1\n"
+                    + "Caused by: java.io.IOException: component" + i + " is broken");
+        }
+        return messages;
+    }
+
+    /**
+     * Creates a cause.
+     *
+     * @param number the number of the cause.
+     * @param indication the indication of the cause.
+     * @return the cause.
+     */
+    private static FailureCause cause(int number, Indication indication) {
+        FailureCause cause = new FailureCause("Cause " + number, "Benchmark cause " + number);
+        cause.setId("cause" + number);
+        cause.addIndication(indication);
+        return cause;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.benchmark;
+
+import hudson.console.ConsoleNote;
+import hudson.model.Run;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Generates build logs for the benchmarks: lines of words of about the same length, some of them starting with a
+ * console note like the ones Jenkins writes, and the failure messages of a {@link SyntheticKnowledgeBase} spread
+ * evenly over the log. The same parameters give the same log.
+ */
+public final class SyntheticLog {
+
+    private static final long SEED = 4711;
+    private static final String[] WORDS = {
+        "[INFO]", "Compiling", "Downloading", "Downloaded", "from", "central:", "https://repo.example.org/maven2",
+        "module", "sources", "to", "target/classes", "Tests", "run:", "Failures:", "Errors:", "Skipped:", "0,",
+        "Time", "elapsed:", "0.42", "s", "-", "in", "org.example.build.ModuleTest", "[WARNING]", "deprecated",
+        "at", "org.example.build.Module.run(Module.java:128)", "+", "git", "checkout", "-f", "3f2a9c1", "Building",
+        "jar:", "/home/jenkins/workspace/job/target/module-1.0.jar", "Installing", "Uploading", "kB", "(12 kB/s)",
+    };
+    private static final String NOTE_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private static final int NOTE_LENGTH = 200;
+
+    /**
+     * Utility class.
+     */
+    private SyntheticLog() {
+    }
+
+    /**
+     * Generates the lines of a log.
+     *
+     * @param lines the number of lines, including the failure messages.
+     * @param lineLength the approximate length of the lines, without console notes.
+     * @param noteDensity the share of the lines, between 0 and 1, that start with a console note.
+     * @param failures the messages to put in the log, of one or more lines each, e.g. from
+     *                 {@link SyntheticKnowledgeBase#failureMessages}.
+     * @return the lines, without line terminators.
+     */
+    public static List<String> generate(int lines, int lineLength, double noteDensity, List<String> failures) {
+        Random random = new Random(SEED);
+        List<String> log = new ArrayList<String>(lines);
+        int nextFailure = 0;
+        while (log.size() < lines) {
+            if (nextFailure < failures.size()
+                    && log.size() >= (long)lines * (nextFailure + 1) / (failures.size() + 1)) {
+                log.addAll(Arrays.asList(failures.get(nextFailure++).split("\n")));
+                continue;
+            }
+            StringBuilder text = new StringBuilder(lineLength + NOTE_LENGTH);
+            if (random.nextDouble() < noteDensity) {
+                text.append(ConsoleNote.PREAMBLE_STR);
+                for (int i = 0; i < NOTE_LENGTH; i++) {
+                    text.append(NOTE_ALPHABET.charAt(random.nextInt(NOTE_ALPHABET.length())));
+                }
+                text.append(ConsoleNote.POSTAMBLE_STR);
+            }
+            int start = text.length();
+            while (text.length() - start < lineLength) {
+                if (text.length() > start) {
+                    text.append(' ');
+                }
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            log.add(text.toString());
+        }
+        return log;
+    }
+
+    /**
+     * Writes lines to a temporary file, deleted when the JVM exits.
+     *
+     * @param lines the lines.
+     * @return the file.
+     * @throws IOException if the file could not be written.
+     */
+    public static File write(List<String> lines) throws IOException {
+        File file = File.createTempFile("bfa-benchmark", ".log");
+        file.deleteOnExit();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        return file;
+    }
+
+    /**
+     * A build whose log is a file, without Jenkins.
+     *
+     * @param log the log file.
+     * @return the build.
+     * @throws IOException never, {@link Run#getLogReader()} declares it.
+     */
+    public static Run mockBuild(final File log) throws IOException {
+        Run build = mock(Run.class);
+        when(build.getLogFile()).thenReturn(log);
+        when(build.getCharset()).thenReturn(StandardCharsets.UTF_8);
+        when(build.getFullDisplayName()).thenReturn("benchmark #1");
+        when(build.getLogReader()).thenAnswer(new Answer<Reader>() {
+            @Override
+            public Reader answer(InvocationOnMock invocation) throws IOException {
+                return new InputStreamReader(new FileInputStream(log), StandardCharsets.UTF_8);
+            }
+        });
+        return build;
+    }
+}
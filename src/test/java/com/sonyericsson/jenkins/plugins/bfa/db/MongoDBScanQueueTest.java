@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.db;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link MongoDBScanQueue} and {@link MongoDBScanWorker}, against an embedded MongoDB.
+ */
+public class MongoDBScanQueueTest extends EmbeddedMongoTest {
+
+    private static final long LEASE = 60000;
+    private static final long SHORT_TIMEOUT = 100;
+    private static final long POLL = 10;
+    private static final int LINE = 2;
+
+    private MongoDBScanQueue queue;
+    private File logFile;
+
+    /**
+     * Creates the queue and a log file.
+     *
+     * @throws IOException if so.
+     */
+    @Before
+    public void setUpQueue() throws IOException {
+        queue = ((MongoDBKnowledgeBase)knowledgeBase).getScanQueue();
+        logFile = File.createTempFile("bfa-log", ".txt");
+        Files.write(logFile.toPath(), "building\nerror: out of disk space\ndone\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Removes the log file.
+     */
+    @After
+    public void tearDownQueue() {
+        logFile.delete();
+    }
+
+    /**
+     * A scan of the log file.
+     *
+     * @return the scan.
+     */
+    private MongoDBScanQueue.Job job() {
+        return new MongoDBScanQueue.Job("project", 1, logFile.getAbsolutePath(), StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Tests that a queued scan is claimed once, with its settings, and is not done while claimed.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testClaim() throws Exception {
+        MongoDBScanQueue.Job job = job();
+        job.setMaxLineLength(LINE);
+        job.setPlan(Collections.singletonList("generic"), LINE);
+        String id = queue.enqueue(job);
+
+        MongoDBScanQueue.Job claimed = queue.claim("worker", LEASE);
+        assertNotNull(claimed);
+        assertEquals(id, claimed.getId());
+        assertEquals(logFile.getAbsolutePath(), claimed.getLogPath());
+        assertEquals(StandardCharsets.UTF_8, claimed.getCharset());
+        assertEquals(LINE, claimed.getMaxLineLength());
+        assertEquals(Collections.singletonList("generic"), claimed.getFallbackCategories());
+        assertEquals(LINE, claimed.getMaxFoundCauses());
+        assertNull(queue.claim("other", LEASE));
+        assertTrue(queue.renew(claimed, "worker", LEASE));
+        assertFalse(queue.renew(claimed, "other", LEASE));
+
+        assertNull(queue.await(id, Collections.<FailureCause>emptyList(), null, SHORT_TIMEOUT, POLL));
+        assertNull(queue.claim("other", LEASE));
+    }
+
+    /**
+     * Tests that a scan whose lease ran out is claimed by another worker, and is no longer the first worker's.
+     */
+    @Test
+    public void testLeaseRunsOut() {
+        queue.enqueue(job());
+        MongoDBScanQueue.Job claimed = queue.claim("worker", 0);
+        MongoDBScanQueue.Job reclaimed = queue.claim("other", LEASE);
+        assertNotNull(reclaimed);
+        assertEquals(claimed.getId(), reclaimed.getId());
+        assertFalse(queue.complete(claimed, "worker", Collections.<FoundFailureCause>emptyList()));
+        assertTrue(queue.complete(reclaimed, "other", Collections.<FoundFailureCause>emptyList()));
+    }
+
+    /**
+     * Tests that a scan is given up on when its lease ran out too many times.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testGivenUp() throws Exception {
+        String id = queue.enqueue(job());
+        for (int i = 0; i < MongoDBScanQueue.MAX_ATTEMPTS; i++) {
+            assertNotNull(queue.claim("worker" + i, 0));
+        }
+        assertNull(queue.claim("other", LEASE));
+        try {
+            queue.await(id, Collections.<FailureCause>emptyList(), null, SHORT_TIMEOUT, POLL);
+            fail("The scan should have been given up on");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("attempts"));
+        }
+    }
+
+    /**
+     * Tests that what a worker could not scan is reported to the controller.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testFail() throws Exception {
+        String id = queue.enqueue(job());
+        MongoDBScanQueue.Job claimed = queue.claim("worker", LEASE);
+        assertTrue(queue.fail(claimed, "worker", "broken"));
+        try {
+            queue.await(id, Collections.<FailureCause>emptyList(), null, SHORT_TIMEOUT, POLL);
+            fail("The scan should have failed");
+        } catch (IOException e) {
+            assertEquals("broken", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that a worker scans a queued log with the causes of the knowledge base, and that the controller gets
+     * what it found as causes of its own knowledge base.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testWorkerScans() throws Exception {
+        FailureCause cause = new FailureCause("disk", "The disk is full");
+        cause.addIndication(new BuildLogIndication(".*out of disk space.*"));
+        cause = ((MongoDBKnowledgeBase)knowledgeBase).addCause(cause, false);
+        Collection<FailureCause> causes = Collections.singletonList(cause);
+
+        String id = queue.enqueue(job());
+        MongoDBScanWorker worker = new MongoDBScanWorker((MongoDBKnowledgeBase)knowledgeBase, "worker", LEASE);
+        assertTrue(worker.scanNext());
+        assertFalse(worker.scanNext());
+
+        List<FoundFailureCause> found = queue.await(id, causes, null, SHORT_TIMEOUT, POLL);
+        assertNotNull(found);
+        assertEquals(1, found.size());
+        assertEquals(cause.getId(), found.get(0).getId());
+        FoundIndication indication = found.get(0).getIndications().get(0);
+        assertEquals("error: out of disk space", indication.getMatchingString());
+        assertEquals(LINE, indication.getMatchingLine());
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.model;
+
+import com.sonyericsson.jenkins.plugins.bfa.benchmark.SyntheticKnowledgeBase;
+import com.sonyericsson.jenkins.plugins.bfa.benchmark.SyntheticLog;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MultiPatternMatcher;
+import com.sonyericsson.jenkins.plugins.bfa.scan.SlidingWindow;
+import hudson.model.Run;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//CS IGNORE VisibilityModifier FOR NEXT 200 LINES. REASON: JMH sets the parameters.
+
+/**
+ * Benchmarks of scanning a log with {@link FailureReader}, in scans per second.
+ *
+ * @see com.sonyericsson.jenkins.plugins.bfa.benchmark.BenchmarkRunner
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FailureReaderBenchmark {
+
+    /**
+     * A log and the compiled single-line indications of a knowledge base.
+     */
+    @State(Scope.Benchmark)
+    public static class SingleLineState {
+        /** The number of lines of the log. */
+        @Param("100000")
+        public int lines;
+        /** The approximate length of a line. */
+        @Param("120")
+        public int lineLength;
+        /** The share of the lines with a console note. */
+        @Param("0.05")
+        public double noteDensity;
+        /** The number of indications. */
+        @Param({"10", "500"})
+        public int patterns;
+        /** The share of the indications without a required literal. */
+        @Param({"0.1", "0.5"})
+        public double wildcardRatio;
+        /** True to scan the log file at byte level. */
+        @Param({"true", "false"})
+        public boolean byteLevel;
+        /** True to match with the linear time engine when possible. */
+        @Param({"true", "false"})
+        public boolean linearMatching;
+
+        private File log;
+        private Run build;
+        private MultiPatternMatcher matcher;
+
+        /**
+         * Generates the log and compiles the indications.
+         *
+         * @throws IOException if the log could not be written.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            List<FailureCause> causes = SyntheticKnowledgeBase.generate(patterns, wildcardRatio);
+            log = SyntheticLog.write(SyntheticLog.generate(lines, lineLength, noteDensity,
+                    SyntheticKnowledgeBase.failureMessages(0, 1)));
+            build = SyntheticLog.mockBuild(log);
+            matcher = MultiPatternMatcher.compile(causes, linearMatching);
+        }
+
+        /**
+         * Deletes the log.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            log.delete();
+        }
+    }
+
+    /**
+     * A log and a multi-line indication.
+     */
+    @State(Scope.Benchmark)
+    public static class MultiLineState {
+        /** The number of lines of the log. */
+        @Param("100000")
+        public int lines;
+        /** The approximate length of a line. */
+        @Param("120")
+        public int lineLength;
+        /** The share of the lines with a console note. */
+        @Param("0.05")
+        public double noteDensity;
+        /** True to put the lines the indication looks for in the middle of the log. */
+        @Param({"true", "false"})
+        public boolean found;
+        /** The number of chars read into the sliding search area each round. */
+        @Param("" + SlidingWindow.DEFAULT_WINDOW_SIZE)
+        public int windowSize;
+
+        private File log;
+        private Run build;
+        private MultilineBuildLogFailureReader reader;
+
+        /**
+         * Generates the log.
+         *
+         * @throws IOException if the log could not be written.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            int failures = 0;
+            if (found) {
+                failures = 1;
+            }
+            log = SyntheticLog.write(SyntheticLog.generate(lines, lineLength, noteDensity,
+                    SyntheticKnowledgeBase.failureMessages(0, failures)));
+            build = SyntheticLog.mockBuild(log);
+            FailureCause cause = SyntheticKnowledgeBase.generateMultiLine(1, 0).get(0);
+            reader = new MultilineBuildLogFailureReader((MultilineBuildLogIndication)cause.getIndications().get(0));
+        }
+
+        /**
+         * Deletes the log.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            log.delete();
+        }
+    }
+
+    /**
+     * Scans the log for all the single-line indications.
+     *
+     * @param state the log and indications.
+     * @return the found causes.
+     * @throws IOException if the log could not be read.
+     */
+    @Benchmark
+    public List<FoundFailureCause> scanSingleLinePatterns(SingleLineState state) throws IOException {
+        return FailureReader.scanSingleLinePatterns(state.matcher, state.build, state.byteLevel);
+    }
+
+    /**
+     * Scans the log for one multi-line indication.
+     *
+     * @param state the log and indication.
+     * @return the found indication, or null.
+     * @throws IOException if the log could not be read.
+     */
+    @Benchmark
+    public FoundIndication scanMultiLineOneFile(MultiLineState state) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(state.log), StandardCharsets.UTF_8)) {
+            return state.reader.scanMultiLineOneFile(state.build, reader, "log", state.windowSize,
+                    SlidingWindow.DEFAULT_MAX_MATCH_SPAN);
+        }
+    }
+}
@@ -35,12 +35,18 @@ import java.io.SequenceInputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipInputStream;
 
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
 import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.scan.MultiPatternMatcher;
+import com.sonyericsson.jenkins.plugins.bfa.scan.SlidingWindow;
+import hudson.console.ConsoleNote;
 import hudson.model.Run;
 import org.junit.Test;
 
@@ -48,11 +54,12 @@ import static junit.framework.TestCase.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 
-//CS IGNORE MagicNumber FOR NEXT 300 LINES. REASON: TestData.
+//CS IGNORE MagicNumber FOR NEXT 600 LINES. REASON: TestData.
 
 /**
  * Tests for the FailureReader.
@@ -95,6 +102,21 @@ public class FailureReaderTest {
     private FoundIndication scan(BuildLogIndication indication,
                                  BufferedReader reader,
                                  String currentFile) throws IOException {
+        return scan(indication, reader, currentFile, true);
+    }
+
+    /**
+     * @param indication indication that we are looking for
+     * @param reader build reader
+     * @param currentFile current file name
+     * @param linearMatching false to always match with java.util.regex
+     * @return found indication
+     * @throws IOException Exception
+     */
+    private FoundIndication scan(BuildLogIndication indication,
+                                 BufferedReader reader,
+                                 String currentFile,
+                                 boolean linearMatching) throws IOException {
         Run run = mock(Run.class);
 
         List<FailureCause> causes = new ArrayList<FailureCause>();
@@ -103,7 +125,7 @@ public class FailureReaderTest {
         causes.add(cause);
 
         List<FoundFailureCause> foundFailureCauses = FailureReader.scanSingleLinePatterns(
-                causes,
+                MultiPatternMatcher.compile(causes, linearMatching),
                 run,
                 reader,
                 currentFile);
@@ -136,6 +158,8 @@ public class FailureReaderTest {
     /**
      * Test of timeout on abusive line. Should timeout on two lines
      * each timeout between 1 and 2 seconds.
+     * The group keeps the literal prefilter from skipping the abusive lines.
+     * Linear time matching is off, it would not time out.
      * @throws Exception if so
      */
     @Test
@@ -145,15 +169,56 @@ public class FailureReaderTest {
         zipStream.getNextEntry();
         BufferedReader br = new QuadrupleDupleLineReader(new BufferedReader(new InputStreamReader(zipStream)));
         long startTime = System.currentTimeMillis();
-        FoundIndication indication = scan(new BuildLogIndication(".*scan for me please.*"), br, "test");
+        FoundIndication indication = scan(new BuildLogIndication(".*(scan for me please).*"), br, "test", false);
         long elapsedTime = System.currentTimeMillis() - startTime;
         br.close();
         assertTrue("Unexpected time to parse log: " + elapsedTime, elapsedTime >= 1000 && elapsedTime <= 5000);
         assertNotNull("Expected to find an indication", indication);
     }
 
+    /**
+     * Tests that the abusive lines that make java.util.regex time out twice are matched in linear time, well within
+     * the time of the two timeouts.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanOneFileLinearWithoutLineTimeout() throws Exception {
+        InputStream resStream = this.getClass().getResourceAsStream("FailureReaderTest.zip");
+        ZipInputStream zipStream = new ZipInputStream(resStream);
+        zipStream.getNextEntry();
+        BufferedReader br = new QuadrupleDupleLineReader(new BufferedReader(new InputStreamReader(zipStream)));
+        long startTime = System.currentTimeMillis();
+        FoundIndication indication = scan(new BuildLogIndication(".*(scan for me please).*"), br, "test");
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        br.close();
+        assertTrue("Unexpected time to parse log: " + elapsedTime, elapsedTime < 2000);
+        assertNotNull("Expected to find an indication", indication);
+    }
+
+    /**
+     * Test that the literal prefilter skips the regular expression on a line that does not contain the literal of
+     * the pattern. Evaluating the pattern on the line would backtrack until the line timeout.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanOneFileWithLiteralPrefilter() throws Exception {
+        StringBuilder abusiveLine = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            abusiveLine.append('a');
+        }
+        BufferedReader br = new BufferedReader(new StringReader(abusiveLine.toString()));
+        long startTime = System.currentTimeMillis();
+        FoundIndication indication = scan(new BuildLogIndication("(.*a){20}non existing string"), br, "test");
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        br.close();
+        assertTrue("Unexpected time to parse log: " + elapsedTime, elapsedTime < 1000);
+        assertNull("Did not expect to find an indication", indication);
+    }
+
     /**
      * Test of timeout on abusive file. Should timeout on entire scan.
+     * The group keeps the literal prefilter from skipping the abusive lines.
+     * Linear time matching is off, it would not time out.
      * @throws Exception if so
      */
     @Test
@@ -167,13 +232,211 @@ public class FailureReaderTest {
         }
         BufferedReader br = new QuadrupleDupleLineReader(new BufferedReader(new InputStreamReader(inStream)));
         long startTime = System.currentTimeMillis();
-        FoundIndication indication = scan(new BuildLogIndication(".*non existing string"), br, "test");
+        FoundIndication indication = scan(new BuildLogIndication(".*(non existing string)"), br, "test", false);
         long elapsedTime = System.currentTimeMillis() - startTime;
         br.close();
         assertTrue("Unexpected time to parse log: " + elapsedTime, elapsedTime >= 10000 && elapsedTime <= 12000);
         assertNull("Did not expect to find an indication", indication);
     }
 
+    /**
+     * Tests that a scan reading lines that match nothing for longer than the line timeout is not timed out, and
+     * finds the indication on the last line.
+     * Linear time matching is off, so that an interrupt of the watchdog would time the last pattern out.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanSlowNonMatchingLinesWithoutLineTimeout() throws Exception {
+        BufferedReader br = new SlowLineReader(200, 10, "ERROR: found at last");
+        FoundIndication indication = scan(new BuildLogIndication(".*found at last.*"), br, "test", false);
+        br.close();
+        assertNotNull("Expected to find an indication", indication);
+        assertEquals(201, indication.getMatchingLine());
+    }
+
+    /**
+     * Tests that scanning for a few causes does not replace the matcher shared by the scans of the knowledge base.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanSingleLinePatternsKeepsSharedMatcher() throws Exception {
+        FailureCause shared = new FailureCause("shared", "description");
+        shared.addIndication(new BuildLogIndication(".*alpha.*"));
+        List<FailureCause> knowledgeBase = new ArrayList<FailureCause>();
+        knowledgeBase.add(shared);
+        MultiPatternMatcher matcher = MultiPatternMatcher.forCauses(knowledgeBase);
+
+        FailureCause single = new FailureCause("single", "description");
+        single.addIndication(new BuildLogIndication(".*beta.*"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(single);
+        BufferedReader br = new BufferedReader(new StringReader("alpha\nbeta"));
+        List<FoundFailureCause> found = FailureReader.scanSingleLinePatterns(causes, mock(Run.class), br, "test");
+        br.close();
+
+        assertEquals(1, found.size());
+        assertSame(matcher, MultiPatternMatcher.forCauses(knowledgeBase));
+    }
+
+    /**
+     * Tests that all causes are scanned in one pass and that only the first occurrence
+     * of each indication is reported, with its line number.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanSingleLinePatternsFirstOccurrences() throws Exception {
+        FailureCause first = new FailureCause("first", "description");
+        first.addIndication(new BuildLogIndication(".*alpha.*"));
+        first.addIndication(new BuildLogIndication(".*beta.*"));
+        FailureCause second = new FailureCause("second", "description");
+        second.addIndication(new BuildLogIndication(".*gamma.*"));
+        FailureCause third = new FailureCause("third", "description");
+        third.addIndication(new BuildLogIndication(".*delta.*"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(first);
+        causes.add(second);
+        causes.add(third);
+
+        BufferedReader br = new BufferedReader(new StringReader(
+                "nothing\nalpha one\ngamma\nbeta\nalpha two\nbeta again"));
+        List<FoundFailureCause> found = FailureReader.scanSingleLinePatterns(causes, mock(Run.class), br, "test");
+        br.close();
+
+        assertEquals(2, found.size());
+        assertEquals("first", found.get(0).getName());
+        List<FoundIndication> indications = found.get(0).getIndications();
+        assertEquals(2, indications.size());
+        assertEquals("alpha one", indications.get(0).getMatchingString());
+        assertEquals(2, indications.get(0).getMatchingLine());
+        assertEquals("beta", indications.get(1).getMatchingString());
+        assertEquals(4, indications.get(1).getMatchingLine());
+        assertEquals("second", found.get(1).getName());
+        assertEquals(3, found.get(1).getIndications().get(0).getMatchingLine());
+    }
+
+    /**
+     * Tests that indications are matched against the visible text of a line, without console notes and ANSI escape
+     * sequences, and that the found line is reported without console notes like before.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanSingleLinePatternsVisibleText() throws Exception {
+        FailureCause cause = new FailureCause("visible", "description");
+        cause.addIndication(new BuildLogIndication("ERROR: build failed"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(cause);
+        String note = ConsoleNote.PREAMBLE_STR + "H4sIAAAAAAAA/ERROR: build failed==" + ConsoleNote.POSTAMBLE_STR;
+        String colored = "\u001B[31mERROR\u001B[0m: build failed";
+
+        BufferedReader br = new BufferedReader(new StringReader(note + "\n" + note + colored));
+        List<FoundFailureCause> found = FailureReader.scanSingleLinePatterns(causes, mock(Run.class), br, "test");
+        br.close();
+
+        assertEquals(1, found.size());
+        FoundIndication indication = found.get(0).getIndications().get(0);
+        assertEquals(2, indication.getMatchingLine());
+        assertEquals(colored, indication.getMatchingString());
+    }
+
+    /**
+     * Test that the description of a cause found on a line with escape sequences gets the groups of the visible text.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanSingleLinePatternsVisibleTextDescription() throws Exception {
+        FailureCause cause = new FailureCause("visible", "Failed: ${1,1}");
+        cause.addIndication(new BuildLogIndication("ERROR: (\\w+) failed"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(cause);
+
+        BufferedReader br = new BufferedReader(new StringReader("\u001B[31mERROR\u001B[0m: build failed"));
+        List<FoundFailureCause> found = FailureReader.scanSingleLinePatterns(causes, mock(Run.class), br, "test");
+        br.close();
+
+        assertEquals(1, found.size());
+        assertEquals("Failed: build", found.get(0).getDescription());
+    }
+
+    /**
+     * Test that all multi-line indications are found in one pass, also when the windows are evaluated in parallel.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanMultiLinePatterns() throws Exception {
+        List<FailureCause> causes = createMultiLineCauses();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int parallelism = 1; parallelism <= 3; parallelism++) {
+                for (int windowSize : new int[]{1, 7, SlidingWindow.DEFAULT_WINDOW_SIZE}) {
+                    LineNumberReader br = new LineNumberReader(new StringReader(
+                            "nothing\nfirst part\nsecond part\nthird\nfourth\n"));
+                    List<FoundFailureCause> found = FailureReader.scanMultiLinePatterns(causes, mock(Run.class), br,
+                            "test", windowSize, SlidingWindow.DEFAULT_MAX_MATCH_SPAN, executor, parallelism);
+                    br.close();
+                    assertMultiLineCausesFound(found);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that the calling thread evaluates all multi-line indications itself when the executor does not run the
+     * helpers.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanMultiLinePatternsWithoutHelpers() throws Exception {
+        Executor idleExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // Never runs anything.
+            }
+        };
+        LineNumberReader br = new LineNumberReader(new StringReader(
+                "nothing\nfirst part\nsecond part\nthird\nfourth\n"));
+        List<FoundFailureCause> found = FailureReader.scanMultiLinePatterns(createMultiLineCauses(),
+                mock(Run.class), br, "test", SlidingWindow.DEFAULT_WINDOW_SIZE, SlidingWindow.DEFAULT_MAX_MATCH_SPAN,
+                idleExecutor, 4);
+        br.close();
+        assertMultiLineCausesFound(found);
+    }
+
+    /**
+     * Creates causes for the multi-line tests; the single-line indication should be ignored by the multi-line scan.
+     * @return the causes.
+     */
+    private List<FailureCause> createMultiLineCauses() {
+        FailureCause first = new FailureCause("first", "description");
+        first.addIndication(new MultilineBuildLogIndication("first part\nsecond part"));
+        first.addIndication(new BuildLogIndication(".*nothing.*"));
+        FailureCause second = new FailureCause("second", "description");
+        second.addIndication(new MultilineBuildLogIndication("not in the log"));
+        FailureCause third = new FailureCause("third", "description");
+        third.addIndication(new MultilineBuildLogIndication("third\nfourth"));
+        third.addIndication(new MultilineBuildLogIndication("fourth"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(first);
+        causes.add(second);
+        causes.add(third);
+        return causes;
+    }
+
+    /**
+     * Checks the result of a multi-line scan of the causes from {@link #createMultiLineCauses()}.
+     * @param found the found causes.
+     */
+    private void assertMultiLineCausesFound(List<FoundFailureCause> found) {
+        assertEquals(2, found.size());
+        assertEquals("first", found.get(0).getName());
+        assertEquals(1, found.get(0).getIndications().size());
+        assertEquals("first part\nsecond part", found.get(0).getIndications().get(0).getMatchingString());
+        assertEquals(2, found.get(0).getIndications().get(0).getMatchingLine());
+        assertEquals("third", found.get(1).getName());
+        assertEquals(2, found.get(1).getIndications().size());
+    }
+
     /**
      * Happy test verifying that a scan doesn't take an exceptional amount of time.
      * @throws Exception if so
@@ -191,6 +454,48 @@ public class FailureReaderTest {
         assertEquals(indication.getMatchingLine(), 1);
     }
 
+    /**
+     * Test that a match longer than the default maximum match span is found when it fits the configured span, and
+     * that it is found on the line it starts on.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanMultiLineOneFileWithLongMatch() throws Exception {
+        StringBuilder log = new StringBuilder("first\nsecond\nBEGIN\n");
+        while (log.length() < SlidingWindow.DEFAULT_MAX_MATCH_SPAN * 2) {
+            log.append("filler\n");
+        }
+        log.append("END\nlast\n");
+        FailureReader reader = new TestReader(new MultilineBuildLogIndication("(?s)BEGIN.*END"));
+
+        FoundIndication indication = reader.scanMultiLineOneFile(null, new StringReader(log.toString()), "test",
+                1000, SlidingWindow.DEFAULT_MAX_MATCH_SPAN * 3);
+        assertNotNull("Expected to find an indication", indication);
+        assertTrue(indication.getMatchingString().startsWith("BEGIN\n"));
+        assertTrue(indication.getMatchingString().endsWith("\nEND"));
+        assertEquals(3, indication.getMatchingLine());
+
+        indication = reader.scanMultiLineOneFile(null, new StringReader(log.toString()), "test",
+                1000, SlidingWindow.DEFAULT_MAX_MATCH_SPAN);
+        assertNull("Did not expect a match longer than the maximum span", indication);
+    }
+
+    /**
+     * Test that a match that more input could make longer is not cut off where a window ends.
+     * @throws Exception if so
+     */
+    @Test
+    public void testScanMultiLineOneFileCarriesPartialMatchOver() throws Exception {
+        FailureReader reader = new TestReader(new MultilineBuildLogIndication("error: [^\\n]*"));
+        for (int windowSize = 1; windowSize <= 20; windowSize++) {
+            FoundIndication indication = reader.scanMultiLineOneFile(null,
+                    new StringReader("ok\nerror: something bad\nmore"), "test", windowSize, 100);
+            assertNotNull("Window size " + windowSize, indication);
+            assertEquals("Window size " + windowSize, "error: something bad", indication.getMatchingString());
+            assertEquals(2, indication.getMatchingLine());
+        }
+    }
+
     /**
      * Test of timeout on abusive line.
      * @throws Exception if so
@@ -277,4 +582,47 @@ public class FailureReaderTest {
             return str.toString();
         }
     }
+
+    /**
+     * Returns lines that match nothing, slowly, and then a last line.
+     * An interrupt while waiting for the next line is kept for the scan to see, like a reader that can not be
+     * interrupted would.
+     */
+    static class SlowLineReader extends BufferedReader {
+
+        private final long delay;
+        private final String lastLine;
+        private int remainingLines;
+
+        /**
+         * Standard constructor.
+         *
+         * @param lines the number of lines before the last line.
+         * @param delay the time in ms to wait for each line.
+         * @param lastLine the last line.
+         */
+        SlowLineReader(int lines, long delay, String lastLine) {
+            super(new StringReader(""));
+            this.remainingLines = lines;
+            this.delay = delay;
+            this.lastLine = lastLine;
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            if (remainingLines < 0) {
+                return null;
+            }
+            remainingLines--;
+            if (remainingLines < 0) {
+                return lastLine;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "nothing to see here";
+        }
+    }
 }
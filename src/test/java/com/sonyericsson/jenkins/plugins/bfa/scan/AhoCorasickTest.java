@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Tests for {@link AhoCorasick}.
+ */
+public class AhoCorasickTest {
+
+    /**
+     * Tests overlapping literals and literals that are suffixes of each other.
+     */
+    @Test
+    public void testOverlappingLiterals() {
+        List<String> literals = Arrays.asList("he", "she", "his", "hers", "nope");
+        AhoCorasick automaton = new AhoCorasick(literals);
+        int[] marks = new int[literals.size()];
+        automaton.mark("ushers", marks, 1);
+        assertArrayEquals(new int[] {1, 1, 0, 1, 0}, marks);
+        automaton.mark("this", marks, 2);
+        assertArrayEquals(new int[] {1, 1, 2, 1, 0}, marks);
+    }
+
+    /**
+     * Tests a literal that needs the failure links to be found.
+     */
+    @Test
+    public void testFailureLinks() {
+        AhoCorasick automaton = new AhoCorasick(Arrays.asList("abcd", "bce"));
+        int[] marks = new int[2];
+        automaton.mark("xxabcexx", marks, 1);
+        assertArrayEquals(new int[] {0, 1}, marks);
+    }
+}
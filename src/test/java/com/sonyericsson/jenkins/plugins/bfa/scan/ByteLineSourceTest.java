@@ -0,0 +1,276 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import hudson.model.Run;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link ByteLineSource}.
+ */
+public class ByteLineSourceTest {
+
+    private static final String LOG = "first\nsecond\r\nthird\r\rfifth \u00e5\u00e4\u00f6 Gr\u00f6\u00dfe\n\n"
+            + "seventh \u20ac\r\n\r\nlast";
+    private static final int MAX_BUFFER_SIZE = 12;
+    private static final int MAX_LINE_LENGTH = 16;
+    private static final int LONG_LINE_LENGTH = 40;
+    private static final int LONG_LINE_LOG_LINES = 3;
+    private static final int LOG_LINES = 9;
+    private static final long WATCHDOG_WAIT = 10000;
+
+    private File file;
+
+    /**
+     * Creates the log file.
+     *
+     * @throws IOException if so.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("bfa-log", ".txt");
+        write(LOG);
+    }
+
+    /**
+     * Removes the log file.
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Writes the log file.
+     *
+     * @param text the content.
+     * @throws IOException if so.
+     */
+    private void write(String text) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Tests that lines are split like {@link BufferedReader#readLine()} does, also when line breaks and multi-byte
+     * characters are split between reads and lines need the buffer to grow.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testLinesLikeBufferedReader() throws IOException {
+        List<String> expected = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new StringReader(LOG));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            expected.add(line);
+        }
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.<FailureCause>emptyList());
+        for (int bufferSize = 1; bufferSize <= MAX_BUFFER_SIZE; bufferSize++) {
+            ByteLineSource source = ByteLineSource.open(file, StandardCharsets.UTF_8, matcher, bufferSize);
+            List<String> actual = new ArrayList<String>();
+            try {
+                while (source.nextLine()) {
+                    actual.add(source.getLine());
+                }
+            } finally {
+                source.close();
+            }
+            assertEquals("Buffer size " + bufferSize, expected, actual);
+        }
+    }
+
+    /**
+     * Tests that a scan at byte level finds the same indications as a scan of the decoded log.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testScanLikeReader() throws IOException {
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        FailureCause cause = new FailureCause("umlaut", "description");
+        cause.addIndication(new BuildLogIndication(".*Gr\u00f6\u00dfe.*"));
+        causes.add(cause);
+        cause = new FailureCause("euro", "description");
+        cause.addIndication(new BuildLogIndication(".*seventh \u20ac"));
+        cause.addIndication(new BuildLogIndication("l.st"));
+        causes.add(cause);
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(causes);
+        Run run = mock(Run.class);
+
+        List<FoundFailureCause> expected = FailureReader.scanSingleLinePatterns(matcher, run,
+                new BufferedReader(new StringReader(LOG)), "log");
+        ByteLineSource source = ByteLineSource.open(file, StandardCharsets.UTF_8, matcher);
+        List<FoundFailureCause> actual;
+        try {
+            actual = FailureReader.scanSingleLinePatterns(matcher, run, source, "log");
+        } finally {
+            source.close();
+        }
+
+        assertEquals(2, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            List<FoundIndication> expectedIndications = expected.get(i).getIndications();
+            List<FoundIndication> actualIndications = actual.get(i).getIndications();
+            assertEquals(expectedIndications.size(), actualIndications.size());
+            for (int j = 0; j < expectedIndications.size(); j++) {
+                assertEquals(expectedIndications.get(j).getMatchingLine(), actualIndications.get(j).getMatchingLine());
+                assertEquals(expectedIndications.get(j).getMatchingString(),
+                        actualIndications.get(j).getMatchingString());
+            }
+        }
+    }
+
+    /**
+     * Tests that a literal split by an escape sequence is found by the prefilter, which can not see it in the
+     * raw bytes.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testLiteralSplitByEscapeSequence() throws IOException {
+        write("\u001B[1mcompil\u001B[0ming\nERROR: \u001B[31mcompilation\u001B[0m failed\n");
+        FailureCause cause = new FailureCause("compilation", "description");
+        cause.addIndication(new BuildLogIndication("ERROR: compilation failed"));
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.singletonList(cause));
+        ByteLineSource source = ByteLineSource.open(file, StandardCharsets.UTF_8, matcher);
+        List<FoundFailureCause> found;
+        try {
+            found = FailureReader.scanSingleLinePatterns(matcher, mock(Run.class), source, "log");
+        } finally {
+            source.close();
+        }
+        assertEquals(1, found.size());
+        assertEquals(2, found.get(0).getIndications().get(0).getMatchingLine());
+    }
+
+    /**
+     * Tests that a literal is found wherever a long line is split into chunks, with the line number of the line, and
+     * that the chunks of a line are not counted as lines.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testLongLineChunks() throws IOException {
+        FailureCause cause = new FailureCause("boom", "description");
+        cause.addIndication(new BuildLogIndication(".*boom!.*"));
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.singletonList(cause));
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < LONG_LINE_LENGTH; i++) {
+            padding.append('x');
+        }
+        for (int offset = 0; offset < LONG_LINE_LENGTH; offset++) {
+            String log = "first\n" + padding.substring(offset) + "boom!" + padding.substring(0, offset) + "\nlast\n";
+            write(log);
+            List<FoundFailureCause> found = FailureReader.scanSingleLinePatterns(matcher, mock(Run.class),
+                    new ReaderLineSource(new BufferedReader(new StringReader(log)), MAX_LINE_LENGTH), "log");
+            assertEquals("Offset " + offset, 1, found.size());
+            assertEquals(2, found.get(0).getIndications().get(0).getMatchingLine());
+
+            ByteLineSource source = ByteLineSource.open(file, StandardCharsets.UTF_8, matcher);
+            source.setMaxLineLength(MAX_LINE_LENGTH);
+            try {
+                found = FailureReader.scanSingleLinePatterns(matcher, mock(Run.class), source, "log");
+                assertEquals(LONG_LINE_LOG_LINES, source.countLines());
+            } finally {
+                source.close();
+            }
+            assertEquals("Offset " + offset, 1, found.size());
+            assertEquals(2, found.get(0).getIndications().get(0).getMatchingLine());
+        }
+    }
+
+    /**
+     * Tests that an interrupt of the watchdog does not close the file, which a file channel does when its thread is
+     * interrupted while reading.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testWatchdogInterruptDoesNotCloseFile() throws Exception {
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.<FailureCause>emptyList());
+        ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), 1);
+        try {
+            try {
+                Thread.sleep(WATCHDOG_WAIT);
+                fail("The watchdog should have interrupted the thread");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ByteLineSource source = ByteLineSource.open(file, StandardCharsets.UTF_8, matcher, 1);
+            try {
+                assertEquals(LOG_LINES, source.countLines());
+            } finally {
+                source.close();
+            }
+        } finally {
+            watch.close();
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Tests that charsets where literals can not be looked for in bytes are left to the reader.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testUnsupportedCharset() throws IOException {
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.<FailureCause>emptyList());
+        assertNull(ByteLineSource.open(file, StandardCharsets.UTF_16, matcher));
+        ByteLineSource source = ByteLineSource.open(file, StandardCharsets.ISO_8859_1, matcher);
+        assertNotNull(source);
+        source.close();
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link LinearPattern}.
+ */
+public class LinearPatternTest {
+
+    private static final String[] PATTERNS = {
+        "", "abc", ".*error.*", ".*ERROR: (\\w+) failed.*", "a|b|", "(a|ab)(c|bcd)(d*)", "(?:ab)+c?", "x{2,3}y{2}z{1,}",
+        "a{0}b", "[a-c]+[^a-c]*", "[\\d\\s]+", "\\D\\S\\W.*", "[^\\w]+", "(?i)Error.*", "(?i:fail)ED", "[a-Z&&[x]]",
+        "(?i)[^e]rror", "(?i)[A-c]+", "(a(?i)b)c", "(?s).*", ".+", "^abc$", "abc$", "\\Aabc\\z", "abc\\Z", "a$\\n",
+        "a.*b.*?c", "(a*)*", "(a+)+b", "\\Qa.b*\\E+", "\\Q.*\\E",
+        "\\t\\x41\\u00e5\\x{1F600}\\0101\\cA", "[\\u2028-\\u2029]",
+        "[\\Q]\\E]", "\\.\\*\\[", "(?<name>a)b", "[-a]+", "[a-]+", "caf\u00e9.*", ".", "\\p{Alpha}+", "(a)\\1",
+        "a(?=b)b", "a++", "(?>a)", "\\bword\\b", "(?m)^a$", "a*+", "(?x)a b", "\\R",
+    };
+
+    private static final String[] INPUTS = {
+        "", "a", "b", "ab", "abc", "abcd", "abcbcd", "error", "an error here", "ERROR: Build failed here", "ERROR: x",
+        "xxyyz", "xxxyyzzz", "xyyz", "b", "abz", "zzz", "12 3", "\t", "!a_", "!!", "ERROR", "FAIL", "failED", "failed",
+        "Rror", "rror", "erro", "ABC", "aBc", "abC", "abc\n", "abc\r\n", "abc\r", "abc\n\n", "abc\u2028", "\n", "\r",
+        "a\n", "a\nb", "a\r\nb", "aaaaab", "aaaa", "a.b*", "a.b**", "a.bb", ".*", "\tA\u00e5\ud83d\ude00AA\u0001",
+        "\u2028", "\u2029", "]", "]]", ".*[", "ab", "-a-", "a-a", "caf\u00e9 au lait", "\u00e5", "\ud83d\ude00",
+        "\u0085", "word", "aa",
+    };
+
+    private static final String[] INLINE_FLAG_PATTERNS = {
+        "Build (?i)failed.*", "ERROR: .*(?i)timeout.*", ".*FATAL(?-i).*", "x|(?i)b", "(?i)a(?-i)b", "(?s)a.(?-s).b",
+        "(?i)(?-i)ab", "(a(?i)b)|(?i)x",
+    };
+
+    private static final String[] INLINE_FLAG_INPUTS = {
+        "build FAILED now", "Build FAILED now", "Build failed", "ERROR: x TIMEOUT y", "error: x timeout",
+        "x fatal y", "x FATAL y", "X FATAL y", "b", "B", "x", "X", "ab", "aB", "Ab", "AB", "a\n\nb", "a\nxb",
+    };
+
+    private static final int PATHOLOGICAL_LENGTH = 100000;
+    private static final long PATHOLOGICAL_TIMEOUT = 5000;
+    private static final int GROWTH_LENGTH = 40;
+
+    /**
+     * Tests that every pattern that compiles matches the same inputs as {@link Pattern}.
+     */
+    @Test
+    public void testMatchesLikePattern() {
+        int compiled = 0;
+        for (String regex : PATTERNS) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            LinearPattern linear = LinearPattern.compile(pattern);
+            if (linear == null) {
+                continue;
+            }
+            compiled++;
+            LinearPattern.Matcher matcher = linear.matcher();
+            for (String input : INPUTS) {
+                assertEquals("'" + regex + "' on '" + input + "'", pattern.matcher(input).matches(),
+                        matcher.matches(input));
+            }
+        }
+        assertTrue(compiled > PATTERNS.length / 2);
+    }
+
+    /**
+     * Tests that flags set inline after the start of the expression only apply from there, like in {@link Pattern},
+     * whatever the flags the pattern was compiled with. Without those flags, {@link Pattern#flags()} has the inline
+     * flags too, so the pattern is left to {@link Pattern}.
+     */
+    @Test
+    public void testInlineFlagsLikePattern() {
+        for (int flags : new int[] {0, Pattern.CASE_INSENSITIVE, Pattern.DOTALL}) {
+            for (String regex : INLINE_FLAG_PATTERNS) {
+                Pattern pattern = Pattern.compile(regex, flags);
+                LinearPattern linear = LinearPattern.compile(pattern, flags);
+                assertNotNull(regex, linear);
+                for (String input : INLINE_FLAG_INPUTS) {
+                    assertEquals("'" + regex + "' with " + flags + " on '" + input + "'",
+                            pattern.matcher(input).matches(), linear.matches(input));
+                }
+                if (!regex.startsWith("(?i)(?-i)")) {
+                    assertNull(regex, LinearPattern.compile(pattern));
+                }
+            }
+        }
+        assertNotNull(LinearPattern.compile(Pattern.compile("(?i)(?-i)ab", Pattern.CASE_INSENSITIVE)));
+    }
+
+    /**
+     * Tests that repetitions of something that can match the empty string, which {@link Pattern} stops after an
+     * iteration that matched nothing, are left to {@link Pattern}, and that an optional one is matched like it.
+     */
+    @Test
+    public void testEmptyLoopBodyLikePattern() {
+        Pattern[] loops = {
+            Pattern.compile("(?:\\w*?ab|^){2}", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("(?:^(?:A?|\\W{0,2})$|A+abc\\t{2}){2}"),
+            Pattern.compile("(b{1,3}(?:B??|^\\S??\\n{2,}\\t*)*?)?((^[\\]a]{0,2}){2,}b[^a]+\\n*?)"),
+            Pattern.compile("(a|^)*"), Pattern.compile("(a?)+"), Pattern.compile("(a*b*){1,3}"),
+        };
+        String[] inputs = {"AaB", "\n", "ab b bBAA"};
+        for (int i = 0; i < loops.length; i++) {
+            assertNull(loops[i].pattern(), LinearPattern.compile(loops[i], loops[i].flags()));
+            if (i < inputs.length) {
+                assertFalse(loops[i].pattern(), loops[i].matcher(inputs[i]).matches());
+            }
+        }
+        for (String regex : new String[] {"(a|^)?b", "(a?){1}b", "(a*|b)?", "(?:ab?)+", "(a*b){2}"}) {
+            Pattern pattern = Pattern.compile(regex);
+            LinearPattern linear = LinearPattern.compile(pattern);
+            assertNotNull(regex, linear);
+            for (String input : INPUTS) {
+                assertEquals("'" + regex + "' on '" + input + "'", pattern.matcher(input).matches(),
+                        linear.matches(input));
+            }
+        }
+    }
+
+    /**
+     * Tests that a loop is compiled right when its body makes the program grow.
+     */
+    @Test
+    public void testLoopWhenProgramGrows() {
+        StringBuilder literal = new StringBuilder();
+        for (int length = 0; length < GROWTH_LENGTH; length++) {
+            Pattern pattern = Pattern.compile(".*" + literal);
+            LinearPattern linear = LinearPattern.compile(pattern);
+            for (String input : new String[] {"a" + literal, literal + "a"}) {
+                assertEquals(pattern.pattern() + " on " + input, pattern.matcher(input).matches(),
+                        linear.matches(input));
+            }
+            literal.append('x');
+        }
+    }
+
+    /**
+     * Tests that the constructs that can not be matched in linear time, or are not supported, are left to
+     * {@link Pattern}.
+     */
+    @Test
+    public void testUnsupported() {
+        String[] unsupported = {
+            "(a)\\1", "(?<n>a)\\k<n>", "a(?=b)", "a(?!b)", "(?<=a)b", "(?<!a)b", "(?>a)", "a++", "a*+", "a?+",
+            "\\bword\\b", "\\Ba", "\\p{Alpha}", "\\P{Alpha}", "\\h", "\\v", "\\R", "\\X", "\\G", "[a[b]]",
+            "[a-z&&[^b]]", "(?m)^a$", "(?x)a b", "(?u)a", "(?d)a", "(?U)a", "^*", "a{1001}",
+        };
+        for (String regex : unsupported) {
+            assertNull(regex, LinearPattern.compile(Pattern.compile(regex)));
+        }
+        assertNull(LinearPattern.compile(Pattern.compile("a", Pattern.MULTILINE)));
+        assertNull(LinearPattern.compile(Pattern.compile("a", Pattern.LITERAL)));
+        assertNotNull(LinearPattern.compile(Pattern.compile("a", Pattern.CASE_INSENSITIVE | Pattern.DOTALL)));
+    }
+
+    /**
+     * Tests that patterns that make {@link Pattern} backtrack catastrophically are matched in linear time.
+     */
+    @Test(timeout = PATHOLOGICAL_TIMEOUT)
+    public void testNoCatastrophicBacktracking() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < PATHOLOGICAL_LENGTH; i++) {
+            input.append('a');
+        }
+        assertFalse(LinearPattern.compile(Pattern.compile("(a+)+b")).matches(input));
+        assertFalse(LinearPattern.compile(Pattern.compile("(a|aa)*c")).matches(input));
+        assertTrue(LinearPattern.compile(Pattern.compile("(.*a){20}")).matches(input));
+    }
+}
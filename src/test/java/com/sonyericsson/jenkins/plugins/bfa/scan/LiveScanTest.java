@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import hudson.model.Run;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link LiveScan}.
+ */
+public class LiveScanTest {
+
+    private static final String LOG = "first\nsecond\r\nthird\r\rfifth error \u00e5\u00e4\u00f6\n\nseventh\r\n\r\n"
+            + "error again\nwarning\releventh\nlast warning";
+    private static final long TIMEOUT = 10000;
+    private static final int MAX_CHUNK_SIZE = 7;
+    private static final int MAX_LINE_LENGTH = 16;
+    private static final int LONG_LINE_LENGTH = 100;
+
+    private MultiPatternMatcher matcher;
+    private Run run;
+
+    /**
+     * Compiles the causes.
+     */
+    @Before
+    public void setUp() {
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        FailureCause cause = new FailureCause("error", "description");
+        cause.addIndication(new BuildLogIndication(".*error.*"));
+        cause.addIndication(new BuildLogIndication(".*warning"));
+        causes.add(cause);
+        cause = new FailureCause("seventh", "description");
+        cause.addIndication(new BuildLogIndication("seventh"));
+        causes.add(cause);
+        cause = new FailureCause("missing", "description");
+        cause.addIndication(new BuildLogIndication(".*not in the log.*"));
+        causes.add(cause);
+        matcher = MultiPatternMatcher.compile(causes);
+        run = mock(Run.class);
+        when(run.getCharset()).thenReturn(StandardCharsets.UTF_8);
+        when(run.getFullDisplayName()).thenReturn("live");
+    }
+
+    /**
+     * Tests that the log written in chunks of any size is scanned like the whole log, also the last line without a
+     * line break.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testScanLikeLogFile() throws Exception {
+        List<FoundFailureCause> expected = FailureReader.scanSingleLinePatterns(matcher, run,
+                new BufferedReader(new StringReader(LOG)), "log");
+        assertEquals(2, expected.size());
+        byte[] bytes = LOG.getBytes(StandardCharsets.UTF_8);
+        for (int chunkSize = 1; chunkSize <= MAX_CHUNK_SIZE; chunkSize++) {
+            LiveScan liveScan = LiveScan.start(run, matcher);
+            for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+                liveScan.write(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+            }
+            List<FoundFailureCause> actual = liveScan.finish(matcher, TIMEOUT);
+            LiveScan.stop(run);
+            assertNotNull(actual);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                List<FoundIndication> expectedIndications = expected.get(i).getIndications();
+                List<FoundIndication> actualIndications = actual.get(i).getIndications();
+                assertEquals(expectedIndications.size(), actualIndications.size());
+                for (int j = 0; j < expectedIndications.size(); j++) {
+                    assertEquals("Chunk size " + chunkSize, expectedIndications.get(j).getMatchingLine(),
+                            actualIndications.get(j).getMatchingLine());
+                    assertEquals(expectedIndications.get(j).getMatchingString(),
+                            actualIndications.get(j).getMatchingString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that lines longer than the maximum line length are scanned in chunks like in the log file, instead of
+     * abandoning the live scan.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testLongLinesLikeLogFile() throws Exception {
+        StringBuilder log = new StringBuilder("first\nseventh\n");
+        for (int i = 0; i < LONG_LINE_LENGTH; i++) {
+            log.append('x');
+        }
+        log.append(" error at the end\r\nwarning\nlast");
+        List<FoundFailureCause> expected = FailureReader.scanSingleLinePatterns(matcher, run,
+                new ReaderLineSource(new BufferedReader(new StringReader(log.toString())), MAX_LINE_LENGTH), "log");
+        assertEquals(2, expected.size());
+        byte[] bytes = log.toString().getBytes(StandardCharsets.UTF_8);
+        for (int chunkSize = 1; chunkSize <= bytes.length; chunkSize += MAX_CHUNK_SIZE) {
+            LiveScan liveScan = LiveScan.start(run, matcher, MAX_LINE_LENGTH);
+            for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+                liveScan.write(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+            }
+            List<FoundFailureCause> actual = liveScan.finish(matcher, TIMEOUT);
+            LiveScan.stop(run);
+            assertNotNull(actual);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                FoundIndication expectedIndication = expected.get(i).getIndications().get(0);
+                FoundIndication actualIndication = actual.get(i).getIndications().get(0);
+                assertEquals("Chunk size " + chunkSize, expectedIndication.getMatchingLine(),
+                        actualIndication.getMatchingLine());
+                assertEquals(expectedIndication.getMatchingString(), actualIndication.getMatchingString());
+            }
+        }
+    }
+
+    /**
+     * Tests that a live scan is not used for another set of causes, nor after it has been stopped.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testNotUsable() throws Exception {
+        LiveScan liveScan = LiveScan.start(run, matcher);
+        assertEquals(liveScan, LiveScan.get(run));
+        byte[] bytes = LOG.getBytes(StandardCharsets.UTF_8);
+        liveScan.write(bytes, 0, bytes.length);
+        MultiPatternMatcher other = MultiPatternMatcher.compile(new ArrayList<FailureCause>());
+        assertNull(liveScan.finish(other, TIMEOUT));
+
+        liveScan = LiveScan.start(run, matcher);
+        liveScan.write(bytes, 0, bytes.length);
+        LiveScan.stop(run);
+        assertNull(LiveScan.get(run));
+        assertNull(liveScan.finish(matcher, TIMEOUT));
+    }
+}
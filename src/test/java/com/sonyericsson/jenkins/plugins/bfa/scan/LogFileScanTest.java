@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.MultilineBuildLogIndication;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link LogFileScan}.
+ */
+public class LogFileScanTest {
+
+    private static final String LOG = "building\nerror: out of disk space\nfirst part\nsecond part\ndone\n";
+    private static final int ERROR_LINE = 2;
+    private static final int MULTI_LINE = 3;
+
+    private File logFile;
+
+    /**
+     * Removes the log file.
+     */
+    @After
+    public void tearDown() {
+        if (logFile != null) {
+            logFile.delete();
+        }
+    }
+
+    /**
+     * Writes the log file.
+     *
+     * @param compressed true to compress it.
+     * @return the log file.
+     * @throws IOException if so.
+     */
+    private File writeLog(boolean compressed) throws IOException {
+        String suffix = ".txt";
+        if (compressed) {
+            suffix = ".txt.gz";
+        }
+        logFile = File.createTempFile("bfa-log", suffix);
+        OutputStream stream = new FileOutputStream(logFile);
+        if (compressed) {
+            stream = new GZIPOutputStream(stream);
+        }
+        try {
+            stream.write(LOG.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            stream.close();
+        }
+        return logFile;
+    }
+
+    /**
+     * Creates a cause.
+     *
+     * @param id the id of the cause.
+     * @return the cause.
+     */
+    private static FailureCause cause(String id) {
+        return new FailureCause(id, id, "description", "", null, "", null, null);
+    }
+
+    /**
+     * The causes to scan for: one with both kinds of indications, one single-line and one that is not in the log.
+     *
+     * @return the causes.
+     */
+    private static List<FailureCause> causes() {
+        FailureCause both = cause("both");
+        both.addIndication(new BuildLogIndication(".*out of disk.*"));
+        both.addIndication(new MultilineBuildLogIndication("first part\nsecond part"));
+        FailureCause single = cause("single");
+        single.addIndication(new BuildLogIndication("done"));
+        FailureCause missing = cause("missing");
+        missing.addIndication(new MultilineBuildLogIndication("not\nin the log"));
+        return new ArrayList<FailureCause>(Arrays.asList(single, both, missing));
+    }
+
+    /**
+     * Scans the log file.
+     *
+     * @param file the log file.
+     * @param causes the causes.
+     * @param plan the plan, or null.
+     * @return the found causes.
+     * @throws IOException if so.
+     */
+    private static List<FoundFailureCause> scan(File file, List<FailureCause> causes, ScanPlan plan)
+            throws IOException {
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        return LogFileScan.scan(causes, file, StandardCharsets.UTF_8, true, 0, SlidingWindow.DEFAULT_WINDOW_SIZE,
+                SlidingWindow.DEFAULT_MAX_MATCH_SPAN, direct, 1, plan);
+    }
+
+    /**
+     * Checks the causes found in the log.
+     *
+     * @param found the found causes.
+     */
+    private static void assertFound(List<FoundFailureCause> found) {
+        assertEquals(2, found.size());
+        assertEquals("single", found.get(0).getId());
+        assertEquals("both", found.get(1).getId());
+        assertEquals(2, found.get(1).getIndications().size());
+        assertEquals(ERROR_LINE, found.get(1).getIndications().get(0).getMatchingLine());
+        assertEquals(MULTI_LINE, found.get(1).getIndications().get(1).getMatchingLine());
+    }
+
+    /**
+     * Tests that the single-line and the multi-line indications are found in a log file and merged per cause.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testScan() throws IOException {
+        assertFound(scan(writeLog(false), causes(), null));
+    }
+
+    /**
+     * Tests that a compressed log file is inflated.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testCompressed() throws IOException {
+        assertFound(scan(writeLog(true), causes(), null));
+    }
+
+    /**
+     * Tests that the scan stops when the plan is done.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testPlan() throws IOException {
+        List<FailureCause> causes = causes();
+        ScanPlan plan = new ScanPlan(causes, Collections.<String>emptyList(), 1);
+        List<FoundFailureCause> found = scan(writeLog(false), causes, plan);
+        assertEquals(1, found.size());
+        assertEquals("both", found.get(0).getId());
+        assertEquals(1, found.get(0).getIndications().size());
+    }
+}
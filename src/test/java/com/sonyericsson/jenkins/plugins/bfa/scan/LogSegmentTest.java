@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import hudson.model.Run;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link LogSegment} and the parallel scan of segments.
+ */
+public class LogSegmentTest {
+
+    private static final String LOG = "first\nsecond\r\nthird\r\rfifth error\n\nseventh\r\n\r\nerror again\nwarning\r"
+            + "eleventh\nlast warning";
+    private static final int MAX_SEGMENTS = 8;
+    private static final int FIRST_ERROR_LINE = 5;
+
+    private File file;
+
+    /**
+     * Creates the log file.
+     *
+     * @throws IOException if so.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("bfa-log", ".txt");
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(LOG.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Removes the log file.
+     */
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Tests that the segments cover the file, start at the start of a line and have the lines of the whole file.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testSplitOnLines() throws IOException {
+        List<String> expected = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new StringReader(LOG));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            expected.add(line);
+        }
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(Collections.<FailureCause>emptyList());
+        for (int count = 1; count <= MAX_SEGMENTS; count++) {
+            List<LogSegment> segments = LogSegment.split(file, count);
+            List<String> actual = new ArrayList<String>();
+            long position = 0;
+            for (LogSegment segment : segments) {
+                assertEquals(position, segment.getStart());
+                position = segment.getEnd();
+                ByteLineSource source = ByteLineSource.open(file, StandardCharsets.UTF_8, matcher, segment);
+                try {
+                    while (source.nextLine()) {
+                        actual.add(source.getLine());
+                    }
+                } finally {
+                    source.close();
+                }
+            }
+            assertEquals(file.length(), position);
+            assertEquals(count + " segments", expected, actual);
+        }
+    }
+
+    /**
+     * Tests that a scan in parallel segments finds the same, earliest, indications on the same lines as a scan of
+     * the whole file.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testParallelScanLikeSequential() throws IOException {
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        FailureCause cause = new FailureCause("error", "description");
+        cause.addIndication(new BuildLogIndication(".*error.*"));
+        cause.addIndication(new BuildLogIndication(".*warning.*"));
+        causes.add(cause);
+        cause = new FailureCause("seventh", "description");
+        cause.addIndication(new BuildLogIndication("seventh"));
+        causes.add(cause);
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(causes);
+        Run run = mock(Run.class);
+        when(run.getLogFile()).thenReturn(file);
+        when(run.getCharset()).thenReturn(StandardCharsets.UTF_8);
+
+        List<FoundFailureCause> expected = FailureReader.scanSingleLinePatterns(matcher, run, true);
+        assertEquals(2, expected.size());
+        assertEquals(FIRST_ERROR_LINE, expected.get(0).getIndications().get(0).getMatchingLine());
+        for (int parallelism = 2; parallelism <= MAX_SEGMENTS; parallelism++) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<FoundFailureCause> actual = FailureReader.scanSingleLinePatterns(matcher, run, true, 1, pool);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getName(), actual.get(i).getName());
+                    List<FoundIndication> expectedIndications = expected.get(i).getIndications();
+                    List<FoundIndication> actualIndications = actual.get(i).getIndications();
+                    assertEquals(expectedIndications.size(), actualIndications.size());
+                    for (int j = 0; j < expectedIndications.size(); j++) {
+                        assertEquals(expectedIndications.get(j).getMatchingLine(),
+                                actualIndications.get(j).getMatchingLine());
+                        assertEquals(expectedIndications.get(j).getMatchingString(),
+                                actualIndications.get(j).getMatchingString());
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
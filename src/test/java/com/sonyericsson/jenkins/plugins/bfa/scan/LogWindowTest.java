@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import hudson.model.Run;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link LogWindow}.
+ */
+public class LogWindowTest {
+
+    private static final String LOG = "first line\nsecond line\nthird line\nfourth line\nlast line\n";
+    private static final int HEAD_BYTES = 16;
+    private static final int TAIL_BYTES = 16;
+    private static final int LINE = 7;
+
+    /**
+     * Temporary folder for the log.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that the head ends at its last whole line and the tail starts at its first whole line.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testWholeLines() throws Exception {
+        final File logFile = folder.newFile("log");
+        Files.write(logFile.toPath(), LOG.getBytes(StandardCharsets.UTF_8));
+        Run build = mock(Run.class);
+        when(build.getLogFile()).thenReturn(logFile);
+        when(build.getLogInputStream()).thenReturn(new FileInputStream(logFile));
+        when(build.getCharset()).thenReturn(StandardCharsets.UTF_8);
+
+        List<LogSection> windows = LogWindow.find(build, HEAD_BYTES, TAIL_BYTES);
+        assertEquals(2, windows.size());
+        try (Reader head = windows.get(0).openReader()) {
+            assertEquals("first line\n", IOUtils.toString(head));
+        }
+        try (Reader tail = windows.get(1).openReader()) {
+            assertEquals("last line\n", IOUtils.toString(tail));
+        }
+    }
+
+    /**
+     * Tests that the head keeps its last line when the whole stream fits in it, and when the line cut by its end is
+     * longer than the part searched for a line break.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testHeadKeepsLastLine() throws Exception {
+        byte[] bytes = "first\nno line break".getBytes(StandardCharsets.UTF_8);
+        InputStream head = new LogWindow.HeadInputStream(new ByteArrayInputStream(bytes), bytes.length);
+        assertEquals("first\nno line break", IOUtils.toString(head, StandardCharsets.UTF_8));
+
+        StringBuilder longLine = new StringBuilder("first\n");
+        for (int i = 0; i <= LogWindow.LAST_LINE_SEARCH_BYTES; i++) {
+            longLine.append('x');
+        }
+        String cut = longLine.toString();
+        longLine.append("\nlast\n");
+        bytes = longLine.toString().getBytes(StandardCharsets.UTF_8);
+        head = new LogWindow.HeadInputStream(new ByteArrayInputStream(bytes), cut.length());
+        assertEquals(cut, IOUtils.toString(head, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that what is found in the tail has no line number, and that the lines of the head are kept.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testLineNumbers() throws Exception {
+        final File logFile = folder.newFile("log");
+        Files.write(logFile.toPath(), LOG.getBytes(StandardCharsets.UTF_8));
+        Run build = mock(Run.class);
+        when(build.getLogFile()).thenReturn(logFile);
+
+        List<LogSection> windows = LogWindow.find(build, HEAD_BYTES, TAIL_BYTES);
+        FoundIndication inHead = new FoundIndication(build, "first.*", "log", "first line", 1);
+        windows.get(0).attribute(inHead);
+        assertEquals(1, inHead.getMatchingLine());
+        FoundIndication inTail = new FoundIndication(build, "last.*", "log", "last line", LINE);
+        windows.get(1).attribute(inTail);
+        assertEquals(-1, inTail.getMatchingLine());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link MultiPatternMatcher}.
+ */
+public class MultiPatternMatcherTest {
+
+    private static final long NOW = 1000000000L;
+    private static final long EXPENSIVE_NANOS = 5000000;
+    private static final long CHEAP_NANOS = 1000000;
+    private static final int EVALUATIONS = 1000;
+    private static final int LINE = 5;
+    private static final int LATER_LINE = 7;
+
+    /**
+     * Tests that the compiled matcher is reused for the same knowledge base snapshot
+     * and recompiled when a cause or an indication changes.
+     */
+    @Test
+    public void testSnapshotReuse() {
+        FailureCause cause = new FailureCause("cause", "description");
+        cause.addIndication(new BuildLogIndication(".*one.*"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(cause);
+
+        MultiPatternMatcher matcher = MultiPatternMatcher.forCauses(causes);
+        assertSame(matcher, MultiPatternMatcher.forCauses(new ArrayList<FailureCause>(causes)));
+        assertEquals(1, matcher.getIndicationCount());
+
+        cause.addIndication(new BuildLogIndication(".*two.*"));
+        assertFalse(matcher.isCompiledFrom(causes));
+        MultiPatternMatcher recompiled = MultiPatternMatcher.forCauses(causes);
+        assertNotSame(matcher, recompiled);
+        assertEquals(2, recompiled.getIndicationCount());
+    }
+
+    /**
+     * Tests that fired indications are removed from the evaluation order after the line.
+     */
+    @Test
+    public void testFiredIndicationsArePruned() {
+        FailureCause cause = new FailureCause("cause", "description");
+        cause.addIndication(new BuildLogIndication(".*one.*"));
+        cause.addIndication(new BuildLogIndication(".*two.*"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(cause);
+
+        MultiPatternMatcher.Scan scan = MultiPatternMatcher.compile(causes).newScan();
+        assertEquals(2, scan.getPendingCount());
+        assertTrue(scan.matches(1, "line two"));
+        scan.found(1, null);
+        assertEquals(2, scan.getPendingCount());
+        scan.endLine();
+        assertEquals(1, scan.getPendingCount());
+        assertEquals(0, scan.getPending(0));
+    }
+
+    /**
+     * Tests that the indications that have fired most for their cost are evaluated first, then the cheapest.
+     */
+    @Test
+    public void testEvaluationPlan() {
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        for (String name : new String[] {"zero", "one", "two"}) {
+            FailureCause cause = new FailureCause(name, "description");
+            cause.setId(name);
+            cause.addIndication(new BuildLogIndication(".*" + name + ".*"));
+            causes.add(cause);
+        }
+        ScanCost scanCost = new ScanCost();
+        scanCost.record(causes.get(0), causes.get(0).getIndications().get(0), EXPENSIVE_NANOS, EVALUATIONS, 0, 0, NOW);
+        scanCost.record(causes.get(1), causes.get(1).getIndications().get(0), CHEAP_NANOS, EVALUATIONS, 1, 0, NOW);
+
+        MultiPatternMatcher matcher = MultiPatternMatcher.compile(causes);
+        // The one without statistics counts as cheap and never fired.
+        assertArrayEquals(new int[] {1, 2, 0}, matcher.plan(scanCost, NOW));
+        assertArrayEquals(new int[] {0, 1, 2}, matcher.plan(new ScanCost(), NOW));
+    }
+
+    /**
+     * Tests that the indications of a cause are reported in log order, whatever order they were found in.
+     */
+    @Test
+    public void testFoundInLogOrder() {
+        FailureCause cause = new FailureCause("cause", "description");
+        cause.addIndication(new BuildLogIndication(".*a.*"));
+        cause.addIndication(new BuildLogIndication(".*b.*"));
+        cause.addIndication(new BuildLogIndication(".*c.*"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(cause);
+
+        MultiPatternMatcher.Scan scan = MultiPatternMatcher.compile(causes).newScan();
+        scan.found(2, new FoundIndication(null, ".*c.*", "log", "a c", LINE));
+        scan.found(1, new FoundIndication(null, ".*b.*", "log", "b", LATER_LINE));
+        scan.found(0, new FoundIndication(null, ".*a.*", "log", "a c", LINE));
+
+        List<FoundFailureCause> found = scan.getFoundFailureCauses();
+        assertEquals(1, found.size());
+        List<FoundIndication> indications = found.get(0).getIndications();
+        assertEquals(".*a.*", indications.get(0).getPattern());
+        assertEquals(".*c.*", indications.get(1).getPattern());
+        assertEquals(".*b.*", indications.get(2).getPattern());
+    }
+}
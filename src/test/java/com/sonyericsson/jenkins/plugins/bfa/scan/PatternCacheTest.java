@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link PatternCache}.
+ */
+public class PatternCacheTest {
+
+    private static final int MAXIMUM_SIZE = 2;
+
+    /**
+     * Tests that the same expression with the same flags gets the same pattern, and with other flags another one.
+     */
+    @Test
+    public void testCompile() {
+        PatternCache cache = new PatternCache(PatternCache.MAXIMUM_SIZE);
+        Pattern pattern = cache.compile(".*ERROR.*");
+        assertSame(pattern, cache.compile(".*ERROR.*"));
+        Pattern dotAll = cache.compile(".*ERROR.*", Pattern.DOTALL);
+        assertNotSame(pattern, dotAll);
+        assertEquals(Pattern.DOTALL, dotAll.flags());
+        assertSame(dotAll, cache.compile(".*ERROR.*", Pattern.DOTALL));
+        assertEquals(2, cache.getStats().hitCount());
+        assertEquals(2, cache.getStats().missCount());
+    }
+
+    /**
+     * Tests that an expression that does not compile throws like {@link Pattern#compile(String)} and is not cached.
+     */
+    @Test
+    public void testInvalidExpression() {
+        PatternCache cache = new PatternCache(PatternCache.MAXIMUM_SIZE);
+        try {
+            cache.compile("(unclosed");
+            fail("Expected a PatternSyntaxException");
+        } catch (PatternSyntaxException e) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    /**
+     * Tests that the least recently used pattern is evicted when the cache is full.
+     */
+    @Test
+    public void testEviction() {
+        PatternCache cache = new PatternCache(MAXIMUM_SIZE);
+        Pattern first = cache.compile("first");
+        Pattern second = cache.compile("second");
+        assertSame(first, cache.compile("first"));
+        cache.compile("third");
+        assertEquals(MAXIMUM_SIZE, cache.size());
+        assertEquals(1, cache.getStats().evictionCount());
+        assertSame(first, cache.compile("first"));
+        assertNotSame(second, cache.compile("second"));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for {@link RequiredLiteral}.
+ */
+public class RequiredLiteralTest {
+
+    /**
+     * Tests the typical knowledge base patterns.
+     */
+    @Test
+    public void testPlainLiterals() {
+        assertEquals("Could not resolve dependencies", RequiredLiteral.extract(".*Could not resolve dependencies.*"));
+        assertEquals("OutOfMemoryError", RequiredLiteral.extract(".*java.lang.OutOfMemoryError.*"));
+        assertEquals("java.lang.OutOfMemoryError", RequiredLiteral.extract(".*java\\.lang\\.OutOfMemoryError.*"));
+        assertEquals(" failures", RequiredLiteral.extract("^ERROR: \\d+ failures$"));
+        assertEquals("Build step '", RequiredLiteral.extract(".*Build step '[^']+' failed.*"));
+    }
+
+    /**
+     * Tests that optional characters are not part of the literal.
+     */
+    @Test
+    public void testQuantifiers() {
+        assertEquals("Timeout", RequiredLiteral.extract(".*Timeouts? after.*"));
+        assertEquals("connection", RequiredLiteral.extract(".*connection{1,3} lost.*"));
+        assertEquals("failed", RequiredLiteral.extract(".*(error|fatal) x*failed.*"));
+        assertEquals("a.b(c)", RequiredLiteral.extract(".*\\Qa.b(c)\\E+d.*"));
+        assertNull(RequiredLiteral.extract(".*\\Qabc\\E?d.*"));
+    }
+
+    /**
+     * Tests expressions where no literal can be required.
+     */
+    @Test
+    public void testNoLiteral() {
+        assertNull(RequiredLiteral.extract(".*(scan for me please).*"));
+        assertNull(RequiredLiteral.extract(".*first.*|.*second.*"));
+        assertNull(RequiredLiteral.extract("(?i).*case insensitive.*"));
+        assertNull(RequiredLiteral.extract(Pattern.compile(".*case insensitive.*", Pattern.CASE_INSENSITIVE)));
+        assertNull(RequiredLiteral.extract(".*\\x41\\u0042\\d.*"));
+        assertNull(RequiredLiteral.extract(".*ab.*"));
+    }
+
+    /**
+     * Tests that the multi-line wrapping of an indication keeps the user's literal.
+     */
+    @Test
+    public void testMultilineWrapping() {
+        Pattern pattern = Pattern.compile("(?m)(?s)^[^\\r\\n]*?" + ".*Exception in thread.*" + "[^\\r\\n]*?$",
+                Pattern.MULTILINE | Pattern.DOTALL);
+        assertEquals("Exception in thread", RequiredLiteral.extract(pattern));
+    }
+}
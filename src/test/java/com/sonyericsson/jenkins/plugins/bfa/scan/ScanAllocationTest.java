@@ -0,0 +1,202 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import hudson.model.Run;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests that scanning a line that no indication matches allocates nothing, by comparing what the scanning thread
+ * allocates for a log with what it allocates for a log twice as long. The allocation rate of whole scans is measured
+ * by the benchmarks, see {@link com.sonyericsson.jenkins.plugins.bfa.benchmark.BenchmarkRunner}.
+ */
+public class ScanAllocationTest {
+
+    private static final int LINES = 20000;
+    private static final int NOTE_EVERY = 10;
+    /**
+     * What the longer scan may allocate more than the shorter, per extra line, e.g. for buffers that grow.
+     */
+    private static final double MAX_BYTES_PER_LINE = 0.5;
+
+    private com.sun.management.ThreadMXBean threads;
+    private File file;
+
+    /**
+     * Checks that the JVM can tell what a thread has allocated.
+     */
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Removes the log file.
+     */
+    @After
+    public void tearDown() {
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    /**
+     * A log where every line contains the required literal of the indications, without matching them.
+     *
+     * @param lines the number of lines.
+     * @return the log.
+     */
+    private static String log(int lines) {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i % NOTE_EVERY == 0) {
+                log.append("\u001B[1m");
+            }
+            log.append("[INFO] compiling module ").append(i).append(" of the build\n");
+        }
+        return log.toString();
+    }
+
+    /**
+     * The causes to scan for, matched with the linear time engine or not.
+     *
+     * @param linearMatching true to match with the linear time engine when possible.
+     * @return the matcher.
+     */
+    private static MultiPatternMatcher matcher(boolean linearMatching) {
+        FailureCause cause = new FailureCause("module", "description");
+        cause.addIndication(new BuildLogIndication(".*compiling module (\\d+) failed.*"));
+        cause.addIndication(new BuildLogIndication(".*compiling module .* of the (\\w+) \\1.*"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(cause);
+        return MultiPatternMatcher.compile(causes, linearMatching);
+    }
+
+    /**
+     * What the current thread allocates to scan a log with a reader.
+     *
+     * @param matcher the matcher.
+     * @param log the log.
+     * @return the allocated bytes.
+     * @throws IOException if so.
+     */
+    private long allocatedByReaderScan(MultiPatternMatcher matcher, String log) throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(log));
+        Run build = mock(Run.class);
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        FailureReader.scanSingleLinePatterns(matcher, build, new ReaderLineSource(reader, 0), "log");
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+    }
+
+    /**
+     * What the current thread allocates to scan a log file at byte level.
+     *
+     * @param matcher the matcher.
+     * @param log the log.
+     * @return the allocated bytes.
+     * @throws IOException if so.
+     */
+    private long allocatedByByteScan(MultiPatternMatcher matcher, String log) throws IOException {
+        if (file == null) {
+            file = File.createTempFile("bfa-log", ".txt");
+        }
+        Files.write(file.toPath(), log.getBytes(StandardCharsets.UTF_8));
+        Run build = mock(Run.class);
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        ByteLineSource source = ByteLineSource.open(file, StandardCharsets.UTF_8, matcher);
+        try {
+            FailureReader.scanSingleLinePatterns(matcher, build, source, "log");
+        } finally {
+            source.close();
+        }
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+    }
+
+    /**
+     * Checks what the scan of the longer log allocated more than the scan of the shorter.
+     *
+     * @param shorter the bytes allocated for the shorter log.
+     * @param longer the bytes allocated for the log with {@link #LINES} more lines.
+     */
+    private static void assertNoAllocationPerLine(long shorter, long longer) {
+        assertTrue("Allocated " + (longer - shorter) + " bytes for " + LINES + " more lines",
+                longer - shorter < LINES * MAX_BYTES_PER_LINE);
+    }
+
+    /**
+     * Tests that the lines of a reader that match no indication are scanned without allocation.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testReaderScan() throws IOException {
+        String shorter = log(LINES);
+        String longer = log(2 * LINES);
+        for (boolean linearMatching : new boolean[] {true, false}) {
+            MultiPatternMatcher matcher = matcher(linearMatching);
+            // Once to load the classes and warm up.
+            allocatedByReaderScan(matcher, longer);
+            assertNoAllocationPerLine(allocatedByReaderScan(matcher, shorter), allocatedByReaderScan(matcher, longer));
+        }
+    }
+
+    /**
+     * Tests that the lines of a log file that match no indication are scanned at byte level without allocation.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testByteScan() throws IOException {
+        String shorter = log(LINES);
+        String longer = log(2 * LINES);
+        for (boolean linearMatching : new boolean[] {true, false}) {
+            MultiPatternMatcher matcher = matcher(linearMatching);
+            allocatedByByteScan(matcher, longer);
+            assertNoAllocationPerLine(allocatedByByteScan(matcher, shorter), allocatedByByteScan(matcher, longer));
+        }
+    }
+}
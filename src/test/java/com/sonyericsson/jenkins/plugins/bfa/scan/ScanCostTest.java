@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import hudson.model.Run;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for {@link ScanCost}.
+ */
+public class ScanCostTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long NOW = 1000 * HOUR;
+    private static final long CHEAP = 10;
+    private static final long EXPENSIVE = 1000;
+    private static final int EVALUATIONS = 5;
+    private static final double ALL = 100.0;
+    private static final double DELTA = 0.001;
+
+    private ScanCost scanCost;
+    private FailureCause cause;
+    private Indication cheap;
+    private Indication expensive;
+
+    /**
+     * Creates a cause with two indications.
+     */
+    @Before
+    public void setUp() {
+        scanCost = ScanCost.getInstance();
+        scanCost.clear();
+        cause = new FailureCause("cause", "description");
+        cause.setId("id");
+        cheap = new BuildLogIndication("cheap");
+        expensive = new BuildLogIndication(".*(expensive)+.*");
+        cause.addIndication(cheap);
+        cause.addIndication(expensive);
+    }
+
+    /**
+     * Forgets what the tests recorded.
+     */
+    @After
+    public void tearDown() {
+        scanCost.clear();
+    }
+
+    /**
+     * Tests that the indications are ranked by the time spent on them, with their totals and share.
+     */
+    @Test
+    public void testRanking() {
+        scanCost.record(cause, cheap, CHEAP, EVALUATIONS, 1, 0, NOW);
+        scanCost.record(cause, expensive, EXPENSIVE, EVALUATIONS, 0, 1, NOW);
+        scanCost.record(cause, expensive, EXPENSIVE, EVALUATIONS, 0, 0, NOW - HOUR);
+        List<ScanCost.Entry> ranking = scanCost.getRanking(NOW);
+        assertEquals(2, ranking.size());
+        ScanCost.Entry first = ranking.get(0);
+        assertEquals(".*(expensive)+.*", first.getPattern());
+        assertEquals("id", first.getCauseId());
+        assertEquals("cause", first.getCauseName());
+        assertEquals(2 * EXPENSIVE, first.getNanos());
+        assertEquals(2 * EVALUATIONS, first.getEvaluations());
+        assertEquals(EXPENSIVE / EVALUATIONS, first.getNanosPerEvaluation());
+        assertEquals(0, first.getMatches());
+        assertEquals(1, first.getTimeouts());
+        assertEquals("cheap", ranking.get(1).getPattern());
+        assertEquals(1, ranking.get(1).getMatches());
+        assertEquals(ALL, first.getPercentage() + ranking.get(1).getPercentage(), DELTA);
+    }
+
+    /**
+     * Tests that what was spent before the window is left out, and indications without anything in the window are
+     * forgotten.
+     */
+    @Test
+    public void testRollingWindow() {
+        scanCost.record(cause, cheap, CHEAP, EVALUATIONS, 0, 0, NOW - ScanCost.WINDOW_HOURS * HOUR);
+        scanCost.record(cause, expensive, EXPENSIVE, EVALUATIONS, 0, 0, NOW - ScanCost.WINDOW_HOURS * HOUR);
+        scanCost.record(cause, expensive, EXPENSIVE, 1, 0, 0, NOW);
+        List<ScanCost.Entry> ranking = scanCost.getRanking(NOW);
+        assertEquals(1, ranking.size());
+        assertEquals(EXPENSIVE, ranking.get(0).getNanos());
+        assertEquals(1, ranking.get(0).getEvaluations());
+        assertEquals(0, scanCost.getRanking(NOW + ScanCost.WINDOW_HOURS * HOUR).size());
+    }
+
+    /**
+     * Tests that a scan records the evaluations and matches of the causes of the knowledge base, but not of causes
+     * without an id.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testRecordedByScan() throws Exception {
+        FailureCause testCause = new FailureCause("test", "description");
+        testCause.addIndication(new BuildLogIndication("cheap"));
+        List<FailureCause> causes = new ArrayList<FailureCause>();
+        causes.add(cause);
+        causes.add(testCause);
+        FailureReader.scanSingleLinePatterns(MultiPatternMatcher.compile(causes), mock(Run.class),
+                new BufferedReader(new StringReader("first\ncheap\nlast")), "log");
+        List<ScanCost.Entry> ranking = scanCost.getRanking();
+        assertEquals(2, ranking.size());
+        for (ScanCost.Entry entry : ranking) {
+            assertEquals("id", entry.getCauseId());
+            assertTrue(entry.getEvaluations() > 0);
+        }
+        long cheapMatches = 0;
+        for (ScanCost.Entry entry : ranking) {
+            if ("cheap".equals(entry.getPattern())) {
+                cheapMatches = entry.getMatches();
+            }
+        }
+        assertEquals(1, cheapMatches);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ScanMemoryBudget}.
+ */
+public class ScanMemoryBudgetTest {
+
+    private static final long BUDGET = 1000;
+    private static final long SCAN = 600;
+    private static final long SHORT_TIMEOUT = 50;
+    private static final long LONG_TIMEOUT = 10000;
+
+    /**
+     * Tests that a reservation that does not fit is refused, unless no other scan holds a reservation.
+     */
+    @Test
+    public void testTryReserve() {
+        ScanMemoryBudget budget = new ScanMemoryBudget(BUDGET);
+        ScanMemoryBudget.Reservation first = budget.tryReserve(BUDGET + SCAN);
+        assertNotNull(first);
+        assertNull(budget.tryReserve(SCAN));
+        first.close();
+        assertEquals(0, budget.getUsed());
+
+        first = budget.tryReserve(SCAN);
+        assertNotNull(first);
+        assertNull(budget.tryReserve(SCAN));
+        ScanMemoryBudget.Reservation second = budget.tryReserve(BUDGET - SCAN);
+        assertNotNull(second);
+        assertEquals(BUDGET, budget.getUsed());
+        first.close();
+        second.close();
+        assertEquals(0, budget.getUsed());
+    }
+
+    /**
+     * Tests that a budget of 0 refuses nothing.
+     */
+    @Test
+    public void testNoBudget() {
+        ScanMemoryBudget budget = new ScanMemoryBudget(0);
+        assertNotNull(budget.tryReserve(BUDGET));
+        assertNotNull(budget.tryReserve(BUDGET));
+        assertEquals(2 * BUDGET, budget.getUsed());
+    }
+
+    /**
+     * Tests that what is added to a reservation is given back when it is closed, once.
+     */
+    @Test
+    public void testAddAndClose() {
+        ScanMemoryBudget budget = new ScanMemoryBudget(BUDGET);
+        ScanMemoryBudget.Reservation reservation = budget.tryReserve(SCAN);
+        reservation.add(SCAN);
+        assertEquals(2 * SCAN, reservation.getBytes());
+        assertEquals(2 * SCAN, budget.getUsed());
+        reservation.close();
+        reservation.close();
+        reservation.add(SCAN);
+        assertEquals(0, budget.getUsed());
+        assertNotNull(budget.tryReserve(BUDGET));
+    }
+
+    /**
+     * Tests that a reservation that does not fit is made anyway after the timeout.
+     *
+     * @throws InterruptedException if so.
+     */
+    @Test
+    public void testReserveAfterTimeout() throws InterruptedException {
+        ScanMemoryBudget budget = new ScanMemoryBudget(BUDGET);
+        budget.tryReserve(SCAN);
+        ScanMemoryBudget.Reservation reservation = budget.reserve(SCAN, SHORT_TIMEOUT);
+        assertNotNull(reservation);
+        assertEquals(2 * SCAN, budget.getUsed());
+    }
+
+    /**
+     * Tests that a waiting reservation is made once another scan gives back its memory.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testReserveWaitsForClose() throws Exception {
+        final ScanMemoryBudget budget = new ScanMemoryBudget(BUDGET);
+        ScanMemoryBudget.Reservation first = budget.tryReserve(SCAN);
+        final CountDownLatch reserved = new CountDownLatch(1);
+        final AtomicReference<ScanMemoryBudget.Reservation> second =
+                new AtomicReference<ScanMemoryBudget.Reservation>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    second.set(budget.reserve(SCAN, LONG_TIMEOUT));
+                    reserved.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        thread.start();
+        try {
+            assertFalse(reserved.await(SHORT_TIMEOUT, TimeUnit.MILLISECONDS));
+            first.close();
+            assertTrue(reserved.await(LONG_TIMEOUT, TimeUnit.MILLISECONDS));
+            assertEquals(SCAN, budget.getUsed());
+        } finally {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    /**
+     * Tests the estimate of found causes.
+     */
+    @Test
+    public void testEstimateFound() {
+        FailureCause cause = new FailureCause("cause", "description");
+        FoundFailureCause found = new FoundFailureCause(cause, Collections.singletonList(
+                new FoundIndication(null, ".*error.*", "log", "an error")));
+        assertEquals(2 * ScanMemoryBudget.FOUND_OVERHEAD_BYTES + ScanMemoryBudget.CHAR_BYTES * "an error".length(),
+                ScanMemoryBudget.estimateFound(Collections.singletonList(found)));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.FailureReader;
+import com.sonyericsson.jenkins.plugins.bfa.model.FoundFailureCause;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.BuildLogIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.FoundIndication;
+import com.sonyericsson.jenkins.plugins.bfa.model.indication.Indication;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ScanPlan}.
+ */
+public class ScanPlanTest {
+
+    private static final List<String> FALLBACK = Collections.singletonList("generic");
+
+    /**
+     * Creates a cause.
+     *
+     * @param id the id of the cause.
+     * @param categories the categories of the cause.
+     * @param patterns the patterns of its indications.
+     * @return the cause.
+     */
+    private static FailureCause cause(String id, String categories, String... patterns) {
+        FailureCause cause = new FailureCause(id, id, "description", "", null, categories, null, null);
+        for (String pattern : patterns) {
+            cause.addIndication(new BuildLogIndication(pattern));
+        }
+        return cause;
+    }
+
+    /**
+     * Tests that the plan is done when every indication has been found, once each.
+     */
+    @Test
+    public void testDoneWhenAllIndicationsFound() {
+        FailureCause cause = cause("a", "", ".*one.*", ".*two.*");
+        ScanPlan plan = new ScanPlan(Collections.singletonList(cause), FALLBACK, 0);
+        Indication first = cause.getIndications().get(0);
+        plan.found(first);
+        plan.found(first);
+        assertFalse(plan.isDone());
+        plan.found(cause.getIndications().get(1));
+        assertTrue(plan.isDone());
+    }
+
+    /**
+     * Tests that the fallback causes do not keep the plan going once another cause has been found.
+     */
+    @Test
+    public void testOnlyFallbackCausesLeft() {
+        FailureCause cause = cause("a", "", ".*one.*");
+        FailureCause fallback = cause("b", "generic", ".*two.*");
+        ScanPlan plan = new ScanPlan(Arrays.asList(cause, fallback), FALLBACK, 0);
+        plan.found(fallback.getIndications().get(0));
+        assertFalse(plan.isDone());
+
+        plan = new ScanPlan(Arrays.asList(cause, fallback), FALLBACK, 0);
+        plan.found(cause.getIndications().get(0));
+        assertTrue(plan.isDone());
+    }
+
+    /**
+     * Tests that the plan is done when the given number of causes has been found.
+     */
+    @Test
+    public void testMaxFoundCauses() {
+        FailureCause first = cause("a", "", ".*one.*", ".*other.*");
+        FailureCause second = cause("b", "", ".*two.*");
+        FailureCause third = cause("c", "", ".*three.*");
+        ScanPlan plan = new ScanPlan(Arrays.asList(first, second, third), FALLBACK, 2);
+        plan.found(first.getIndications().get(0));
+        plan.found(first.getIndications().get(1));
+        assertFalse(plan.isDone());
+        plan.found(third.getIndications().get(0));
+        assertTrue(plan.isDone());
+    }
+
+    /**
+     * Tests that the indications of a found cause are matched to the indications of the plan.
+     */
+    @Test
+    public void testFoundCause() {
+        FailureCause cause = cause("a", "", ".*one.*", ".*two.*");
+        ScanPlan plan = new ScanPlan(Collections.singletonList(cause), FALLBACK, 0);
+        plan.found(new FoundFailureCause(cause, Arrays.asList(
+                new FoundIndication(null, ".*one.*", "log", "one"),
+                new FoundIndication(null, ".*two.*", "log", "two"))));
+        assertTrue(plan.isDone());
+    }
+
+    /**
+     * Tests that the single-line scan stops reading when the plan is done.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testSingleLineScanStops() throws Exception {
+        FailureCause cause = cause("a", "", ".*one.*");
+        List<FailureCause> causes = Collections.singletonList(cause);
+        ScanPlan plan = new ScanPlan(causes, FALLBACK, 0);
+        BufferedReader reader = new BufferedReader(new StringReader("one\ntwo\nthree\n"));
+        List<FoundFailureCause> found = FailureReader.scanSingleLinePatterns(MultiPatternMatcher.compile(causes),
+                null, new ReaderLineSource(reader), "log", plan);
+        assertEquals(1, found.size());
+        assertTrue(plan.isDone());
+        assertEquals("two", reader.readLine());
+    }
+}
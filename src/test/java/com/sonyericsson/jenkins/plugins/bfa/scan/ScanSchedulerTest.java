@@ -0,0 +1,262 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link ScanScheduler}.
+ */
+public class ScanSchedulerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final long SMALL = 1000;
+    private static final long LARGE = 1000000000;
+    private static final long HELD_BACK_MILLIS = 500;
+    private static final int INDICATIONS = 3;
+
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ScanScheduler scheduler;
+
+    /**
+     * Stops the workers and lifts the limit of the matching threads.
+     */
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        MatchingPermits.setLimit(0);
+    }
+
+    /**
+     * A task that records that it ran.
+     *
+     * @param name the name to record.
+     * @return the task.
+     */
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                ran.add(name);
+            }
+        };
+    }
+
+    /**
+     * Occupies the only worker until {@link #release} is counted down.
+     *
+     * @param started counted down when the worker is occupied.
+     * @throws InterruptedException if so.
+     */
+    private void occupyWorker(final CountDownLatch started) throws InterruptedException {
+        scheduler.submit(ScanScheduler.Priority.COMPLETED, 0, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that waiting scans are run by priority, then small before large.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testOrder() throws Exception {
+        scheduler = new ScanScheduler(1);
+        occupyWorker(new CountDownLatch(1));
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        futures.add(scheduler.submit(ScanScheduler.Priority.ON_DEMAND, SMALL, record("on demand")));
+        futures.add(scheduler.submit(ScanScheduler.Priority.REQUESTED, SMALL, record("requested")));
+        futures.add(scheduler.submit(ScanScheduler.Priority.COMPLETED, LARGE, record("completed large")));
+        futures.add(scheduler.submit(ScanScheduler.Priority.COMPLETED, SMALL, record("completed small")));
+        assertEquals(2, scheduler.getQueued(ScanScheduler.Priority.COMPLETED));
+        assertEquals(1, scheduler.getQueued(ScanScheduler.Priority.ON_DEMAND));
+
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        assertEquals(Arrays.asList("completed small", "completed large", "requested", "on demand"), ran);
+        assertEquals(0, scheduler.getQueued(ScanScheduler.Priority.COMPLETED));
+        assertEquals(1, scheduler.getWorkers());
+    }
+
+    /**
+     * Tests that a full queue rejects helpers and holds back submitters of its priority, but not of others.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testBackpressure() throws Exception {
+        scheduler = new ScanScheduler(1, 1);
+        occupyWorker(new CountDownLatch(1));
+        scheduler.submit(ScanScheduler.Priority.ON_DEMAND, SMALL, record("queued"));
+        Executor helpers = scheduler.getHelperExecutor(ScanScheduler.Priority.ON_DEMAND);
+        try {
+            helpers.execute(record("helper"));
+            fail("Expected the helper to be rejected");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, scheduler.getQueued(ScanScheduler.Priority.ON_DEMAND));
+        }
+        final AtomicBoolean submitted = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    scheduler.submit(ScanScheduler.Priority.ON_DEMAND, SMALL, record("held back"));
+                    submitted.set(true);
+                    done.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        producer.start();
+        Future<?> completed = scheduler.submit(ScanScheduler.Priority.COMPLETED, SMALL, record("completed"));
+        assertFalse(done.await(HELD_BACK_MILLIS, TimeUnit.MILLISECONDS));
+        assertFalse(submitted.get());
+
+        release.countDown();
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        completed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        producer.join();
+        assertEquals("completed", ran.get(0));
+    }
+
+    /**
+     * Tests that the workers are created by the given thread factory, e.g. of virtual threads.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testThreadFactory() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        scheduler = new ScanScheduler(1, 1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "test-" + created.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final List<String> names = Collections.synchronizedList(new ArrayList<String>());
+        scheduler.submit(ScanScheduler.Priority.COMPLETED, SMALL, new Runnable() {
+            @Override
+            public void run() {
+                names.add(Thread.currentThread().getName());
+            }
+        }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList("test-1"), names);
+        assertEquals(1, created.get());
+    }
+
+    /**
+     * Tests that with a thread per scan, a waiting scan does not hold back the others, and the maximum number of
+     * workers limits the threads matching at the same time instead.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testThreadPerScan() throws Exception {
+        scheduler = new ScanScheduler(1, 1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        occupyWorker(new CountDownLatch(1));
+        scheduler.submit(ScanScheduler.Priority.COMPLETED, SMALL, record("not held back"))
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList("not held back"), ran);
+
+        Semaphore permit = MatchingPermits.acquire();
+        final CountDownLatch matched = new CountDownLatch(1);
+        Future<?> matching = scheduler.submit(ScanScheduler.Priority.COMPLETED, SMALL, new Runnable() {
+            @Override
+            public void run() {
+                MatchingPermits.release(MatchingPermits.acquire());
+                matched.countDown();
+            }
+        });
+        assertFalse(matched.await(HELD_BACK_MILLIS, TimeUnit.MILLISECONDS));
+        MatchingPermits.release(permit);
+        matching.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        scheduler.setMaximumWorkers(2);
+        permit = MatchingPermits.acquire();
+        Semaphore other = MatchingPermits.acquire();
+        MatchingPermits.release(other);
+        MatchingPermits.release(permit);
+        MatchingPermits.setLimit(0);
+        assertNull(MatchingPermits.acquire());
+    }
+
+    /**
+     * Tests the estimated duration of a scan, which must not overflow.
+     */
+    @Test
+    public void testEstimateNanos() {
+        assertEquals(SMALL * 2 * ScanScheduler.ESTIMATED_NANOS_PER_BYTE_AND_INDICATION,
+                ScanScheduler.estimateNanos(SMALL, 2));
+        assertEquals(0, ScanScheduler.estimateNanos(SMALL, 0));
+        assertEquals(Long.MAX_VALUE, ScanScheduler.estimateNanos(Long.MAX_VALUE / 2, INDICATIONS));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ScanWatchdog}.
+ */
+public class ScanWatchdogTest {
+
+    private static final long TIMEOUT = 300;
+
+    /**
+     * Clears any interrupt left for the test thread.
+     */
+    @After
+    public void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    /**
+     * Tests that a thread that does not touch its watch is interrupted.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testTimeoutInterrupts() throws Exception {
+        ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), TIMEOUT);
+        long startTime = System.currentTimeMillis();
+        try {
+            boolean interrupted = false;
+            while (!interrupted && System.currentTimeMillis() - startTime < TIMEOUT * 2 * 2) {
+                interrupted = Thread.interrupted();
+            }
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            assertTrue("Expected an interrupt", interrupted);
+            assertTrue("Interrupted too early: " + elapsedTime, elapsedTime >= TIMEOUT);
+        } finally {
+            watch.close();
+        }
+    }
+
+    /**
+     * Tests that touching the watch keeps the thread from being interrupted, and that a closed watch is no longer
+     * tracked.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testTouchAndClose() throws Exception {
+        int trackedBefore = ScanWatchdog.getInstance().getTrackedScanCount();
+        ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), TIMEOUT);
+        try {
+            assertEquals(trackedBefore + 1, ScanWatchdog.getInstance().getTrackedScanCount());
+            long startTime = System.currentTimeMillis();
+            while (System.currentTimeMillis() - startTime < TIMEOUT * 2 * 2) {
+                watch.touch();
+                assertFalse("Unexpected interrupt", Thread.interrupted());
+            }
+        } finally {
+            watch.close();
+            watch.close();
+        }
+        assertEquals(trackedBefore, ScanWatchdog.getInstance().getTrackedScanCount());
+        Thread.sleep(TIMEOUT * 2);
+        assertFalse("Interrupted after close", Thread.interrupted());
+    }
+
+    /**
+     * Tests that suspending the watch after the thread has taken the interrupt of the watchdog and touched the watch
+     * keeps a later interrupt from someone else, e.g. a cancelled scan.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testSuspendKeepsLaterInterrupt() throws Exception {
+        ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), TIMEOUT);
+        try {
+            long startTime = System.currentTimeMillis();
+            boolean interrupted = false;
+            while (!interrupted && System.currentTimeMillis() - startTime < TIMEOUT * 2 * 2) {
+                interrupted = Thread.interrupted();
+            }
+            assertTrue("Expected an interrupt", interrupted);
+            watch.touch();
+            Thread.currentThread().interrupt();
+            ScanWatchdog.Watch suspended = ScanWatchdog.suspendCurrent();
+            try {
+                assertTrue("Cancelling interrupt cleared", Thread.currentThread().isInterrupted());
+            } finally {
+                suspended.resume();
+            }
+        } finally {
+            watch.close();
+        }
+    }
+}
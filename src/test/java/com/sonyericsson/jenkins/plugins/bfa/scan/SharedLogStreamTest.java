@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link SharedLogStream}.
+ */
+public class SharedLogStreamTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int CHUNK_SIZE = 16;
+    private static final int RING_CHUNKS = 4;
+    private static final int LOG_SIZE = 1000;
+    private static final long WATCH_TIMEOUT = 100;
+    private static final long SLOW_READER_DELAY = 1000;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Stops the threads.
+     */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A log larger than the ring.
+     *
+     * @return the bytes of the log.
+     */
+    private static byte[] log() {
+        byte[] log = new byte[LOG_SIZE];
+        for (int i = 0; i < log.length; i++) {
+            log[i] = (byte)('a' + i % ('z' - 'a'));
+        }
+        return log;
+    }
+
+    /**
+     * Reads a stream to its end in small steps.
+     *
+     * @param stream the stream.
+     * @return the bytes read.
+     * @throws IOException if so.
+     */
+    private static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[CHUNK_SIZE / 2 + 1];
+        int read = stream.read(buffer);
+        while (read >= 0) {
+            out.write(buffer, 0, read);
+            read = stream.read(buffer);
+        }
+        stream.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a stream to its end on a thread of its own.
+     *
+     * @param stream the stream.
+     * @return the future bytes.
+     */
+    private Future<byte[]> readAllLater(final InputStream stream) {
+        return executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                return readAll(stream);
+            }
+        });
+    }
+
+    /**
+     * Tests that all readers get the whole log while it is read from the source once.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testReadOnce() throws Exception {
+        byte[] log = log();
+        final AtomicInteger sourceReads = new AtomicInteger();
+        InputStream source = new ByteArrayInputStream(log) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    sourceReads.addAndGet(read);
+                }
+                return read;
+            }
+        };
+        SharedLogStream shared = new SharedLogStream(source, 2, CHUNK_SIZE, RING_CHUNKS);
+        shared.start(executor);
+        List<Future<byte[]>> readers = new ArrayList<Future<byte[]>>();
+        readers.add(readAllLater(shared.openStream()));
+        readers.add(readAllLater(shared.openStream()));
+        assertNull(shared.openStream());
+        for (Future<byte[]> reader : readers) {
+            assertArrayEquals(log, reader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(log.length, sourceReads.get());
+    }
+
+    /**
+     * Tests that a reader that has not started when the ring is full is left behind instead of holding up the
+     * started reader.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testLeftBehind() throws Exception {
+        byte[] log = log();
+        SharedLogStream shared = new SharedLogStream(new ByteArrayInputStream(log), 2, CHUNK_SIZE, RING_CHUNKS);
+        shared.start(executor);
+        assertArrayEquals(log, readAllLater(shared.openStream()).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertNull(shared.openStream());
+    }
+
+    /**
+     * Tests that a watched reader waiting for a slower reader to free the ring is not timed out by the watchdog.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testWatchedReaderWaitsForSlowReader() throws Exception {
+        byte[] log = log();
+        SharedLogStream shared = new SharedLogStream(new ByteArrayInputStream(log), 2, CHUNK_SIZE, RING_CHUNKS);
+        final InputStream fast = shared.openStream();
+        final InputStream slow = shared.openStream();
+        shared.start(executor);
+        Future<byte[]> fastReader = executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                ScanWatchdog.Watch watch = ScanWatchdog.getInstance().watch(Thread.currentThread(), WATCH_TIMEOUT);
+                try {
+                    return readAll(fast);
+                } finally {
+                    watch.close();
+                    Thread.interrupted();
+                }
+            }
+        });
+        Future<byte[]> slowReader = executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException, InterruptedException {
+                byte[] first = new byte[1];
+                assertEquals(1, slow.read(first));
+                Thread.sleep(SLOW_READER_DELAY);
+                byte[] rest = readAll(slow);
+                byte[] all = new byte[rest.length + 1];
+                all[0] = first[0];
+                System.arraycopy(rest, 0, all, 1, rest.length);
+                return all;
+            }
+        });
+        assertArrayEquals(log, fastReader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertArrayEquals(log, slowReader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a reader that stops early does not hold up the others.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testReaderClosedEarly() throws Exception {
+        byte[] log = log();
+        SharedLogStream shared = new SharedLogStream(new ByteArrayInputStream(log), 2, CHUNK_SIZE, RING_CHUNKS);
+        InputStream early = shared.openStream();
+        InputStream late = shared.openStream();
+        shared.start(executor);
+        byte[] first = new byte[1];
+        assertEquals(1, early.read(first));
+        early.close();
+        assertArrayEquals(log, readAllLater(late).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that a failure to read the source is thrown to the readers.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testSourceFailure() throws Exception {
+        final byte[] log = log();
+        InputStream source = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == CHUNK_SIZE) {
+                    throw new IOException("Corrupt");
+                }
+                return log[position++];
+            }
+        };
+        SharedLogStream shared = new SharedLogStream(source, 1, CHUNK_SIZE, RING_CHUNKS);
+        InputStream stream = shared.openStream();
+        assertNotNull(stream);
+        shared.start(executor);
+        byte[] buffer = new byte[CHUNK_SIZE];
+        assertEquals(CHUNK_SIZE, stream.read(buffer));
+        assertArrayEquals(Arrays.copyOf(log, CHUNK_SIZE), buffer);
+        try {
+            stream.read(buffer);
+            fail("Expected the failure to be thrown");
+        } catch (IOException e) {
+            assertEquals("Corrupt", e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link SlidingWindow}.
+ */
+public class SlidingWindowTest {
+
+    private static final String LOG = "one\r\ntwo\rthree\n\nfive";
+    private static final int MAX_MATCH_SPAN = 3;
+
+    /**
+     * Tests that line numbers are counted like {@link java.io.LineNumberReader} does, also when a "\r\n" is split
+     * between rounds.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testLineNumbers() throws IOException {
+        for (int windowSize = 1; windowSize <= LOG.length(); windowSize++) {
+            SlidingWindow window = new SlidingWindow(new StringReader(LOG), windowSize, MAX_MATCH_SPAN);
+            while (window.next()) {
+                for (int i = 0; i < window.length(); i++) {
+                    int position = (int)window.getOffset() + i;
+                    assertEquals("Window size " + windowSize + " at " + position,
+                            expectedLineNumber(position), window.getLineNumber(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * The line number of a position in {@link #LOG}.
+     *
+     * @param position the position.
+     * @return the line number.
+     */
+    private static int expectedLineNumber(int position) {
+        String before = LOG.substring(0, position).replace("\r\n", "\n").replace('\r', '\n');
+        return before.length() - before.replace("\n", "").length() + 1;
+    }
+
+    /**
+     * Tests that only retained chars are kept, never more than the maximum match span plus the char before.
+     *
+     * @throws IOException if so.
+     */
+    @Test
+    public void testRetain() throws IOException {
+        SlidingWindow window = new SlidingWindow(new StringReader("abcdefghijklmn"), 2, 1);
+        assertTrue(window.next());
+        assertEquals("ab", window.toString());
+        assertTrue(window.next());
+        assertEquals("cd", window.toString());
+        window.retain(window.getOffset() + 1);
+        assertTrue(window.next());
+        assertEquals("cdef", window.toString());
+        window.retain(0);
+        assertTrue(window.next());
+        assertEquals("efgh", window.toString());
+        assertEquals(1, window.getMaxMatchSpan());
+        assertTrue(window.next());
+        assertEquals("ij", window.toString());
+        assertEquals("abcdefgh".length(), window.getOffset());
+        window.retain(window.getOffset() + 1);
+        assertTrue(window.next());
+        assertEquals("ijkl", window.toString());
+        assertTrue(window.next());
+        assertEquals("mn", window.toString());
+        assertFalse(window.isEndOfInput());
+        assertFalse(window.next());
+        assertTrue(window.isEndOfInput());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.scan;
+
+import hudson.console.ConsoleNote;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link VisibleText}.
+ */
+public class VisibleTextTest {
+
+    private static final String NOTE = ConsoleNote.PREAMBLE_STR + "H4sIAAAAAAAA/5VSz2vUQBT+NrstdRHRFgRvXrxIdrqWH"
+            + "==" + ConsoleNote.POSTAMBLE_STR;
+    private static final String RED = "\u001B[31m";
+    private static final String RESET = "\u001B[0m";
+    private static final String TITLE = "\u001B]0;build #1\u0007";
+
+    /**
+     * Tests that a line without escape characters is used as it is.
+     */
+    @Test
+    public void testPlainLine() {
+        String line = "ERROR: build failed";
+        VisibleText text = new VisibleText();
+        assertSame(line, text.reset(line));
+        assertEquals(line.length(), text.length());
+        assertEquals(2, text.getRawIndex(2));
+    }
+
+    /**
+     * Tests that console notes and ANSI escape sequences are not part of the visible text, and that positions are
+     * mapped back to the line.
+     */
+    @Test
+    public void testNotesAndEscapeSequences() {
+        String line = NOTE + "[Pipeline] " + RED + "ERR" + RESET + RED + "OR" + RESET + ": " + TITLE + "build failed";
+        VisibleText text = new VisibleText();
+        CharSequence visible = text.reset(line);
+        assertSame(text, visible);
+        String expected = "[Pipeline] ERROR: build failed";
+        assertEquals(expected, visible.toString());
+        assertEquals(expected.length(), visible.length());
+        assertEquals("ERROR", visible.subSequence(expected.indexOf('E'), expected.indexOf(':')).toString());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals("Position " + i, expected.charAt(i), line.charAt(text.getRawIndex(i)));
+        }
+        assertEquals(line.length(), text.getRawIndex(expected.length()));
+        assertEquals(line.indexOf("OR" + RESET), text.getRawIndex(expected.indexOf("OR:")));
+    }
+
+    /**
+     * Tests that escape sequences that are not complete are left in the visible text, like
+     * {@link ConsoleNote#removeNotes(String)} leaves a note without an end.
+     */
+    @Test
+    public void testIncompleteSequences() {
+        VisibleText text = new VisibleText();
+        assertEquals("ha:abc", text.reset(ConsoleNote.PREAMBLE_STR + "abc").toString());
+        assertEquals("text\u001B[31", text.reset("text\u001B[31").toString());
+        assertEquals("text\u001B", text.reset("text\u001B").toString());
+        assertEquals("\u001B]0;title", text.reset("\u001B]0;title").toString());
+    }
+
+    /**
+     * Tests that the buffer is reused for a longer line and that a plain line after a line with escape sequences
+     * is not mixed up with it.
+     */
+    @Test
+    public void testReset() {
+        VisibleText text = new VisibleText();
+        assertEquals("short", text.reset(RED + "short" + RESET).toString());
+        assertEquals("a longer line", text.reset(NOTE + "a longer " + RED + "line").toString());
+        assertEquals("plain", text.reset("plain").toString());
+        assertEquals("", text.reset(NOTE).toString());
+        assertEquals(NOTE.length(), text.getRawIndex(0));
+    }
+}
@@ -54,6 +54,7 @@ import org.junit.Test;
 import org.mockito.MockedStatic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.when;
@@ -273,6 +274,89 @@ public class ScanOnDemandTaskTest {
         assertEquals("Nonscanned buils", 0, Lists.newArrayList(action.getRuns(mockproject)).size());
     }
 
+    /**
+     * Tests that only the scanned builds that have not been scanned for all causes as they are now are found for
+     * a delta scan.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testChangedCausesSODbuildfound() throws Exception {
+        mockproject = mock(AbstractProject.class);
+        FailureCause error = createCause("1", "Error", ".*ERROR.*");
+        FailureCause warning = createCause("2", "Warning", ".*WARNING.*");
+        FailureCauseBuildAction scannedForError = new FailureCauseBuildAction(new ArrayList<FoundFailureCause>());
+        scannedForError.setScannedCauses(Collections.singletonList(error));
+        FailureCauseBuildAction scannedForBoth = new FailureCauseBuildAction(new ArrayList<FoundFailureCause>());
+        scannedForBoth.setScannedCauses(Arrays.asList(error, warning));
+        AbstractBuild mockbuild1 = mock(AbstractBuild.class);
+        AbstractBuild mockbuild2 = mock(AbstractBuild.class);
+        AbstractBuild mockbuild3 = mock(AbstractBuild.class);
+        when(mockbuild1.getResult()).thenReturn(Result.FAILURE);
+        when(mockbuild2.getResult()).thenReturn(Result.FAILURE);
+        when(mockbuild3.getResult()).thenReturn(Result.FAILURE);
+        when(mockbuild1.getAction(FailureCauseBuildAction.class)).thenReturn(scannedForError);
+        when(mockbuild2.getAction(FailureCauseBuildAction.class)).thenReturn(scannedForBoth);
+        RunList<AbstractBuild> builds = new RunList<AbstractBuild>(Collections.<Job>emptyList());
+        Whitebox.setInternalState(builds, "base", Arrays.asList(mockbuild1, mockbuild2, mockbuild3));
+        when(mockproject.getBuilds()).thenReturn(builds);
+        when(pluginMock.getKnowledgeBase()).thenReturn(new LocalFileKnowledgeBase(Arrays.asList(error, warning)));
+
+        ScanOnDemandBaseAction.ChangedCauses action = new ScanOnDemandBaseAction.ChangedCauses();
+        assertEquals("Changed causes builds", Collections.singletonList(mockbuild1),
+                Lists.newArrayList(action.getRuns(mockproject)));
+
+        warning.getIndications().add(new BuildLogIndication(".*DEPRECATED.*"));
+        assertEquals("Changed causes builds", Arrays.asList(mockbuild1, mockbuild2),
+                Lists.newArrayList(action.getRuns(mockproject)));
+    }
+
+    /**
+     * Tests that what is found in a delta scan replaces what was found for the rescanned causes only, and is kept in
+     * knowledge base order.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testDeltaScanMerge() throws Exception {
+        FailureCause error = createCause("1", "Error", ".*ERROR.*");
+        FailureCause warning = createCause("2", "Warning", ".*WARNING.*");
+        FoundFailureCause foundError = new FoundFailureCause(error);
+        FoundFailureCause foundWarning = new FoundFailureCause(warning);
+        FailureCauseBuildAction buildAction = new FailureCauseBuildAction(
+                new ArrayList<FoundFailureCause>(Collections.singletonList(foundWarning)));
+        buildAction.setScannedCauses(Collections.singletonList(warning));
+        String version = buildAction.getKnowledgeBaseVersion();
+        List<FailureCause> causes = Arrays.asList(error, warning);
+        assertEquals(Collections.singletonList(error), buildAction.getChangedCauses(causes));
+
+        List<FoundFailureCause> merged = buildAction.mergeFoundFailureCauses(causes,
+                Collections.singletonList(error), Collections.singletonList(foundError));
+        assertEquals(Arrays.asList(foundError, foundWarning), merged);
+        buildAction.setFoundFailureCauses(merged, Collections.singletonList(error));
+        assertEquals(merged, buildAction.getFoundFailureCauses());
+        assertEquals(0, buildAction.getChangedCauses(causes).size());
+        assertNotEquals(version, buildAction.getKnowledgeBaseVersion());
+
+        merged = buildAction.mergeFoundFailureCauses(causes, Collections.singletonList(warning),
+                Collections.<FoundFailureCause>emptyList());
+        assertEquals(Collections.singletonList(foundError), merged);
+    }
+
+    /**
+     * Creates a cause with an id and one indication, without adding it to the global config.
+     *
+     * @param id the id of the cause.
+     * @param name the name of the cause.
+     * @param pattern the pattern of the indication.
+     * @return the cause.
+     */
+    private FailureCause createCause(String id, String name, String pattern) {
+        List<Indication> indicationList = new LinkedList<Indication>();
+        indicationList.add(new BuildLogIndication(pattern));
+        return new FailureCause(id, name, "description", "comment", null, "category", indicationList, null);
+    }
+
     /**
      * Convenience method for a standard cause that finds ERROR in the build log.
      *
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.sonyericsson.jenkins.plugins.bfa.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for {@link VirtualThreads}.
+ */
+public class VirtualThreadsTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Tests that the factory creates virtual threads named by the prefix.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testNewThreadFactory() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ThreadFactory factory = VirtualThreads.newThreadFactory("test-");
+        Thread thread = factory.newThread(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertEquals("test-1", thread.getName());
+        assertTrue((Boolean)Thread.class.getMethod("isVirtual").invoke(thread));
+        assertTrue(thread.isDaemon());
+    }
+
+    /**
+     * Tests that the executor runs each task on a new virtual thread.
+     *
+     * @throws Exception if so.
+     */
+    @Test
+    public void testNewThreadPerTaskExecutor() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        Callable<String> name = new Callable<String>() {
+            @Override
+            public String call() {
+                return Thread.currentThread().getName();
+            }
+        };
+        Future<String> first = executor.submit(name);
+        Future<String> second = executor.submit(name);
+        assertFalse(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).equals(second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS)));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that no virtual threads are created when the JVM does not support them.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testUnsupported() {
+        assumeFalse(VirtualThreads.isSupported());
+        VirtualThreads.newThreadFactory("test-");
+    }
+}